@@ -0,0 +1,670 @@
+package com.thechain.chain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ChainIndex - resident, array-backed view of the chain topology
+ *
+ * Keeps position -> user, parent/active-child links, status, strike count and the
+ * active-ticket expiry in primitive arrays indexed by position, so tip lookups and
+ * ±1 neighbour queries never touch Postgres.
+ * User ids are resolved to positions through an open-addressing table that stores
+ * only positions (the id itself lives in the position-indexed arrays).
+ *
+ * The index is built once at startup by {@link ChainIndexLoader} (from a
+ * {@link ChainSnapshotFile} when one is available) and is then kept current by the
+ * register/remove paths via {@link #afterCommit(Runnable)}, so a rolled-back
+ * transaction never leaks into the index, and by {@link ChainIndexProjection},
+ * which applies the event journal and advances {@link #watermark()}.
+ *
+ * Bulk loads build a private instance and {@link #install} it with one short
+ * write-locked swap, so requests never wait for a load. Until {@link #isReady()}
+ * returns true the queries return empty without locking, and callers must fall
+ * back to the database.
+ */
+@Component
+@Slf4j
+public class ChainIndex {
+
+    public static final byte STATUS_UNKNOWN = 0;
+    public static final byte STATUS_ACTIVE = 1;
+    public static final byte STATUS_SEED = 2;
+    public static final byte STATUS_REMOVED = 3;
+
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Position-indexed node data
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private int[] parent = filled(INITIAL_CAPACITY);
+    private int[] activeChild = filled(INITIAL_CAPACITY);
+    private byte[] status = new byte[INITIAL_CAPACITY];
+    // Only carried into snapshot files, no query reads them
+    private int[] strikes = new int[INITIAL_CAPACITY];
+    private long[] ticketExpiry = new long[INITIAL_CAPACITY]; // epoch millis, 0 = no active ticket
+
+    // id -> position (open addressing, linear probing, NONE = empty slot)
+    private int[] slots = filled(INITIAL_CAPACITY * 2);
+
+    private int size;
+    private int maxPosition = NONE;
+
+    private volatile int tipPosition = NONE;
+    private volatile boolean ready;
+
+    // Last chain event seq reflected in the index
+    private volatile long watermark;
+
+    // Database build: the events after the watermark up to loadedThrough, except the
+    // loadGaps (not visible to the build), are already reflected as well
+    private volatile long loadedThrough;
+    private volatile List<SeqRange> loadGaps = List.of();
+
+    // ========== Lifecycle ==========
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Drop all state and take the write lock for a bulk load into this instance.
+     * Must be paired with {@link #finishLoad()}; loads of the live index go through
+     * a private instance and {@link #install}.
+     */
+    void beginLoad(int expectedSize) {
+        lock.writeLock().lock();
+        ready = false;
+        int capacity = Math.max(INITIAL_CAPACITY, expectedSize + 1);
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        parent = filled(capacity);
+        activeChild = filled(capacity);
+        status = new byte[capacity];
+        strikes = new int[capacity];
+        ticketExpiry = new long[capacity];
+        slots = filled(slotCapacity(capacity));
+        size = 0;
+        maxPosition = NONE;
+        tipPosition = NONE;
+        watermark = 0L;
+        loadedThrough = 0L;
+        loadGaps = List.of();
+    }
+
+    void finishLoad() {
+        try {
+            recomputeTip();
+            ready = true;
+            log.info("Chain index ready: {} positions, tip at position {}", size, tipPosition);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Abort a bulk load, leaving the index unusable until the next successful load.
+     */
+    void abortLoad() {
+        ready = false;
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * Make a fully loaded index live: the arrays are swapped in by reference
+     * under the write lock, so readers wait for a few assignments at most.
+     * Updates applied to this instance meanwhile are dropped; they are replayed
+     * from the journal after the built index's watermark.
+     */
+    void install(ChainIndex built) {
+        lock.writeLock().lock();
+        try {
+            idHigh = built.idHigh;
+            idLow = built.idLow;
+            parent = built.parent;
+            activeChild = built.activeChild;
+            status = built.status;
+            strikes = built.strikes;
+            ticketExpiry = built.ticketExpiry;
+            slots = built.slots;
+            size = built.size;
+            maxPosition = built.maxPosition;
+            tipPosition = built.tipPosition;
+            watermark = built.watermark;
+            loadedThrough = built.loadedThrough;
+            loadGaps = built.loadGaps;
+            ready = built.ready;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index with a snapshot (bulk load from a snapshot file).
+     * Must be called between {@link #beginLoad(int)} and {@link #finishLoad()}.
+     */
+    void restore(Snapshot snapshot) {
+        int capacity = Math.max(INITIAL_CAPACITY, snapshot.status().length);
+        idHigh = Arrays.copyOf(snapshot.idHigh(), capacity);
+        idLow = Arrays.copyOf(snapshot.idLow(), capacity);
+        parent = grow(snapshot.parent(), capacity);
+        activeChild = grow(snapshot.activeChild(), capacity);
+        status = Arrays.copyOf(snapshot.status(), capacity);
+        strikes = Arrays.copyOf(snapshot.strikes(), capacity);
+        ticketExpiry = Arrays.copyOf(snapshot.ticketExpiry(), capacity);
+        slots = filled(slotCapacity(capacity));
+        size = 0;
+        maxPosition = NONE;
+        for (int position = 0; position < snapshot.status().length; position++) {
+            if (status[position] != STATUS_UNKNOWN) {
+                insertSlot(position);
+                size++;
+                maxPosition = position;
+            }
+        }
+        watermark = snapshot.watermark();
+    }
+
+    /**
+     * Copy the index (and its watermark) consistently for a snapshot file
+     */
+    Snapshot exportSnapshot() {
+        lock.readLock().lock();
+        try {
+            int length = maxPosition + 1;
+            return new Snapshot(
+                watermark,
+                Arrays.copyOf(idHigh, length),
+                Arrays.copyOf(idLow, length),
+                Arrays.copyOf(parent, length),
+                Arrays.copyOf(activeChild, length),
+                Arrays.copyOf(status, length),
+                Arrays.copyOf(strikes, length),
+                Arrays.copyOf(ticketExpiry, length)
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run several mutations atomically with respect to readers and snapshots
+     */
+    void writeLocked(Runnable mutations) {
+        lock.writeLock().lock();
+        try {
+            mutations.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    void advanceWatermark(long seq) {
+        if (seq > watermark) {
+            watermark = seq;
+        }
+    }
+
+    /**
+     * Record what a database build reflects: every journal event up to
+     * {@code throughSeq} except those in {@code gaps}, which the build's snapshot did
+     * not see (rolled back, or still uncommitted and possibly below later events).
+     * The watermark stops before the first gap, so the journal replay delivers the
+     * late events; the visible ones after it are recognized by {@link #reflects}.
+     *
+     * @param gaps missing seq ranges in ascending order
+     */
+    void markLoaded(long throughSeq, List<SeqRange> gaps) {
+        watermark = gaps.isEmpty() ? throughSeq : gaps.get(0).first() - 1;
+        loadedThrough = throughSeq;
+        loadGaps = List.copyOf(gaps);
+    }
+
+    /**
+     * Whether the event with this seq is already reflected in the index
+     */
+    boolean reflects(long seq) {
+        if (seq <= watermark) {
+            return true;
+        }
+        if (seq > loadedThrough) {
+            return false;
+        }
+        for (SeqRange gap : loadGaps) {
+            if (seq >= gap.first() && seq <= gap.last()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the index holds events beyond its watermark (right after a database
+     * build), so it cannot be written to a snapshot file yet
+     */
+    boolean isAheadOfWatermark() {
+        return loadedThrough > watermark;
+    }
+
+    // ========== Mutations ==========
+
+    /**
+     * Insert or refresh a node. Used by the bulk loader and the register path.
+     */
+    public void putNode(UUID userId, int position, UUID parentId, String userStatus) {
+        if (position < 0) {
+            log.warn("Ignoring user {} with negative position {}", userId, position);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(position);
+            boolean isNew = status[position] == STATUS_UNKNOWN;
+            idHigh[position] = userId.getMostSignificantBits();
+            idLow[position] = userId.getLeastSignificantBits();
+            status[position] = toStatusCode(userStatus);
+            if (parentId != null) {
+                int parentPosition = lookup(parentId);
+                if (parentPosition != NONE) {
+                    parent[position] = parentPosition;
+                }
+            }
+            if (isNew) {
+                insertSlot(position);
+                size++;
+            }
+            if (position > maxPosition) {
+                maxPosition = position;
+            }
+            if (ready) {
+                recomputeTip();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record that childId is the active invitee of parentId.
+     */
+    public void linkActiveChild(UUID parentId, UUID childId) {
+        lock.writeLock().lock();
+        try {
+            int parentPosition = lookup(parentId);
+            int childPosition = lookup(childId);
+            if (parentPosition == NONE || childPosition == NONE) {
+                log.debug("Skipping link {} -> {}: node not indexed", parentId, childId);
+                return;
+            }
+            activeChild[parentPosition] = childPosition;
+            parent[childPosition] = parentPosition;
+            if (ready) {
+                recomputeTip();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A new user joined under parentId (register path).
+     */
+    public void onJoined(UUID userId, int position, UUID parentId) {
+        putNode(userId, position, parentId, "active");
+        if (parentId != null) {
+            linkActiveChild(parentId, userId);
+        }
+    }
+
+    /**
+     * A user was removed from the chain (removal/cascade path).
+     * Marks the node removed and detaches it from its parent's active-child slot.
+     */
+    public void onRemoved(UUID userId) {
+        lock.writeLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position == NONE) {
+                return;
+            }
+            status[position] = STATUS_REMOVED;
+            int parentPosition = parent[position];
+            if (parentPosition != NONE && activeChild[parentPosition] == position) {
+                activeChild[parentPosition] = NONE;
+            }
+            if (ready) {
+                recomputeTip();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Overwrite the strike counter of a user (bulk load)
+     */
+    public void setStrikes(UUID userId, int count) {
+        lock.writeLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position != NONE) {
+                strikes[position] = count;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count one more removed child for a user (journal replay)
+     */
+    public void addStrike(UUID userId) {
+        lock.writeLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position != NONE) {
+                strikes[position]++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record the expiry of the user's active ticket, or clear it with null
+     */
+    public void setTicketExpiry(UUID userId, Instant expiresAt) {
+        lock.writeLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position != NONE) {
+                ticketExpiry[position] = expiresAt != null ? expiresAt.toEpochMilli() : 0L;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== Queries ==========
+
+    /**
+     * Position of the current tip, or empty if the index is not ready / chain is empty.
+     * Lock-free volatile read.
+     */
+    public Optional<Integer> tipPosition() {
+        int tip = tipPosition;
+        return ready && tip != NONE ? Optional.of(tip) : Optional.empty();
+    }
+
+    public Optional<UUID> tipUserId() {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int tip = tipPosition;
+            return tip != NONE ? Optional.of(idAt(tip)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Integer> positionOf(UUID userId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int position = lookup(userId);
+            return position == NONE ? Optional.empty() : Optional.of(position);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<UUID> userAt(int position) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return isOccupied(position) ? Optional.of(idAt(position)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<UUID> parentOf(UUID userId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position == NONE || parent[position] == NONE) {
+                return Optional.empty();
+            }
+            return Optional.of(idAt(parent[position]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<UUID> activeChildOf(UUID userId) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int position = lookup(userId);
+            if (position == NONE || activeChild[position] == NONE) {
+                return Optional.empty();
+            }
+            return Optional.of(idAt(activeChild[position]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public byte statusOf(UUID userId) {
+        if (!ready) {
+            return STATUS_UNKNOWN;
+        }
+        lock.readLock().lock();
+        try {
+            int position = lookup(userId);
+            return position == NONE ? STATUS_UNKNOWN : status[position];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ========== Transaction helper ==========
+
+    /**
+     * Run an index mutation once the surrounding transaction commits,
+     * or immediately when no transaction is active.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("Failed to apply chain index update: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    // ========== Internals (callers hold the lock) ==========
+
+    /**
+     * The tip is the highest-position active/seed user without an active child.
+     * Only positions above the tip can be skipped, so this is cheap in practice.
+     */
+    private void recomputeTip() {
+        for (int position = maxPosition; position >= 0; position--) {
+            byte code = status[position];
+            if ((code == STATUS_ACTIVE || code == STATUS_SEED) && activeChild[position] == NONE) {
+                tipPosition = position;
+                return;
+            }
+        }
+        tipPosition = NONE;
+    }
+
+    private boolean isOccupied(int position) {
+        return position >= 0 && position < status.length && status[position] != STATUS_UNKNOWN;
+    }
+
+    private UUID idAt(int position) {
+        return new UUID(idHigh[position], idLow[position]);
+    }
+
+    private int lookup(UUID userId) {
+        long high = userId.getMostSignificantBits();
+        long low = userId.getLeastSignificantBits();
+        int mask = slots.length - 1;
+        for (int slot = hash(high, low) & mask; ; slot = (slot + 1) & mask) {
+            int position = slots[slot];
+            if (position == NONE) {
+                return NONE;
+            }
+            if (idHigh[position] == high && idLow[position] == low) {
+                return position;
+            }
+        }
+    }
+
+    private void insertSlot(int position) {
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        int mask = slots.length - 1;
+        int slot = hash(idHigh[position], idLow[position]) & mask;
+        while (slots[slot] != NONE) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = position;
+    }
+
+    private void rehash(int newLength) {
+        int[] old = slots;
+        slots = filled(newLength);
+        int mask = newLength - 1;
+        for (int position : old) {
+            if (position == NONE) {
+                continue;
+            }
+            int slot = hash(idHigh[position], idLow[position]) & mask;
+            while (slots[slot] != NONE) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position;
+        }
+    }
+
+    private void ensureCapacity(int position) {
+        if (position < status.length) {
+            return;
+        }
+        int capacity = Math.max(position + 1, status.length + (status.length >> 1));
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        parent = grow(parent, capacity);
+        activeChild = grow(activeChild, capacity);
+        status = Arrays.copyOf(status, capacity);
+        strikes = Arrays.copyOf(strikes, capacity);
+        ticketExpiry = Arrays.copyOf(ticketExpiry, capacity);
+    }
+
+    private static int slotCapacity(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 2) - 1) << 2;
+    }
+
+    private static int hash(long high, long low) {
+        long h = high ^ low;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h;
+    }
+
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        int oldLength = array.length;
+        int[] grown = Arrays.copyOf(array, capacity);
+        Arrays.fill(grown, oldLength, capacity, NONE);
+        return grown;
+    }
+
+    /**
+     * Position-indexed copy of the index (element i describes position i)
+     *
+     * @param watermark     last chain event seq reflected in the arrays
+     * @param ticketExpiry  epoch millis of the active ticket's expiry, 0 = none
+     */
+    /**
+     * Inclusive range of journal seqs
+     */
+    record SeqRange(long first, long last) {
+    }
+
+    record Snapshot(
+        long watermark,
+        long[] idHigh,
+        long[] idLow,
+        int[] parent,
+        int[] activeChild,
+        byte[] status,
+        int[] strikes,
+        long[] ticketExpiry
+    ) {
+        int length() {
+            return status.length;
+        }
+    }
+
+    static byte toStatusCode(String userStatus) {
+        if (userStatus == null) {
+            return STATUS_ACTIVE;
+        }
+        return switch (userStatus) {
+            case "seed" -> STATUS_SEED;
+            case "removed" -> STATUS_REMOVED;
+            default -> STATUS_ACTIVE;
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package com.thechain.chain;
+
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds the {@link ChainIndex} once the application is ready.
+ *
+ * Preferred source is the snapshot file written by {@link ChainSnapshotWriter}: it is
+ * memory-mapped and bulk-copied into the index, which then only has to replay the
+ * journal events after the snapshot watermark ({@link ChainIndexProjection}).
+ * Without a usable snapshot the index is built from users/invitations/tickets, with
+ * rows streamed (not materialized) so startup memory stays proportional to the
+ * index itself. Its watermark comes from the same read snapshot: events up to the
+ * journal head are reflected except the seqs the snapshot could not see. One of
+ * those may belong to a transaction that commits after the build started, so the
+ * watermark stops before the first of them and the replay delivers it
+ * ({@link ChainIndex#markLoaded}). Gaps are only looked for above the lowest durable
+ * projection checkpoint, below which every seq is settled.
+ *
+ * Runs before the projection runner starts, so replay resumes from the loaded
+ * watermark. The load fills a private {@link ChainIndex} that is installed in one
+ * short swap; until then the live index reports not ready and requests use the
+ * database. Index updates committed meanwhile are replayed from the journal.
+ *
+ * Disable with chain.index.enabled=false (callers then always fall back to queries).
+ */
+@Component
+@ConditionalOnProperty(name = "chain.index.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChainIndexLoader {
+
+    private final ChainIndex chainIndex;
+    private final UserRepository userRepository;
+    private final InvitationRepository invitationRepository;
+    private final TicketRepository ticketRepository;
+    private final ChainEventRepository chainEventRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final Path snapshotPath;
+
+    public ChainIndexLoader(
+        ChainIndex chainIndex,
+        UserRepository userRepository,
+        InvitationRepository invitationRepository,
+        TicketRepository ticketRepository,
+        ChainEventRepository chainEventRepository,
+        ProjectionCheckpointRepository checkpointRepository,
+        @Value("${chain.snapshot.path:./data/chain-index.snap}") String snapshotPath
+    ) {
+        this.chainIndex = chainIndex;
+        this.userRepository = userRepository;
+        this.invitationRepository = invitationRepository;
+        this.ticketRepository = ticketRepository;
+        this.chainEventRepository = chainEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long journalHead = chainEventRepository.findMaxSeq();
+
+        if (loadSnapshot(journalHead)) {
+            log.info("Chain index restored from {} in {} ms (watermark #{}, journal head #{})",
+                snapshotPath, System.currentTimeMillis() - started, chainIndex.watermark(), journalHead);
+            return;
+        }
+
+        Integer maxPosition = userRepository.findMaxPosition();
+        ChainIndex building = new ChainIndex();
+        building.beginLoad(maxPosition != null ? maxPosition : 0);
+        try {
+            try (Stream<UserRepository.ChainNodeView> nodes = userRepository.streamChainNodes()) {
+                nodes.forEach(node -> {
+                    building.putNode(node.getId(), node.getPosition(), node.getParentId(), node.getStatus());
+                    if (node.getWastedChildCount() != null && node.getWastedChildCount() > 0) {
+                        building.setStrikes(node.getId(), node.getWastedChildCount());
+                    }
+                });
+            }
+
+            try (Stream<InvitationRepository.ChainLinkView> links = invitationRepository.streamActiveLinks()) {
+                links.forEach(link -> building.linkActiveChild(link.getParentId(), link.getChildId()));
+            }
+
+            try (Stream<TicketRepository.TicketExpiryView> tickets = ticketRepository.streamActiveExpiries()) {
+                tickets.forEach(ticket -> building.setTicketExpiry(ticket.getOwnerId(), ticket.getExpiresAt()));
+            }
+            building.markLoaded(journalHead, journalGaps(journalHead));
+        } catch (RuntimeException e) {
+            building.abortLoad();
+            log.error("Failed to build chain index - falling back to database lookups: {}", e.getMessage(), e);
+            return;
+        }
+        building.finishLoad();
+        chainIndex.install(building);
+
+        log.info("Chain index built from database in {} ms (watermark #{}, journal head #{})",
+            System.currentTimeMillis() - started, building.watermark(), journalHead);
+    }
+
+    /**
+     * Seqs up to the journal head that this transaction's snapshot does not see
+     */
+    private List<ChainIndex.SeqRange> journalGaps(long journalHead) {
+        long settled = Math.min(checkpointRepository.findLowestLastSeq(), journalHead);
+        return chainEventRepository.findGaps(settled, journalHead).stream()
+            .map(gap -> new ChainIndex.SeqRange(gap.getFirstSeq(), gap.getLastSeq()))
+            .toList();
+    }
+
+    /**
+     * Restore the index from the snapshot file, if present and consistent with the journal
+     */
+    private boolean loadSnapshot(long journalHead) {
+        if (!Files.isReadable(snapshotPath)) {
+            return false;
+        }
+
+        ChainIndex.Snapshot snapshot;
+        try {
+            snapshot = ChainSnapshotFile.read(snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable chain snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+        if (snapshot.watermark() > journalHead) {
+            // Snapshot from another database (or a restored backup) - the journal cannot bring it up to date
+            log.warn("Ignoring chain snapshot {}: watermark #{} is ahead of journal head #{}",
+                snapshotPath, snapshot.watermark(), journalHead);
+            return false;
+        }
+
+        ChainIndex building = new ChainIndex();
+        building.beginLoad(snapshot.length());
+        try {
+            building.restore(snapshot);
+        } catch (RuntimeException e) {
+            building.abortLoad();
+            log.warn("Failed to restore chain snapshot {}: {}", snapshotPath, e.getMessage());
+            return false;
+        }
+        building.finishLoad();
+        chainIndex.install(building);
+        return true;
+    }
+}
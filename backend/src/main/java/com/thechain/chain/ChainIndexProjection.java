@@ -0,0 +1,75 @@
+package com.thechain.chain;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.event.ChainProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * ChainIndexProjection - keeps the {@link ChainIndex} in step with the event journal
+ *
+ * Resumes after the index watermark, so a start from a snapshot file only replays
+ * the events appended since the snapshot was written. After a database build the
+ * watermark stops before the first seq the build could not see; events after it
+ * that the build already reflects are skipped ({@link ChainIndex#reflects}). Topology changes are also
+ * applied directly by the register/remove paths (after commit); replaying them is
+ * idempotent. Strike counters and ticket expiries are maintained here only, and the
+ * watermark advances in the same write-locked step as the event it reflects.
+ */
+@Component
+@ConditionalOnProperty(name = "chain.index.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ChainIndexProjection implements ChainProjection {
+
+    private final ChainIndex chainIndex;
+
+    @Override
+    public String name() {
+        return "chain-index";
+    }
+
+    @Override
+    public long resumeAfter() {
+        return chainIndex.watermark();
+    }
+
+    @Override
+    public void apply(ChainEvent event) {
+        chainIndex.writeLocked(() -> {
+            if (chainIndex.reflects(event.getSeq())) {
+                chainIndex.advanceWatermark(event.getSeq());
+                return;
+            }
+            UUID userId = event.getUserId();
+            switch (event.getEventType()) {
+                case JOINED -> {
+                    chainIndex.onJoined(userId, event.getPosition(), event.getRelatedUserId());
+                    if (event.getRelatedUserId() != null) {
+                        // The parent's ticket was consumed by this join
+                        chainIndex.setTicketExpiry(event.getRelatedUserId(), null);
+                    }
+                }
+                case TICKET_ISSUED -> chainIndex.setTicketExpiry(userId, expiresAt(event));
+                case TICKET_EXPIRED -> chainIndex.setTicketExpiry(userId, null);
+                case REMOVED -> {
+                    chainIndex.onRemoved(userId);
+                    chainIndex.setTicketExpiry(userId, null);
+                    chainIndex.parentOf(userId).ifPresent(chainIndex::addStrike);
+                }
+                case BADGE_AWARDED -> {
+                    // No index state
+                }
+            }
+            chainIndex.advanceWatermark(event.getSeq());
+        });
+    }
+
+    private static Instant expiresAt(ChainEvent event) {
+        Object value = event.getPayload() != null ? event.getPayload().get("expiresAt") : null;
+        return value != null ? Instant.parse(value.toString()) : null;
+    }
+}
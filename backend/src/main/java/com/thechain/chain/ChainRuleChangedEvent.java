@@ -0,0 +1,10 @@
+package com.thechain.chain;
+
+/**
+ * Local signal published by {@link ChainRuleHolder} whenever the rule in force changes.
+ *
+ * @param previous rule that was in force before the switch
+ * @param current  rule in force from now on
+ */
+public record ChainRuleChangedEvent(ChainRuleSnapshot previous, ChainRuleSnapshot current) {
+}
@@ -0,0 +1,124 @@
+package com.thechain.chain;
+
+import com.thechain.entity.ChainRule;
+import com.thechain.repository.ChainRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ChainRuleHolder - in-process snapshot of the chain rule in force
+ *
+ * Hot paths read the rule through {@link #current()}, a single volatile read.
+ * The snapshot is preloaded at startup and swapped atomically:
+ * - exactly at the effectiveFrom of the next scheduled rule (one-shot task),
+ *   which applies it through findScheduledRulesDueForApplication
+ * - on a periodic refresh, which picks up rules created or applied elsewhere
+ *
+ * Every swap to a different version publishes a {@link ChainRuleChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChainRuleHolder {
+
+    private final ChainRuleRepository chainRuleRepository;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<ChainRuleSnapshot> current = new AtomicReference<>(ChainRuleSnapshot.DEFAULTS);
+
+    private ScheduledFuture<?> pendingSwitch;
+    private Instant pendingSwitchAt;
+
+    /**
+     * Rule in force right now
+     */
+    public ChainRuleSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Runs ahead of the other startup listeners, so nothing started with the
+     * application (e.g. overdue ticket expirations) sees the built-in defaults
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void preload() {
+        refresh();
+        log.info("Chain rules loaded: version {} (maxAttempts={}, ticketDurationHours={})",
+            current().getVersion(), current().getMaxAttempts(), current().getTicketDurationHours());
+    }
+
+    /**
+     * Apply due scheduled rules, reload the rule in force and arm the next switchover.
+     * Safe to call concurrently and from several nodes (applying a rule is conditional).
+     */
+    @Scheduled(fixedDelayString = "${chain.rules.refresh-interval-ms:60000}",
+               initialDelayString = "${chain.rules.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        try {
+            Instant now = Instant.now();
+
+            for (ChainRule due : chainRuleRepository.findScheduledRulesDueForApplication(now)) {
+                Integer applied = transactionTemplate.execute(status ->
+                    chainRuleRepository.markApplied(due.getId(), now));
+                if (applied != null && applied > 0) {
+                    log.info("Applied scheduled chain rule version {} (effective from {})",
+                        due.getVersion(), due.getEffectiveFrom());
+                }
+            }
+
+            ChainRuleSnapshot next = chainRuleRepository.findCurrentActiveRule(now)
+                .map(ChainRuleSnapshot::from)
+                .orElse(ChainRuleSnapshot.DEFAULTS);
+            swap(next);
+
+            armNextSwitch(now);
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh chain rules - keeping version {}: {}",
+                current().getVersion(), e.getMessage(), e);
+        }
+    }
+
+    private void swap(ChainRuleSnapshot next) {
+        ChainRuleSnapshot previous = current.getAndSet(next);
+        if (previous.getVersion() != next.getVersion()) {
+            log.info("Chain rule switched from version {} to {}", previous.getVersion(), next.getVersion());
+            eventPublisher.publishEvent(new ChainRuleChangedEvent(previous, next));
+        }
+    }
+
+    /**
+     * Schedule a one-shot refresh at the effectiveFrom of the earliest upcoming rule
+     */
+    private void armNextSwitch(Instant now) {
+        Instant nextAt = chainRuleRepository.findUpcomingRules(now).stream()
+            .findFirst()
+            .map(ChainRule::getEffectiveFrom)
+            .orElse(null);
+
+        if (nextAt == null || nextAt.equals(pendingSwitchAt)) {
+            return;
+        }
+        if (pendingSwitch != null) {
+            pendingSwitch.cancel(false);
+        }
+        pendingSwitch = taskScheduler.schedule(this::refresh, nextAt);
+        pendingSwitchAt = nextAt;
+        log.debug("Next chain rule switchover armed for {}", nextAt);
+    }
+}
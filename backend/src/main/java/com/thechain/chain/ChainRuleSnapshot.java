@@ -0,0 +1,50 @@
+package com.thechain.chain;
+
+import com.thechain.entity.ChainRule;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Immutable copy of the chain rule in force, held by {@link ChainRuleHolder}.
+ *
+ * Detached from JPA so it can be shared across threads and read without a session.
+ */
+@Value
+@Builder
+public class ChainRuleSnapshot {
+
+    /**
+     * Rules used when chain_rules holds no applied rule yet (matches the entity defaults)
+     */
+    public static final ChainRuleSnapshot DEFAULTS = ChainRuleSnapshot.builder()
+        .version(1)
+        .ticketDurationHours(24)
+        .maxAttempts(3)
+        .visibilityRange(1)
+        .seedUnlimitedTime(true)
+        .reactivationTimeoutHours(24)
+        .effectiveFrom(Instant.EPOCH)
+        .build();
+
+    int version;
+    int ticketDurationHours;
+    int maxAttempts;
+    int visibilityRange;
+    boolean seedUnlimitedTime;
+    int reactivationTimeoutHours;
+    Instant effectiveFrom;
+
+    public static ChainRuleSnapshot from(ChainRule rule) {
+        return ChainRuleSnapshot.builder()
+            .version(rule.getVersion())
+            .ticketDurationHours(rule.getTicketDurationHours())
+            .maxAttempts(rule.getMaxAttempts())
+            .visibilityRange(rule.getVisibilityRange())
+            .seedUnlimitedTime(rule.getSeedUnlimitedTime())
+            .reactivationTimeoutHours(rule.getReactivationTimeoutHours())
+            .effectiveFrom(rule.getEffectiveFrom())
+            .build();
+    }
+}
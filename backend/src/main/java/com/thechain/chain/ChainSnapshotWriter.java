@@ -0,0 +1,60 @@
+package com.thechain.chain;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Periodically persists the {@link ChainIndex} to a {@link ChainSnapshotFile}
+ *
+ * The snapshot is copied under the index read lock (a few array copies) and written
+ * outside of it. A snapshot is skipped when nothing was journaled since the last one,
+ * and after a database build until the replay has caught up with it.
+ */
+@Component
+@ConditionalOnProperty(name = "chain.index.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ChainSnapshotWriter {
+
+    private final ChainIndex chainIndex;
+    private final Path snapshotPath;
+
+    private long lastWrittenWatermark = -1L;
+
+    public ChainSnapshotWriter(
+        ChainIndex chainIndex,
+        @Value("${chain.snapshot.path:./data/chain-index.snap}") String snapshotPath
+    ) {
+        this.chainIndex = chainIndex;
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    @Scheduled(fixedDelayString = "${chain.snapshot.interval-ms:300000}",
+               initialDelayString = "${chain.snapshot.interval-ms:300000}")
+    public synchronized void writeSnapshot() {
+        if (!chainIndex.isReady() || chainIndex.watermark() == lastWrittenWatermark) {
+            return;
+        }
+        if (chainIndex.isAheadOfWatermark()) {
+            // Fresh database build: the arrays hold events the watermark doesn't cover yet
+            log.debug("Chain snapshot deferred until the journal replay reaches the database build");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        ChainIndex.Snapshot snapshot = chainIndex.exportSnapshot();
+        try {
+            long bytes = ChainSnapshotFile.write(snapshotPath, snapshot);
+            lastWrittenWatermark = snapshot.watermark();
+            log.info("Chain snapshot written to {}: {} positions, {} bytes, watermark #{} in {} ms",
+                snapshotPath, snapshot.length(), bytes, snapshot.watermark(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            log.error("Failed to write chain snapshot {}: {}", snapshotPath, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.thechain.chain;
+
+import com.thechain.exception.BusinessException;
+import com.thechain.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * PositionAllocator - hands out chain positions for registration
+ *
+ * Backed by the single-row chain_position_counter table. Reserving a position
+ * increments the counter and keeps its row locked until the registering
+ * transaction ends, which gives:
+ * - gap-free positions: a rollback undoes the increment with everything else
+ * - no UNIQUE(position) races: concurrent registrations queue on the row lock
+ *   instead of failing on insert after doing all their work
+ *
+ * The counter never hands out a position at or below MAX(users.position), so rows
+ * inserted outside the allocator (fixtures, manual fixes) cannot cause collisions.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PositionAllocator {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Reserve the next chain position for the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int reserve() {
+        Integer position = userRepository.allocateNextPosition();
+        if (position == null) {
+            throw new BusinessException("POSITION_COUNTER_MISSING", "Chain position counter is not initialized");
+        }
+        log.debug("Reserved chain position {}", position);
+        return position;
+    }
+}
@@ -0,0 +1,122 @@
+package com.thechain.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executors for @Async work
+ * Bounded so a slow mail server applies back-pressure instead of queueing without limit
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String PASSWORD_HASH_EXECUTOR = "passwordHashExecutor";
+    public static final String DASHBOARD_EXECUTOR = "dashboardExecutor";
+    public static final String RETENTION_EXECUTOR = "retentionExecutor";
+    public static final String MVC_ASYNC_EXECUTOR = "mvcAsyncExecutor";
+
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationExecutor(
+        @Value("${thechain.email.executor.threads:4}") int threads,
+        @Value("${thechain.email.executor.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notify-");
+        // Queue full: the submitting scheduler thread sends the batch itself
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * BCrypt runs here instead of on request threads: one thread per core (hashing
+     * is CPU-bound) and a short queue. When the queue is full submissions are
+     * rejected, and the caller answers 503 rather than waiting behind the burst.
+     */
+    @Bean(name = PASSWORD_HASH_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+        @Value("${auth.password.hashing.threads:0}") int threads,
+        @Value("${auth.password.hashing.queue-capacity:32}") int queueCapacity
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Dashboard sections fan out here. Sized below the connection pool since every
+     * section is a query; when the queue is full the request thread runs the
+     * section itself, so a burst degrades to sequential loading instead of failing.
+     * (Java 17 - no virtual threads yet.)
+     */
+    @Bean(name = DASHBOARD_EXECUTOR)
+    public ThreadPoolTaskExecutor dashboardExecutor(
+        @Value("${dashboard.executor.threads:12}") int threads,
+        @Value("${dashboard.executor.queue-capacity:200}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setTaskDecorator(StatementCounter::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * The nightly retention purge runs here, off the scheduler pool: a run pauses
+     * between chunks for up to max-duration and must not hold a scheduling thread.
+     * One thread and no queue, so an overlapping trigger is rejected rather than
+     * starting a second walk.
+     */
+    @Bean(name = RETENTION_EXECUTOR)
+    public ThreadPoolTaskExecutor retentionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("retention-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Streamed responses (chain explorer NDJSON exports) are written here, see
+     * {@link WebMvcConfig#configureAsyncSupport}. The executors above make Boot skip
+     * its applicationTaskExecutor, and MVC would otherwise start an unbounded thread
+     * per export; when this one is full the export is answered 503.
+     */
+    @Bean(name = MVC_ASYNC_EXECUTOR)
+    public ThreadPoolTaskExecutor mvcAsyncExecutor(
+        @Value("${chain.explorer.export-threads:4}") int threads,
+        @Value("${chain.explorer.export-queue-capacity:8}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
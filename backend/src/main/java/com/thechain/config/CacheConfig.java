@@ -3,6 +3,7 @@ package com.thechain.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thechain.dto.TicketResponse;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
@@ -10,12 +11,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -77,6 +80,25 @@ public class CacheConfig implements CachingConfigurer {
                 .disableCachingNullValues();
     }
 
+    /**
+     * Active tickets live until their expiresAt, at most an hour: a claim evicts the
+     * entry after it commits, but a read that started before the commit can still
+     * re-cache ACTIVE, and the cap bounds how long that copy survives. Finished
+     * tickets no longer change.
+     */
+    static final RedisCacheWriter.TtlFunction TICKET_TTL = (key, value) -> {
+        Duration maxTtl = Duration.ofHours(1);
+        if (value instanceof TicketResponse ticket
+                && "ACTIVE".equals(ticket.getStatus()) && ticket.getExpiresAt() != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), ticket.getExpiresAt());
+            if (untilExpiry.compareTo(Duration.ofSeconds(1)) < 0) {
+                return Duration.ofSeconds(1);
+            }
+            return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+        }
+        return maxTtl;
+    };
+
     /**
      * Configure cache-specific TTLs
      */
@@ -87,9 +109,10 @@ public class CacheConfig implements CachingConfigurer {
         cacheConfigurations.put(USER_CACHE,
                 defaultCacheConfiguration().entryTtl(Duration.ofMinutes(30)));
 
-        // Ticket cache - 5 minutes (tickets have 24h lifecycle)
+        // Ticket cache - until the ticket expires, capped at an hour (status is derived
+        // from expiresAt, use of a ticket evicts it after commit)
         cacheConfigurations.put(TICKET_CACHE,
-                defaultCacheConfiguration().entryTtl(Duration.ofMinutes(5)));
+                defaultCacheConfiguration().entryTtl(TICKET_TTL));
 
         // Chain cache - 15 minutes (chains change with ticket activity)
         cacheConfigurations.put(CHAIN_CACHE,
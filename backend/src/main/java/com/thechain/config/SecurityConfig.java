@@ -1,15 +1,18 @@
 package com.thechain.config;
 
+import com.thechain.security.BoundedPasswordEncoder;
 import com.thechain.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -162,8 +165,16 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * BCrypt at the configured cost, run on the bounded password hash executor
+     * (503 + Retry-After when it is saturated)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Qualifier(AsyncConfig.PASSWORD_HASH_EXECUTOR) ThreadPoolTaskExecutor passwordHashExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password.bcrypt-cost:10}") int cost,
+            @Value("${auth.password.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new BoundedPasswordEncoder(passwordHashExecutor, meterRegistry, cost, retryAfterSeconds);
     }
 }
@@ -0,0 +1,71 @@
+package com.thechain.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StatementCounter - counts SQL statements Hibernate prepares on the current thread
+ *
+ * Registered as the session factory's statement inspector
+ * (hibernate.session_factory.statement_inspector). Counting is off unless a
+ * caller opens a window with {@link #start()}; {@link #stop()} returns the
+ * number of statements prepared since. A JDBC batch counts once.
+ *
+ * Work handed to an executor decorated with {@link #propagate} counts towards
+ * the submitting thread's window.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    /**
+     * Begin counting on this thread (restarts an open window)
+     */
+    public static void start() {
+        COUNT.set(new AtomicInteger());
+    }
+
+    /**
+     * End counting on this thread
+     *
+     * @return statements prepared since {@link #start()}, 0 if not started
+     */
+    public static int stop() {
+        AtomicInteger count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Task decorator: run {@code task} inside the submitting thread's window, if any
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger window = COUNT.get();
+        if (window == null) {
+            return task;
+        }
+        return () -> {
+            AtomicInteger previous = COUNT.get();
+            COUNT.set(window);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    COUNT.set(previous);
+                } else {
+                    COUNT.remove();
+                }
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = COUNT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        return sql;
+    }
+}
@@ -1,24 +1,45 @@
 package com.thechain.config;
 
 import com.thechain.interceptor.RateLimitInterceptor;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 /**
  * Web MVC Configuration
- * Registers interceptors for request processing
+ * Registers interceptors for request processing and the executor for async responses
  */
 @Configuration
-@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
-    private final RateLimitInterceptor rateLimitInterceptor;
+    private final ObjectProvider<RateLimitInterceptor> rateLimitInterceptor;
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+    private final Duration asyncRequestTimeout;
+
+    public WebMvcConfig(
+        ObjectProvider<RateLimitInterceptor> rateLimitInterceptor,
+        @Qualifier(AsyncConfig.MVC_ASYNC_EXECUTOR) ThreadPoolTaskExecutor mvcAsyncExecutor,
+        @Value("${spring.mvc.async.request-timeout:10m}") Duration asyncRequestTimeout
+    ) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+        this.asyncRequestTimeout = asyncRequestTimeout;
+    }
 
     @Override
     public void addInterceptors(@org.springframework.lang.NonNull InterceptorRegistry registry) {
-        registry.addInterceptor(rateLimitInterceptor)
+        RateLimitInterceptor interceptor = rateLimitInterceptor.getIfAvailable();
+        if (interceptor == null) {
+            return; // rate-limit.enabled=false
+        }
+        registry.addInterceptor(interceptor)
                 .addPathPatterns("/api/v1/**")
                 .excludePathPatterns(
                         "/api/v1/actuator/**",  // Exclude health checks
@@ -26,4 +47,14 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/api/v1/v3/api-docs/**" // Exclude API docs
                 );
     }
+
+    /**
+     * StreamingResponseBody exports run on the bounded executor and are cut off
+     * after the request timeout
+     */
+    @Override
+    public void configureAsyncSupport(@org.springframework.lang.NonNull AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+        configurer.setDefaultTimeout(asyncRequestTimeout.toMillis());
+    }
 }
@@ -0,0 +1,113 @@
+package com.thechain.controller;
+
+import com.thechain.dto.ChainExplorerPage;
+import com.thechain.dto.ErrorResponse;
+import com.thechain.service.ChainExplorerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+/**
+ * Admin chain explorer
+ * Keyset-paginated and streamed access to the whole chain for administrators
+ */
+@RestController
+@RequestMapping("/admin/chain")
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Administrative chain inspection")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminChainController {
+
+    private final ChainExplorerService chainExplorerService;
+
+    @GetMapping("/members")
+    @Operation(
+        summary = "Page through chain members",
+        description = "Returns the members after the given position in position order, optionally " +
+                     "filtered by status and country. Pass nextAfter of a page as after to get the next one."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Page retrieved successfully",
+            content = @Content(schema = @Schema(implementation = ChainExplorerPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filter",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Admin privileges required",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<ChainExplorerPage> getMembers(
+            Authentication authentication,
+            @Parameter(description = "Last position of the previous page (0 = from the start)")
+            @RequestParam(defaultValue = "0") int after,
+            @Parameter(description = "Page size (capped)")
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Two-letter country code")
+            @RequestParam(required = false) String country) {
+        chainExplorerService.requireAdmin((UUID) authentication.getPrincipal());
+        ChainExplorerService.Filter filter = ChainExplorerService.Filter.of(status, country);
+
+        return ResponseEntity.ok(chainExplorerService.page(after, limit, filter));
+    }
+
+    @GetMapping("/members/export")
+    @Operation(
+        summary = "Stream chain members as NDJSON",
+        description = "Streams every member after the given position (up to an optional last position) " +
+                     "as newline-delimited JSON, one member per line, in position order. Any range size " +
+                     "is served with constant server memory."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Members streamed as application/x-ndjson"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid filter",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "403",
+            description = "Admin privileges required",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> exportMembers(
+            Authentication authentication,
+            @RequestParam(defaultValue = "0") int after,
+            @Parameter(description = "Last position to include (default: end of the chain)")
+            @RequestParam(required = false) Integer to,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String country) {
+        // Checked before the response starts, so failures still get a JSON error
+        chainExplorerService.requireAdmin((UUID) authentication.getPrincipal());
+        ChainExplorerService.Filter filter = ChainExplorerService.Filter.of(status, country);
+
+        StreamingResponseBody body = out -> chainExplorerService.export(after, to, filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
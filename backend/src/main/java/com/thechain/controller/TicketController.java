@@ -2,6 +2,7 @@ package com.thechain.controller;
 
 import com.thechain.dto.ErrorResponse;
 import com.thechain.dto.TicketResponse;
+import com.thechain.service.QrCodeService;
 import com.thechain.service.TicketService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,11 +13,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/tickets")
@@ -84,4 +90,46 @@ public class TicketController {
         TicketResponse response = ticketService.getTicket(ticketId);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(value = "/{ticketId}/qr/{hash}.png", produces = MediaType.IMAGE_PNG_VALUE)
+    @Operation(
+        summary = "Get ticket QR code image",
+        description = "Returns the ticket's QR code as PNG. The URL is content-addressed (see qrCodeUrl in the " +
+                     "ticket response), so the image never changes. It encodes a live invite, so only the client " +
+                     "may cache it, and only until the ticket expires."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "QR code image"),
+        @ApiResponse(responseCode = "304", description = "Client copy is current"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Ticket not found or hash does not match the ticket",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<byte[]> getTicketQrCode(
+        @Parameter(description = "UUID of the ticket", required = true)
+        @PathVariable UUID ticketId,
+        @Parameter(description = "Content hash from qrCodeUrl", required = true)
+        @PathVariable String hash,
+        @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch
+    ) {
+        QrCodeService.Image image = ticketService.getQrCode(ticketId, hash);
+
+        // The image is an invite credential: never in shared caches, never past the ticket's lifetime
+        Duration remaining = Duration.between(Instant.now(), image.expiresAt());
+        CacheControl cacheControl = remaining.getSeconds() > 0
+            ? CacheControl.maxAge(remaining.getSeconds(), TimeUnit.SECONDS).cachePrivate()
+            : CacheControl.noStore();
+
+        String etag = "\"" + hash + "\"";
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.IMAGE_PNG)
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .body(image.png());
+    }
 }
@@ -0,0 +1,38 @@
+package com.thechain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One chain member as listed by the admin chain explorer (uncensored, no derived counts)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainExplorerMemberDto {
+
+    private UUID id;
+
+    private Integer position;
+
+    private String chainKey;
+
+    private String displayName;
+
+    private String status;
+
+    /**
+     * Two-letter country code
+     */
+    private String countryCode;
+
+    private UUID parentId;
+
+    private Instant joinedAt;
+}
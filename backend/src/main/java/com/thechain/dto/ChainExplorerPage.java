@@ -0,0 +1,25 @@
+package com.thechain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of the admin chain explorer
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainExplorerPage {
+
+    private List<ChainExplorerMemberDto> members;
+
+    /**
+     * Position to pass as {@code after} for the next page, null on the last page
+     */
+    private Integer nextAfter;
+}
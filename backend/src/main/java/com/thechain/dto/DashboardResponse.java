@@ -71,4 +71,10 @@ public class DashboardResponse {
      * User's last activity timestamp
      */
     private Instant lastActivity;
+
+    /**
+     * Sections that failed or timed out and were returned with fallback values
+     * (empty when the dashboard is complete)
+     */
+    private List<String> degradedSections;
 }
@@ -1,14 +1,18 @@
 package com.thechain.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(description = "Invite ticket response with QR code and metadata")
 public class TicketResponse {
 
@@ -18,7 +22,8 @@ public class TicketResponse {
     @Schema(description = "QR code payload data for scanning", example = "{\"ticketId\":\"...\",\"signature\":\"...\"}")
     private String qrPayload;
 
-    @Schema(description = "URL to the QR code image", example = "https://api.thechain.app/qr/a1b2c3d4-e5f6-7890-abcd-ef1234567890.png")
+    @Schema(description = "Path (relative to the API base) of the QR code PNG; content never changes, clients may cache it until the ticket expires",
+            example = "/tickets/a1b2c3d4-e5f6-7890-abcd-ef1234567890/qr/3f2a9c0d6b1e4a7f8c5d2e9b0a1f3c4d.png")
     private String qrCodeUrl;
 
     @Schema(description = "Deep link for mobile apps", example = "thechain://invite?ticket=a1b2c3d4-e5f6-7890-abcd-ef1234567890")
@@ -36,9 +41,27 @@ public class TicketResponse {
     @Schema(description = "Current ticket status", example = "ACTIVE", allowableValues = {"ACTIVE", "USED", "EXPIRED"})
     private String status;
 
-    @Schema(description = "Remaining time in seconds until expiration", example = "86400")
+    @Schema(description = "Remaining time in milliseconds until expiration, computed when serialized", example = "86400000")
     private Long timeRemaining;
 
     @Schema(description = "UUID of the ticket owner (issuer)", example = "b2c3d4e5-f6a7-8901-bcde-f12345678901")
     private UUID ownerId;
+
+    /**
+     * An ACTIVE ticket past its expiresAt reads as EXPIRED even before the
+     * expiration engine has persisted it, so cached responses never go stale
+     */
+    public String getStatus() {
+        if ("ACTIVE".equals(status) && expiresAt != null && !expiresAt.isAfter(Instant.now())) {
+            return "EXPIRED";
+        }
+        return status;
+    }
+
+    public Long getTimeRemaining() {
+        if (expiresAt == null) {
+            return timeRemaining;
+        }
+        return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis());
+    }
 }
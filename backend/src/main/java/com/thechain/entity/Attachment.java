@@ -5,22 +5,20 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.hibernate.annotations.Immutable;
 
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * Attachment - read-only view of a parent -> child link
+ *
+ * Backed by the attachments view over invitations, which is the only store
+ * written on registration. Kept for readers of the former attachments table.
+ */
 @Entity
-@Table(name = "attachments", indexes = {
-    @Index(name = "idx_attachments_parent_id", columnList = "parentId"),
-    @Index(name = "idx_attachments_child_id", columnList = "childId"),
-    @Index(name = "idx_attachments_ticket_id", columnList = "ticketId")
-}, uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"parentId", "childId"}),
-    @UniqueConstraint(columnNames = "childId")
-})
-@EntityListeners(AuditingEntityListener.class)
+@Immutable
+@Table(name = "attachments")
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,7 +26,6 @@ import java.util.UUID;
 public class Attachment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @Column(nullable = false, name = "parent_id")
@@ -40,7 +37,6 @@ public class Attachment {
     @Column(nullable = false, name = "ticket_id")
     private UUID ticketId;
 
-    @CreatedDate
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false, name = "attached_at")
     private Instant attachedAt;
 }
@@ -0,0 +1,67 @@
+package com.thechain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ChainEvent entity - one row of the append-only chain event journal
+ * Written in the same transaction as the mutation it describes; never updated
+ */
+@Entity
+@Immutable
+@Table(name = "chain_events", indexes = {
+    @Index(name = "idx_chain_events_user_id", columnList = "user_id, seq"),
+    @Index(name = "idx_chain_events_type", columnList = "event_type, seq")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30, name = "event_type")
+    private EventType eventType;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column
+    private Integer position;
+
+    // JOINED: parent, REMOVED: user whose removal started the cascade
+    @Column(name = "related_user_id")
+    private UUID relatedUserId;
+
+    @Column(name = "ticket_id")
+    private UUID ticketId;
+
+    @Column(nullable = false, name = "occurred_at")
+    private Instant occurredAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> payload;
+
+    public enum EventType {
+        JOINED,          // User registered with a ticket
+        TICKET_ISSUED,   // New invitation ticket created
+        TICKET_EXPIRED,  // Ticket passed its deadline unused
+        REMOVED,         // User removed from the chain (incl. cascades)
+        BADGE_AWARDED    // Badge earned by the user at a position
+    }
+}
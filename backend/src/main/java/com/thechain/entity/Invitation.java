@@ -14,13 +14,14 @@ import java.util.UUID;
 /**
  * Invitation entity - tracks invitation relationships between users
  * Uses UUID references for parent-child relationships
+ * The single store of parent -> child links; attachments is a read-only view of it
  */
 @Entity
 @Table(name = "invitations", indexes = {
     @Index(name = "idx_invitations_parent_id", columnList = "parent_id"),
-    @Index(name = "idx_invitations_child_id", columnList = "child_id"),
     @Index(name = "idx_invitations_ticket_id", columnList = "ticket_id"),
-    @Index(name = "idx_invitations_status", columnList = "status")
+    @Index(name = "idx_invitations_status", columnList = "status"),
+    @Index(name = "idx_invitations_accepted_at", columnList = "accepted_at")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
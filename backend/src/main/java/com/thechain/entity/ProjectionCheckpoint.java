@@ -0,0 +1,39 @@
+package com.thechain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * ProjectionCheckpoint entity - last chain event applied by a durable projection,
+ * plus the projection's state as of that event when it keeps it in memory
+ */
+@Entity
+@Table(name = "projection_checkpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false, name = "last_seq")
+    private Long lastSeq;
+
+    @Column(nullable = false, name = "updated_at")
+    private Instant updatedAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> state;
+}
@@ -84,6 +84,20 @@ public class Ticket {
     @Column(length = 100)
     private String message;
 
+    // Expiration work lease (multi-node claiming); informational once the ticket is expired
+    @Column(name = "expiry_claimed_by", length = 100)
+    private String expiryClaimedBy;
+
+    @Column(name = "expiry_claimed_until")
+    private Instant expiryClaimedUntil;
+
+    // Expiry warnings already handed to the mailer (each fires once per ticket)
+    @Column(name = "warned_12h_at")
+    private Instant warned12hAt;
+
+    @Column(name = "warned_1h_at")
+    private Instant warned1hAt;
+
     public enum TicketStatus {
         ACTIVE,
         USED,
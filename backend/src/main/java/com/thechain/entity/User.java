@@ -11,14 +11,14 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.Instant;
 import java.util.UUID;
-import java.util.List;
 
 @Entity
 @Table(name = "users", indexes = {
     @Index(name = "idx_users_chain_key", columnList = "chainKey"),
     @Index(name = "idx_users_parent_id", columnList = "parentId"),
     @Index(name = "idx_users_position", columnList = "position"),
-    @Index(name = "idx_users_username", columnList = "username")
+    @Index(name = "idx_users_username", columnList = "username"),
+    @Index(name = "idx_users_active_child_id", columnList = "activeChildId")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -43,15 +43,14 @@ public class User {
     @Column(name = "parent_id")
     private UUID parentId;
 
-    // Note: activeChildId is managed in application code, not stored in DB
-    // It's computed from the attachments table relationship
-    @Transient
+    // Current active invitee, maintained by the register and removal paths
+    @Column(name = "active_child_id")
     private UUID activeChildId;
 
-    // Note: wastedChildIds are managed in application code, not stored in DB
-    // They're tracked through attachment history
-    @Transient
-    private List<UUID> wastedChildIds;
+    // Number of invitees removed from the chain (3-strike counter)
+    @Builder.Default
+    @Column(name = "wasted_child_count", nullable = false)
+    private Integer wastedChildCount = 0;
 
     @CreatedDate
     @Column(nullable = false, updatable = false)
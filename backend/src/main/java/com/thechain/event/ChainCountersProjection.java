@@ -0,0 +1,142 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ChainCountersProjection - global chain counters maintained from the journal
+ *
+ * Replaces COUNT(*) queries over users/tickets for stats: each counter is bumped
+ * by the event that changes it. Durable: the counters are saved with the
+ * checkpoint and restored on startup, so a boot replays only the journal written
+ * since the last checkpoint (the whole journal only on the very first start).
+ * Until that catch-up finished ({@link #isReady()}), callers should fall back to
+ * the base tables.
+ */
+@Component
+public class ChainCountersProjection implements ChainProjection {
+
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder ticketsIssued = new LongAdder();
+    private final LongAdder ticketsExpired = new LongAdder();
+    private final LongAdder ticketsUsed = new LongAdder();
+    private final LongAdder badgesAwarded = new LongAdder();
+
+    private volatile long lastSeq;
+    private volatile boolean ready;
+
+    @Override
+    public String name() {
+        return "chain-counters";
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> checkpointState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("joined", joined.sum());
+        state.put("removed", removed.sum());
+        state.put("ticketsIssued", ticketsIssued.sum());
+        state.put("ticketsExpired", ticketsExpired.sum());
+        state.put("ticketsUsed", ticketsUsed.sum());
+        state.put("badgesAwarded", badgesAwarded.sum());
+        state.put("lastSeq", lastSeq);
+        return state;
+    }
+
+    @Override
+    public void restore(Map<String, Object> state) {
+        Map<String, Object> values = state != null ? state : Map.of();
+        reset(joined, values.get("joined"));
+        reset(removed, values.get("removed"));
+        reset(ticketsIssued, values.get("ticketsIssued"));
+        reset(ticketsExpired, values.get("ticketsExpired"));
+        reset(ticketsUsed, values.get("ticketsUsed"));
+        reset(badgesAwarded, values.get("badgesAwarded"));
+        lastSeq = values.get("lastSeq") instanceof Number seq ? seq.longValue() : 0L;
+    }
+
+    private static void reset(LongAdder counter, Object value) {
+        counter.reset();
+        if (value instanceof Number number) {
+            counter.add(number.longValue());
+        }
+    }
+
+    @Override
+    public void apply(ChainEvent event) {
+        switch (event.getEventType()) {
+            case JOINED -> {
+                joined.increment();
+                if (event.getTicketId() != null) {
+                    ticketsUsed.increment();
+                }
+            }
+            case REMOVED -> removed.increment();
+            case TICKET_ISSUED -> ticketsIssued.increment();
+            case TICKET_EXPIRED -> ticketsExpired.increment();
+            case BADGE_AWARDED -> badgesAwarded.increment();
+        }
+        lastSeq = event.getSeq();
+    }
+
+    @Override
+    public void onCaughtUp() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Counters snapshot() {
+        long joinedCount = joined.sum();
+        long removedCount = removed.sum();
+        long issued = ticketsIssued.sum();
+        long expired = ticketsExpired.sum();
+        long used = ticketsUsed.sum();
+        return new Counters(
+            joinedCount,
+            joinedCount - removedCount,
+            removedCount,
+            issued,
+            expired,
+            Math.max(0, issued - expired - used),
+            badgesAwarded.sum(),
+            lastSeq
+        );
+    }
+
+    /**
+     * Point-in-time view of the counters
+     *
+     * @param totalJoined    users ever registered
+     * @param activeMembers  registered minus removed
+     * @param removed        users removed from the chain
+     * @param ticketsIssued  tickets ever issued
+     * @param ticketsExpired tickets that expired unused (wasted)
+     * @param activeTickets  issued tickets neither expired nor used
+     * @param badgesAwarded  badges ever awarded
+     * @param lastSeq        journal seq the counters reflect
+     */
+    public record Counters(
+        long totalJoined,
+        long activeMembers,
+        long removed,
+        long ticketsIssued,
+        long ticketsExpired,
+        long activeTickets,
+        long badgesAwarded,
+        long lastSeq
+    ) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+
+/**
+ * Local signal published by {@link ChainEventJournal} for every event it appends,
+ * inside the appending transaction. Listeners that act on committed state use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT)}; other nodes only see
+ * the event through the journal.
+ *
+ * @param event the journaled event, seq assigned
+ */
+public record ChainEventAppended(ChainEvent event) {
+}
@@ -0,0 +1,104 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.ChainEvent.EventType;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.repository.ChainEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ChainEventJournal - append side of the chain event log
+ *
+ * Every method requires the caller's transaction (MANDATORY), so an event is
+ * committed if and only if the mutation it describes is committed.
+ * Events are never updated or deleted; projections consume them by seq.
+ * Each appended event is also published locally as {@link ChainEventAppended}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChainEventJournal {
+
+    private final ChainEventRepository chainEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void joined(User user, UUID parentId, UUID ticketId) {
+        append(ChainEvent.builder()
+            .eventType(EventType.JOINED)
+            .userId(user.getId())
+            .position(user.getPosition())
+            .relatedUserId(parentId)
+            .ticketId(ticketId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ticketIssued(Ticket ticket) {
+        append(ChainEvent.builder()
+            .eventType(EventType.TICKET_ISSUED)
+            .userId(ticket.getOwnerId())
+            .ticketId(ticket.getId())
+            .payload(Map.of(
+                "expiresAt", ticket.getExpiresAt().toString(),
+                "attempt", ticket.getAttemptNumber() != null ? ticket.getAttemptNumber() : 1)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ticketExpired(Ticket ticket) {
+        append(ChainEvent.builder()
+            .eventType(EventType.TICKET_EXPIRED)
+            .userId(ticket.getOwnerId())
+            .ticketId(ticket.getId()));
+    }
+
+    /**
+     * One REMOVED event per removed user, in cascade order (root first)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(UUID rootUserId, List<RemovedUser> removedUsers, String rootReason, String cascadeReason) {
+        Instant now = Instant.now();
+        List<ChainEvent> events = removedUsers.stream()
+            .map(removed -> ChainEvent.builder()
+                .eventType(EventType.REMOVED)
+                .userId(removed.userId())
+                .position(removed.position())
+                .relatedUserId(rootUserId)
+                .occurredAt(now)
+                .payload(Map.of("reason", removed.userId().equals(rootUserId) ? rootReason : cascadeReason))
+                .build())
+            .toList();
+        chainEventRepository.saveAll(events)
+            .forEach(event -> eventPublisher.publishEvent(new ChainEventAppended(event)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void badgeAwarded(Integer position, String badgeType) {
+        append(ChainEvent.builder()
+            .eventType(EventType.BADGE_AWARDED)
+            .position(position)
+            .payload(Map.of("badgeType", badgeType)));
+    }
+
+    private void append(ChainEvent.ChainEventBuilder builder) {
+        ChainEvent event = chainEventRepository.save(builder.occurredAt(Instant.now()).build());
+        log.debug("Journaled {} #{}", event.getEventType(), event.getSeq());
+        eventPublisher.publishEvent(new ChainEventAppended(event));
+    }
+
+    /**
+     * User removed as part of a cascade
+     */
+    public record RemovedUser(UUID userId, Integer position) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+
+import java.util.Map;
+
+/**
+ * A read model built by consuming the chain event journal in seq order.
+ *
+ * Register as a Spring bean; {@link ChainProjectionRunner} feeds it every event
+ * exactly once per process (in-memory projections) or exactly once overall
+ * (durable projections, whose apply and checkpoint share one transaction).
+ */
+public interface ChainProjection {
+
+    /**
+     * Stable name, used as the checkpoint key for durable projections
+     */
+    String name();
+
+    void apply(ChainEvent event);
+
+    /**
+     * Durable projections write to the database and resume from their stored
+     * checkpoint; in-memory projections replay from {@link #resumeAfter()}
+     */
+    default boolean isDurable() {
+        return false;
+    }
+
+    /**
+     * State of a durable projection that lives in memory, saved with its checkpoint
+     * in the same transaction (null if it writes its own tables)
+     */
+    default Map<String, Object> checkpointState() {
+        return null;
+    }
+
+    /**
+     * Reset a durable projection to state taken from {@link #checkpointState()}: the
+     * stored one at startup (null if there is none yet), the previous one after a
+     * checkpoint transaction failed
+     */
+    default void restore(Map<String, Object> state) {
+    }
+
+    /**
+     * Seq an in-memory projection has already incorporated at startup (0 = full replay)
+     */
+    default long resumeAfter() {
+        return 0L;
+    }
+
+    /**
+     * Called once after the initial catch-up, when the projection reflects the journal
+     */
+    default void onCaughtUp() {
+    }
+}
@@ -0,0 +1,230 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.ProjectionCheckpoint;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ChainProjectionRunner - feeds the chain event journal to all {@link ChainProjection}s
+ *
+ * Reads the journal in seq order from the lowest projection position, in batches.
+ * Identity values are allocated before commit, so a lower seq can become visible
+ * after a higher one. When a gap is found the runner stops and notes the database's
+ * snapshot xmax: the transaction holding the missing seq allocated it before the
+ * later event, so its id is below that xmax. Once the snapshot xmin has passed the
+ * noted xmax every such transaction has ended; if the seq is still missing when
+ * the journal is read after that, it was rolled back and is skipped. The decision
+ * uses transaction visibility only, never timestamps, so slow commits and clock
+ * skew cannot make the runner skip a committed event.
+ *
+ * Durable projections are applied together with their checkpoint (and the state
+ * they keep in memory, if any) in one transaction and resume from it on startup;
+ * in-memory projections are applied after that commit.
+ */
+@Component
+@Slf4j
+public class ChainProjectionRunner {
+
+    private final List<ChainProjection> projections;
+    private final ChainEventRepository chainEventRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Map<String, Long> positions = new ConcurrentHashMap<>();
+    private volatile boolean started;
+
+    // First missing seq the runner is waiting for, with the snapshot xmax seen then
+    private PendingGap pendingGap;
+
+    public ChainProjectionRunner(
+        List<ChainProjection> projections,
+        ChainEventRepository chainEventRepository,
+        ProjectionCheckpointRepository checkpointRepository,
+        TransactionTemplate transactionTemplate,
+        @Value("${chain.events.batch-size:1000}") int batchSize
+    ) {
+        this.projections = projections;
+        this.chainEventRepository = chainEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (ChainProjection projection : projections) {
+            long position = projection.isDurable() ? restoreCheckpoint(projection) : projection.resumeAfter();
+            positions.put(projection.name(), position);
+        }
+        started = true;
+
+        long applied = catchUp();
+        projections.forEach(ChainProjection::onCaughtUp);
+        log.info("Chain projections {} caught up ({} events replayed)", positions.keySet(), applied);
+    }
+
+    /**
+     * Apply every committed event not yet seen by all projections
+     *
+     * @return number of journal events processed
+     */
+    @Scheduled(fixedDelayString = "${chain.events.poll-interval-ms:1000}")
+    public synchronized long catchUp() {
+        if (!started || projections.isEmpty()) {
+            return 0;
+        }
+
+        long processed = 0;
+        while (true) {
+            long from = lowestPosition();
+            // Read before the batch, so a transaction known to have ended is visible in it
+            long xmin = pendingGap != null ? chainEventRepository.findSnapshotXmin() : Long.MIN_VALUE;
+            List<ChainEvent> batch = chainEventRepository.findBatchAfter(from, PageRequest.of(0, batchSize));
+            List<ChainEvent> ready = contiguousPrefix(from, batch, xmin);
+            if (ready.isEmpty()) {
+                break;
+            }
+
+            applyBatch(ready);
+            processed += ready.size();
+
+            if (ready.size() < batch.size() || batch.size() < batchSize) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Last seq applied by the given projection
+     */
+    public long positionOf(String projectionName) {
+        return positions.getOrDefault(projectionName, 0L);
+    }
+
+    /**
+     * Load a durable projection's stored state and return its checkpoint
+     */
+    private long restoreCheckpoint(ChainProjection projection) {
+        Optional<ProjectionCheckpoint> checkpoint = checkpointRepository.findById(projection.name());
+        projection.restore(checkpoint.map(ProjectionCheckpoint::getState).orElse(null));
+        return checkpoint.map(ProjectionCheckpoint::getLastSeq).orElse(0L);
+    }
+
+    private void applyBatch(List<ChainEvent> events) {
+        Map<String, Long> advanced = new HashMap<>();
+        Map<ChainProjection, Map<String, Object>> before = new HashMap<>();
+        for (ChainProjection projection : projections) {
+            if (projection.isDurable()) {
+                before.put(projection, projection.checkpointState());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (ChainProjection projection : projections) {
+                    if (projection.isDurable()) {
+                        long last = applyTo(projection, events);
+                        checkpointRepository.save(ProjectionCheckpoint.builder()
+                            .name(projection.name())
+                            .lastSeq(last)
+                            .updatedAt(Instant.now())
+                            .state(projection.checkpointState())
+                            .build());
+                        advanced.put(projection.name(), last);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The checkpoints were not saved: drop the batch from the in-memory state, it is retried
+            before.forEach(ChainProjection::restore);
+            throw e;
+        }
+
+        for (ChainProjection projection : projections) {
+            if (!projection.isDurable()) {
+                advanced.put(projection.name(), applyTo(projection, events));
+            }
+        }
+        positions.putAll(advanced);
+    }
+
+    private long applyTo(ChainProjection projection, List<ChainEvent> events) {
+        long position = positions.getOrDefault(projection.name(), 0L);
+        for (ChainEvent event : events) {
+            if (event.getSeq() <= position) {
+                continue;
+            }
+            try {
+                projection.apply(event);
+            } catch (RuntimeException e) {
+                log.error("Projection {} failed on event #{} ({}) - skipping: {}",
+                    projection.name(), event.getSeq(), event.getEventType(), e.getMessage(), e);
+            }
+            position = event.getSeq();
+        }
+        return position;
+    }
+
+    private List<ChainEvent> contiguousPrefix(long from, List<ChainEvent> batch, long xmin) {
+        List<ChainEvent> ready = new ArrayList<>(batch.size());
+        long cursor = from;
+        for (ChainEvent event : batch) {
+            if (event.getSeq() != cursor + 1 && !gapSettled(cursor + 1, event.getSeq(), xmin)) {
+                break;
+            }
+            if (pendingGap != null && event.getSeq() >= pendingGap.seq()) {
+                pendingGap = null; // Filled or skipped
+            }
+            ready.add(event);
+            cursor = event.getSeq();
+        }
+        return ready;
+    }
+
+    /**
+     * Whether the missing seqs from {@code missing} up to {@code next} belong to
+     * transactions that have all ended (and so rolled back); the first sighting
+     * only records the horizon to wait for
+     */
+    private boolean gapSettled(long missing, long next, long xmin) {
+        if (pendingGap == null || pendingGap.seq() != missing) {
+            pendingGap = new PendingGap(missing, chainEventRepository.findSnapshotXmax());
+            log.debug("Waiting for chain event #{} (next visible is #{})", missing, next);
+            return false;
+        }
+        if (xmin < pendingGap.horizon()) {
+            return false;
+        }
+        log.warn("Skipping chain events #{}..#{}: their transactions ended without committing", missing, next - 1);
+        return true;
+    }
+
+    /**
+     * A journal gap and the transaction id every possible writer of it is below
+     */
+    private record PendingGap(long seq, long horizon) {
+    }
+
+    private long lowestPosition() {
+        return positions.values().stream().mapToLong(Long::longValue).min().orElse(0L);
+    }
+}
@@ -2,6 +2,8 @@ package com.thechain.exception;
 
 import com.thechain.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -37,6 +39,35 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloaded(ServiceOverloadedException ex) {
+        log.warn("Request shed: {}", ex.getMessage());
+
+        ErrorResponse.ErrorDetails errorDetails = ErrorResponse.ErrorDetails.builder()
+            .code(ex.getErrorCode())
+            .message(ex.getMessage())
+            .timestamp(Instant.now().toString())
+            .requestId(UUID.randomUUID().toString())
+            .build();
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .error(errorDetails)
+            .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(errorResponse);
+    }
+
+    /**
+     * An async response (NDJSON export) found the MVC async executor full
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejected(TaskRejectedException ex) {
+        return handleServiceOverloaded(
+            new ServiceOverloadedException("Too many exports in progress, please retry shortly", 5));
+    }
+
     @ExceptionHandler(MissingRequestHeaderException.class)
     public ResponseEntity<ErrorResponse> handleMissingRequestHeader(MissingRequestHeaderException ex) {
         log.error("Missing request header: {}", ex.getHeaderName());
@@ -150,6 +181,7 @@ public class GlobalExceptionHandler {
             case "INVALID_TICKET", "TICKET_EXPIRED", "TICKET_USED", "INVALID_SIGNATURE" -> HttpStatus.BAD_REQUEST;
             case "DUPLICATE_USER" -> HttpStatus.CONFLICT;
             case "USER_NOT_FOUND", "TICKET_NOT_FOUND", "PARENT_NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            case "ADMIN_REQUIRED" -> HttpStatus.FORBIDDEN;
             case "ALREADY_HAS_CHILD", "ACTIVE_TICKET_EXISTS", "PARENT_HAS_CHILD" -> HttpStatus.CONFLICT;
             default -> HttpStatus.BAD_REQUEST;
         };
@@ -0,0 +1,17 @@
+package com.thechain.exception;
+
+import lombok.Getter;
+
+/**
+ * Request shed because a bounded resource is saturated; answered with 503 and
+ * a Retry-After header so clients back off instead of piling on
+ */
+@Getter
+public class ServiceOverloadedException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super("SERVICE_OVERLOADED", message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -3,116 +3,155 @@ package com.thechain.interceptor;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
- * Rate Limiting Interceptor using Redis
- * Implements sliding window rate limiting per endpoint and user
+ * Rate Limiting Interceptor
+ * Applies every matching limit per endpoint and user, decided by the local
+ * token buckets and reconciled with Redis in the background (see {@link TieredRateLimiter})
  *
- * NOTE: RedisTemplate is optional - if Redis is not available (e.g., in tests),
- * rate limiting will be skipped gracefully.
+ * NOTE: limits are enforced even without Redis; set rate-limit.enabled=false to
+ * turn them off (e.g., in tests).
  */
 @Component
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    private final TieredRateLimiter rateLimiter;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    // Rate limit configurations
+    private static final int AUTH_REQUESTS_PER_MINUTE = 5;
+    private static final int API_REQUESTS_PER_MINUTE = 100;
+    private static final int TICKET_REQUESTS_PER_MINUTE = 10;
 
     /**
-     * Default constructor for when Redis is not available
-     * Rate limiting will be disabled
+     * Limits, in the order they are reported; a request is charged against every
+     * rule that matches it
      */
-    public RateLimitInterceptor() {
-        this.redisTemplate = null;
-        log.warn("RedisTemplate not available - rate limiting will be disabled");
-    }
+    private static final List<Rule> RULES = List.of(
+        new Rule("auth", AUTH_REQUESTS_PER_MINUTE, 60,
+            uri -> uri.contains("/auth/register") || uri.contains("/auth/login")),
+        // QR images are immutable and cached by clients - not ticket operations
+        new Rule("ticket", TICKET_REQUESTS_PER_MINUTE, 60,
+            uri -> uri.contains("/tickets") && !uri.contains("/verify") && !uri.contains("/qr/")),
+        new Rule("api", API_REQUESTS_PER_MINUTE, 60,
+            uri -> uri.startsWith("/api/v1/"))
+    );
 
     /**
-     * Constructor with RedisTemplate
-     * Enables rate limiting with Redis backend
+     * Cost weights against the general API limit for routes that do more work
+     * than a single lookup; everything else costs 1
      */
-    @Autowired(required = false)
-    public RateLimitInterceptor(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
-        if (redisTemplate == null) {
-            log.warn("RedisTemplate not available - rate limiting will be disabled");
-        }
+    private static final List<RouteCost> API_COSTS = List.of(
+        new RouteCost("/auth/register", 5),
+        new RouteCost("/auth/login", 5),
+        new RouteCost("/users/me/dashboard", 3),
+        new RouteCost("/users/me/chain", 2)
+    );
+
+    public RateLimitInterceptor(
+        TieredRateLimiter rateLimiter,
+        @Value("${rate-limit.trusted-proxies:}") List<String> trustedProxies
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.trustedProxies = trustedProxies.stream()
+            .map(String::trim)
+            .filter(proxy -> !proxy.isEmpty())
+            .map(IpAddressMatcher::new)
+            .toList();
     }
 
-    // Rate limit configurations
-    private static final int AUTH_REQUESTS_PER_MINUTE = 5;
-    private static final int API_REQUESTS_PER_MINUTE = 100;
-    private static final int TICKET_REQUESTS_PER_MINUTE = 10;
-
     @Override
     public boolean preHandle(@org.springframework.lang.NonNull HttpServletRequest request,
                              @org.springframework.lang.NonNull HttpServletResponse response,
                              @org.springframework.lang.NonNull Object handler) throws Exception {
         String requestURI = request.getRequestURI();
-        String method = request.getMethod();
 
         // Skip OPTIONS requests (CORS preflight)
-        if ("OPTIONS".equals(method)) {
+        if ("OPTIONS".equals(request.getMethod())) {
             return true;
         }
 
-        // Get identifier (IP for anonymous, userId for authenticated)
-        String identifier = getIdentifier(request);
-
-        // Determine rate limit based on endpoint
-        RateLimitConfig config = getRateLimitConfig(requestURI);
-
-        if (config == null) {
+        List<RedisRateLimiter.Limit> limits = limitsFor(requestURI);
+        if (limits.isEmpty()) {
             return true; // No rate limiting for this endpoint
         }
 
-        // Skip rate limiting if Redis is not available (e.g., in tests)
-        if (redisTemplate == null) {
-            return true;
-        }
-
-        // Check rate limit
-        String key = String.format("rate_limit:%s:%s:%s", config.name, identifier, getCurrentWindow(config.windowSeconds));
-
-        Long requests = redisTemplate.opsForValue().increment(key);
-
-        if (requests != null && requests == 1) {
-            // First request in this window, set expiration
-            redisTemplate.expire(key, Duration.ofSeconds(config.windowSeconds));
+        RedisRateLimiter.Decision decision = rateLimiter.check(getIdentifier(request), limits);
+        RedisRateLimiter.LimitState tightest = decision.tightest();
+        if (tightest == null) {
+            return true; // No limit state to report
         }
 
-        if (requests != null && requests > config.maxRequests) {
-            log.warn("Rate limit exceeded for {} on endpoint {}: {} requests in {}s window",
-                    identifier, requestURI, requests, config.windowSeconds);
+        if (!decision.allowed()) {
+            long retryAfterSeconds = Math.max(1L, (tightest.retryAfterMillis() + 999) / 1000);
+            log.warn("Rate limit {} exceeded for {} on endpoint {}, retry in {}s",
+                    tightest.limit().name(), getIdentifier(request), requestURI, retryAfterSeconds);
 
+            writeHeaders(response, tightest);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.setContentType("application/json");
-            response.getWriter().write(String.format(
-                    "{\"error\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many requests. Limit: %d requests per %d seconds\",\"retryAfter\":%d}",
-                    config.maxRequests, config.windowSeconds, config.windowSeconds
-            ));
+            response.getWriter().write("{\"error\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many requests. Limit: "
+                    + tightest.limit().limit() + " requests per " + tightest.limit().windowSeconds()
+                    + " seconds\",\"retryAfter\":" + retryAfterSeconds + "}");
             return false;
         }
 
         // Add rate limit headers
-        response.setHeader("X-RateLimit-Limit", String.valueOf(config.maxRequests));
-        response.setHeader("X-RateLimit-Remaining", String.valueOf(Math.max(0, config.maxRequests - (requests != null ? requests : 0))));
-        response.setHeader("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + config.windowSeconds));
-
+        writeHeaders(response, tightest);
         return true;
     }
 
+    /**
+     * Every limit that applies to the request, with its cost for this route
+     */
+    List<RedisRateLimiter.Limit> limitsFor(String requestURI) {
+        List<RedisRateLimiter.Limit> limits = new ArrayList<>(RULES.size());
+        for (Rule rule : RULES) {
+            if (rule.matches().test(requestURI)) {
+                int cost = "api".equals(rule.name()) ? apiCost(requestURI) : 1;
+                limits.add(new RedisRateLimiter.Limit(rule.name(), rule.limit(), rule.windowSeconds(), cost));
+            }
+        }
+        return limits;
+    }
+
+    private static int apiCost(String requestURI) {
+        for (RouteCost routeCost : API_COSTS) {
+            if (requestURI.endsWith(routeCost.suffix())) {
+                return routeCost.cost();
+            }
+        }
+        return 1;
+    }
+
+    private static void writeHeaders(HttpServletResponse response, RedisRateLimiter.LimitState state) {
+        response.setHeader("X-RateLimit-Limit", String.valueOf(state.limit().limit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(state.remaining()));
+        response.setHeader("X-RateLimit-Reset",
+                String.valueOf((System.currentTimeMillis() + state.resetAfterMillis() + 999) / 1000));
+    }
+
     /**
      * Get identifier for rate limiting
-     * Uses userId for authenticated requests, IP address otherwise
+     * Uses userId for authenticated requests, IP address otherwise. Forwarding
+     * headers are client-controlled, so they are only believed when the request
+     * comes from a configured proxy (rate-limit.trusted-proxies).
      */
     private String getIdentifier(HttpServletRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -123,58 +162,55 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
 
         // Fallback to IP address
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty()) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty()) {
-            ip = request.getRemoteAddr();
-        }
-
-        return "ip:" + ip;
+        return "ip:" + clientAddress(request);
     }
 
     /**
-     * Determine rate limit configuration based on endpoint
+     * The address of the client: the remote address, or behind trusted proxies
+     * the right-most X-Forwarded-For hop that is not itself a trusted proxy
      */
-    private RateLimitConfig getRateLimitConfig(String requestURI) {
-        // Authentication endpoints - stricter limits
-        if (requestURI.contains("/auth/register") || requestURI.contains("/auth/login")) {
-            return new RateLimitConfig("auth", AUTH_REQUESTS_PER_MINUTE, 60);
+    String clientAddress(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
         }
 
-        // Ticket generation - strict limits
-        if (requestURI.contains("/tickets") && !requestURI.contains("/verify")) {
-            return new RateLimitConfig("ticket", TICKET_REQUESTS_PER_MINUTE, 60);
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && (i == 0 || !isTrustedProxy(hop))) {
+                    return hop;
+                }
+            }
         }
+        String realIp = request.getHeader("X-Real-IP");
+        return realIp != null && !realIp.isBlank() ? realIp.trim() : remoteAddr;
+    }
 
-        // General API endpoints
-        if (requestURI.startsWith("/api/v1/")) {
-            return new RateLimitConfig("api", API_REQUESTS_PER_MINUTE, 60);
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                return false; // Not an IP address
+            }
         }
-
-        return null; // No rate limiting
+        return false;
     }
 
     /**
-     * Get current time window for rate limiting
+     * Rate limit configuration
      */
-    private long getCurrentWindow(int windowSeconds) {
-        return System.currentTimeMillis() / 1000 / windowSeconds;
+    private record Rule(String name, int limit, int windowSeconds, Predicate<String> matches) {
     }
 
     /**
-     * Rate limit configuration
+     * Weight of a route against the general API limit
      */
-    private static class RateLimitConfig {
-        final String name;
-        final int maxRequests;
-        final int windowSeconds;
-
-        RateLimitConfig(String name, int maxRequests, int windowSeconds) {
-            this.name = name;
-            this.maxRequests = maxRequests;
-            this.windowSeconds = windowSeconds;
-        }
+    private record RouteCost(String suffix, int cost) {
     }
 }
@@ -0,0 +1,249 @@
+package com.thechain.interceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisRateLimiter - GCRA rate limiting in one Redis round trip
+ *
+ * All limits that apply to a request are checked and charged together by
+ * redis/rate_limit_gcra.lua (EVALSHA after the first call): no INCR/EXPIRE pair,
+ * no fixed-window edge bursts, and remaining quota and reset time come back in
+ * the same reply. Keys share the caller's hash tag so the script stays valid on
+ * Redis Cluster.
+ *
+ * Fails open: without Redis (tests, local runs) or when Redis errors, requests
+ * are allowed and {@link Decision#unlimited()} is returned.
+ *
+ * {@link #reconcile} is the shared tier behind {@link TieredRateLimiter}: it
+ * charges quota already admitted by a node's local buckets in one pipelined
+ * batch (redis/rate_limit_reconcile.lua, one call per caller) and returns how
+ * far each shared limit is drawn down.
+ *
+ * Metrics: chain.ratelimit.check and chain.ratelimit.reconcile (timers),
+ * chain.ratelimit.rejected{limit} (counter).
+ */
+@Component
+@Slf4j
+public class RedisRateLimiter {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT =
+        RedisScript.of(new ClassPathResource("redis/rate_limit_gcra.lua"), List.class);
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECONCILE_SCRIPT =
+        RedisScript.of(new ClassPathResource("redis/rate_limit_reconcile.lua"), List.class);
+
+    private static final String KEY_PREFIX = "rate_limit:{";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer checkTimer;
+    private final Timer reconcileTimer;
+
+    @Autowired
+    public RedisRateLimiter(ObjectProvider<RedisTemplate<String, String>> redisTemplate, MeterRegistry meterRegistry) {
+        this(redisTemplate.getIfAvailable(), meterRegistry);
+    }
+
+    RedisRateLimiter(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.checkTimer = Timer.builder("chain.ratelimit.check")
+            .description("Redis round trip of one rate limit check")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("chain.ratelimit.reconcile")
+            .description("Redis round trip of one batch of locally consumed quota")
+            .register(meterRegistry);
+        if (redisTemplate == null) {
+            log.warn("RedisTemplate not available - rate limits will be enforced per node only");
+        }
+    }
+
+    /**
+     * A limit of {@code limit} units per {@code windowSeconds}, charged {@code cost} units
+     */
+    public record Limit(String name, int limit, int windowSeconds, int cost) {
+
+        long intervalMillis() {
+            return Math.max(1L, windowSeconds * 1000L / limit);
+        }
+    }
+
+    /**
+     * State of one limit after the check
+     */
+    public record LimitState(Limit limit, long remaining, long retryAfterMillis, long resetAfterMillis) {
+    }
+
+    /**
+     * Outcome for all limits of one request; nothing is charged unless all allow it
+     */
+    public record Decision(boolean allowed, List<LimitState> states) {
+
+        public static Decision unlimited() {
+            return new Decision(true, List.of());
+        }
+
+        /**
+         * The limit that decided the outcome: the rejecting one with the longest
+         * wait, or the one with the least quota left
+         */
+        public LimitState tightest() {
+            Comparator<LimitState> order = allowed
+                ? Comparator.comparingLong(LimitState::remaining)
+                : Comparator.comparingLong(LimitState::retryAfterMillis).reversed();
+            return states.stream().min(order).orElse(null);
+        }
+    }
+
+    /**
+     * Units of a limit a caller consumed locally since the last reconcile
+     */
+    public record Usage(String identifier, Limit limit, long units) {
+    }
+
+    /**
+     * True if there is a shared tier to reconcile with
+     */
+    public boolean isAvailable() {
+        return redisTemplate != null;
+    }
+
+    /**
+     * Check and charge all limits for one caller in a single script call
+     */
+    public Decision check(String identifier, List<Limit> limits) {
+        if (redisTemplate == null || limits.isEmpty()) {
+            return Decision.unlimited();
+        }
+
+        List<String> keys = new ArrayList<>(limits.size());
+        Object[] args = new Object[limits.size() * 3];
+        for (int i = 0; i < limits.size(); i++) {
+            Limit limit = limits.get(i);
+            keys.add(KEY_PREFIX + identifier + "}:" + limit.name());
+            args[i * 3] = Long.toString(limit.intervalMillis());
+            args[i * 3 + 1] = Integer.toString(limit.limit());
+            args[i * 3 + 2] = Integer.toString(limit.cost());
+        }
+
+        List<?> reply;
+        long started = System.nanoTime();
+        try {
+            reply = redisTemplate.execute(SCRIPT, keys, args);
+        } catch (RuntimeException e) {
+            log.warn("Rate limit check failed, allowing request: {}", e.getMessage());
+            return Decision.unlimited();
+        } finally {
+            checkTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        if (reply == null || reply.size() != 1 + limits.size() * 3) {
+            return Decision.unlimited();
+        }
+
+        boolean allowed = number(reply.get(0)) == 1L;
+        List<LimitState> states = new ArrayList<>(limits.size());
+        for (int i = 0; i < limits.size(); i++) {
+            LimitState state = new LimitState(limits.get(i),
+                number(reply.get(1 + i * 3)),
+                number(reply.get(2 + i * 3)),
+                number(reply.get(3 + i * 3)));
+            states.add(state);
+            if (!allowed && state.retryAfterMillis() > 0) {
+                meterRegistry.counter("chain.ratelimit.rejected", "limit", state.limit().name()).increment();
+            }
+        }
+        return new Decision(allowed, states);
+    }
+
+    /**
+     * Charge locally admitted usage to the shared limits, one pipelined round trip
+     * for the whole batch
+     *
+     * @return per usage, in input order, how many ms the shared limit's TAT is
+     *         ahead of now (-1 if unknown), or null if Redis is unavailable
+     */
+    public long[] reconcile(List<Usage> usages) {
+        if (redisTemplate == null || usages.isEmpty()) {
+            return null;
+        }
+
+        // Keys of one script call must share a hash tag, so group by caller
+        Map<String, List<Integer>> byCaller = new LinkedHashMap<>();
+        for (int i = 0; i < usages.size(); i++) {
+            byCaller.computeIfAbsent(usages.get(i).identifier(), id -> new ArrayList<>()).add(i);
+        }
+
+        List<Object> replies;
+        long started = System.nanoTime();
+        try {
+            replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    for (List<Integer> indexes : byCaller.values()) {
+                        List<String> keys = new ArrayList<>(indexes.size());
+                        Object[] args = new Object[indexes.size() * 3];
+                        for (int i = 0; i < indexes.size(); i++) {
+                            Usage usage = usages.get(indexes.get(i));
+                            keys.add(KEY_PREFIX + usage.identifier() + "}:" + usage.limit().name());
+                            args[i * 3] = Long.toString(usage.limit().intervalMillis());
+                            args[i * 3 + 1] = Integer.toString(usage.limit().limit());
+                            args[i * 3 + 2] = Long.toString(usage.units());
+                        }
+                        ops.execute(RECONCILE_SCRIPT, keys, args);
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Rate limit reconcile of {} usages failed: {}", usages.size(), e.getMessage());
+            return null;
+        } finally {
+            reconcileTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        long[] ahead = new long[usages.size()];
+        Arrays.fill(ahead, -1L);
+        if (replies == null) {
+            return ahead;
+        }
+        int call = 0;
+        for (List<Integer> indexes : byCaller.values()) {
+            Object reply = call < replies.size() ? replies.get(call) : null;
+            call++;
+            if (reply instanceof List<?> values && values.size() == indexes.size()) {
+                for (int i = 0; i < indexes.size(); i++) {
+                    ahead[indexes.get(i)] = number(values.get(i));
+                }
+            }
+        }
+        return ahead;
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number n ? n.longValue() : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,381 @@
+package com.thechain.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * TieredRateLimiter - in-process token buckets in front of the shared Redis limits
+ *
+ * Every decision is made locally: each caller (keyed by identifier) has one GCRA
+ * bucket per limit, a single AtomicLong TAT advanced by CAS, so a check costs a
+ * couple of map lookups and no network hop. Units consumed since the last pass
+ * are folded into Redis asynchronously in pipelined batches
+ * ({@link RedisRateLimiter#reconcile}); the reply says how far each limit is
+ * drawn down across all nodes and the local TAT is moved up to match. Global
+ * limits are therefore approximate - within one reconcile interval a caller can
+ * get one burst per node - in exchange for near-zero per-request cost.
+ *
+ * Limits keep being enforced when Redis is missing or down; each node then just
+ * limits on its own. With rate-limit.local.exact=true every request goes through
+ * the atomic Redis check instead, and the local buckets only take over while
+ * Redis is unavailable.
+ *
+ * Memory is bounded: callers live in {@value #STRIPES} map stripes capped at
+ * rate-limit.local.max-callers in total. Idle callers are evicted on every
+ * reconcile pass; a full stripe first drops callers whose buckets are full again
+ * (no state lost). If that frees nothing, a new caller is checked against Redis
+ * directly, like in exact mode; only without Redis does it share the stripe's
+ * overflow caller until room frees up. Overflow is per stripe, so flooding one
+ * stripe with identifiers cannot drain the quota of new callers everywhere else.
+ *
+ * Metrics: chain.ratelimit.local.callers (gauge), chain.ratelimit.local.rejected{limit}
+ * and chain.ratelimit.local.overflow (counters).
+ */
+@Component
+@Slf4j
+public class TieredRateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final String OVERFLOW_IDENTIFIER = "overflow:local:";
+
+    /**
+     * A full stripe is swept at most this often; in between, new callers overflow
+     */
+    private static final long PRESSURE_SWEEP_INTERVAL_MS = 1000;
+
+    private final RedisRateLimiter sharedLimiter;
+    private final MeterRegistry meterRegistry;
+    private final boolean exact;
+    private final int callersPerStripe;
+    private final long idleMillis;
+    private final int batchSize;
+    private final LongSupplier clock;
+
+    private final List<Stripe> stripes = new ArrayList<>(STRIPES);
+    private final Counter overflowed;
+
+    @Autowired
+    public TieredRateLimiter(
+        RedisRateLimiter sharedLimiter,
+        MeterRegistry meterRegistry,
+        @Value("${rate-limit.local.exact:false}") boolean exact,
+        @Value("${rate-limit.local.max-callers:100000}") int maxCallers,
+        @Value("${rate-limit.local.idle-eviction-ms:300000}") long idleMillis,
+        @Value("${rate-limit.local.reconcile-batch-size:500}") int batchSize
+    ) {
+        this(sharedLimiter, meterRegistry, exact, maxCallers, idleMillis, batchSize,
+            () -> System.nanoTime() / 1_000_000);
+    }
+
+    TieredRateLimiter(
+        RedisRateLimiter sharedLimiter,
+        MeterRegistry meterRegistry,
+        boolean exact,
+        int maxCallers,
+        long idleMillis,
+        int batchSize,
+        LongSupplier clock
+    ) {
+        this.sharedLimiter = sharedLimiter;
+        this.meterRegistry = meterRegistry;
+        this.exact = exact;
+        this.callersPerStripe = Math.max(1, maxCallers / STRIPES);
+        this.idleMillis = idleMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new Stripe(i));
+        }
+
+        this.overflowed = Counter.builder("chain.ratelimit.local.overflow")
+            .description("Checks of new callers that found their stripe of the local tier full")
+            .register(meterRegistry);
+        Gauge.builder("chain.ratelimit.local.callers", this, TieredRateLimiter::size)
+            .description("Callers with local rate limit buckets")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Check and charge all limits for one caller; nothing is charged unless all allow it
+     */
+    public RedisRateLimiter.Decision check(String identifier, List<RedisRateLimiter.Limit> limits) {
+        if (limits.isEmpty()) {
+            return RedisRateLimiter.Decision.unlimited();
+        }
+        if (exact && sharedLimiter.isAvailable()) {
+            RedisRateLimiter.Decision shared = sharedLimiter.check(identifier, limits);
+            if (!shared.states().isEmpty()) {
+                return shared;
+            }
+            // Redis errored - fall back to the local buckets below
+        }
+
+        long now = clock.getAsLong();
+        Stripe stripe = stripes.get(stripeIndex(identifier));
+        Caller caller = stripe.caller(identifier, now);
+        if (caller == null) {
+            overflowed.increment();
+            if (sharedLimiter.isAvailable()) {
+                RedisRateLimiter.Decision shared = sharedLimiter.check(identifier, limits);
+                if (!shared.states().isEmpty()) {
+                    return shared;
+                }
+            }
+            caller = stripe.overflow;
+            caller.lastSeen = now;
+        }
+        Bucket[] buckets = new Bucket[limits.size()];
+        for (int i = 0; i < limits.size(); i++) {
+            buckets[i] = caller.bucket(limits.get(i));
+        }
+
+        int rejectedAt = -1;
+        long retryAfter = 0;
+        for (int i = 0; i < limits.size(); i++) {
+            retryAfter = buckets[i].tryAcquire(limits.get(i).cost(), now);
+            if (retryAfter > 0) {
+                rejectedAt = i;
+                break;
+            }
+        }
+        if (rejectedAt >= 0) {
+            for (int i = 0; i < rejectedAt; i++) {
+                buckets[i].refund(limits.get(i).cost());
+            }
+            meterRegistry.counter("chain.ratelimit.local.rejected", "limit", limits.get(rejectedAt).name()).increment();
+        }
+
+        List<RedisRateLimiter.LimitState> states = new ArrayList<>(limits.size());
+        for (int i = 0; i < limits.size(); i++) {
+            states.add(new RedisRateLimiter.LimitState(limits.get(i),
+                buckets[i].remaining(now),
+                i == rejectedAt ? retryAfter : 0,
+                buckets[i].resetAfter(now)));
+        }
+        return new RedisRateLimiter.Decision(rejectedAt < 0, states);
+    }
+
+    /**
+     * Push locally consumed units to Redis, pull the shared state back into the
+     * local buckets, and evict idle callers
+     *
+     * Without Redis the counts are simply dropped; the local limits already
+     * enforced them.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.local.reconcile-interval-ms:1000}")
+    public void reconcile() {
+        List<Bucket> pending = new ArrayList<>();
+        List<RedisRateLimiter.Usage> usages = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            for (Caller caller : stripe.callers.values()) {
+                drain(caller, pending, usages);
+            }
+            drain(stripe.overflow, pending, usages);
+        }
+
+        long now = clock.getAsLong();
+        for (Stripe stripe : stripes) {
+            stripe.evict(now, idleMillis, false);
+        }
+
+        if (usages.isEmpty() || !sharedLimiter.isAvailable()) {
+            return;
+        }
+        for (int from = 0; from < usages.size(); from += batchSize) {
+            int to = Math.min(usages.size(), from + batchSize);
+            long[] ahead = sharedLimiter.reconcile(usages.subList(from, to));
+            if (ahead == null) {
+                log.debug("Rate limit reconcile skipped, enforcing locally only");
+                return;
+            }
+            long synced = clock.getAsLong();
+            for (int i = 0; i < ahead.length; i++) {
+                if (ahead[i] > 0) {
+                    pending.get(from + i).catchUp(synced + ahead[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of callers currently holding local buckets
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.callers.size();
+        }
+        return size;
+    }
+
+    /**
+     * Stripe an identifier's caller lives in
+     */
+    static int stripeIndex(String identifier) {
+        int hash = identifier.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static void drain(Caller caller, List<Bucket> pending, List<RedisRateLimiter.Usage> usages) {
+        for (Bucket bucket : caller.buckets.values()) {
+            long units = bucket.unsynced.getAndSet(0);
+            if (units > 0) {
+                pending.add(bucket);
+                usages.add(new RedisRateLimiter.Usage(caller.identifier, bucket.limit, units));
+            }
+        }
+    }
+
+    /**
+     * One shard of the caller map, with its own pressure sweep throttle
+     */
+    private final class Stripe {
+
+        final ConcurrentHashMap<String, Caller> callers = new ConcurrentHashMap<>();
+        final Caller overflow;
+        final AtomicLong lastPressureSweep = new AtomicLong(Long.MIN_VALUE / 2);
+
+        Stripe(int index) {
+            this.overflow = new Caller(OVERFLOW_IDENTIFIER + index);
+        }
+
+        /**
+         * The identifier's caller, created if there is room; null if the stripe is full
+         */
+        Caller caller(String identifier, long now) {
+            Caller caller = callers.get(identifier);
+            if (caller == null) {
+                if (callers.size() >= callersPerStripe && !relievePressure(now, idleMillis)) {
+                    return null;
+                }
+                caller = callers.computeIfAbsent(identifier, Caller::new);
+            }
+            caller.lastSeen = now;
+            return caller;
+        }
+
+        /**
+         * Try to make room for a new caller; false if the stripe is still full
+         */
+        boolean relievePressure(long now, long idleMillis) {
+            long last = lastPressureSweep.get();
+            if (now - last >= PRESSURE_SWEEP_INTERVAL_MS && lastPressureSweep.compareAndSet(last, now)) {
+                evict(now, idleMillis, true);
+            }
+            return callers.size() < callersPerStripe;
+        }
+
+        /**
+         * Drop idle callers with nothing left to reconcile; under pressure also
+         * those whose buckets are all full again, which a fresh caller reproduces
+         */
+        void evict(long now, long idleMillis, boolean underPressure) {
+            callers.values().removeIf(caller -> caller.synced()
+                && (now - caller.lastSeen >= idleMillis || (underPressure && caller.full(now))));
+        }
+    }
+
+    /**
+     * Buckets of one identifier, one per limit name
+     */
+    private static final class Caller {
+
+        final String identifier;
+        final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>(4);
+        volatile long lastSeen;
+
+        Caller(String identifier) {
+            this.identifier = identifier;
+        }
+
+        Bucket bucket(RedisRateLimiter.Limit limit) {
+            Bucket bucket = buckets.get(limit.name());
+            return bucket != null ? bucket : buckets.computeIfAbsent(limit.name(), name -> new Bucket(limit));
+        }
+
+        boolean synced() {
+            for (Bucket bucket : buckets.values()) {
+                if (bucket.unsynced.get() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean full(long now) {
+            for (Bucket bucket : buckets.values()) {
+                if (bucket.tat.get() > now) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * GCRA state of one limit: TAT in local clock ms plus units not yet reconciled
+     */
+    private static final class Bucket {
+
+        final RedisRateLimiter.Limit limit;
+        final long interval;
+        final long burst;
+        final AtomicLong tat = new AtomicLong(Long.MIN_VALUE / 2);
+        final AtomicLong unsynced = new AtomicLong();
+
+        Bucket(RedisRateLimiter.Limit limit) {
+            this.limit = limit;
+            this.interval = limit.intervalMillis();
+            this.burst = interval * limit.limit();
+        }
+
+        /**
+         * Charge {@code cost} units; 0 if charged, otherwise ms until they would fit
+         */
+        long tryAcquire(int cost, long now) {
+            while (true) {
+                long current = tat.get();
+                long charged = Math.max(current, now) + cost * interval;
+                if (charged - burst > now) {
+                    return charged - burst - now;
+                }
+                if (tat.compareAndSet(current, charged)) {
+                    unsynced.addAndGet(cost);
+                    return 0;
+                }
+            }
+        }
+
+        void refund(int cost) {
+            tat.addAndGet(-cost * interval);
+            unsynced.addAndGet(-cost);
+        }
+
+        /**
+         * Adopt the shared TAT if other nodes drew the limit down further
+         */
+        void catchUp(long sharedTat) {
+            tat.accumulateAndGet(sharedTat, Math::max);
+        }
+
+        long remaining(long now) {
+            return Math.max(0, (burst - Math.max(0, tat.get() - now)) / interval);
+        }
+
+        long resetAfter(long now) {
+            return Math.max(0, tat.get() - now);
+        }
+    }
+}
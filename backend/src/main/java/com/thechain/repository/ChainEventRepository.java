@@ -0,0 +1,59 @@
+package com.thechain.repository;
+
+import com.thechain.entity.ChainEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChainEventRepository extends JpaRepository<ChainEvent, Long> {
+
+    /**
+     * Next batch of the journal after a checkpoint, in sequence order
+     */
+    @Query("SELECT e FROM ChainEvent e WHERE e.seq > :afterSeq ORDER BY e.seq ASC")
+    List<ChainEvent> findBatchAfter(@Param("afterSeq") long afterSeq, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.seq), 0) FROM ChainEvent e")
+    long findMaxSeq();
+
+    /**
+     * Seq ranges in (afterSeq, throughSeq] missing from the current snapshot: rolled
+     * back, or written by transactions that have not committed yet
+     */
+    @Query(value = """
+        SELECT g.prev + 1 AS firstSeq, g.seq - 1 AS lastSeq
+        FROM (
+            SELECT e.seq, LAG(e.seq, 1, CAST(:afterSeq AS bigint)) OVER (ORDER BY e.seq) AS prev
+            FROM chain_events e
+            WHERE e.seq > :afterSeq AND e.seq <= :throughSeq
+        ) g
+        WHERE g.seq > g.prev + 1
+        ORDER BY g.seq
+        """, nativeQuery = true)
+    List<JournalGapView> findGaps(@Param("afterSeq") long afterSeq, @Param("throughSeq") long throughSeq);
+
+    /**
+     * Oldest transaction id still running: every transaction below it has
+     * committed or rolled back
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)",
+           nativeQuery = true)
+    long findSnapshotXmin();
+
+    /**
+     * First transaction id not yet assigned: every running transaction is below it
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS text) AS bigint)",
+           nativeQuery = true)
+    long findSnapshotXmax();
+
+    interface JournalGapView {
+        Long getFirstSeq();
+        Long getLastSeq();
+    }
+}
@@ -2,7 +2,9 @@ package com.thechain.repository;
 
 import com.thechain.entity.ChainRule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -28,4 +30,11 @@ public interface ChainRuleRepository extends JpaRepository<ChainRule, UUID> {
 
     @Query("SELECT cr FROM ChainRule cr WHERE cr.deploymentMode = 'SCHEDULED' AND cr.appliedAt IS NULL AND cr.effectiveFrom <= :now")
     List<ChainRule> findScheduledRulesDueForApplication(Instant now);
+
+    /**
+     * Mark a scheduled rule as applied; conditional so concurrent nodes apply it once
+     */
+    @Modifying
+    @Query("UPDATE ChainRule cr SET cr.appliedAt = :appliedAt WHERE cr.id = :id AND cr.appliedAt IS NULL")
+    int markApplied(@Param("id") UUID id, @Param("appliedAt") Instant appliedAt);
 }
@@ -1,14 +1,21 @@
 package com.thechain.repository;
 
 import com.thechain.entity.Invitation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
@@ -24,15 +31,81 @@ public interface InvitationRepository extends JpaRepository<Invitation, UUID> {
     @Query("SELECT i FROM Invitation i WHERE i.parentId = :parentId AND i.status = 'ACTIVE'")
     Optional<Invitation> findActiveInvitationByParentId(@Param("parentId") UUID parentId);
 
-    /**
-     * Get list of wastedChildIds for a parent - children who were removed from chain
-     * This provides relational storage for User.wastedChildIds field
-     */
-    @Query("SELECT i.childId FROM Invitation i WHERE i.parentId = :parentId AND i.status = 'REMOVED'")
-    List<UUID> findWastedChildIdsByParentId(@Param("parentId") UUID parentId);
-
     @Query("SELECT COUNT(i) FROM Invitation i WHERE i.status = 'ACTIVE'")
     long countActiveInvitations();
 
     boolean existsByChildIdAndStatus(UUID childId, Invitation.InvitationStatus status);
+
+    /**
+     * Flip the ACTIVE invitations of the given children to REMOVED and, in the same
+     * statement, add one strike per flipped invitation to users.wasted_child_count
+     * of each parent. Returns the parents' new counters, so the 3-strike decision
+     * needs no further reads. Invitations that were not ACTIVE are left untouched
+     * and count nothing, which keeps the counter idempotent under retries.
+     *
+     * Not @Modifying on purpose: UPDATE ... RETURNING yields a result set.
+     */
+    @Query(value = """
+        WITH flipped AS (
+            UPDATE invitations
+            SET status = 'REMOVED'
+            WHERE child_id IN (:childIds)
+            AND status = 'ACTIVE'
+            RETURNING parent_id
+        ), strikes AS (
+            SELECT parent_id, COUNT(*) AS added FROM flipped GROUP BY parent_id
+        )
+        UPDATE users u
+        SET wasted_child_count = u.wasted_child_count + s.added, updated_at = NOW()
+        FROM strikes s
+        WHERE u.id = s.parent_id
+        RETURNING u.id AS parentId, u.wasted_child_count AS wastedChildCount
+        """, nativeQuery = true)
+    List<StrikeCountView> markRemovedAndRecordStrikes(@Param("childIds") Collection<UUID> childIds);
+
+    /**
+     * Stream active parent -> child links for building the in-memory chain index.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT i.parentId AS parentId, i.childId AS childId FROM Invitation i WHERE i.status = 'ACTIVE'")
+    Stream<ChainLinkView> streamActiveLinks();
+
+    /**
+     * Most recent joins with the child's position and name, newest first, in one
+     * query (replaces reading attachments and loading each child separately)
+     */
+    @Query("""
+        SELECT u.position AS childPosition, u.displayName AS displayName, i.acceptedAt AS joinedAt
+        FROM Invitation i
+        JOIN User u ON u.id = i.childId
+        WHERE i.acceptedAt IS NOT NULL
+        ORDER BY i.acceptedAt DESC
+        """)
+    List<RecentJoinView> findRecentJoins(Pageable pageable);
+
+    /**
+     * Parent strike counter after an invitation flip
+     */
+    interface StrikeCountView {
+        UUID getParentId();
+        Integer getWastedChildCount();
+    }
+
+    /**
+     * Parent -> child projection of an invitation row
+     */
+    interface ChainLinkView {
+        UUID getParentId();
+        UUID getChildId();
+    }
+
+    /**
+     * A child that joined, for the recent activity feed
+     */
+    interface RecentJoinView {
+        Integer getChildPosition();
+        String getDisplayName();
+        Instant getJoinedAt();
+    }
 }
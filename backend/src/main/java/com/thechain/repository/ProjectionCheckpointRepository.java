@@ -0,0 +1,18 @@
+package com.thechain.repository;
+
+import com.thechain.entity.ProjectionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProjectionCheckpointRepository extends JpaRepository<ProjectionCheckpoint, String> {
+
+    /**
+     * Lowest durable projection position, 0 without any. The runner only advances
+     * checkpoints past committed or settled seqs, so no transaction still running
+     * can write an event at or below it.
+     */
+    @Query("SELECT COALESCE(MIN(c.lastSeq), 0) FROM ProjectionCheckpoint c")
+    long findLowestLastSeq();
+}
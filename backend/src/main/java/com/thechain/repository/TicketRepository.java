@@ -2,8 +2,15 @@ package com.thechain.repository;
 
 import com.thechain.entity.Ticket;
 import com.thechain.entity.Ticket.TicketStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -11,12 +18,39 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, UUID> {
 
     Optional<Ticket> findByOwnerIdAndStatus(UUID ownerId, Ticket.TicketStatus status);
 
+    /**
+     * Load a ticket with a row lock so concurrent claims of the same ticket queue up
+     * and all but the first see it USED
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Ticket t WHERE t.id = :id")
+    Optional<Ticket> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Mark a ticket USED if it is still active and not past its deadline.
+     * Concurrent claims queue on the row lock; all but the first match no row.
+     *
+     * Not @Modifying on purpose: UPDATE ... RETURNING yields a result set.
+     *
+     * @return the ticket owner, or null if the ticket could not be claimed
+     */
+    @Query(value = """
+        UPDATE tickets
+        SET status = 'USED', used_at = :now, claimed_at = :now
+        WHERE id = :id
+        AND status = 'ACTIVE'
+        AND expires_at > :now
+        RETURNING owner_id
+        """, nativeQuery = true)
+    UUID claimTicket(@Param("id") UUID id, @Param("now") Instant now);
+
     Optional<Ticket> findByTicketCode(String ticketCode);
 
     List<Ticket> findByStatusAndExpiresAtBefore(Ticket.TicketStatus status, Instant expiresAt);
@@ -44,4 +78,177 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
      * Find tickets by owner ordered by issued date
      */
     List<Ticket> findByOwnerIdOrderByIssuedAtDesc(UUID ownerId);
+
+    /**
+     * Stream id/owner/expiry of active tickets for the in-memory chain index and the
+     * expiry queue. Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT t.id AS id, t.ownerId AS ownerId, t.expiresAt AS expiresAt FROM Ticket t WHERE t.status = 'ACTIVE'")
+    Stream<TicketExpiryView> streamActiveExpiries();
+
+    /**
+     * Overdue active tickets, oldest first (expiry reconciliation scan)
+     */
+    @Query("""
+        SELECT t.id AS id, t.ownerId AS ownerId, t.expiresAt AS expiresAt FROM Ticket t
+        WHERE t.status = 'ACTIVE' AND t.expiresAt <= :now
+        ORDER BY t.expiresAt
+        """)
+    List<TicketExpiryView> findOverdue(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Lease a batch of overdue active tickets for expiration processing (claiming mode).
+     * FOR UPDATE SKIP LOCKED lets concurrent nodes claim disjoint batches; tickets whose
+     * lease is still running are skipped, expired leases are reclaimed.
+     * Native UPDATE ... RETURNING, so no @Modifying; must run in a transaction.
+     */
+    @Query(value = """
+        WITH claimable AS (
+            SELECT t.id
+            FROM tickets t
+            WHERE t.status = 'ACTIVE'
+            AND t.expires_at <= :now
+            AND (t.expiry_claimed_until IS NULL OR t.expiry_claimed_until < :now)
+            ORDER BY t.expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE tickets t
+        SET expiry_claimed_by = :nodeId, expiry_claimed_until = :leaseUntil
+        FROM claimable c
+        WHERE t.id = c.id
+        RETURNING t.id AS id, t.owner_id AS ownerId,
+                  CAST(EXTRACT(EPOCH FROM t.expires_at) * 1000 AS BIGINT) AS expiresAtMillis
+        """, nativeQuery = true)
+    List<ClaimedTicketView> claimOverdue(
+        @Param("nodeId") String nodeId,
+        @Param("now") Instant now,
+        @Param("leaseUntil") Instant leaseUntil,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Claim up to :limit active tickets expiring in (:from, :until] whose 12-hour
+     * warning has not been queued yet, stamping warned_12h_at. Concurrent callers
+     * claim disjoint sets (SKIP LOCKED). Native UPDATE ... RETURNING, so no @Modifying.
+     */
+    @Query(value = """
+        UPDATE tickets t
+        SET warned_12h_at = :now
+        WHERE t.id IN (
+            SELECT c.id FROM tickets c
+            WHERE c.status = 'ACTIVE'
+            AND c.warned_12h_at IS NULL
+            AND c.expires_at > :from
+            AND c.expires_at <= :until
+            ORDER BY c.expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING t.id
+        """, nativeQuery = true)
+    List<UUID> claim12HourWarnings(
+        @Param("now") Instant now,
+        @Param("from") Instant from,
+        @Param("until") Instant until,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Claim up to :limit active tickets expiring in (:from, :until] whose 1-hour
+     * warning has not been queued yet. Also stamps the 12-hour warning, which is
+     * superseded once a ticket is inside the last hour.
+     */
+    @Query(value = """
+        UPDATE tickets t
+        SET warned_1h_at = :now, warned_12h_at = COALESCE(t.warned_12h_at, :now)
+        WHERE t.id IN (
+            SELECT c.id FROM tickets c
+            WHERE c.status = 'ACTIVE'
+            AND c.warned_1h_at IS NULL
+            AND c.expires_at > :from
+            AND c.expires_at <= :until
+            ORDER BY c.expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING t.id
+        """, nativeQuery = true)
+    List<UUID> claim1HourWarnings(
+        @Param("now") Instant now,
+        @Param("from") Instant from,
+        @Param("until") Instant until,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Un-claim a warning whose delivery failed so the next run retries it
+     */
+    @Modifying
+    @Query("UPDATE Ticket t SET t.warned12hAt = NULL WHERE t.id = :id AND t.status = 'ACTIVE'")
+    int release12HourWarning(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.warned1hAt = NULL WHERE t.id = :id AND t.status = 'ACTIVE'")
+    int release1HourWarning(@Param("id") UUID id);
+
+    /**
+     * Delete one retention chunk: the next :limit finished tickets after the keyset
+     * cursor (expires_at, id) that expired before :cutoff. Tickets still referenced
+     * by an invitation are kept but the cursor moves past them.
+     * Returns one row with the chunk size, deleted count and the new cursor
+     * (scanned = 0 when the walk is done). Native, so no @Modifying.
+     */
+    @Query(value = """
+        WITH chunk AS (
+            SELECT t.id, t.expires_at
+            FROM tickets t
+            WHERE t.status IN ('EXPIRED', 'CANCELLED')
+            AND t.expires_at < :cutoff
+            AND (t.expires_at, t.id) > (:afterExpiresAt, :afterId)
+            ORDER BY t.expires_at, t.id
+            LIMIT :limit
+        ),
+        deleted AS (
+            DELETE FROM tickets t
+            USING chunk c
+            WHERE t.id = c.id
+            AND NOT EXISTS (SELECT 1 FROM invitations i WHERE i.ticket_id = t.id)
+            RETURNING t.id
+        ),
+        last AS (
+            SELECT c.id, c.expires_at FROM chunk c ORDER BY c.expires_at DESC, c.id DESC LIMIT 1
+        )
+        SELECT
+            (SELECT COUNT(*) FROM chunk) AS scanned,
+            (SELECT COUNT(*) FROM deleted) AS deleted,
+            (SELECT CAST(EXTRACT(EPOCH FROM l.expires_at) * 1000000 AS BIGINT) FROM last l) AS lastExpiresAtMicros,
+            (SELECT l.id FROM last l) AS lastId
+        """, nativeQuery = true)
+    RetentionChunkView deleteRetentionChunk(
+        @Param("cutoff") Instant cutoff,
+        @Param("afterExpiresAt") Instant afterExpiresAt,
+        @Param("afterId") UUID afterId,
+        @Param("limit") int limit
+    );
+
+    interface TicketExpiryView {
+        UUID getId();
+        UUID getOwnerId();
+        Instant getExpiresAt();
+    }
+
+    interface ClaimedTicketView {
+        UUID getId();
+        UUID getOwnerId();
+        Long getExpiresAtMillis();
+    }
+
+    interface RetentionChunkView {
+        Long getScanned();
+        Long getDeleted();
+        Long getLastExpiresAtMicros();
+        UUID getLastId();
+    }
 }
@@ -1,19 +1,49 @@
 package com.thechain.repository;
 
 import com.thechain.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByChainKey(String chainKey);
 
+    /**
+     * Load a user with a row lock, for read-modify-write of its counters
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Row-lock one user of a removal lineage and return what decides whether the
+     * lock walk continues to its parent
+     */
+    @Query(value = """
+        SELECT id, parent_id AS parentId, status, wasted_child_count AS wastedChildCount
+        FROM users
+        WHERE id = :id
+        FOR UPDATE
+        """, nativeQuery = true)
+    Optional<LineageNodeView> lockLineageNode(@Param("id") UUID id);
+
     Optional<User> findByPosition(Integer position);
 
     Optional<User> findByUsername(String username);
@@ -33,6 +63,57 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("SELECT MAX(u.position) FROM User u")
     Integer findMaxPosition();
 
+    /**
+     * Take the next position from chain_position_counter (row stays locked until commit).
+     * Not @Modifying on purpose: UPDATE ... RETURNING yields a result set.
+     */
+    @Query(value = """
+        UPDATE chain_position_counter
+        SET next_position = GREATEST(next_position, (SELECT COALESCE(MAX(position), 0) + 1 FROM users)) + 1
+        WHERE id = 1
+        RETURNING next_position - 1
+        """, nativeQuery = true)
+    Integer allocateNextPosition();
+
+    /**
+     * Link a newly registered child to its parent in one round trip: sets the
+     * parent's active child (only if it has none), records the child as the
+     * ticket's claimer and inserts the ACTIVE invitation - the single row that
+     * stores the parent -> child link (attachments is a view over it).
+     * The child row must already be flushed.
+     *
+     * @return the parent, or null if it already has an active invitee
+     */
+    @Query(value = """
+        WITH parent AS (
+            UPDATE users
+            SET active_child_id = :childId, updated_at = :now
+            WHERE id = :parentId
+            AND active_child_id IS NULL
+            RETURNING id, display_name, position, chain_key, wasted_child_count
+        ),
+        claimed AS (
+            UPDATE tickets
+            SET claimed_by = :childId
+            WHERE id = :ticketId
+            AND EXISTS (SELECT 1 FROM parent)
+        ),
+        invited AS (
+            INSERT INTO invitations (parent_id, child_id, ticket_id, status, invited_at, accepted_at)
+            SELECT p.id, :childId, :ticketId, 'ACTIVE', :now, :now
+            FROM parent p
+        )
+        SELECT p.id AS id, p.display_name AS displayName, p.position AS position,
+               p.chain_key AS chainKey, p.wasted_child_count AS wastedChildCount
+        FROM parent p
+        """, nativeQuery = true)
+    LinkedParentView linkActiveChild(
+        @Param("parentId") UUID parentId,
+        @Param("childId") UUID childId,
+        @Param("ticketId") UUID ticketId,
+        @Param("now") Instant now
+    );
+
     long countByDeletedAtIsNull();
 
     long countByStatus(String status);
@@ -42,28 +123,15 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     /**
      * OPTIMIZED: Find current tip without loading all users
-     * The tip is the highest-position active/seed user who either:
-     * 1. Has no active child attachment (hasn't invited anyone yet), OR
-     * 2. Their child's invitation is not ACTIVE (child was removed/wasted)
+     * The tip is the highest-position active/seed user without an active child.
      *
-     * This replaces the inefficient findAll().stream() approach
-     * Note: Since activeChildId is transient, we check the attachments table directly
+     * activeChildId is persisted (and cleared when the child is removed), so this is
+     * a single read on the partial index idx_users_tip_candidates - no joins
      */
     @Query("""
         SELECT u FROM User u
         WHERE u.status IN ('active', 'seed')
-        AND (
-            NOT EXISTS (
-                SELECT 1 FROM Attachment a
-                WHERE a.parentId = u.id
-            )
-            OR NOT EXISTS (
-                SELECT 1 FROM Attachment a
-                JOIN Invitation i ON i.childId = a.childId
-                WHERE a.parentId = u.id
-                AND i.status = 'ACTIVE'
-            )
-        )
+        AND u.activeChildId IS NULL
         ORDER BY u.position DESC
         LIMIT 1
         """)
@@ -86,8 +154,216 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     Integer countByParentIdAndStatus(UUID parentId, String status);
 
+    /**
+     * Children with the given status per parent, for a batch of parents in one
+     * grouped query (parents without any are absent from the result)
+     */
+    @Query("""
+        SELECT u.parentId AS parentId, COUNT(u) AS childCount
+        FROM User u
+        WHERE u.parentId IN :parentIds AND u.status = :status
+        GROUP BY u.parentId
+        """)
+    List<ChildCountView> countChildrenByParentIds(@Param("parentIds") Collection<UUID> parentIds,
+                                                  @Param("status") String status);
+
     /**
      * Find users within a position range for pagination
      */
     List<User> findByPositionBetweenOrderByPositionAsc(Integer startPosition, Integer endPosition);
+
+    /**
+     * Admin chain explorer: one keyset page of lightweight rows in
+     * [fromPosition, toPosition], optionally filtered by status and/or country.
+     * Separate methods per filter combination so each one is a plain indexed range
+     * scan (idx_users_position, idx_users_status_position, idx_users_country_position)
+     */
+    List<ChainExplorerRow> findExplorerRowsByPositionBetweenOrderByPositionAsc(
+        Integer fromPosition, Integer toPosition, Pageable pageable);
+
+    List<ChainExplorerRow> findExplorerRowsByStatusAndPositionBetweenOrderByPositionAsc(
+        String status, Integer fromPosition, Integer toPosition, Pageable pageable);
+
+    List<ChainExplorerRow> findExplorerRowsByAssociatedWithAndPositionBetweenOrderByPositionAsc(
+        String associatedWith, Integer fromPosition, Integer toPosition, Pageable pageable);
+
+    List<ChainExplorerRow> findExplorerRowsByStatusAndAssociatedWithAndPositionBetweenOrderByPositionAsc(
+        String status, String associatedWith, Integer fromPosition, Integer toPosition, Pageable pageable);
+
+    /**
+     * Stream lightweight topology rows for building the in-memory chain index.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("""
+        SELECT u.id AS id, u.position AS position, u.parentId AS parentId, u.status AS status,
+               u.wastedChildCount AS wastedChildCount
+        FROM User u ORDER BY u.position
+        """)
+    Stream<ChainNodeView> streamChainNodes();
+
+    /**
+     * Compute the full removal cascade for a user in one round trip.
+     *
+     * Starts at the user being removed (if still active) and walks up the parent links
+     * for as long as the next parent is active and its strike counter would reach
+     * maxStrikes once the child being removed now is counted (only children with an
+     * ACTIVE invitation add a strike). Seeds and removed users stop the walk.
+     * Rows are ordered root first (depth 0), then nearest ancestor upwards.
+     */
+    @Query(value = """
+        WITH RECURSIVE removal_cascade AS (
+            SELECT u.id, u.position, u.parent_id, 0 AS depth
+            FROM users u
+            WHERE u.id = :userId
+            AND u.status = 'active'
+            UNION ALL
+            SELECT p.id, p.position, p.parent_id, c.depth + 1
+            FROM removal_cascade c
+            JOIN users p ON p.id = c.parent_id
+            WHERE p.status = 'active'
+            AND c.depth < :maxDepth
+            AND p.wasted_child_count + (
+                SELECT COUNT(*) FROM invitations i
+                WHERE i.child_id = c.id
+                AND i.status = 'ACTIVE'
+            ) >= :maxStrikes
+        )
+        SELECT id, position, depth FROM removal_cascade ORDER BY depth
+        """, nativeQuery = true)
+    List<CascadeNodeView> findRemovalCascade(@Param("userId") UUID userId,
+                                             @Param("maxStrikes") int maxStrikes,
+                                             @Param("maxDepth") int maxDepth);
+
+    /**
+     * Batch-mark active users as removed (one statement for a whole cascade)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE User u
+        SET u.status = 'removed', u.removalReason = :reason, u.removedAt = :removedAt, u.updatedAt = :removedAt
+        WHERE u.id IN :ids
+        AND u.status = 'active'
+        """)
+    int markRemoved(@Param("ids") Collection<UUID> ids,
+                    @Param("reason") String reason,
+                    @Param("removedAt") Instant removedAt);
+
+    /**
+     * Clear the active child link of every parent pointing at one of the given users
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE User p
+        SET p.activeChildId = NULL, p.updatedAt = :now
+        WHERE p.activeChildId IN :childIds
+        """)
+    int clearActiveChild(@Param("childIds") Collection<UUID> childIds, @Param("now") Instant now);
+
+    /**
+     * Replace a password hash (re-hash at a new cost), unless it changed meanwhile
+     */
+    @Modifying
+    @Query("""
+        UPDATE User u
+        SET u.passwordHash = :newHash, u.updatedAt = :now
+        WHERE u.id = :userId
+        AND u.passwordHash = :oldHash
+        """)
+    int replacePasswordHash(@Param("userId") UUID userId,
+                            @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash,
+                            @Param("now") Instant now);
+
+    @Query("SELECT u.wastedChildCount FROM User u WHERE u.id = :userId")
+    Optional<Integer> findWastedChildCount(@Param("userId") UUID userId);
+
+    /**
+     * Consistency check for users.wasted_child_count, step 1: find the counters that
+     * disagree with their REMOVED invitations and lock those rows, leaf to root
+     * like the removal cascade. A cascade still running on one of them finishes
+     * first; afterwards none can change it until the rebuild commits.
+     */
+    @Query(value = """
+        SELECT u.id
+        FROM users u
+        WHERE u.wasted_child_count <> (
+            SELECT COUNT(*) FROM invitations i WHERE i.parent_id = u.id AND i.status = 'REMOVED'
+        )
+        ORDER BY u.position DESC
+        FOR UPDATE OF u
+        """, nativeQuery = true)
+    List<UUID> lockDivergentWastedChildCounts();
+
+    /**
+     * Step 2: recount the locked rows in a fresh statement (which sees every
+     * committed cascade) and fix those that still disagree. Returns the repaired
+     * rows with their corrected value.
+     */
+    @Query(value = """
+        UPDATE users u
+        SET wasted_child_count = (
+            SELECT COUNT(*) FROM invitations i WHERE i.parent_id = u.id AND i.status = 'REMOVED'
+        )
+        WHERE u.id IN (:userIds)
+        AND u.wasted_child_count <> (
+            SELECT COUNT(*) FROM invitations i WHERE i.parent_id = u.id AND i.status = 'REMOVED'
+        )
+        RETURNING u.id AS parentId, u.wasted_child_count AS wastedChildCount
+        """, nativeQuery = true)
+    List<InvitationRepository.StrikeCountView> rebuildWastedChildCounts(@Param("userIds") List<UUID> userIds);
+
+    /**
+     * Row of a removal cascade (depth 0 = the removed user)
+     */
+    interface CascadeNodeView {
+        UUID getId();
+        Integer getPosition();
+        Integer getDepth();
+    }
+
+    /**
+     * Topology projection of a user row (no entity hydration)
+     */
+    interface LinkedParentView {
+        UUID getId();
+        String getDisplayName();
+        Integer getPosition();
+        String getChainKey();
+        Integer getWastedChildCount();
+    }
+
+    /**
+     * Number of children of one parent
+     */
+    interface ChildCountView {
+        UUID getParentId();
+        Long getChildCount();
+    }
+
+    interface ChainNodeView {
+        UUID getId();
+        Integer getPosition();
+        UUID getParentId();
+        String getStatus();
+        Integer getWastedChildCount();
+    }
+
+    interface LineageNodeView {
+        UUID getId();
+        UUID getParentId();
+        String getStatus();
+        Integer getWastedChildCount();
+    }
+
+    interface ChainExplorerRow {
+        UUID getId();
+        Integer getPosition();
+        String getChainKey();
+        String getDisplayName();
+        String getStatus();
+        String getAssociatedWith();
+        UUID getParentId();
+        Instant getCreatedAt();
+    }
 }
@@ -0,0 +1,53 @@
+package com.thechain.scheduler;
+
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * StrikeCounterConsistencyScheduler
+ * Verifies the denormalized users.wasted_child_count against the invitations table
+ * and rebuilds any counter that drifted (e.g. after manual data fixes)
+ *
+ * The drifted rows are locked before they are recounted, so a strike added by a
+ * concurrent removal cascade is either counted or applied on top of the rebuilt
+ * value, never overwritten.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StrikeCounterConsistencyScheduler {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Rebuild drifted strike counters. Runs daily at 4 AM by default
+     *
+     * @return number of repaired counters
+     */
+    @Scheduled(cron = "${chain.strike-counter.check-cron:0 0 4 * * *}")
+    @Transactional
+    public int verifyStrikeCounters() {
+        List<UUID> divergent = userRepository.lockDivergentWastedChildCounts();
+        List<InvitationRepository.StrikeCountView> repaired = divergent.isEmpty()
+            ? List.of()
+            : userRepository.rebuildWastedChildCounts(divergent);
+
+        if (repaired.isEmpty()) {
+            log.debug("All strike counters consistent with invitations");
+            return 0;
+        }
+
+        repaired.forEach(row -> log.warn("Repaired strike counter of user {} -> {}",
+            row.getParentId(), row.getWastedChildCount()));
+        log.warn("Rebuilt {} drifted strike counter(s) from invitations", repaired.size());
+        return repaired.size();
+    }
+}
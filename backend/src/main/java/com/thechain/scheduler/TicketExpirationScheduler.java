@@ -1,20 +1,30 @@
 package com.thechain.scheduler;
 
-import com.thechain.entity.Ticket;
+import com.thechain.config.AsyncConfig;
 import com.thechain.repository.TicketRepository;
 import com.thechain.service.ChainService;
+import com.thechain.service.TicketExpiryNotifier;
+import com.thechain.service.TicketRetentionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * TicketExpirationScheduler
- * Background job that checks for expired tickets and processes them
- * Implements the 3-strike removal rule (FR-3.3)
+ * Background jobs around ticket expiry: reconciliation of overdue tickets
+ * (the 3-strike removal rule, FR-3.3, fires on time via {@link TicketExpiryQueue}),
+ * expiry warnings and cleanup
  */
 @Component
 @RequiredArgsConstructor
@@ -23,47 +33,54 @@ public class TicketExpirationScheduler {
 
     private final TicketRepository ticketRepository;
     private final ChainService chainService;
+    private final TicketExpiryQueue ticketExpiryQueue;
+    private final TicketExpiryNotifier ticketExpiryNotifier;
+    private final TicketRetentionService ticketRetentionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ticket.expiry.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    @Value("${ticket.expiry.warning-batch-size:200}")
+    private int warningBatchSize;
+
+    @Value("${ticket.expiry.claiming.enabled:false}")
+    private boolean claiming;
 
     /**
-     * Check for expired tickets every minute
-     * Processes tickets that have passed their expiration time
+     * Reconciliation scan for overdue active tickets
+     * Expiration normally fires from {@link TicketExpiryQueue} at expiresAt; this
+     * catches deadlines the queue missed (handler failure, ticket created on
+     * another node, restart window). Processes up to batch-size tickets per run.
+     * Not needed in claiming mode, where {@link TicketExpiryClaimer} continuously
+     * leases every overdue ticket.
      */
-    @Scheduled(fixedRate = 60000) // Every 60 seconds
+    @Scheduled(fixedDelayString = "${ticket.expiry.reconcile-interval-ms:600000}",
+               initialDelayString = "${ticket.expiry.reconcile-interval-ms:600000}")
     public void processExpiredTickets() {
-        log.debug("Running ticket expiration check...");
+        if (claiming) {
+            return;
+        }
+        log.debug("Running ticket expiration reconciliation...");
 
         try {
-            Instant now = Instant.now();
-
-            // Find all active tickets that have expired
-            List<Ticket> expiredTickets = ticketRepository
-                .findByStatusAndExpiresAtBefore(Ticket.TicketStatus.ACTIVE, now);
+            List<TicketRepository.TicketExpiryView> overdue = ticketRepository
+                .findOverdue(Instant.now(), PageRequest.of(0, reconcileBatchSize));
 
-            if (expiredTickets.isEmpty()) {
-                log.debug("No expired tickets found");
+            if (overdue.isEmpty()) {
+                log.debug("No overdue tickets found");
                 return;
             }
 
-            log.info("Found {} expired tickets to process", expiredTickets.size());
-
-            // Process each expired ticket
-            for (Ticket ticket : expiredTickets) {
-                try {
-                    log.info("Processing expired ticket: {} (owner: {}, attempt: {}/{})",
-                        ticket.getId(),
-                        ticket.getOwnerId(),
-                        ticket.getAttemptNumber(),
-                        chainService.getMaxAttempts());
-
-                    chainService.handleTicketExpiration(ticket.getId());
-
-                } catch (Exception e) {
-                    log.error("Error processing expired ticket {}: {}",
-                        ticket.getId(), e.getMessage(), e);
+            int expired = 0;
+            for (TicketRepository.TicketExpiryView ticket : overdue) {
+                if (ticketExpiryQueue.expireOverdue(ticket.getId(), ticket.getExpiresAt())) {
+                    expired++;
                 }
             }
 
-            log.info("Finished processing {} expired tickets", expiredTickets.size());
+            log.info("Reconciliation expired {} of {} overdue tickets (max {} attempts)",
+                expired, overdue.size(), chainService.getMaxAttempts());
 
         } catch (Exception e) {
             log.error("Error in ticket expiration scheduler: {}", e.getMessage(), e);
@@ -71,40 +88,31 @@ public class TicketExpirationScheduler {
     }
 
     /**
-     * Check for tickets expiring soon and send warnings
-     * Runs every 15 minutes
+     * Queue 1-hour and 12-hour expiry warnings
+     * Candidates come from partial indexes holding only active, not-yet-warned
+     * tickets; each warning is claimed (stamped) before it is handed to the
+     * mailer, so it fires once per ticket no matter how many nodes run this.
      */
-    @Scheduled(fixedRate = 900000) // Every 15 minutes
+    @Scheduled(fixedDelayString = "${ticket.expiry.warning-interval-ms:60000}")
     public void sendExpirationWarnings() {
         log.debug("Running expiration warning check...");
 
         try {
             Instant now = Instant.now();
-            Instant oneHourFromNow = now.plusSeconds(3600);
-            Instant twelveHoursFromNow = now.plusSeconds(43200);
-
-            // Find tickets expiring within 1 hour
-            List<Ticket> soonExpiring = ticketRepository.findAll().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.ACTIVE)
-                .filter(t -> t.getExpiresAt().isAfter(now))
-                .filter(t -> t.getExpiresAt().isBefore(oneHourFromNow))
-                .toList();
-
-            log.debug("Found {} tickets expiring within 1 hour", soonExpiring.size());
+            Instant oneHourFromNow = now.plus(Duration.ofHours(1));
+            Instant twelveHoursFromNow = now.plus(Duration.ofHours(12));
 
-            // TODO: Send notifications via NotificationService
-            // For each ticket, send push/email notification to owner
+            // Inside the last hour: urgent warning (supersedes the 12-hour one)
+            int oneHour = queueWarnings(TicketExpiryNotifier.Warning.ONE_HOUR,
+                () -> ticketRepository.claim1HourWarnings(now, now, oneHourFromNow, warningBatchSize));
 
-            // Find tickets expiring within 12 hours
-            List<Ticket> expiringIn12Hours = ticketRepository.findAll().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.ACTIVE)
-                .filter(t -> t.getExpiresAt().isAfter(oneHourFromNow))
-                .filter(t -> t.getExpiresAt().isBefore(twelveHoursFromNow))
-                .toList();
+            // Between 1 and 12 hours left
+            int twelveHours = queueWarnings(TicketExpiryNotifier.Warning.TWELVE_HOURS,
+                () -> ticketRepository.claim12HourWarnings(now, oneHourFromNow, twelveHoursFromNow, warningBatchSize));
 
-            log.debug("Found {} tickets expiring within 12 hours", expiringIn12Hours.size());
-
-            // TODO: Send notifications via NotificationService
+            if (oneHour + twelveHours > 0) {
+                log.info("Queued {} 1-hour and {} 12-hour expiration warnings", oneHour, twelveHours);
+            }
 
         } catch (Exception e) {
             log.error("Error in expiration warning scheduler: {}", e.getMessage(), e);
@@ -112,29 +120,37 @@ public class TicketExpirationScheduler {
     }
 
     /**
-     * Clean up old expired tickets (after 90 days)
-     * Runs daily at 3 AM
+     * Claim warnings batch by batch (one short transaction each) and hand every
+     * committed batch to the async notifier
      */
-    @Scheduled(cron = "0 0 3 * * *") // Daily at 3 AM
+    private int queueWarnings(TicketExpiryNotifier.Warning warning, Supplier<List<UUID>> claim) {
+        int queued = 0;
+        while (true) {
+            List<UUID> batch = transactionTemplate.execute(status -> claim.get());
+            if (batch == null || batch.isEmpty()) {
+                return queued;
+            }
+            ticketExpiryNotifier.sendWarnings(warning, batch);
+            queued += batch.size();
+            if (batch.size() < warningBatchSize) {
+                return queued;
+            }
+        }
+    }
+
+    /**
+     * Delete finished tickets past the retention window (default 90 days)
+     * Runs nightly in throttled keyset chunks, see {@link TicketRetentionService}.
+     * The run takes up to max-duration, so it is handed to the retention executor
+     * and the scheduling thread returns immediately.
+     */
+    @Async(AsyncConfig.RETENTION_EXECUTOR)
+    @Scheduled(cron = "${ticket.retention.cron:0 0 3 * * *}")
     public void cleanupOldTickets() {
         log.info("Running ticket cleanup job...");
 
         try {
-            Instant ninetyDaysAgo = Instant.now().minusSeconds(90 * 24 * 3600L);
-
-            List<Ticket> oldTickets = ticketRepository.findAll().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.EXPIRED ||
-                            t.getStatus() == Ticket.TicketStatus.CANCELLED)
-                .filter(t -> t.getExpiresAt().isBefore(ninetyDaysAgo))
-                .toList();
-
-            if (!oldTickets.isEmpty()) {
-                log.info("Deleting {} old tickets from database", oldTickets.size());
-                ticketRepository.deleteAll(oldTickets);
-            } else {
-                log.debug("No old tickets to clean up");
-            }
-
+            ticketRetentionService.purge();
         } catch (Exception e) {
             log.error("Error in ticket cleanup scheduler: {}", e.getMessage(), e);
         }
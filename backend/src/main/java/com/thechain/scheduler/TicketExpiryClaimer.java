@@ -0,0 +1,147 @@
+package com.thechain.scheduler;
+
+import com.thechain.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TicketExpiryClaimer - multi-node ticket expiration (claiming mode)
+ *
+ * Every poll leases a batch of overdue tickets with FOR UPDATE SKIP LOCKED, so
+ * replicas split the backlog instead of racing on the same rows, then expires
+ * them on a bounded worker pool. Related expiries need no grouping here: the
+ * owner and every ancestor a removal cascade writes are row-locked
+ * ({@link com.thechain.service.ChainCascadeEngine}), so cascades sharing an
+ * ancestor serialize in the database, on this node and across nodes alike.
+ *
+ * A lease that runs out while the ticket is still ACTIVE (failure, node crash)
+ * makes it claimable again; expiration itself is idempotent
+ * ({@link com.thechain.service.ChainService#handleTicketExpiration(UUID)} locks
+ * the ticket and only expires it once).
+ *
+ * Enable with ticket.expiry.claiming.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "ticket.expiry.claiming.enabled", havingValue = "true")
+@Slf4j
+public class TicketExpiryClaimer {
+
+    private final TicketRepository ticketRepository;
+    private final TicketExpiryQueue ticketExpiryQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final int batchSize;
+    private final Duration lease;
+    private final ThreadPoolExecutor executor;
+    private final Counter claimed;
+    private final Counter expired;
+
+    public TicketExpiryClaimer(
+        TicketRepository ticketRepository,
+        TicketExpiryQueue ticketExpiryQueue,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${ticket.expiry.claiming.node-id:${HOSTNAME:}}") String nodeId,
+        @Value("${ticket.expiry.claiming.batch-size:100}") int batchSize,
+        @Value("${ticket.expiry.claiming.lease-ms:60000}") long leaseMillis,
+        @Value("${ticket.expiry.claiming.workers:4}") int workers
+    ) {
+        this.ticketRepository = ticketRepository;
+        this.ticketExpiryQueue = ticketExpiryQueue;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId.isBlank() ? "node-" + UUID.randomUUID() : nodeId;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.executor = boundedPool(workers);
+        this.claimed = Counter.builder("chain.ticket.expiry.claimed")
+            .description("Overdue tickets leased by this node")
+            .register(meterRegistry);
+        this.expired = Counter.builder("chain.ticket.expiry.claim.expired")
+            .description("Leased tickets expired by this node")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Claim and process overdue tickets until none are left
+     *
+     * @return number of tickets expired by this node
+     */
+    @Scheduled(fixedDelayString = "${ticket.expiry.claiming.poll-interval-ms:1000}")
+    public synchronized int claimAndProcess() {
+        int total = 0;
+        while (true) {
+            Instant now = Instant.now();
+            List<TicketRepository.ClaimedTicketView> batch = transactionTemplate.execute(status ->
+                ticketRepository.claimOverdue(nodeId, now, now.plus(lease), batchSize));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            claimed.increment(batch.size());
+
+            total += process(batch);
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Node {} expired {} claimed tickets", nodeId, total);
+        }
+        return total;
+    }
+
+    /**
+     * Expire every ticket of the batch on the pool and wait for all of them
+     * (the next batch is only claimed once this one is done)
+     */
+    private int process(List<TicketRepository.ClaimedTicketView> batch) {
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<Void>> tickets = new ArrayList<>(batch.size());
+        for (TicketRepository.ClaimedTicketView ticket : batch) {
+            tickets.add(CompletableFuture.runAsync(() -> {
+                if (ticketExpiryQueue.expireClaimed(ticket.getId(), Instant.ofEpochMilli(ticket.getExpiresAtMillis()))) {
+                    done.incrementAndGet();
+                    expired.increment();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(tickets.toArray(CompletableFuture[]::new)).join();
+        return done.get();
+    }
+
+    private static ThreadPoolExecutor boundedPool(int workers) {
+        AtomicInteger threads = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(workers * 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ticket-expiry-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            // Queue full: the polling thread expires the ticket itself (natural back-pressure)
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,211 @@
+package com.thechain.scheduler;
+
+import com.thechain.repository.TicketRepository;
+import com.thechain.service.ChainService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * TicketExpiryQueue - fires ticket expiration at the ticket's deadline
+ *
+ * Holds one deadline per active ticket in a {@link DelayQueue}, seeded from the
+ * tickets table at startup and fed by ticket creation (after commit). A single
+ * worker thread takes deadlines as they fall due and runs
+ * {@link ChainService#handleTicketExpiration(UUID)}, so tickets expire within
+ * milliseconds of expiresAt instead of on the next polling run.
+ *
+ * Deadlines of tickets that were used in the meantime are dropped by the handler
+ * (it only expires ACTIVE tickets). Anything missed - a failed handler, a ticket
+ * created on another node - is picked up by the reconciliation scan in
+ * {@link TicketExpirationScheduler}.
+ *
+ * With ticket.expiry.claiming.enabled=true (several replicas) the queue stays
+ * idle and {@link TicketExpiryClaimer} leases overdue tickets from the database.
+ *
+ * Metric chain.ticket.expiry.lag records processing time minus expiresAt for
+ * every path (tagged path=timer|reconcile|claim).
+ */
+@Component
+@Slf4j
+public class TicketExpiryQueue {
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    private final Map<UUID, Deadline> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger expiredByTimer = new AtomicInteger();
+
+    private final TicketRepository ticketRepository;
+    private final ChainService chainService;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer timerLag;
+    private final Timer reconcileLag;
+    private final Timer claimLag;
+    private final boolean claiming;
+
+    private volatile Thread worker;
+
+    public TicketExpiryQueue(
+        TicketRepository ticketRepository,
+        ChainService chainService,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${ticket.expiry.claiming.enabled:false}") boolean claiming
+    ) {
+        this.ticketRepository = ticketRepository;
+        this.chainService = chainService;
+        this.transactionTemplate = transactionTemplate;
+        this.timerLag = lagTimer(meterRegistry, "timer");
+        this.reconcileLag = lagTimer(meterRegistry, "reconcile");
+        this.claimLag = lagTimer(meterRegistry, "claim");
+        this.claiming = claiming;
+        Gauge.builder("chain.ticket.expiry.pending", pending, Map::size)
+            .description("Active-ticket deadlines waiting in the expiry queue")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Seed the queue with every active ticket and start the worker (unordered, so
+     * after {@link com.thechain.chain.ChainRuleHolder#preload()}: overdue deadlines
+     * fire immediately and must expire under the rule in force)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (claiming) {
+            log.info("Ticket expiry queue idle - expirations are claimed from the database");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TicketRepository.TicketExpiryView> tickets = ticketRepository.streamActiveExpiries()) {
+                tickets.forEach(ticket -> schedule(ticket.getId(), ticket.getExpiresAt()));
+            }
+        });
+
+        Thread thread = new Thread(this::run, "ticket-expiry");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+
+        log.info("Ticket expiry queue started with {} deadlines in {} ms", pending.size(), System.currentTimeMillis() - started);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Register the deadline of an active ticket (idempotent per ticket)
+     */
+    public void schedule(UUID ticketId, Instant expiresAt) {
+        if (claiming) {
+            return;
+        }
+        Deadline deadline = new Deadline(ticketId, expiresAt);
+        if (pending.putIfAbsent(ticketId, deadline) == null) {
+            queue.add(deadline);
+        }
+    }
+
+    /**
+     * Number of deadlines currently queued
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Expire a due ticket now and record its lag (reconciliation path)
+     *
+     * @return true if the ticket was expired by this call
+     */
+    public boolean expireOverdue(UUID ticketId, Instant expiresAt) {
+        return expire(ticketId, expiresAt, reconcileLag);
+    }
+
+    /**
+     * Expire a ticket leased by {@link TicketExpiryClaimer} and record its lag
+     *
+     * @return true if the ticket was expired by this call
+     */
+    public boolean expireClaimed(UUID ticketId, Instant expiresAt) {
+        return expire(ticketId, expiresAt, claimLag);
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            Deadline deadline;
+            try {
+                deadline = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            pending.remove(deadline.ticketId(), deadline);
+            if (expire(deadline.ticketId(), deadline.expiresAt(), timerLag)) {
+                expiredByTimer.incrementAndGet();
+            }
+        }
+        log.info("Ticket expiry queue stopped ({} tickets expired on time)", expiredByTimer.get());
+    }
+
+    private boolean expire(UUID ticketId, Instant expiresAt, Timer lag) {
+        try {
+            boolean expired = chainService.handleTicketExpiration(ticketId);
+            if (expired) {
+                lag.record(Duration.between(expiresAt, Instant.now()));
+            }
+            return expired;
+        } catch (Exception e) {
+            log.error("Error processing expired ticket {}: {}", ticketId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static Timer lagTimer(MeterRegistry meterRegistry, String path) {
+        return Timer.builder("chain.ticket.expiry.lag")
+            .description("Delay between a ticket's expiresAt and its expiration being processed")
+            .tag("path", path)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queued ticket deadline
+     */
+    record Deadline(UUID ticketId, Instant expiresAt) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt.toEpochMilli() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Deadline) other).expiresAt);
+        }
+    }
+}
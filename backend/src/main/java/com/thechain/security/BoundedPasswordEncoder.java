@@ -0,0 +1,124 @@
+package com.thechain.security;
+
+import com.thechain.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * BoundedPasswordEncoder - BCrypt on a dedicated, size-bounded executor
+ *
+ * encode/matches are handed to the password hash executor and the request thread
+ * waits for the result, so at most one hash per core runs at a time and a login
+ * burst cannot pin every servlet thread on CPU. When the executor's queue is
+ * full the call fails fast with {@link ServiceOverloadedException} (503 with
+ * Retry-After) instead of queueing behind the burst.
+ *
+ * The cost factor is configurable; {@link #upgradeEncoding} reports hashes made
+ * with a lower cost so callers can re-hash them on the next successful login.
+ *
+ * Metrics: chain.auth.password.queue.wait and chain.auth.password.hash{op}
+ * (timers), chain.auth.password.rejected (counter), chain.auth.password.queue.depth
+ * (gauge).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolTaskExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final Timer queueWait;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(
+        ThreadPoolTaskExecutor executor,
+        MeterRegistry meterRegistry,
+        int cost,
+        long retryAfterSeconds
+    ) {
+        this.bcrypt = new BCryptPasswordEncoder(cost);
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.queueWait = Timer.builder("chain.auth.password.queue.wait")
+            .description("Time a password hash waited for a hashing thread")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.encodeTimer = Timer.builder("chain.auth.password.hash")
+            .description("BCrypt time per operation")
+            .tag("op", "encode")
+            .register(meterRegistry);
+        this.matchesTimer = Timer.builder("chain.auth.password.hash")
+            .description("BCrypt time per operation")
+            .tag("op", "matches")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("chain.auth.password.rejected")
+            .description("Password operations shed because the hashing queue was full")
+            .register(meterRegistry);
+        Gauge.builder("chain.auth.password.queue.depth", executor,
+                e -> e.getThreadPoolExecutor().getQueue().size())
+            .description("Password hashes waiting for a hashing thread")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * True if the hash was made with a lower cost than the configured one
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        try {
+            return bcrypt.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private <T> T run(Supplier<T> hash, Timer timer) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return timer.record(hash);
+            });
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many sign-ins in progress, please retry shortly", retryAfterSeconds);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
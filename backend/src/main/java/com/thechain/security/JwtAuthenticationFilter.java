@@ -47,16 +47,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract token (remove "Bearer " prefix)
             final String jwt = authHeader.substring(7);
 
-            // Validate token
-            if (!jwtUtil.isTokenValid(jwt)) {
+            // Validate token and extract user ID (verified once, then served from cache)
+            final UUID userId = jwtUtil.validUserId(jwt);
+            if (userId == null) {
                 log.warn("Invalid JWT token in request to {}", request.getRequestURI());
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            // Extract user ID
-            final UUID userId = jwtUtil.extractUserId(jwt);
-
             // If user is not already authenticated, set the authentication
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
                 // Create authentication token with minimal authorities
@@ -1,8 +1,10 @@
 package com.thechain.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -14,20 +16,36 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * JwtUtil - issues and verifies access/refresh tokens
+ *
+ * Tokens are verified by one parser built at startup; verified claims are kept
+ * in a {@link VerifiedTokenCache} until the token expires, so a token presented
+ * on every request is parsed and its HMAC checked once per validity window.
+ */
 @Component
 public class JwtUtil {
 
     private final SecretKey secretKey;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
+    private final VerifiedTokenCache verifiedTokens;
 
+    public JwtUtil(String secret, long accessTokenExpiration, long refreshTokenExpiration) {
+        this(secret, accessTokenExpiration, refreshTokenExpiration, 10_000);
+    }
+
+    @Autowired
     public JwtUtil(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.access-token-expiration}") long accessTokenExpiration,
-            @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration) {
+            @Value("${jwt.refresh-token-expiration}") long refreshTokenExpiration,
+            @Value("${jwt.verified-cache-size:10000}") int verifiedCacheSize) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenExpiration = accessTokenExpiration;
         this.refreshTokenExpiration = refreshTokenExpiration;
+        this.verifiedTokens = new VerifiedTokenCache(
+                Jwts.parser().verifyWith(secretKey).build(), verifiedCacheSize);
     }
 
     public String generateAccessToken(UUID userId, String chainKey) {
@@ -65,6 +83,18 @@ public class JwtUtil {
         return extractClaims(token).get("type", String.class);
     }
 
+    /**
+     * User id of a valid token, or null if the token is malformed, forged or expired.
+     * Verifies at most once per token lifetime.
+     */
+    public UUID validUserId(String token) {
+        try {
+            return UUID.fromString(extractClaims(token).getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public boolean isTokenValid(String token) {
         try {
             extractClaims(token);
@@ -87,10 +117,6 @@ public class JwtUtil {
     }
 
     private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(secretKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifiedTokens.verify(token);
     }
 }
@@ -0,0 +1,200 @@
+package com.thechain.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TicketSigner - HMAC-SHA256 signatures for invite tickets
+ *
+ * Each payload carries the id of the key that signed it as its last field, so
+ * the signing key can rotate while tickets signed with older keys stay valid for
+ * as long as those keys remain configured. Payloads without a key id (issued
+ * before rotation support) are checked with the legacy key.
+ *
+ * One initialized {@link Mac} is kept per key and thread, so signing and
+ * verifying never repeat the provider lookup and key schedule. Signatures are
+ * compared in constant time.
+ *
+ * Keys: ticket.signing.keys = "id:secret,id:secret"; key "k0" defaults to
+ * jwt.secret so existing deployments keep working without configuration.
+ */
+@Component
+@Slf4j
+public class TicketSigner {
+
+    public static final String DEFAULT_KEY_ID = "k0";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+    private static final int LEGACY_FIELDS = 4;
+
+    private final Map<String, Mac> prototypes;
+    private final String activeKeyId;
+    private final String legacyKeyId;
+    private final ThreadLocal<Map<String, Mac>> macs = ThreadLocal.withInitial(HashMap::new);
+
+    public TicketSigner(
+        @Value("${jwt.secret}") String defaultSecret,
+        @Value("${ticket.signing.keys:}") String keys,
+        @Value("${ticket.signing.active-key-id:" + DEFAULT_KEY_ID + "}") String activeKeyId,
+        @Value("${ticket.signing.legacy-key-id:" + DEFAULT_KEY_ID + "}") String legacyKeyId
+    ) {
+        Map<String, String> secrets = new LinkedHashMap<>();
+        secrets.put(DEFAULT_KEY_ID, defaultSecret);
+        for (String entry : keys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            if (colon <= 0 || colon == trimmed.length() - 1) {
+                throw new IllegalStateException("ticket.signing.keys entries must be id:secret");
+            }
+            String keyId = trimmed.substring(0, colon);
+            if (keyId.contains(SEPARATOR)) {
+                throw new IllegalStateException("Ticket signing key id must not contain '" + SEPARATOR + "'");
+            }
+            secrets.put(keyId, trimmed.substring(colon + 1));
+        }
+        if (!secrets.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active ticket signing key " + activeKeyId + " is not configured");
+        }
+
+        this.prototypes = new HashMap<>();
+        secrets.forEach((keyId, secret) -> prototypes.put(keyId, newMac(secret)));
+        this.activeKeyId = activeKeyId;
+        this.legacyKeyId = legacyKeyId;
+        log.info("Ticket signing keys: {} (active {})", secrets.keySet(), activeKeyId);
+    }
+
+    /**
+     * Payload and signature pair for batch verification
+     */
+    public record Signed(String payload, String signature) {
+    }
+
+    /**
+     * Id of the key new tickets are signed with; append it as the payload's last field
+     */
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Build a payload from its fields, tagged with the active key id
+     */
+    public String payload(Object... fields) {
+        StringBuilder payload = new StringBuilder();
+        for (Object field : fields) {
+            payload.append(field).append(SEPARATOR);
+        }
+        return payload.append(activeKeyId).toString();
+    }
+
+    /**
+     * Sign a payload with the key named in it
+     *
+     * @return Base64 HMAC-SHA256
+     */
+    public String sign(String payload) {
+        Mac mac = mac(keyId(payload));
+        if (mac == null) {
+            throw new IllegalStateException("Unknown ticket signing key " + keyId(payload));
+        }
+        return Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Constant-time check of a signature against the payload's key.
+     * Unknown key ids and malformed signatures verify as false.
+     */
+    public boolean verify(String payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
+        Mac mac = mac(keyId(payload));
+        if (mac == null) {
+            log.debug("Ticket signed with unknown key {}", keyId(payload));
+            return false;
+        }
+        byte[] provided;
+        try {
+            provided = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] expected = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(expected, provided);
+    }
+
+    /**
+     * Verify many signatures on the calling thread's Macs
+     *
+     * @return result per entry, in input order
+     */
+    public boolean[] verifyAll(List<Signed> batch) {
+        boolean[] results = new boolean[batch.size()];
+        for (int i = 0; i < results.length; i++) {
+            Signed signed = batch.get(i);
+            results[i] = verify(signed.payload(), signed.signature());
+        }
+        return results;
+    }
+
+    /**
+     * Key id named in a payload; untagged (legacy) payloads map to the legacy key
+     */
+    String keyId(String payload) {
+        int fields = 1;
+        int last = -1;
+        for (int i = payload.indexOf(SEPARATOR); i >= 0; i = payload.indexOf(SEPARATOR, i + 1)) {
+            fields++;
+            last = i;
+        }
+        return fields > LEGACY_FIELDS ? payload.substring(last + 1) : legacyKeyId;
+    }
+
+    private Mac mac(String keyId) {
+        Map<String, Mac> local = macs.get();
+        Mac mac = local.get(keyId);
+        if (mac == null) {
+            Mac prototype = prototypes.get(keyId);
+            if (prototype == null) {
+                return null;
+            }
+            mac = copy(prototype);
+            local.put(keyId, mac);
+        }
+        return mac;
+    }
+
+    private static Mac copy(Mac prototype) {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize ticket signing key", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.thechain.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * VerifiedTokenCache - claims of JWTs whose signature has already been checked
+ *
+ * A client presents the same access token on every request until it expires,
+ * so the HMAC check and JSON parsing only need to happen once per token. Entries
+ * are keyed by a 128-bit SHA-256 prefix of the token (raw bearer tokens are not
+ * retained) and live until the token's own exp claim; an entry past it is
+ * dropped and the token goes back through the parser, which rejects it.
+ *
+ * Only successfully verified tokens are stored, so the cache cannot be filled
+ * with forged tokens. It holds at most maxEntries: when full, expired entries
+ * are swept, and if none can be dropped new tokens are verified uncached until
+ * older ones expire. Tokens without an exp claim are never cached.
+ */
+public class VerifiedTokenCache {
+
+    private final JwtParser parser;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<Digest, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(VerifiedTokenCache::newDigest);
+
+    public VerifiedTokenCache(JwtParser parser, int maxEntries) {
+        this(parser, maxEntries, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(JwtParser parser, int maxEntries, LongSupplier clock) {
+        this.parser = parser;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    private record Digest(long high, long low) {
+    }
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+
+    /**
+     * Verified claims of a signed token, from the cache while the token is valid
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public Claims verify(String token) {
+        Digest key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (clock.getAsLong() <= entry.expiresAtMillis()) {
+                return entry.claims();
+            }
+            entries.remove(key, entry);
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && hasRoom()) {
+            entries.put(key, new Entry(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    /**
+     * Number of cached tokens (approximate under concurrent updates)
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean hasRoom() {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        // One thread sweeps, the others skip caching meanwhile
+        if (sweeping.compareAndSet(false, true)) {
+            try {
+                long now = clock.getAsLong();
+                entries.values().removeIf(entry -> entry.expiresAtMillis() < now);
+            } finally {
+                sweeping.set(false);
+            }
+            return entries.size() < maxEntries;
+        }
+        return false;
+    }
+
+    private Digest digest(String token) {
+        MessageDigest messageDigest = sha256.get();
+        ByteBuffer hash = ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new Digest(hash.getLong(), hash.getLong());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,154 +1,242 @@
 package com.thechain.service;
 
+import com.thechain.chain.ChainIndex;
+import com.thechain.chain.PositionAllocator;
+import com.thechain.config.StatementCounter;
+import com.thechain.event.ChainEventJournal;
 import com.thechain.dto.AuthResponse;
 import com.thechain.dto.RegisterRequest;
-import com.thechain.entity.Attachment;
-import com.thechain.entity.Invitation;
 import com.thechain.entity.Ticket;
 import com.thechain.entity.User;
 import com.thechain.exception.BusinessException;
-import com.thechain.repository.AttachmentRepository;
-import com.thechain.repository.InvitationRepository;
+import com.thechain.exception.ServiceOverloadedException;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
 import com.thechain.security.JwtUtil;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
     private final UserRepository userRepository;
     private final TicketRepository ticketRepository;
-    private final AttachmentRepository attachmentRepository;
-    private final InvitationRepository invitationRepository;
     private final TicketService ticketService;
     private final JwtUtil jwtUtil;
     private final ChainService chainService;
+    private final ChainIndex chainIndex;
+    private final PositionAllocator positionAllocator;
+    private final ChainEventJournal chainEventJournal;
     private final org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer registeredLatency;
+    private final Timer rejectedLatency;
+    private final Timer hashLatency;
+    private final Timer claimLatency;
+    private final DistributionSummary claimStatements;
+
+    public AuthService(
+        UserRepository userRepository,
+        TicketRepository ticketRepository,
+        TicketService ticketService,
+        JwtUtil jwtUtil,
+        ChainService chainService,
+        ChainIndex chainIndex,
+        PositionAllocator positionAllocator,
+        ChainEventJournal chainEventJournal,
+        org.springframework.security.crypto.password.PasswordEncoder passwordEncoder,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+        this.ticketService = ticketService;
+        this.jwtUtil = jwtUtil;
+        this.chainService = chainService;
+        this.chainIndex = chainIndex;
+        this.positionAllocator = positionAllocator;
+        this.chainEventJournal = chainEventJournal;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+
+        this.registeredLatency = latencyTimer("registered", meterRegistry);
+        this.rejectedLatency = latencyTimer("rejected", meterRegistry);
+        this.hashLatency = meterRegistry.timer("chain.registration.hash");
+        this.claimLatency = meterRegistry.timer("chain.registration.claim");
+        this.claimStatements = DistributionSummary.builder("chain.registration.statements")
+            .description("SQL statements issued by one registration claim transaction")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
 
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
-        // Validate ticket
-        Ticket ticket = ticketRepository.findById(request.getTicketId())
-                .orElseThrow(() -> new BusinessException("INVALID_TICKET", "Ticket not found"));
-
-        if (ticket.getStatus() != Ticket.TicketStatus.ACTIVE) {
-            throw new BusinessException("TICKET_" + ticket.getStatus(), "Ticket is " + ticket.getStatus().name().toLowerCase());
-        }
-
-        if (ticket.getExpiresAt().isBefore(Instant.now())) {
-            ticket.setStatus(Ticket.TicketStatus.EXPIRED);
-            ticketRepository.save(ticket);
-            throw new BusinessException("TICKET_EXPIRED", "Ticket has expired");
-        }
-
-        // Verify signature
-        if (!ticketService.verifyTicketSignature(ticket, request.getTicketSignature())) {
-            throw new BusinessException("INVALID_SIGNATURE", "Invalid ticket signature");
-        }
+    private static Timer latencyTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("chain.registration.latency")
+            .description("End-to-end registration time, including password hashing")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
 
-        // Check for duplicate username
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new BusinessException("DUPLICATE_USERNAME", "Username already taken");
+    /**
+     * Register a new user by claiming an invite ticket.
+     *
+     * Cheap checks run first without locks, then the password is hashed outside any
+     * transaction, so BCrypt never holds the ticket row or the position counter.
+     * The claim itself is a short transaction of a fixed set of statements (see
+     * {@link #claim}); the new user's first ticket is issued after it commits.
+     */
+    public AuthResponse register(RegisterRequest request) {
+        long started = System.nanoTime();
+        Timer latency = rejectedLatency;
+        try {
+            // Validate ticket (unlocked read: rejects hopeless claims before hashing)
+            Ticket ticket = ticketRepository.findById(request.getTicketId())
+                    .orElseThrow(() -> new BusinessException("INVALID_TICKET", "Ticket not found"));
+            requireClaimable(ticket);
+
+            // Verify signature
+            if (!ticketService.verifyTicketSignature(ticket, request.getTicketSignature())) {
+                throw new BusinessException("INVALID_SIGNATURE", "Invalid ticket signature");
+            }
+
+            // Check for duplicate username (the unique index settles races)
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new BusinessException("DUPLICATE_USERNAME", "Username already taken");
+            }
+
+            // Hash password before storing - outside the transaction, on the bounded hashing executor
+            long hashStarted = System.nanoTime();
+            String hashedPassword = passwordEncoder.encode(request.getPassword());
+            hashLatency.record(System.nanoTime() - hashStarted, TimeUnit.NANOSECONDS);
+
+            Registration registration = claimCounted(request, hashedPassword);
+            User newUser = registration.user();
+
+            // Automatically create a ticket for the new user (hot potato starts immediately!)
+            try {
+                ticketService.createTicketForUser(newUser.getId());
+                log.info("Initial ticket created for new user {}", newUser.getChainKey());
+            } catch (Exception e) {
+                log.error("Failed to create initial ticket for new user {}", newUser.getChainKey(), e);
+                // Don't fail registration if ticket creation fails - can be retried later
+            }
+
+            log.info("New user registered: {} at position {}", newUser.getChainKey(), newUser.getPosition());
+
+            // Generate tokens
+            String accessToken = jwtUtil.generateAccessToken(newUser.getId(), newUser.getChainKey());
+            String refreshToken = jwtUtil.generateRefreshToken(newUser.getId());
+
+            latency = registeredLatency;
+            return AuthResponse.builder()
+                    .userId(newUser.getId())
+                    .chainKey(newUser.getChainKey())
+                    .displayName(newUser.getDisplayName())
+                    .position(newUser.getPosition())
+                    .parentId(registration.parent().getId())
+                    .parentDisplayName(registration.parent().getDisplayName())
+                    .createdAt(newUser.getCreatedAt())
+                    .tokens(AuthResponse.TokenInfo.builder()
+                            .accessToken(accessToken)
+                            .refreshToken(refreshToken)
+                            .expiresIn(3600L)
+                            .build())
+                    .build();
+        } finally {
+            latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
+    }
 
-        // Get parent user
-        User parent = userRepository.findById(ticket.getOwnerId())
-                .orElseThrow(() -> new BusinessException("PARENT_NOT_FOUND", "Ticket owner not found"));
-
-        if (parent.getActiveChildId() != null) {
-            throw new BusinessException("PARENT_HAS_INVITEE", "Parent already has an active invitee");
+    /**
+     * Run the claim transaction and record how many statements it issued
+     */
+    private Registration claimCounted(RegisterRequest request, String hashedPassword) {
+        StatementCounter.start();
+        long started = System.nanoTime();
+        try {
+            return transactionTemplate.execute(status -> claim(request, hashedPassword));
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.existsByUsername(request.getUsername())) {
+                throw new BusinessException("DUPLICATE_USERNAME", "Username already taken");
+            }
+            throw e;
+        } finally {
+            int statements = StatementCounter.stop();
+            claimStatements.record(statements);
+            claimLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
+    }
 
-        // Create new user
-        Integer nextPosition = userRepository.findMaxPosition();
-        if (nextPosition == null) {
-            nextPosition = 0;
+    /**
+     * The claim transaction: five statements, no reads beyond what the writes return.
+     * 1. mark the ticket USED (row lock - concurrent claims of it queue here)
+     * 2. reserve the position (counter row lock - taken as late as possible)
+     * 3. insert the user
+     * 4. link parent and ticket to the new user and insert the invitation
+     * 5. join event
+     * A parent with wasted children adds the Chain Savior check: one badge lookup,
+     * plus the badge insert and its event the first time (up to eight statements).
+     */
+    private Registration claim(RegisterRequest request, String hashedPassword) {
+        Instant now = Instant.now();
+        UUID parentId = ticketRepository.claimTicket(request.getTicketId(), now);
+        if (parentId == null) {
+            // Lost the race or lapsed since the pre-check - report why
+            Ticket ticket = ticketRepository.findById(request.getTicketId())
+                    .orElseThrow(() -> new BusinessException("INVALID_TICKET", "Ticket not found"));
+            requireClaimable(ticket);
+            throw new BusinessException("INVALID_TICKET", "Ticket could not be claimed");
         }
-        nextPosition++;
+        ticketService.evictAfterCommit(request.getTicketId());
 
-        // Hash password before storing
-        String hashedPassword = passwordEncoder.encode(request.getPassword());
+        int nextPosition = positionAllocator.reserve();
 
         // Create new user with username/password authentication only
-        User newUser = userRepository.save(User.builder()
+        User newUser = userRepository.saveAndFlush(User.builder()
                 .displayName(request.getDisplayName() != null ? request.getDisplayName() : request.getUsername())
                 .position(nextPosition)
-                .parentId(parent.getId())
+                .parentId(parentId)
                 .username(request.getUsername())
                 .passwordHash(hashedPassword)
                 .build());
 
-        // Update parent's activeChildId reference
-        parent.setActiveChildId(newUser.getId());
-        userRepository.save(parent);
-
-        // Mark ticket as used
-        Instant now = Instant.now();
-        ticket.setStatus(Ticket.TicketStatus.USED);
-        ticket.setUsedAt(now);
-        ticket.setClaimedBy(newUser.getId());
-        ticket.setClaimedAt(now);
-        ticketRepository.save(ticket);
-
-        // Create invitation record (new relational storage)
-        Invitation invitation = Invitation.builder()
-                .parentId(parent.getId())
-                .childId(newUser.getId())
-                .ticketId(ticket.getId())
-                .status(Invitation.InvitationStatus.ACTIVE)
-                .acceptedAt(Instant.now())
-                .build();
-        invitationRepository.save(invitation);
+        // Update parent's activeChildId, the ticket's claimer and record the invitation
+        UserRepository.LinkedParentView parent = userRepository.linkActiveChild(
+                parentId, newUser.getId(), request.getTicketId(), now);
+        if (parent == null) {
+            throw new BusinessException("PARENT_HAS_INVITEE", "Parent already has an active invitee");
+        }
+        ChainIndex.afterCommit(() -> chainIndex.onJoined(newUser.getId(), newUser.getPosition(), parentId));
 
-        // Create attachment record (keep for backward compatibility if needed)
-        Attachment attachment = Attachment.builder()
-                .parentId(parent.getId())
-                .childId(newUser.getId())
-                .ticketId(ticket.getId())
-                .build();
-        attachmentRepository.save(attachment);
+        chainEventJournal.joined(newUser, parentId, request.getTicketId());
 
         // Check if parent deserves Chain Savior badge
-        chainService.checkAndAwardChainSaviorBadge(parent);
-
-        // Automatically create a ticket for the new user (hot potato starts immediately!)
-        try {
-            ticketService.createTicketForUser(newUser.getId());
-            log.info("Initial ticket created for new user {}", newUser.getChainKey());
-        } catch (Exception e) {
-            log.error("Failed to create initial ticket for new user {}", newUser.getChainKey(), e);
-            // Don't fail registration if ticket creation fails - can be retried later
-        }
+        chainService.checkAndAwardChainSaviorBadge(parent.getPosition(), parent.getChainKey(), parent.getWastedChildCount());
 
-        log.info("New user registered: {} at position {}", newUser.getChainKey(), newUser.getPosition());
+        return new Registration(newUser, parent);
+    }
 
-        // Generate tokens
-        String accessToken = jwtUtil.generateAccessToken(newUser.getId(), newUser.getChainKey());
-        String refreshToken = jwtUtil.generateRefreshToken(newUser.getId());
+    private static void requireClaimable(Ticket ticket) {
+        if (ticket.getStatus() != Ticket.TicketStatus.ACTIVE) {
+            throw new BusinessException("TICKET_" + ticket.getStatus(), "Ticket is " + ticket.getStatus().name().toLowerCase());
+        }
+        if (!ticket.getExpiresAt().isAfter(Instant.now())) {
+            throw new BusinessException("TICKET_EXPIRED", "Ticket has expired");
+        }
+    }
 
-        return AuthResponse.builder()
-                .userId(newUser.getId())
-                .chainKey(newUser.getChainKey())
-                .displayName(newUser.getDisplayName())
-                .position(newUser.getPosition())
-                .parentId(parent.getId())
-                .parentDisplayName(parent.getDisplayName())
-                .createdAt(newUser.getCreatedAt())
-                .tokens(AuthResponse.TokenInfo.builder()
-                        .accessToken(accessToken)
-                        .refreshToken(refreshToken)
-                        .expiresIn(3600L)
-                        .build())
-                .build();
+    private record Registration(User user, UserRepository.LinkedParentView parent) {
     }
 
     /**
@@ -163,10 +251,11 @@ public class AuthService {
             throw new BusinessException("NO_PASSWORD_SET", "This account does not have password authentication enabled");
         }
 
-        // Verify password
+        // Verify password (bounded hashing executor; 503 when saturated)
         if (!passwordEncoder.matches(password, user.getPasswordHash())) {
             throw new BusinessException("INVALID_PASSWORD", "Invalid username or password");
         }
+        rehashIfOutdated(user, password);
 
         // Generate new tokens
         String accessToken = jwtUtil.generateAccessToken(user.getId(), user.getChainKey());
@@ -188,6 +277,27 @@ public class AuthService {
     }
 
 
+    /**
+     * Bring a hash made at a lower BCrypt cost up to the configured one while the
+     * plain password is at hand. Best effort: a busy hashing executor or a
+     * concurrent password change just defers it to a later login.
+     */
+    private void rehashIfOutdated(User user, String password) {
+        if (!passwordEncoder.upgradeEncoding(user.getPasswordHash())) {
+            return;
+        }
+        try {
+            String upgraded = passwordEncoder.encode(password);
+            Integer replaced = transactionTemplate.execute(status ->
+                    userRepository.replacePasswordHash(user.getId(), user.getPasswordHash(), upgraded, Instant.now()));
+            if (replaced != null && replaced == 1) {
+                log.info("Password hash of user {} upgraded to current cost", user.getChainKey());
+            }
+        } catch (ServiceOverloadedException e) {
+            log.debug("Skipped password re-hash for user {}: {}", user.getChainKey(), e.getMessage());
+        }
+    }
+
     /**
      * Refresh access token using refresh token
      */
@@ -0,0 +1,203 @@
+package com.thechain.service;
+
+import com.thechain.chain.ChainIndex;
+import com.thechain.entity.RemovalReason;
+import com.thechain.event.ChainEventJournal;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChainCascadeEngine - set-based removal with 3-strike cascading (FR-3.3, FR-3.4)
+ *
+ * Instead of recursing one ancestor at a time, the whole affected ancestor set is
+ * computed with a single recursive query: starting at the removed user, the walk
+ * continues to the parent only while that parent would reach the strike limit with
+ * the child being removed. Status, invitation and parent-link updates for the whole
+ * set are then applied with one batched statement each; flipping the invitations to
+ * REMOVED also adds the strikes to users.wasted_child_count of each parent.
+ *
+ * Before the walk, the rows it can write are row-locked leaf to root: the root,
+ * then each parent for as long as that parent would reach the limit, plus the
+ * first parent that won't (it still receives a strike). Concurrent removals
+ * under a shared ancestor - including expiries processed on other nodes - thus
+ * queue on that ancestor's row, and the walk, a new statement, counts their
+ * committed strikes. Locks are taken in descending position order on every
+ * path, so removals cannot deadlock on each other.
+ *
+ * As a second line, the strike update returns each parent's counter after the
+ * increment: every parent returned at or above the limit that this pass did not
+ * remove is cascaded from in turn (a parent that is no longer active yields an
+ * empty pass).
+ */
+@Service
+@Slf4j
+public class ChainCascadeEngine {
+
+    /**
+     * Safety bound for the recursive walk (guards against corrupted parent links)
+     */
+    static final int MAX_CASCADE_DEPTH = 100_000;
+
+    private final UserRepository userRepository;
+    private final InvitationRepository invitationRepository;
+    private final ChainIndex chainIndex;
+    private final ChainEventJournal chainEventJournal;
+    private final Timer cascadeTimer;
+    private final DistributionSummary cascadeDepth;
+
+    public ChainCascadeEngine(
+        UserRepository userRepository,
+        InvitationRepository invitationRepository,
+        ChainIndex chainIndex,
+        ChainEventJournal chainEventJournal,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.invitationRepository = invitationRepository;
+        this.chainIndex = chainIndex;
+        this.chainEventJournal = chainEventJournal;
+        this.cascadeTimer = Timer.builder("chain.cascade.duration")
+            .description("Time spent applying a removal cascade")
+            .register(meterRegistry);
+        this.cascadeDepth = DistributionSummary.builder("chain.cascade.depth")
+            .description("Number of ancestors removed by a single removal")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Remove an active user and every ancestor that reaches the strike limit as a result.
+     * The caller is responsible for seed/already-removed checks on the root user.
+     *
+     * @param userId      user being removed
+     * @param reason      removal reason recorded for the root user (ancestors get WASTED)
+     * @param maxStrikes  strike limit from the current chain rule
+     * @return summary of the applied cascade
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CascadeResult cascade(UUID userId, String reason, int maxStrikes) {
+        long started = System.nanoTime();
+
+        Set<UUID> affected = new LinkedHashSet<>();
+        Deque<UUID> roots = new ArrayDeque<>(List.of(userId));
+        while (!roots.isEmpty()) {
+            UUID root = roots.poll();
+            String rootReason = root.equals(userId) ? reason : RemovalReason.WASTED.name();
+            for (InvitationRepository.StrikeCountView strike : removeLineage(root, rootReason, maxStrikes, affected)) {
+                UUID parentId = strike.getParentId();
+                if (strike.getWastedChildCount() >= maxStrikes
+                        && !affected.contains(parentId) && !roots.contains(parentId)) {
+                    log.info("Parent {} reached {} strikes through a concurrent removal - cascading",
+                        parentId, strike.getWastedChildCount());
+                    roots.add(parentId);
+                }
+            }
+        }
+
+        if (affected.isEmpty()) {
+            log.debug("User {} is not active - nothing to cascade", userId);
+            return new CascadeResult(userId, List.of(), 0, 0L);
+        }
+
+        List<UUID> removed = List.copyOf(affected);
+        List<UUID> ancestors = removed.subList(1, removed.size());
+        long elapsed = System.nanoTime() - started;
+        int depth = ancestors.size();
+        cascadeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        cascadeDepth.record(depth);
+
+        CascadeResult result = new CascadeResult(userId, removed, depth, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (depth > 0) {
+            log.warn("Removal of {} cascaded through {} ancestor(s) in {} ms: {}",
+                userId, depth, result.durationMillis(), ancestors);
+        } else {
+            log.info("Removed user {} (reason: {}) in {} ms", userId, reason, result.durationMillis());
+        }
+        return result;
+    }
+
+    /**
+     * One pass: remove the root and the ancestors the walk finds at the limit
+     *
+     * @param removed collects the removed users, root first
+     * @return parents' strike counters after this pass's increments
+     */
+    private List<InvitationRepository.StrikeCountView> removeLineage(UUID rootId, String reason, int maxStrikes,
+                                                                     Set<UUID> removed) {
+        lockLineage(rootId, maxStrikes);
+        List<UserRepository.CascadeNodeView> cascade =
+            userRepository.findRemovalCascade(rootId, maxStrikes, MAX_CASCADE_DEPTH);
+        List<UUID> affected = cascade.stream()
+            .map(UserRepository.CascadeNodeView::getId)
+            .toList();
+        if (affected.isEmpty()) {
+            return List.of();
+        }
+
+        Instant now = Instant.now();
+        List<UUID> ancestors = affected.subList(1, affected.size());
+
+        userRepository.markRemoved(List.of(rootId), reason, now);
+        if (!ancestors.isEmpty()) {
+            userRepository.markRemoved(ancestors, RemovalReason.WASTED.name(), now);
+        }
+        userRepository.clearActiveChild(affected, now);
+        List<InvitationRepository.StrikeCountView> strikes = invitationRepository.markRemovedAndRecordStrikes(affected);
+        chainEventJournal.removed(rootId,
+            cascade.stream()
+                .map(node -> new ChainEventJournal.RemovedUser(node.getId(), node.getPosition()))
+                .toList(),
+            reason, RemovalReason.WASTED.name());
+
+        ChainIndex.afterCommit(() -> affected.forEach(chainIndex::onRemoved));
+        removed.addAll(affected);
+        return strikes;
+    }
+
+    /**
+     * Row-lock every user the cascade from {@code rootId} may write, leaf to root.
+     * Ancestors are locked while they would reach the limit with one more strike,
+     * a superset of what the walk removes (it also requires the child's invitation
+     * to be ACTIVE).
+     */
+    private void lockLineage(UUID rootId, int maxStrikes) {
+        UUID current = rootId;
+        for (int depth = 0; current != null && depth <= MAX_CASCADE_DEPTH; depth++) {
+            UserRepository.LineageNodeView node = userRepository.lockLineageNode(current).orElse(null);
+            if (node == null || !"active".equals(node.getStatus())) {
+                return;
+            }
+            if (depth > 0 && node.getWastedChildCount() + 1 < maxStrikes) {
+                return;
+            }
+            current = node.getParentId();
+        }
+    }
+
+    /**
+     * Outcome of a removal cascade
+     *
+     * @param rootUserId      the user whose removal started the cascade
+     * @param removedUserIds  root first, then ancestors from nearest to farthest
+     * @param depth           number of ancestors removed by the 3-strike rule
+     * @param durationMillis  time spent computing and applying the cascade
+     */
+    public record CascadeResult(UUID rootUserId, List<UUID> removedUserIds, int depth, long durationMillis) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.thechain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thechain.dto.ChainExplorerMemberDto;
+import com.thechain.dto.ChainExplorerPage;
+import com.thechain.entity.User;
+import com.thechain.exception.BusinessException;
+import com.thechain.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * ChainExplorerService - admin browsing of the whole chain in position order
+ *
+ * Keyset pagination on position: a page is "the next n rows after position p",
+ * so page 10,000 costs the same as page 1 (no OFFSET) and concurrent joins don't
+ * shift pages. Rows are closed projections (no entities, no persistence context
+ * growth), and status/country filters each run as a range scan on a
+ * (filter, position) index.
+ *
+ * Exports stream NDJSON by walking the same keyset in chunks: each chunk is one
+ * short query, written and flushed before the next is fetched, so memory stays at
+ * one chunk and no connection is held while the client reads.
+ *
+ * Metrics: chain.explorer.rows{mode=page|export} (counter).
+ */
+@Service
+@Slf4j
+public class ChainExplorerService {
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int exportChunkSize;
+
+    private final Counter pageRows;
+    private final Counter exportRows;
+
+    public ChainExplorerService(
+        UserRepository userRepository,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${chain.explorer.default-page-size:50}") int defaultPageSize,
+        @Value("${chain.explorer.max-page-size:500}") int maxPageSize,
+        @Value("${chain.explorer.export-chunk-size:1000}") int exportChunkSize
+    ) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.exportChunkSize = exportChunkSize;
+
+        this.pageRows = Counter.builder("chain.explorer.rows")
+            .tag("mode", "page")
+            .register(meterRegistry);
+        this.exportRows = Counter.builder("chain.explorer.rows")
+            .tag("mode", "export")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Filters of an explorer request, normalized; null means "any"
+     */
+    public record Filter(String status, String country) {
+
+        public static Filter of(String status, String country) {
+            String normalizedStatus = status == null || status.isBlank() ? null
+                    : status.trim().toLowerCase(Locale.ROOT);
+            String normalizedCountry = country == null || country.isBlank() ? null
+                    : country.trim().toUpperCase(Locale.ROOT);
+            if (normalizedCountry != null && normalizedCountry.length() != 2) {
+                throw new BusinessException("INVALID_FILTER", "Country must be a two-letter code");
+            }
+            return new Filter(normalizedStatus, normalizedCountry);
+        }
+    }
+
+    /**
+     * Only admins may explore the uncensored chain
+     */
+    public void requireAdmin(UUID userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "User not found"));
+        if (user.getIsAdmin() == null || !user.getIsAdmin()) {
+            throw new BusinessException("ADMIN_REQUIRED", "Admin privileges required");
+        }
+    }
+
+    /**
+     * The members after position {@code after}
+     *
+     * @param limit page size, defaults to chain.explorer.default-page-size and is
+     *              capped at chain.explorer.max-page-size
+     */
+    public ChainExplorerPage page(int after, Integer limit, Filter filter) {
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultPageSize, 1), maxPageSize);
+
+        // One row more than asked tells whether there is a next page
+        List<UserRepository.ChainExplorerRow> rows = rows(after, null, filter, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        pageRows.increment(rows.size());
+
+        return ChainExplorerPage.builder()
+                .members(rows.stream().map(ChainExplorerService::toDto).toList())
+                .nextAfter(hasMore ? rows.get(rows.size() - 1).getPosition() : null)
+                .build();
+    }
+
+    /**
+     * Write the members after position {@code after} up to {@code to} (inclusive,
+     * null = the end of the chain) as NDJSON, one member per line
+     *
+     * @return number of members written
+     */
+    public long export(int after, Integer to, Filter filter, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        long written = 0;
+        int cursor = after;
+        while (true) {
+            List<UserRepository.ChainExplorerRow> chunk = rows(cursor, to, filter, exportChunkSize);
+            for (UserRepository.ChainExplorerRow row : chunk) {
+                out.write(objectMapper.writeValueAsBytes(toDto(row)));
+                out.write('\n');
+            }
+            out.flush();
+            written += chunk.size();
+            exportRows.increment(chunk.size());
+
+            if (chunk.size() < exportChunkSize) {
+                break;
+            }
+            cursor = chunk.get(chunk.size() - 1).getPosition();
+        }
+
+        log.info("Chain explorer export after position {} (filters {}): {} rows in {} ms",
+                after, filter, written, System.currentTimeMillis() - started);
+        return written;
+    }
+
+    /**
+     * One keyset chunk: positions in (after, to], picking the query whose index
+     * matches the filters
+     */
+    private List<UserRepository.ChainExplorerRow> rows(int after, Integer to, Filter filter, int size) {
+        int toPosition = to != null ? to : Integer.MAX_VALUE;
+        if (after >= toPosition) {
+            return List.of();
+        }
+        int fromPosition = after + 1;
+        PageRequest chunk = PageRequest.of(0, size);
+
+        if (filter.status() != null && filter.country() != null) {
+            return userRepository.findExplorerRowsByStatusAndAssociatedWithAndPositionBetweenOrderByPositionAsc(
+                    filter.status(), filter.country(), fromPosition, toPosition, chunk);
+        }
+        if (filter.status() != null) {
+            return userRepository.findExplorerRowsByStatusAndPositionBetweenOrderByPositionAsc(
+                    filter.status(), fromPosition, toPosition, chunk);
+        }
+        if (filter.country() != null) {
+            return userRepository.findExplorerRowsByAssociatedWithAndPositionBetweenOrderByPositionAsc(
+                    filter.country(), fromPosition, toPosition, chunk);
+        }
+        return userRepository.findExplorerRowsByPositionBetweenOrderByPositionAsc(fromPosition, toPosition, chunk);
+    }
+
+    private static ChainExplorerMemberDto toDto(UserRepository.ChainExplorerRow row) {
+        return ChainExplorerMemberDto.builder()
+                .id(row.getId())
+                .position(row.getPosition())
+                .chainKey(row.getChainKey())
+                .displayName(row.getDisplayName())
+                .status(row.getStatus())
+                .countryCode(row.getAssociatedWith())
+                .parentId(row.getParentId())
+                .joinedAt(row.getCreatedAt())
+                .build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.thechain.service;
 
+import com.thechain.chain.ChainIndex;
+import com.thechain.chain.ChainRuleHolder;
+import com.thechain.chain.ChainRuleSnapshot;
 import com.thechain.entity.*;
+import com.thechain.event.ChainEventJournal;
 import com.thechain.exception.BusinessException;
 import com.thechain.repository.*;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +31,10 @@ public class ChainService {
     private final TicketRepository ticketRepository;
     private final UserBadgeRepository userBadgeRepository;
     private final ChainService self;
-    private final ChainRuleRepository chainRuleRepository;
+    private final ChainRuleHolder chainRuleHolder;
+    private final ChainIndex chainIndex;
+    private final ChainCascadeEngine cascadeEngine;
+    private final ChainEventJournal chainEventJournal;
 
     public ChainService(
         UserRepository userRepository,
@@ -35,36 +42,53 @@ public class ChainService {
         TicketRepository ticketRepository,
         UserBadgeRepository userBadgeRepository,
         @Lazy ChainService self,
-        ChainRuleRepository chainRuleRepository
+        ChainRuleHolder chainRuleHolder,
+        ChainIndex chainIndex,
+        ChainCascadeEngine cascadeEngine,
+        ChainEventJournal chainEventJournal
     ) {
         this.userRepository = userRepository;
         this.invitationRepository = invitationRepository;
         this.ticketRepository = ticketRepository;
         this.userBadgeRepository = userBadgeRepository;
         this.self = self;
-        this.chainRuleRepository = chainRuleRepository;
+        this.chainRuleHolder = chainRuleHolder;
+        this.chainIndex = chainIndex;
+        this.cascadeEngine = cascadeEngine;
+        this.chainEventJournal = chainEventJournal;
     }
 
     /**
      * Get the current tip of the chain (FR-3.2)
      * The tip is the last active user who has not successfully invited anyone
      *
-     * OPTIMIZED: Uses database query instead of loading all users into memory
+     * OPTIMIZED: Resolved from the in-memory chain index (single PK read),
+     * falling back to the database query while the index is not ready
      */
     @Transactional(readOnly = true)
     public User getCurrentTip() {
-        return userRepository.findCurrentTipOptimized()
+        return chainIndex.tipUserId()
+            .flatMap(userRepository::findById)
+            .or(userRepository::findCurrentTipOptimized)
             .orElseThrow(() -> new BusinessException("NO_TIP_FOUND", "Unable to identify chain tip"));
     }
     
     @Transactional(readOnly = true)
     public boolean isCurrentTip(UUID userId) {
+        Optional<UUID> tipUserId = chainIndex.tipUserId();
+        if (tipUserId.isPresent()) {
+            return tipUserId.get().equals(userId);
+        }
         User currentTip = self.getCurrentTip();
         return currentTip.getId().equals(userId);
     }
 
     @Transactional(readOnly = true)
     public boolean isCurrentTipByPosition(Integer position) {
+        Optional<Integer> tipPosition = chainIndex.tipPosition();
+        if (tipPosition.isPresent()) {
+            return tipPosition.get().equals(position);
+        }
         User currentTip = self.getCurrentTip();
         return currentTip.getPosition().equals(position);
     }
@@ -87,8 +111,11 @@ public class ChainService {
         }
 
         // Get active child (if exists)
-        if (user.getActiveChildId() != null) {
-            userRepository.findById(user.getActiveChildId())
+        UUID activeChildId = chainIndex.isReady()
+            ? chainIndex.activeChildOf(userId).orElse(null)
+            : user.getActiveChildId();
+        if (activeChildId != null) {
+            userRepository.findById(activeChildId)
                 .ifPresent(child -> result.put("child", toUserSummary(child)));
         }
 
@@ -97,23 +124,36 @@ public class ChainService {
 
     /**
      * Handle ticket expiration and implement 3-strike rule (FR-3.3)
+     *
+     * @return true if the ticket was expired by this call, false if it was no longer
+     *         active (used, already expired) or is not due yet
      */
     @Transactional
-    public void handleTicketExpiration(UUID ticketId) {
-        Ticket ticket = ticketRepository.findById(ticketId)
+    public boolean handleTicketExpiration(UUID ticketId) {
+        // Row lock: the expiry timer, the reconciliation scan and a concurrent claim
+        // of the same ticket must not both act on it
+        Ticket ticket = ticketRepository.findByIdForUpdate(ticketId)
             .orElseThrow(() -> new BusinessException("TICKET_NOT_FOUND", "Ticket not found"));
 
-        if (ticket.getStatus() == Ticket.TicketStatus.EXPIRED) {
-            log.debug("Ticket {} already marked as expired", ticketId);
-            return;
+        if (ticket.getStatus() != Ticket.TicketStatus.ACTIVE) {
+            log.debug("Ticket {} is {} - nothing to expire", ticketId, ticket.getStatus());
+            return false;
         }
 
-        User owner = userRepository.findById(ticket.getOwnerId())
+        if (ticket.getExpiresAt().isAfter(Instant.now())) {
+            log.debug("Ticket {} not due until {}", ticketId, ticket.getExpiresAt());
+            return false;
+        }
+
+        // Locked before the counter update; a removal cascade passing through the
+        // owner (e.g. a child's expiry on another node) waits for this transaction
+        User owner = userRepository.findByIdForUpdate(ticket.getOwnerId())
             .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "Ticket owner not found"));
 
         // Mark ticket as expired
         ticket.setStatus(Ticket.TicketStatus.EXPIRED);
         ticketRepository.save(ticket);
+        chainEventJournal.ticketExpired(ticket);
 
         // Increment wasted tickets count
         owner.setWastedTicketsCount(owner.getWastedTicketsCount() + 1);
@@ -123,14 +163,16 @@ public class ChainService {
             ticketId, owner.getChainKey(), ticket.getAttemptNumber(), getMaxAttempts());
 
         // Check if user has exceeded max attempts
-        ChainRule currentRule = getCurrentRule();
+        ChainRuleSnapshot currentRule = getCurrentRule();
         if (ticket.getAttemptNumber() >= currentRule.getMaxAttempts()) {
             removeUserFromChain(owner.getId(), "3_failed_attempts");
         }
+        return true;
     }
 
     /**
      * Remove user from chain (FR-3.3)
+     * Cascades up the chain through the 3-strike rule (FR-3.4) in one set-based pass
      */
     @Transactional
     public void removeUserFromChain(UUID userId, String reason) {
@@ -152,30 +194,9 @@ public class ChainService {
         log.info("Removing user {} (position {}) from chain. Reason: {}",
             user.getChainKey(), user.getPosition(), reason);
 
-        // Mark user as removed
-        user.setStatus("removed");
-        user.setRemovalReason(reason);
-        user.setRemovedAt(Instant.now());
-        userRepository.save(user);
-
-        // Mark invitation as removed
-        invitationRepository.findByChildId(userId)
-            .ifPresent(invitation -> {
-                invitation.setStatus(Invitation.InvitationStatus.REMOVED);
-                invitationRepository.save(invitation);
-            });
-
-        // Clear parent's activeChildId reference
-        if (user.getParentId() != null) {
-            userRepository.findById(user.getParentId()).ifPresent(parent -> {
-                parent.setActiveChildId(null);
-                userRepository.save(parent);
-            });
-        }
-
-        // Check if parent should be removed (3-strike rule)
-        // This can trigger cascading removal up the chain
-        self.checkParentRemovalFor3Strikes(userId);
+        // Marks the user and every ancestor reaching 3 strikes as removed,
+        // flips their invitations to REMOVED and detaches them from their parents
+        cascadeEngine.cascade(userId, reason, getCurrentRule().getMaxAttempts());
     }
 
 
@@ -197,6 +218,7 @@ public class ChainService {
             .build();
 
         userBadgeRepository.save(badge);
+        chainEventJournal.badgeAwarded(userPosition, badgeType);
         log.info("Awarded badge {} to user at position {}", badgeType, userPosition);
     }
 
@@ -207,7 +229,8 @@ public class ChainService {
      * 3-Strike Rule:
      * - Parent gets removed after 3 CHILDREN fail (not after wasting 3 tickets)
      * - Each removed child counts as one strike
-     * - Uses Invitation table with status=REMOVED to track wasted children
+     * - Strikes are kept in users.wasted_child_count, incremented by the same
+     *   statement that flips the child's invitation to REMOVED
      *
      * @param removedChildId UUID of the child that was just removed
      */
@@ -221,8 +244,7 @@ public class ChainService {
             return;
         }
 
-        Invitation invitation = invitationOpt.get();
-        UUID parentId = invitation.getParentId();
+        UUID parentId = invitationOpt.get().getParentId();
 
         // Get parent user
         Optional<User> parentOpt = userRepository.findById(parentId);
@@ -233,7 +255,7 @@ public class ChainService {
 
         User parent = parentOpt.get();
 
-        // Don't remove seed user
+        // Don't remove seed
         if ("seed".equals(parent.getStatus())) {
             log.debug("Parent {} is seed - immune to 3-strike removal", parent.getChainKey());
             return;
@@ -245,24 +267,26 @@ public class ChainService {
             return;
         }
 
-        // Count total removed children (wasted children) for this parent
-        List<UUID> wastedChildIds = invitationRepository.findWastedChildIdsByParentId(parentId);
-        int wastedChildCount = wastedChildIds.size();
+        // Flip the invitation and count the strike in one round trip. If the invitation
+        // was already REMOVED the strike has been counted before - just read the counter
+        int wastedChildCount = invitationRepository.markRemovedAndRecordStrikes(List.of(removedChildId))
+            .stream()
+            .findFirst()
+            .map(InvitationRepository.StrikeCountView::getWastedChildCount)
+            .or(() -> userRepository.findWastedChildCount(parentId))
+            .orElse(0);
 
-        log.info("Parent {} has {} wasted children (strike {}/3)",
-            parent.getChainKey(), wastedChildCount, wastedChildCount);
+        ChainRuleSnapshot currentRule = getCurrentRule();
+        log.info("Parent {} has {} wasted children (strike {}/{})",
+            parent.getChainKey(), wastedChildCount, wastedChildCount, currentRule.getMaxAttempts());
 
         // Check if parent has reached 3 strikes
-        ChainRule currentRule = getCurrentRule();
         if (wastedChildCount >= currentRule.getMaxAttempts()) {
             log.warn("Parent {} reached 3 strikes - removing from chain", parent.getChainKey());
 
-            // Remove parent from chain (use self-proxy for transactional boundary)
-            self.removeUserFromChain(parentId, RemovalReason.WASTED.name());
-
-            // IMPORTANT: This can trigger cascading removal
-            // The parent's removal will call checkParentRemovalFor3Strikes on THEIR parent
-            // This continues until we reach seed or a parent with < 3 strikes
+            // Removes the parent and, in the same pass, every ancestor that
+            // reaches 3 strikes as a consequence (until seed or < 3 strikes)
+            cascadeEngine.cascade(parentId, RemovalReason.WASTED.name(), currentRule.getMaxAttempts());
         }
     }
 
@@ -277,41 +301,39 @@ public class ChainService {
      */
     @Transactional
     public void checkAndAwardChainSaviorBadge(User user) {
-        // Get list of wasted children for this user
-        List<UUID> wastedChildIds = invitationRepository.findWastedChildIdsByParentId(user.getId());
+        if (user.getActiveChildId() != null) {
+            checkAndAwardChainSaviorBadge(user.getPosition(), user.getChainKey(), user.getWastedChildCount());
+        }
+    }
+
+    /**
+     * Chain Savior check for a parent that has just gained an active child
+     */
+    @Transactional
+    public void checkAndAwardChainSaviorBadge(Integer position, String chainKey, Integer wastedChildren) {
+        int wastedChildCount = wastedChildren != null ? wastedChildren : 0;
 
         // User earns Chain Savior if:
         // 1. They have at least one wasted child (previous failure)
         // 2. They now have an active child (successful recovery)
-        if (!wastedChildIds.isEmpty() && user.getActiveChildId() != null) {
+        if (wastedChildCount > 0) {
             Map<String, Object> context = new HashMap<>();
             context.put("collapse_depth", 1);
-            context.put("wasted_children_count", wastedChildIds.size());
+            context.put("wasted_children_count", wastedChildCount);
             context.put("recovered_at", Instant.now());
 
-            awardBadge(user.getPosition(), Badge.CHAIN_SAVIOR, context);
+            awardBadge(position, Badge.CHAIN_SAVIOR, context);
 
             log.info("Awarded Chain Savior badge to user {} after {} failed attempts",
-                user.getChainKey(), wastedChildIds.size());
+                chainKey, wastedChildCount);
         }
     }
 
     /**
-     * Get current active rule
+     * Get current active rule (in-process snapshot, no query)
      */
-    private ChainRule getCurrentRule() {
-        return chainRuleRepository.findCurrentActiveRule(Instant.now())
-            .orElseGet(() -> {
-                // Return default rule if none found
-                ChainRule defaultRule = new ChainRule();
-                defaultRule.setVersion(1);
-                defaultRule.setTicketDurationHours(24);
-                defaultRule.setMaxAttempts(3);
-                defaultRule.setVisibilityRange(1);
-                defaultRule.setSeedUnlimitedTime(true);
-                defaultRule.setReactivationTimeoutHours(24);
-                return defaultRule;
-            });
+    private ChainRuleSnapshot getCurrentRule() {
+        return chainRuleHolder.current();
     }
 
     /**
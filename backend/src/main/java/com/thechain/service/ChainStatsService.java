@@ -2,14 +2,14 @@ package com.thechain.service;
 
 import com.thechain.config.CacheConfig;
 import com.thechain.dto.ChainStatsResponse;
-import com.thechain.entity.Attachment;
 import com.thechain.entity.Ticket;
-import com.thechain.entity.User;
-import com.thechain.repository.AttachmentRepository;
+import com.thechain.event.ChainCountersProjection;
+import com.thechain.repository.InvitationRepository;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -20,31 +20,44 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ChainStatsService {
 
+    private static final int RECENT_ATTACHMENTS = 20;
+
     private final UserRepository userRepository;
     private final TicketRepository ticketRepository;
-    private final AttachmentRepository attachmentRepository;
+    private final InvitationRepository invitationRepository;
+    private final ChainCountersProjection chainCountersProjection;
 
     @Cacheable(value = CacheConfig.CHAIN_STATS_CACHE, key = "'global'")
     public ChainStatsResponse getGlobalStats() {
-        long totalUsers = userRepository.countByDeletedAtIsNull();
-        long activeTickets = ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE);
-
-        // Get recent attachments
-        List<Attachment> recentAttachments = attachmentRepository.findTop20ByOrderByAttachedAtDesc();
-
-        List<ChainStatsResponse.RecentAttachment> recentList = recentAttachments.stream()
-                .map(attachment -> {
-                    User child = userRepository.findById(attachment.getChildId()).orElse(null);
-                    if (child == null) return null;
-
-                    return ChainStatsResponse.RecentAttachment.builder()
-                            .childPosition(child.getPosition())
-                            .displayName(child.getDisplayName())
-                            .timestamp(attachment.getAttachedAt())
-                            .country(null)  // Location tracking removed
-                            .build();
-                })
-                .filter(java.util.Objects::nonNull)
+        // Counters come from the event journal projection once it has caught up;
+        // until then fall back to counting the base tables
+        long totalUsers;
+        long activeTickets;
+        long wastedTickets = 0L;
+        double wasteRate = 0.0;
+        if (chainCountersProjection.isReady()) {
+            ChainCountersProjection.Counters counters = chainCountersProjection.snapshot();
+            totalUsers = counters.totalJoined();
+            activeTickets = counters.activeTickets();
+            wastedTickets = counters.ticketsExpired();
+            wasteRate = counters.ticketsIssued() > 0
+                    ? 100.0 * counters.ticketsExpired() / counters.ticketsIssued()
+                    : 0.0;
+        } else {
+            totalUsers = userRepository.countByDeletedAtIsNull();
+            activeTickets = ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE);
+        }
+
+        // Recent joins, child details included - one query
+        List<ChainStatsResponse.RecentAttachment> recentList = invitationRepository
+                .findRecentJoins(PageRequest.of(0, RECENT_ATTACHMENTS))
+                .stream()
+                .map(join -> ChainStatsResponse.RecentAttachment.builder()
+                        .childPosition(join.getChildPosition())
+                        .displayName(join.getDisplayName())
+                        .timestamp(join.getJoinedAt())
+                        .country(null)  // Location tracking removed
+                        .build())
                 .collect(Collectors.toList());
 
         return ChainStatsResponse.builder()
@@ -52,8 +65,8 @@ public class ChainStatsService {
                 .activeTickets(activeTickets)
                 .chainStartDate(Instant.now()) // TODO: Get actual first user creation date
                 .averageGrowthRate(0.0) // TODO: Calculate
-                .totalWastedTickets(0L) // TODO: Implement wasted tickets tracking
-                .wasteRate(0.0)
+                .totalWastedTickets(wastedTickets)
+                .wasteRate(wasteRate)
                 .countries(0) // TODO: Count distinct countries
                 .lastUpdate(Instant.now())
                 .recentAttachments(recentList)
@@ -0,0 +1,316 @@
+package com.thechain.service;
+
+import com.thechain.dto.ActivityDto;
+import com.thechain.dto.ChainMemberDto;
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.User;
+import com.thechain.event.ChainEventAppended;
+import com.thechain.event.ChainProjection;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * DashboardCache - per-user dashboard data plus the global chain head, kept in
+ * process and invalidated from the chain event journal
+ *
+ * A user's entry holds everything of their dashboard that only changes with their
+ * own or their neighbours' activity (profile, parent/child, invited counts,
+ * tickets, recent activity). It is evicted when an event touches any user the
+ * entry shows: TICKET_ISSUED/TICKET_EXPIRED/BADGE_AWARDED for the user,
+ * JOINED for the parent (ticket used, child joined), REMOVED for the user, parent
+ * or child. The chain head (length, tip and the censored tip view every
+ * non-admin sees) is cached once and evicted on JOINED and REMOVED, i.e. on every
+ * tip change. Events written on this node are applied as soon as their
+ * transaction commits ({@link #onCommitted}), so a user never reads back their own
+ * stale dashboard; every node also runs the projection, so each node's cache
+ * follows the other nodes' writes within one poll interval (applying a local
+ * event a second time only evicts again). Entries also expire after the TTL as a
+ * safety net (changes that write no journal event, such as a renamed profile,
+ * show up after at most one TTL). Nothing is served or stored before the
+ * projection has caught up, since until then events would be missed.
+ *
+ * A load that overlaps a chain event is not stored ({@link #epoch()}), so a read
+ * racing a mutation cannot repopulate stale data. Bounded LRU, like the QR image
+ * cache.
+ *
+ * Metrics: chain.dashboard.cache{result=hit|miss} and chain.dashboard.cache.evictions
+ * (counters), chain.dashboard.cache.size (gauge).
+ */
+@Component
+public class DashboardCache implements ChainProjection {
+
+    private final ChainEventRepository chainEventRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    private final AtomicLong epoch = new AtomicLong();
+    private final Map<UUID, Cached<UserSnapshot>> users;
+    private final Map<UUID, Set<UUID>> dependents = new HashMap<>();
+    private volatile Cached<ChainHead> head;
+    private volatile boolean ready;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public DashboardCache(
+        ChainEventRepository chainEventRepository,
+        ProjectionCheckpointRepository checkpointRepository,
+        MeterRegistry meterRegistry,
+        @Value("${dashboard.cache.enabled:true}") boolean enabled,
+        @Value("${dashboard.cache.max-users:50000}") int maxUsers,
+        @Value("${dashboard.cache.ttl-ms:300000}") long ttlMillis
+    ) {
+        this(chainEventRepository, checkpointRepository, meterRegistry, enabled, maxUsers, ttlMillis,
+            System::currentTimeMillis);
+    }
+
+    DashboardCache(
+        ChainEventRepository chainEventRepository,
+        ProjectionCheckpointRepository checkpointRepository,
+        MeterRegistry meterRegistry,
+        boolean enabled,
+        int maxUsers,
+        long ttlMillis,
+        LongSupplier clock
+    ) {
+        this.chainEventRepository = chainEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.users = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Cached<UserSnapshot>> eldest) {
+                if (size() <= DashboardCache.this.maxUsers) {
+                    return false;
+                }
+                unlink(eldest.getKey(), eldest.getValue().value());
+                return true;
+            }
+        };
+
+        this.hits = Counter.builder("chain.dashboard.cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("chain.dashboard.cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("chain.dashboard.cache.evictions")
+            .description("Dashboard entries dropped because a chain event touched them")
+            .register(meterRegistry);
+        Gauge.builder("chain.dashboard.cache.size", this, DashboardCache::size)
+            .description("Users with a cached dashboard")
+            .register(meterRegistry);
+    }
+
+    /**
+     * The part of a user's dashboard that only their own chain neighbourhood changes
+     *
+     * @param visible        parent (if any), the user, child (if any); just the user for admins
+     * @param invitedCounts  active children per visible user
+     * @param ticketExpiresAt expiry of the user's active ticket, null if none
+     */
+    public record UserSnapshot(
+        User user,
+        List<User> visible,
+        Map<UUID, Integer> invitedCounts,
+        int activeTickets,
+        Instant ticketExpiresAt,
+        List<ActivityDto> activities
+    ) {
+
+        public int invitedCount() {
+            return invitedCounts.getOrDefault(user.getId(), 0);
+        }
+    }
+
+    /**
+     * Global part shared by every dashboard
+     *
+     * @param tip         user with the highest position, null on an empty chain
+     * @param censoredTip the tip as shown to non-admins, null on an empty chain
+     */
+    public record ChainHead(long totalUsers, User tip, ChainMemberDto censoredTip) {
+    }
+
+    private record Cached<T>(T value, long loadedAt) {
+    }
+
+    /**
+     * Current invalidation epoch; take it before loading and pass it to put
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Cached snapshot of a user's dashboard, or null
+     */
+    public UserSnapshot user(UUID userId) {
+        if (!active()) {
+            return null;
+        }
+        Cached<UserSnapshot> cached;
+        synchronized (users) {
+            cached = users.get(userId);
+            if (cached != null && expired(cached)) {
+                unlink(userId, cached.value());
+                users.remove(userId);
+                cached = null;
+            }
+        }
+        (cached != null ? hits : misses).increment();
+        return cached != null ? cached.value() : null;
+    }
+
+    /**
+     * Store a snapshot loaded since {@code loadEpoch}; dropped if a chain event arrived meanwhile
+     */
+    public void putUser(UserSnapshot snapshot, long loadEpoch) {
+        if (!active()) {
+            return;
+        }
+        UUID userId = snapshot.user().getId();
+        synchronized (users) {
+            if (epoch.get() != loadEpoch) {
+                return;
+            }
+            Cached<UserSnapshot> previous = users.put(userId, new Cached<>(snapshot, clock.getAsLong()));
+            if (previous != null) {
+                unlink(userId, previous.value());
+            }
+            for (User shown : snapshot.visible()) {
+                dependents.computeIfAbsent(shown.getId(), id -> new HashSet<>(4)).add(userId);
+            }
+        }
+    }
+
+    /**
+     * Cached chain head, or null
+     */
+    public ChainHead head() {
+        Cached<ChainHead> cached = head;
+        return active() && cached != null && !expired(cached) ? cached.value() : null;
+    }
+
+    public void putHead(ChainHead chainHead, long loadEpoch) {
+        if (!active()) {
+            return;
+        }
+        synchronized (users) {
+            if (epoch.get() == loadEpoch) {
+                head = new Cached<>(chainHead, clock.getAsLong());
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "dashboard-cache";
+    }
+
+    /**
+     * Nothing is cached before startup, so older events have nothing to evict - but a
+     * seq below the head may still be in flight and commit later, so resume just
+     * before the first seq not yet visible (replaying committed events only evicts)
+     */
+    @Override
+    public long resumeAfter() {
+        long head = chainEventRepository.findMaxSeq();
+        long settled = Math.min(checkpointRepository.findLowestLastSeq(), head);
+        return chainEventRepository.findGaps(settled, head).stream()
+            .findFirst()
+            .map(gap -> gap.getFirstSeq() - 1)
+            .orElse(head);
+    }
+
+    @Override
+    public void onCaughtUp() {
+        ready = true;
+    }
+
+    /**
+     * Evict for an event of this node once it has committed, ahead of the journal poll
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(ChainEventAppended appended) {
+        apply(appended.event());
+    }
+
+    @Override
+    public void apply(ChainEvent event) {
+        synchronized (users) {
+            epoch.incrementAndGet();
+            switch (event.getEventType()) {
+                case JOINED, REMOVED -> {
+                    head = null;
+                    evictShowing(event.getUserId());
+                    evictShowing(event.getRelatedUserId());
+                }
+                case TICKET_ISSUED, TICKET_EXPIRED, BADGE_AWARDED -> evictShowing(event.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Drop every entry that shows the user (their own, their parent's, their child's)
+     */
+    private void evictShowing(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        Set<UUID> showing = dependents.remove(userId);
+        if (showing == null) {
+            return;
+        }
+        for (UUID owner : showing) {
+            Cached<UserSnapshot> cached = users.remove(owner);
+            if (cached != null) {
+                unlink(owner, cached.value());
+                evictions.increment();
+            }
+        }
+    }
+
+    private void unlink(UUID owner, UserSnapshot snapshot) {
+        for (User shown : snapshot.visible()) {
+            Set<UUID> showing = dependents.get(shown.getId());
+            if (showing != null && showing.remove(owner) && showing.isEmpty()) {
+                dependents.remove(shown.getId());
+            }
+        }
+    }
+
+    private boolean active() {
+        return enabled && ready;
+    }
+
+    private boolean expired(Cached<?> cached) {
+        return clock.getAsLong() - cached.loadedAt() >= ttlMillis;
+    }
+}
@@ -1,5 +1,6 @@
 package com.thechain.service;
 
+import com.thechain.config.AsyncConfig;
 import com.thechain.dto.*;
 import com.thechain.entity.Ticket;
 import com.thechain.entity.Ticket.TicketStatus;
@@ -7,211 +8,288 @@ import com.thechain.entity.User;
 import com.thechain.exception.BusinessException;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Dashboard service for aggregating all user-specific dashboard data
  *
+ * Most polls are served from {@link DashboardCache}: the user's neighbourhood
+ * (profile, parent/child, invited counts, tickets, recent activity) and the
+ * global chain head (length, tip, censored tip view) are cached separately and
+ * evicted by the chain events that change them, and the response is composed in
+ * memory. Admin member pages are always read fresh.
+ *
+ * On a miss the reads fan out on the dashboard executor, so a load takes about as
+ * long as the slowest one. Every read has its own timeout
+ * (dashboard.section-timeout-ms); one that fails or times out is replaced by an
+ * empty fallback and listed in {@link DashboardResponse#getDegradedSections()}
+ * instead of failing the whole dashboard, and a degraded load is not cached.
+ * Sections run in their own read transactions, so they are not one snapshot.
+ *
+ * Metrics: chain.dashboard.load and chain.dashboard.section{section} (timers),
+ * chain.dashboard.degraded{section} (counter).
+ *
  * @author Backend Team
  * @since 2025-01-12
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class DashboardService {
 
+    /**
+     * Dependency of sections that need no other section
+     */
+    private static final CompletableFuture<Void> NOW = CompletableFuture.completedFuture(null);
+
     private final UserRepository userRepository;
     private final TicketRepository ticketRepository;
     private final UserService userService;
+    private final ChainMemberAssembler chainMemberAssembler;
+    private final DashboardCache dashboardCache;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final long sectionTimeoutMillis;
+
+    public DashboardService(
+        UserRepository userRepository,
+        TicketRepository ticketRepository,
+        UserService userService,
+        ChainMemberAssembler chainMemberAssembler,
+        DashboardCache dashboardCache,
+        @Qualifier(AsyncConfig.DASHBOARD_EXECUTOR) Executor executor,
+        MeterRegistry meterRegistry,
+        @Value("${dashboard.section-timeout-ms:2000}") long sectionTimeoutMillis
+    ) {
+        this.userRepository = userRepository;
+        this.ticketRepository = ticketRepository;
+        this.userService = userService;
+        this.chainMemberAssembler = chainMemberAssembler;
+        this.dashboardCache = dashboardCache;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+    }
 
     /**
      * Get comprehensive dashboard data for the current user
      */
-    @Transactional(readOnly = true)
     public DashboardResponse getDashboardData(UUID userId) {
         log.info("Loading dashboard data for user: {}", userId);
-
-        // Get user profile
-        UserProfileResponse userProfile = userService.getUserProfile(userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "User not found"));
-
-        // Get visible chain members (±1 positions)
-        List<ChainMemberDto> chainMembers = getVisibleChainMembers(user);
-
-        // Get dashboard stats
-        DashboardStatsDto stats = calculateDashboardStats(user);
-
-        // Get critical actions
-        List<CriticalActionDto> criticalActions = getCriticalActions(user);
-
-        // Get recent activities
-        List<ActivityDto> activities = getRecentActivities(user);
+        long started = System.nanoTime();
+        long epoch = dashboardCache.epoch();
+        Set<String> degraded = ConcurrentHashMap.newKeySet();
+
+        DashboardCache.UserSnapshot cachedSnapshot = dashboardCache.user(userId);
+        User user = cachedSnapshot != null ? cachedSnapshot.user()
+                : userRepository.findById(userId)
+                        .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "User not found"));
+
+        // Shared by every dashboard - resolved once per chain change
+        DashboardCache.ChainHead cachedHead = dashboardCache.head();
+        CompletableFuture<DashboardCache.ChainHead> head = cachedHead != null
+                ? CompletableFuture.completedFuture(cachedHead)
+                : loadChainHead(epoch, degraded);
+
+        CompletableFuture<DashboardCache.UserSnapshot> snapshot = cachedSnapshot != null
+                ? CompletableFuture.completedFuture(cachedSnapshot)
+                : loadUserSnapshot(user, epoch, degraded);
+
+        // Get visible chain members (±1 positions, a page for admins)
+        CompletableFuture<List<ChainMemberDto>> chainMembers = isAdmin(user)
+                ? section("chainMembers", head, () -> getAdminChainMembers(user, head.join()), List.of(), degraded)
+                : head.thenCombine(snapshot, this::getVisibleChainMembers);
+
+        // Every section completes within its timeout, with a fallback if it had to
+        CompletableFuture.allOf(head, snapshot, chainMembers).join();
+        DashboardCache.ChainHead chainHead = head.join();
+        DashboardCache.UserSnapshot userSnapshot = snapshot.join();
 
         // Get achievements (mock for now, will be implemented with badge system)
-        List<AchievementDto> achievements = getAchievements(user);
-
-        // Calculate achievement progress
-        Map<String, Double> achievementProgress = calculateAchievementProgress(achievements);
-
-        // Check for active ticket
-        boolean hasActiveTicket = hasActiveTicket(userId);
-
-        return DashboardResponse.builder()
-                .user(userProfile)
-                .chainMembers(chainMembers)
-                .stats(stats)
-                .criticalActions(criticalActions)
-                .recentActivities(activities)
+        List<AchievementDto> achievements = getAchievements(user, userSnapshot.invitedCount());
+
+        DashboardResponse response = DashboardResponse.builder()
+                .user(userService.getUserProfile(user))
+                .chainMembers(chainMembers.join())
+                .stats(calculateDashboardStats(user, chainHead.totalUsers(),
+                        userSnapshot.invitedCount(), userSnapshot.activeTickets()))
+                .criticalActions(getCriticalActions(user, chainHead.tip(), userSnapshot.ticketExpiresAt()))
+                .recentActivities(userSnapshot.activities())
                 .achievements(achievements)
-                .achievementProgress(achievementProgress)
+                .achievementProgress(calculateAchievementProgress(achievements))
                 .unreadNotifications(0) // TODO: Implement notification system
-                .hasActiveTicket(hasActiveTicket)
+                .hasActiveTicket(userSnapshot.activeTickets() > 0)
                 .lastActivity(user.getUpdatedAt() != null ? user.getUpdatedAt() : user.getCreatedAt())
+                .degradedSections(degraded.stream().sorted().toList())
                 .build();
+
+        meterRegistry.timer("chain.dashboard.load").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return response;
     }
 
     /**
-     * Get visible chain members based on user's admin status
-     * Admins: See entire chain with pagination (5 nodes starting from user's position)
-     * Non-admins: See only parent (position-1), user (position), and child (position+1)
+     * Chain length and tip, loaded concurrently; cached unless a read degraded
      */
-    private List<ChainMemberDto> getVisibleChainMembers(User user) {
-        List<ChainMemberDto> members = new ArrayList<>();
-
-        if (user.getIsAdmin() != null && user.getIsAdmin()) {
-            // Admin view: Show all chain members for initial load (up to 50)
-            log.info("Loading admin view for user: {} at position: {}", user.getChainKey(), user.getPosition());
-
-            // For dashboard initial load, show more members (up to 50)
-            int startPosition = 1;
-            Long totalUsers = userRepository.count();
-            int endPosition = Math.min(50, totalUsers.intValue()); // Show up to 50 members initially
-
-            // Fetch users in the range
-            List<User> chainUsers = userRepository.findByPositionBetweenOrderByPositionAsc(startPosition, endPosition);
-
-            for (User chainUser : chainUsers) {
-                boolean isCurrentUser = chainUser.getId().equals(user.getId());
-                ChainMemberDto memberDto = createChainMemberDto(chainUser, isCurrentUser);
-
-                // Admin sees full details - no censoring
-                members.add(memberDto);
-            }
-
-            // Add chain metadata for pagination info
-            log.info("Admin view loaded: showing positions {} to {} of {} total (initial load)",
-                    startPosition, endPosition, totalUsers);
-
-        } else {
-            // Non-admin view: Only see parent, self, and child (with censoring for non-adjacent)
-            log.info("Loading standard view for user: {} at position: {}", user.getChainKey(), user.getPosition());
-
-            // Add parent (position - 1)
-            if (user.getParentId() != null) {
-                userRepository.findById(user.getParentId()).ifPresent(parent -> {
-                    ChainMemberDto parentDto = createChainMemberDto(parent, false);
-                    // No censoring for parent - they can see their direct parent
-                    members.add(parentDto);
-                });
+    private CompletableFuture<DashboardCache.ChainHead> loadChainHead(long epoch, Set<String> degraded) {
+        Set<String> missing = ConcurrentHashMap.newKeySet();
+        CompletableFuture<Long> totalUsers = section("chainLength", NOW,
+                userRepository::count, 0L, missing);
+        CompletableFuture<User> tip = section("tip", NOW,
+                () -> userRepository.findTopByOrderByPositionDesc().orElse(null), null, missing);
+
+        return totalUsers.thenCombine(tip, (count, tipUser) -> {
+            DashboardCache.ChainHead chainHead = new DashboardCache.ChainHead(count, tipUser,
+                    tipUser != null ? chainMemberAssembler.censoredTip(tipUser) : null);
+            degraded.addAll(missing);
+            if (missing.isEmpty()) {
+                dashboardCache.putHead(chainHead, epoch);
             }
+            return chainHead;
+        });
+    }
 
-            // Add current user
-            members.add(createChainMemberDto(user, true));
-
-            // Add child (position + 1) if exists
-            if (user.getActiveChildId() != null) {
-                userRepository.findById(user.getActiveChildId()).ifPresent(child -> {
-                    ChainMemberDto childDto = createChainMemberDto(child, false);
-                    // No censoring for child - they can see their direct child
-                    members.add(childDto);
+    /**
+     * The user's neighbourhood, loaded concurrently; cached unless a read degraded
+     */
+    private CompletableFuture<DashboardCache.UserSnapshot> loadUserSnapshot(User user, long epoch,
+                                                                            Set<String> degraded) {
+        UUID userId = user.getId();
+        Set<String> missing = ConcurrentHashMap.newKeySet();
+
+        // Parent (position - 1) and child (position + 1); admins get a page instead
+        List<UUID> neighbourIds = new ArrayList<>(2);
+        if (!isAdmin(user)) {
+            Optional.ofNullable(user.getParentId()).ifPresent(neighbourIds::add);
+            Optional.ofNullable(user.getActiveChildId()).ifPresent(neighbourIds::add);
+        }
+        List<UUID> shownIds = new ArrayList<>(neighbourIds);
+        shownIds.add(userId);
+
+        CompletableFuture<Map<UUID, User>> neighbours = neighbourIds.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : section("neighbours", NOW, () -> userRepository.findAllById(neighbourIds).stream()
+                        .collect(Collectors.toMap(User::getId, neighbour -> neighbour)), Map.of(), missing);
+        CompletableFuture<Map<UUID, Integer>> invitedCounts = section("invitedCount", NOW,
+                () -> chainMemberAssembler.invitedCounts(shownIds), Map.of(), missing);
+        CompletableFuture<Integer> activeTickets = section("activeTickets", NOW,
+                () -> (int) ticketRepository.countByOwnerIdAndStatus(userId, TicketStatus.ACTIVE), 0, missing);
+        CompletableFuture<Instant> ticketExpiresAt = section("ticketExpiry", NOW,
+                () -> ticketRepository.findTopByOwnerIdAndStatusOrderByIssuedAtDesc(userId, TicketStatus.ACTIVE)
+                        .map(Ticket::getExpiresAt)
+                        .orElse(null), null, missing);
+        CompletableFuture<List<ActivityDto>> activities = section("recentActivities", NOW,
+                () -> getRecentActivities(user), List.of(), missing);
+
+        return CompletableFuture.allOf(neighbours, invitedCounts, activeTickets, ticketExpiresAt, activities)
+                .thenApply(ignored -> {
+                    Map<UUID, User> neighbourUsers = neighbours.join();
+                    List<User> visible = new ArrayList<>(3);
+                    Optional.ofNullable(user.getParentId()).map(neighbourUsers::get).ifPresent(visible::add);
+                    visible.add(user);
+                    Optional.ofNullable(user.getActiveChildId()).map(neighbourUsers::get).ifPresent(visible::add);
+
+                    DashboardCache.UserSnapshot userSnapshot = new DashboardCache.UserSnapshot(user,
+                            List.copyOf(visible), invitedCounts.join(), activeTickets.join(),
+                            ticketExpiresAt.join(), activities.join());
+                    degraded.addAll(missing);
+                    if (missing.isEmpty()) {
+                        dashboardCache.putUser(userSnapshot, epoch);
+                    }
+                    return userSnapshot;
                 });
-            }
+    }
 
-            // Add censored tip information if user is not the tip
-            Optional<User> tip = userRepository.findTopByOrderByPositionDesc();
-            tip.ifPresent(tipUser -> {
-                if (!tipUser.getId().equals(user.getId()) &&
-                    !members.stream().anyMatch(m -> m.getChainKey().equals(tipUser.getChainKey()))) {
-                    ChainMemberDto tipDto = createChainMemberDto(tipUser, false);
-                    tipDto.setStatus("tip");
-
-                    // Censor the tip's name for non-admin users (show only first 2 letters)
-                    String displayName = tipUser.getDisplayName();
-                    if (displayName != null && displayName.length() > 2) {
-                        tipDto.setDisplayName(displayName.substring(0, 2).toUpperCase() + "***");
+    /**
+     * Run one section on the dashboard executor once {@code after} completes
+     *
+     * The timeout runs from now, so it includes waiting for the section's inputs.
+     * On failure or timeout the section yields {@code fallback} and is recorded as
+     * degraded; the returned future never completes exceptionally.
+     */
+    private <T> CompletableFuture<T> section(String name, CompletableFuture<?> after, Supplier<T> work,
+                                             T fallback, Set<String> degraded) {
+        return after
+                .thenApplyAsync(ignored -> meterRegistry.timer("chain.dashboard.section", "section", name)
+                        .record(work), executor)
+                .orTimeout(sectionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Dashboard section {} timed out after {}ms, returning fallback", name, sectionTimeoutMillis);
+                    } else {
+                        log.warn("Dashboard section {} failed, returning fallback: {}", name, cause.toString());
                     }
-                    tipDto.setChainKey("TIP****"); // Censor chain key too
-
-                    members.add(tipDto);
-                }
-            });
-        }
+                    degraded.add(name);
+                    meterRegistry.counter("chain.dashboard.degraded", "section", name).increment();
+                    return fallback;
+                });
+    }
 
-        return members;
+    private static boolean isAdmin(User user) {
+        return user.getIsAdmin() != null && user.getIsAdmin();
     }
 
-    private ChainMemberDto createChainMemberDto(User user, boolean isCurrentUser) {
-        // Determine status
-        String status = determineUserStatus(user);
+    /**
+     * Admin view: show all chain members for initial load (up to 50), no censoring;
+     * further pages come from the chain explorer (/admin/chain/members)
+     *
+     * Members are built in one batch by {@link ChainMemberAssembler}: the tip comes
+     * from the chain head and invited counts from a single grouped query
+     */
+    private List<ChainMemberDto> getAdminChainMembers(User user, DashboardCache.ChainHead chainHead) {
+        log.info("Loading admin view for user: {} at position: {}", user.getChainKey(), user.getPosition());
 
-        return ChainMemberDto.builder()
-                .displayName(user.getDisplayName())
-                .chainKey(user.getChainKey())
-                .position(user.getPosition())
-                .status(status)
-                .isCurrentUser(isCurrentUser)
-                .avatarEmoji("👤") // Default emoji, TODO: Add avatarEmoji field to User entity
-                .joinedAt(user.getCreatedAt())
-                .invitedCount(calculateInvitedCount(user.getId()))
-                .countryCode(user.getAssociatedWith()) // Country code from user's associatedWith field
-                .build();
-    }
+        // For dashboard initial load, show more members (up to 50)
+        int startPosition = 1;
+        int endPosition = (int) Math.min(50, chainHead.totalUsers()); // Show up to 50 members initially
 
-    private String determineUserStatus(User user) {
-        if (user.getPosition() == 1) {
-            return "genesis";
-        }
-        if ("removed".equalsIgnoreCase(user.getStatus())) {
-            return "removed";
-        }
-        if ("active".equalsIgnoreCase(user.getStatus())) {
-            // Check if tip
-            Optional<User> tip = userRepository.findTopByOrderByPositionDesc();
-            if (tip.isPresent() && tip.get().getId().equals(user.getId())) {
-                return "tip";
-            }
-            return "active";
-        }
-        return user.getStatus() != null ? user.getStatus().toLowerCase() : "active";
+        // Fetch users in the range - admin sees full details, no censoring
+        List<User> chainUsers = userRepository.findByPositionBetweenOrderByPositionAsc(startPosition, endPosition);
+        return chainMemberAssembler.assemble(chainUsers, user.getId(), chainHead.tip());
     }
 
-    private Integer calculateInvitedCount(UUID userId) {
-        // Count active children
-        return userRepository.countByParentIdAndStatus(userId, "active");
+    /**
+     * Non-admin view: only parent, self and child, plus the censored tip
+     *
+     * Built in memory from the user's snapshot and the chain head (no query)
+     */
+    private List<ChainMemberDto> getVisibleChainMembers(DashboardCache.ChainHead chainHead,
+                                                        DashboardCache.UserSnapshot userSnapshot) {
+        User user = userSnapshot.user();
+        User tip = chainHead.tip();
+        List<ChainMemberDto> members = chainMemberAssembler.assemble(userSnapshot.visible(), user.getId(), tip,
+                userSnapshot.invitedCounts());
+
+        // Add censored tip information if user is not the tip
+        boolean addTip = tip != null && chainHead.censoredTip() != null && !tip.getId().equals(user.getId())
+                && userSnapshot.visible().stream().noneMatch(member -> member.getId().equals(tip.getId()));
+        if (addTip) {
+            members = new ArrayList<>(members);
+            members.add(chainHead.censoredTip());
+        }
+        return members;
     }
 
     /**
      * Calculate dashboard statistics
      */
-    private DashboardStatsDto calculateDashboardStats(User user) {
-        // Get total chain length
-        Long totalChainLength = userRepository.count();
-
-        // Calculate invited count
-        Integer totalInvited = calculateInvitedCount(user.getId());
-
-        // Active invites (pending tickets)
-        Integer activeInvites = (int) ticketRepository.countByOwnerIdAndStatus(user.getId(), TicketStatus.ACTIVE);
-
+    private DashboardStatsDto calculateDashboardStats(User user, long totalChainLength,
+                                                      int totalInvited, int activeInvites) {
         // Success rate (invited / total tickets generated)
         Double successRate = 0.0;
         if (user.getTotalTicketsGenerated() != null && user.getTotalTicketsGenerated() > 0) {
@@ -230,7 +308,7 @@ public class DashboardService {
                 .activeInvites(activeInvites)
                 .successRate(successRate)
                 .chainHealth(chainHealth)
-                .totalChainLength(totalChainLength.intValue())
+                .totalChainLength((int) totalChainLength)
                 .wastedTickets(user.getWastedTicketsCount() != null ? user.getWastedTicketsCount() : 0)
                 .build();
     }
@@ -238,34 +316,28 @@ public class DashboardService {
     /**
      * Get critical actions requiring user attention
      */
-    private List<CriticalActionDto> getCriticalActions(User user) {
+    private List<CriticalActionDto> getCriticalActions(User user, User tip, Instant ticketExpiresAt) {
         List<CriticalActionDto> actions = new ArrayList<>();
 
         // Check for expiring ticket
-        Optional<Ticket> activeTicket = ticketRepository
-                .findTopByOwnerIdAndStatusOrderByIssuedAtDesc(user.getId(), TicketStatus.ACTIVE);
-
-        activeTicket.ifPresent(ticket -> {
-            if (ticket.getExpiresAt() != null) {
-                Duration timeRemaining = Duration.between(Instant.now(), ticket.getExpiresAt());
-                long hoursRemaining = timeRemaining.toHours();
-
-                if (hoursRemaining <= 24 && hoursRemaining > 0) {
-                    actions.add(CriticalActionDto.builder()
-                            .type("ticketExpiring")
-                            .title("Ticket Expiring Soon")
-                            .description(String.format("Your invitation expires in %d hours", hoursRemaining))
-                            .timeRemainingSeconds(timeRemaining.getSeconds())
-                            .icon("timer")
-                            .color("#F59E0B")
-                            .build());
-                }
+        if (ticketExpiresAt != null) {
+            Duration timeRemaining = Duration.between(Instant.now(), ticketExpiresAt);
+            long hoursRemaining = timeRemaining.toHours();
+
+            if (hoursRemaining <= 24 && hoursRemaining > 0) {
+                actions.add(CriticalActionDto.builder()
+                        .type("ticketExpiring")
+                        .title("Ticket Expiring Soon")
+                        .description(String.format("Your invitation expires in %d hours", hoursRemaining))
+                        .timeRemainingSeconds(timeRemaining.getSeconds())
+                        .icon("timer")
+                        .color("#F59E0B")
+                        .build());
             }
-        });
+        }
 
         // Check if user is the tip
-        Optional<User> tip = userRepository.findTopByOrderByPositionDesc();
-        if (tip.isPresent() && tip.get().getId().equals(user.getId())) {
+        if (tip != null && tip.getId().equals(user.getId())) {
             actions.add(CriticalActionDto.builder()
                     .type("becameTip")
                     .title("You are now the TIP!")
@@ -341,11 +413,10 @@ public class DashboardService {
      * Get user achievements (mock implementation)
      * TODO: Implement proper badge system
      */
-    private List<AchievementDto> getAchievements(User user) {
+    private List<AchievementDto> getAchievements(User user, int invitedCount) {
         List<AchievementDto> achievements = new ArrayList<>();
 
         // Chain Savior badge (if user successfully reactivated chain)
-        Integer invitedCount = calculateInvitedCount(user.getId());
         if (invitedCount > 0) {
             achievements.add(AchievementDto.builder()
                     .id("chain_savior")
@@ -407,11 +478,4 @@ public class DashboardService {
                         AchievementDto::getProgress
                 ));
     }
-
-    /**
-     * Check if user has an active (non-expired) ticket
-     */
-    private boolean hasActiveTicket(UUID userId) {
-        return ticketRepository.countByOwnerIdAndStatus(userId, TicketStatus.ACTIVE) > 0;
-    }
 }
@@ -1,8 +1,10 @@
 package com.thechain.service;
 
+import com.thechain.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -36,6 +38,21 @@ public class JwtService {
     @Value("${jwt.refresh-token-expiry-seconds:604800}") // 7 days
     private long refreshTokenExpirySeconds;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    private SecretKey signingKey;
+    private VerifiedTokenCache verifiedTokens;
+
+    /**
+     * Derive the key and build the parser once; verified claims are cached per token
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        verifiedTokens = new VerifiedTokenCache(Jwts.parser().verifyWith(signingKey).build(), verifiedCacheSize);
+    }
+
     /**
      * Generate access token for user
      */
@@ -134,11 +151,7 @@ public class JwtService {
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return verifiedTokens.verify(token);
     }
 
     /**
@@ -195,8 +208,7 @@ public class JwtService {
      * Get signing key from secret
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
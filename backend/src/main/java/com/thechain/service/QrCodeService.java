@@ -0,0 +1,148 @@
+package com.thechain.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * QrCodeService - renders ticket QR codes once and serves them by content hash
+ *
+ * A ticket's deep link never changes, so its PNG is addressed by the SHA-256 of
+ * the encoded content: {@link #imagePath} yields a URL that is stable for the
+ * ticket's lifetime. Rendered images are kept in a bounded LRU map keyed by
+ * ticket id and that hash (the deep link carries the ticket's signature), together
+ * with the ticket's expiry; a miss (restart, eviction, expiry, another replica)
+ * re-renders once.
+ */
+@Service
+public class QrCodeService {
+
+    private static final int SIZE_PX = 300;
+
+    private final int cacheSize;
+    private final Map<String, Image> images;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer renderTimer;
+
+    public QrCodeService(
+        MeterRegistry meterRegistry,
+        @Value("${ticket.qr.cache-size:10000}") int cacheSize
+    ) {
+        this.cacheSize = cacheSize;
+        this.images = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+                return size() > QrCodeService.this.cacheSize;
+            }
+        };
+        this.hits = Counter.builder("chain.ticket.qr.cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("chain.ticket.qr.cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.renderTimer = Timer.builder("chain.ticket.qr.render")
+            .description("Time to render one QR code PNG")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Content hash used as cache key, URL component and ETag
+     */
+    public String contentHash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Image URL (relative to the API base path) for a ticket's QR code
+     */
+    public String imagePath(UUID ticketId, String content) {
+        return "/tickets/" + ticketId + "/qr/" + contentHash(content) + ".png";
+    }
+
+    /**
+     * A rendered QR code and the expiry of the ticket it belongs to
+     */
+    public record Image(byte[] png, Instant expiresAt) {
+    }
+
+    /**
+     * Cached image for a ticket and hash, or null if it has not been rendered on
+     * this node or the ticket has expired since
+     */
+    public Image cached(UUID ticketId, String hash) {
+        Image image = lookup(key(ticketId, hash));
+        if (image != null) {
+            hits.increment();
+        }
+        return image;
+    }
+
+    /**
+     * Image for a ticket's content, rendered at most once per ticket and hash while
+     * it stays cached
+     */
+    public Image render(UUID ticketId, String content, Instant expiresAt) {
+        String key = key(ticketId, contentHash(content));
+        Image image = lookup(key);
+        if (image != null) {
+            hits.increment();
+            return image;
+        }
+
+        misses.increment();
+        image = new Image(renderTimer.record(() -> encode(content)), expiresAt);
+        synchronized (images) {
+            Image raced = images.putIfAbsent(key, image);
+            return raced != null ? raced : image;
+        }
+    }
+
+    private Image lookup(String key) {
+        synchronized (images) {
+            Image image = images.get(key);
+            if (image != null && !image.expiresAt().isAfter(Instant.now())) {
+                images.remove(key);
+                return null;
+            }
+            return image;
+        }
+    }
+
+    private static String key(UUID ticketId, String hash) {
+        return ticketId + ":" + hash;
+    }
+
+    private static byte[] encode(String content) {
+        try {
+            BitMatrix bitMatrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, SIZE_PX, SIZE_PX);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+            return outputStream.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException("Error generating QR code", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.thechain.service;
+
+import com.thechain.config.AsyncConfig;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * TicketExpiryNotifier - delivers claimed expiry warnings off the scheduler thread
+ *
+ * Receives batches of ticket ids whose warning was already claimed in the database,
+ * loads tickets and owners with one query each and hands them to {@link EmailService}.
+ * A warning that fails to send is released again, so the next run retries it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TicketExpiryNotifier {
+
+    public enum Warning {
+        TWELVE_HOURS,
+        ONE_HOUR
+    }
+
+    private final TicketRepository ticketRepository;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Send one warning per ticket in the batch
+     *
+     * @return number of warnings handed to the mailer
+     */
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
+    public CompletableFuture<Integer> sendWarnings(Warning warning, List<UUID> ticketIds) {
+        List<Ticket> tickets = ticketRepository.findAllById(ticketIds);
+        Map<UUID, User> owners = userRepository.findAllById(
+                tickets.stream().map(Ticket::getOwnerId).distinct().toList())
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        int sent = 0;
+        for (Ticket ticket : tickets) {
+            User owner = owners.get(ticket.getOwnerId());
+            if (owner == null) {
+                log.warn("Owner {} of ticket {} not found - skipping {} warning",
+                    ticket.getOwnerId(), ticket.getId(), warning);
+                continue;
+            }
+            try {
+                if (warning == Warning.ONE_HOUR) {
+                    emailService.sendTicketExpiring1Hour(owner, ticket);
+                } else {
+                    emailService.sendTicketExpiring12Hours(owner, ticket);
+                }
+                sent++;
+            } catch (RuntimeException e) {
+                log.warn("{} warning for ticket {} failed, will retry: {}", warning, ticket.getId(), e.getMessage());
+                release(warning, ticket.getId());
+            }
+        }
+
+        log.debug("Sent {} of {} {} warnings", sent, ticketIds.size(), warning);
+        return CompletableFuture.completedFuture(sent);
+    }
+
+    private void release(Warning warning, UUID ticketId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (warning == Warning.ONE_HOUR) {
+                ticketRepository.release1HourWarning(ticketId);
+            } else {
+                ticketRepository.release12HourWarning(ticketId);
+            }
+        });
+    }
+}
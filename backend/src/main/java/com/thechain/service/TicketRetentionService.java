@@ -0,0 +1,156 @@
+package com.thechain.service;
+
+import com.thechain.repository.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TicketRetentionService - purges finished tickets past the retention window
+ *
+ * Walks EXPIRED/CANCELLED tickets in (expires_at, id) keyset order and deletes
+ * them with one set-based DELETE per chunk, each chunk in its own short
+ * transaction, so locks are held briefly and nothing is loaded into the heap.
+ *
+ * Throttled by a duty cycle: after a chunk that took t, the job pauses
+ * t * (1 / dutyCycle - 1), so at 0.25 it occupies the database at most a quarter
+ * of the time. A run stops after max-duration and continues the next night.
+ * Because of the pauses a run is long-lived; the scheduler starts it on the
+ * dedicated retention executor, never on a scheduling thread.
+ *
+ * Metrics: chain.ticket.retention.deleted / .scanned (counters),
+ * chain.ticket.retention.chunk (timer), chain.ticket.retention.run.deleted (gauge,
+ * progress of the current or last run).
+ */
+@Service
+@Slf4j
+public class TicketRetentionService {
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    private final double dutyCycle;
+    private final Duration maxDuration;
+
+    private final Counter deletedCounter;
+    private final Counter scannedCounter;
+    private final Timer chunkTimer;
+    private final AtomicLong runDeleted = new AtomicLong();
+
+    public TicketRetentionService(
+        TicketRepository ticketRepository,
+        TransactionTemplate transactionTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${ticket.retention.days:90}") int retentionDays,
+        @Value("${ticket.retention.chunk-size:1000}") int chunkSize,
+        @Value("${ticket.retention.duty-cycle:0.25}") double dutyCycle,
+        @Value("${ticket.retention.max-duration-ms:1800000}") long maxDurationMillis
+    ) {
+        this.ticketRepository = ticketRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = Duration.ofDays(retentionDays);
+        this.chunkSize = chunkSize;
+        this.dutyCycle = Math.min(1.0, Math.max(0.01, dutyCycle));
+        this.maxDuration = Duration.ofMillis(maxDurationMillis);
+
+        this.deletedCounter = Counter.builder("chain.ticket.retention.deleted")
+            .description("Tickets deleted by retention")
+            .register(meterRegistry);
+        this.scannedCounter = Counter.builder("chain.ticket.retention.scanned")
+            .description("Tickets visited by retention (deleted or still referenced)")
+            .register(meterRegistry);
+        this.chunkTimer = Timer.builder("chain.ticket.retention.chunk")
+            .description("Duration of one retention chunk")
+            .register(meterRegistry);
+        Gauge.builder("chain.ticket.retention.run.deleted", runDeleted, AtomicLong::get)
+            .description("Tickets deleted by the current or last retention run")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Delete finished tickets that expired before now - retention
+     *
+     * @return number of tickets deleted
+     */
+    public long purge() {
+        Instant started = Instant.now();
+        Instant cutoff = started.minus(retention);
+        Instant deadline = started.plus(maxDuration);
+        runDeleted.set(0);
+
+        Instant afterExpiresAt = Instant.EPOCH;
+        UUID afterId = MIN_UUID;
+        long scanned = 0;
+
+        while (true) {
+            Instant cursorExpiresAt = afterExpiresAt;
+            UUID cursorId = afterId;
+            long chunkStart = System.nanoTime();
+            TicketRepository.RetentionChunkView chunk = transactionTemplate.execute(status ->
+                ticketRepository.deleteRetentionChunk(cutoff, cursorExpiresAt, cursorId, chunkSize));
+            long chunkNanos = System.nanoTime() - chunkStart;
+            chunkTimer.record(chunkNanos, TimeUnit.NANOSECONDS);
+
+            if (chunk == null || chunk.getScanned() == null || chunk.getScanned() == 0) {
+                break;
+            }
+            scanned += chunk.getScanned();
+            scannedCounter.increment(chunk.getScanned());
+            deletedCounter.increment(chunk.getDeleted());
+            runDeleted.addAndGet(chunk.getDeleted());
+
+            afterExpiresAt = fromMicros(chunk.getLastExpiresAtMicros());
+            afterId = chunk.getLastId();
+
+            if (chunk.getScanned() < chunkSize) {
+                break;
+            }
+            if (Instant.now().isAfter(deadline)) {
+                log.info("Ticket retention stopped after {} - continuing next run", maxDuration);
+                break;
+            }
+            if (!pause(chunkNanos)) {
+                break;
+            }
+        }
+
+        log.info("Ticket retention deleted {} of {} finished tickets expired before {} in {} ms",
+            runDeleted.get(), scanned, cutoff, Duration.between(started, Instant.now()).toMillis());
+        return runDeleted.get();
+    }
+
+    /**
+     * Sleep so that work / (work + pause) stays at the configured duty cycle
+     */
+    private boolean pause(long chunkNanos) {
+        long pauseNanos = (long) (chunkNanos * (1.0 / dutyCycle - 1.0));
+        if (pauseNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(pauseNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+}
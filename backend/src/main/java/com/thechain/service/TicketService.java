@@ -2,29 +2,26 @@ package com.thechain.service;
 
 import com.thechain.config.CacheConfig;
 import com.thechain.dto.TicketResponse;
-import com.thechain.entity.Invitation;
 import com.thechain.entity.RemovalReason;
 import com.thechain.entity.Ticket;
+import com.thechain.event.ChainEventJournal;
 import com.thechain.entity.User;
 import com.thechain.exception.BusinessException;
-import com.thechain.repository.InvitationRepository;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.thechain.scheduler.TicketExpiryQueue;
+import com.thechain.security.TicketSigner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
@@ -37,11 +34,12 @@ public class TicketService {
 
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
-    private final InvitationRepository invitationRepository;
     private final ChainService chainService;
-
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final ChainEventJournal chainEventJournal;
+    private final TicketExpiryQueue ticketExpiryQueue;
+    private final QrCodeService qrCodeService;
+    private final TicketSigner ticketSigner;
+    private final CacheManager cacheManager;
 
     @Value("${ticket.expiration-hours}")
     private int expirationHours;
@@ -49,7 +47,9 @@ public class TicketService {
     /**
      * Get the active ticket for a user.
      * Returns 404 if user has no active ticket (successfully completed invitation).
+     * Read-only: a lapsed ticket is reported as EXPIRED, the expiration engine persists it.
      */
+    @Transactional(readOnly = true)
     public TicketResponse getActiveTicketForUser(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "User not found"));
@@ -63,12 +63,6 @@ public class TicketService {
         Ticket ticket = ticketRepository.findByOwnerIdAndStatus(userId, Ticket.TicketStatus.ACTIVE)
                 .orElseThrow(() -> new BusinessException("NO_ACTIVE_TICKET", "No active ticket found"));
 
-        // Check if ticket has expired (update status if needed)
-        if (ticket.getExpiresAt().isBefore(Instant.now()) && ticket.getStatus() == Ticket.TicketStatus.ACTIVE) {
-            ticket.setStatus(Ticket.TicketStatus.EXPIRED);
-            ticketRepository.save(ticket);
-        }
-
         return buildTicketResponse(ticket);
     }
 
@@ -97,7 +91,7 @@ public class TicketService {
         Instant expiresAt = now.plusSeconds(expirationHours * 3600L);
 
         String payload = createPayload(userId, now, expiresAt);
-        String signature = signPayload(payload);
+        String signature = ticketSigner.sign(payload);
 
         Ticket ticket = Ticket.builder()
                 .ownerId(userId)
@@ -108,95 +102,134 @@ public class TicketService {
                 .build();
 
         ticket = ticketRepository.save(ticket);
+        ticket.setQrCodeUrl(qrCodeService.imagePath(ticket.getId(), deepLink(ticket)));
+        chainEventJournal.ticketIssued(ticket);
+        UUID ticketId = ticket.getId();
+        // Only committed tickets go on the expiry queue
+        afterCommit(() -> ticketExpiryQueue.schedule(ticketId, expiresAt));
 
         log.info("Ticket created for user {} ({})", user.getChainKey(), ticket.getId());
 
         return ticket;
     }
 
+    /**
+     * Read-only ticket lookup. The response derives EXPIRED from expiresAt when it is
+     * serialized, so a cached copy stays correct until the ticket is used.
+     */
     @Cacheable(value = CacheConfig.TICKET_CACHE, key = "#ticketId")
+    @Transactional(readOnly = true)
     public TicketResponse getTicket(UUID ticketId) {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new BusinessException("TICKET_NOT_FOUND", "Ticket not found"));
 
-        if (ticket.getExpiresAt().isBefore(Instant.now()) && ticket.getStatus() == Ticket.TicketStatus.ACTIVE) {
-            ticket.setStatus(Ticket.TicketStatus.EXPIRED);
-            ticketRepository.save(ticket);
-        }
-
         return buildTicketResponse(ticket);
     }
 
+    /**
+     * Drop a ticket's cached response once the transaction that changed it commits.
+     * An eviction before the commit would let a concurrent getTicket re-cache the
+     * old status for the rest of the entry's TTL.
+     */
+    public void evictAfterCommit(UUID ticketId) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.TICKET_CACHE);
+            if (cache != null) {
+                cache.evict(ticketId);
+            }
+        });
+    }
+
+    /**
+     * Run {@code action} once the surrounding transaction commits, or immediately
+     * when none is active
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("Failed to run ticket after-commit action: {}", e.getMessage(), e);
+                }
+            }
+        });
+    }
+
     public boolean verifyTicketSignature(Ticket ticket, String providedSignature) {
-        String expectedSignature = signPayload(ticket.getPayload());
-        return expectedSignature.equals(providedSignature);
+        return ticketSigner.verify(ticket.getPayload(), providedSignature);
     }
 
     private String createPayload(UUID ownerId, Instant issuedAt, Instant expiresAt) {
-        return String.format("%s|%d|%d|%s",
-                ownerId.toString(),
+        // owner|issuedAt|expiresAt|nonce|keyId
+        return ticketSigner.payload(
+                ownerId,
                 issuedAt.toEpochMilli(),
                 expiresAt.toEpochMilli(),
-                UUID.randomUUID().toString() // nonce
+                UUID.randomUUID() // nonce
         );
     }
 
-    private String signPayload(String payload) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            mac.init(secretKeySpec);
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (Exception e) {
-            throw new RuntimeException("Error signing payload", e);
+    /**
+     * PNG of a ticket's QR code, addressed by the hash in its qrCodeUrl, with the
+     * ticket's expiry. Served from the render cache without touching the database
+     * when possible.
+     */
+    public QrCodeService.Image getQrCode(UUID ticketId, String hash) {
+        QrCodeService.Image cached = qrCodeService.cached(ticketId, hash);
+        if (cached != null) {
+            return cached;
         }
+
+        Ticket ticket = ticketRepository.findById(ticketId)
+                .orElseThrow(() -> new BusinessException("TICKET_NOT_FOUND", "Ticket not found"));
+        String deepLink = deepLink(ticket);
+        if (!qrCodeService.contentHash(deepLink).equals(hash)) {
+            throw new BusinessException("TICKET_NOT_FOUND", "QR code not found");
+        }
+        return qrCodeService.render(ticket.getId(), deepLink, ticket.getExpiresAt());
     }
 
-    private TicketResponse buildTicketResponse(Ticket ticket) {
-        String qrPayload = Base64.getEncoder().encodeToString(
+    private static String qrPayload(Ticket ticket) {
+        return Base64.getEncoder().encodeToString(
                 (ticket.getId() + "|" + ticket.getSignature()).getBytes(StandardCharsets.UTF_8)
         );
+    }
+
+    private static String deepLink(Ticket ticket) {
+        return "thechain://join?t=" + qrPayload(ticket);
+    }
 
-        String deepLink = "thechain://join?t=" + qrPayload;
+    private TicketResponse buildTicketResponse(Ticket ticket) {
+        String qrPayload = qrPayload(ticket);
+        String deepLink = deepLink(ticket);
 
-        long timeRemaining = ticket.getExpiresAt().toEpochMilli() - Instant.now().toEpochMilli();
+        // Tickets issued before QR images were content-addressed have no stored URL
+        String qrCodeUrl = ticket.getQrCodeUrl() != null
+                ? ticket.getQrCodeUrl()
+                : qrCodeService.imagePath(ticket.getId(), deepLink);
 
         return TicketResponse.builder()
                 .ticketId(ticket.getId())
                 .qrPayload(qrPayload)
-                .qrCodeUrl(generateQrCodeUrl(deepLink))
+                .qrCodeUrl(qrCodeUrl)
                 .deepLink(deepLink)
                 .signature(ticket.getSignature())
                 .issuedAt(ticket.getIssuedAt())
                 .expiresAt(ticket.getExpiresAt())
                 .status(ticket.getStatus().name())
-                .timeRemaining(Math.max(0, timeRemaining))
                 .build();
     }
 
-    private String generateQrCodeUrl(String content) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE, 300, 300);
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            byte[] qrCodeBytes = outputStream.toByteArray();
-
-            String base64Qr = Base64.getEncoder().encodeToString(qrCodeBytes);
-            return "data:image/png;base64," + base64Qr;
-        } catch (Exception e) {
-            log.error("Error generating QR code", e);
-            return null;
-        }
-    }
-
     /**
      * Expires a ticket and triggers chain reversion logic.
      * Called by scheduler when a ticket passes its deadline without being used.
      */
-    @CacheEvict(value = CacheConfig.TICKET_CACHE, key = "#ticketId")
     @Transactional
     public void expireTicket(UUID ticketId) {
         Ticket ticket = ticketRepository.findById(ticketId)
@@ -210,6 +243,8 @@ public class TicketService {
         // Mark ticket as expired
         ticket.setStatus(Ticket.TicketStatus.EXPIRED);
         ticketRepository.save(ticket);
+        chainEventJournal.ticketExpired(ticket);
+        evictAfterCommit(ticketId);
 
         // Get the owner
         User owner = userRepository.findById(ticket.getOwnerId())
@@ -241,39 +276,14 @@ public class TicketService {
 
     /**
      * Removes a user from the chain and triggers chain reversion.
+     * Delegates to the shared cascade engine so the 3-strike rule is applied in one pass.
      */
     private void removeUserFromChain(User user) {
-        UUID parentId = user.getParentId();
-        Integer userPosition = user.getPosition();
-
-        // 1. Mark user as removed
-        user.setStatus("removed");
-        user.setRemovedAt(Instant.now());
-        user.setRemovalReason(RemovalReason.WASTED.name());
         user.setWastedTicketsCount(0); // Reset counter after removal
         userRepository.save(user);
 
-        // 2. Update invitation status to REMOVED
-        invitationRepository.findByChildId(user.getId())
-            .ifPresent(invitation -> {
-                invitation.setStatus(Invitation.InvitationStatus.REMOVED);
-                invitationRepository.save(invitation);
-            });
-
-        // 3. If user has a parent, trigger chain reversion
-        if (parentId != null) {
-            userRepository.findById(parentId).ifPresent(parent -> {
-                // Clear parent's activeChildId (they lost their child)
-                parent.setActiveChildId(null);
-                userRepository.save(parent);
-                log.info("Chain reverted: Parent {} lost child at position {}",
-                         parent.getChainKey(), userPosition);
-            });
-
-            // 4. CHECK IF PARENT SHOULD BE REMOVED (3-strike rule)
-            chainService.checkParentRemovalFor3Strikes(user.getId());
-        }
+        chainService.removeUserFromChain(user.getId(), RemovalReason.WASTED.name());
 
-        log.info("User {} at position {} removed from chain", user.getChainKey(), userPosition);
+        log.info("User {} at position {} removed from chain", user.getChainKey(), user.getPosition());
     }
 }
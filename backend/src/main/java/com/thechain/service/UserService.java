@@ -34,6 +34,13 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("USER_NOT_FOUND", "User not found"));
 
+        return getUserProfile(user);
+    }
+
+    /**
+     * Profile of an already loaded user (no query)
+     */
+    public UserProfileResponse getUserProfile(User user) {
         return UserProfileResponse.builder()
                 .userId(user.getId())
                 .chainKey(user.getChainKey())
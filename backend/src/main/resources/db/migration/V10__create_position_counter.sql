@@ -0,0 +1,23 @@
+-- ============================================================================
+-- V10: Chain position counter
+-- ============================================================================
+-- Registration used MAX(position) + 1 and relied on the UNIQUE constraint to
+-- catch races, so a concurrent loser failed only after all of its work.
+-- Positions are now handed out from this single-row counter: the UPDATE takes
+-- a row lock held until commit, so positions stay gap-free and a rolled-back
+-- registration returns its reservation with the rest of the transaction.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS chain_position_counter (
+    id SMALLINT PRIMARY KEY DEFAULT 1,
+    next_position INTEGER NOT NULL,
+
+    CONSTRAINT chk_chain_position_counter_single_row CHECK (id = 1)
+);
+
+INSERT INTO chain_position_counter (id, next_position)
+SELECT 1, COALESCE(MAX(position), 0) + 1 FROM users
+ON CONFLICT (id) DO NOTHING;
+
+COMMENT ON TABLE chain_position_counter IS 'Single-row allocator for users.position (row lock = registration order)';
+COMMENT ON COLUMN chain_position_counter.next_position IS 'Next position to hand out';
@@ -0,0 +1,75 @@
+-- ============================================================================
+-- V11: Append-only chain event journal
+-- ============================================================================
+-- Every chain mutation appends one row here in the same transaction as the
+-- entity changes. seq is monotonic (identity), so projections can consume the
+-- journal incrementally and keep a checkpoint of the last applied seq.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS chain_events (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(30) NOT NULL,
+    user_id UUID,
+    position INTEGER,
+    related_user_id UUID,
+    ticket_id UUID,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    payload JSONB,
+
+    CONSTRAINT chk_chain_events_type CHECK (event_type IN
+        ('JOINED', 'TICKET_ISSUED', 'TICKET_EXPIRED', 'REMOVED', 'BADGE_AWARDED'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_chain_events_user_id ON chain_events(user_id, seq);
+CREATE INDEX IF NOT EXISTS idx_chain_events_type ON chain_events(event_type, seq);
+
+-- Last applied seq per durable projection
+CREATE TABLE IF NOT EXISTS projection_checkpoints (
+    name VARCHAR(100) PRIMARY KEY,
+    last_seq BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- ============================================================================
+-- BACKFILL: reconstruct history from existing rows, in occurrence order
+-- ============================================================================
+
+INSERT INTO chain_events (event_type, user_id, position, related_user_id, ticket_id, occurred_at, payload)
+SELECT event_type, user_id, position, related_user_id, ticket_id, occurred_at, payload
+FROM (
+    SELECT 'JOINED' AS event_type, u.id AS user_id, u.position, u.parent_id AS related_user_id,
+           i.ticket_id, u.created_at AS occurred_at, NULL::jsonb AS payload, 0 AS ord
+    FROM users u
+    LEFT JOIN invitations i ON i.child_id = u.id
+
+    UNION ALL
+
+    SELECT 'TICKET_ISSUED', t.owner_id, NULL, NULL, t.id, t.issued_at,
+           jsonb_build_object('expiresAt', t.expires_at, 'attempt', t.attempt_number), 1
+    FROM tickets t
+
+    UNION ALL
+
+    SELECT 'TICKET_EXPIRED', t.owner_id, NULL, NULL, t.id, t.expires_at, NULL, 2
+    FROM tickets t
+    WHERE t.status = 'EXPIRED'
+
+    UNION ALL
+
+    SELECT 'REMOVED', u.id, u.position, NULL, NULL, u.removed_at,
+           jsonb_build_object('reason', u.removal_reason), 3
+    FROM users u
+    WHERE u.status = 'removed' AND u.removed_at IS NOT NULL
+
+    UNION ALL
+
+    SELECT 'BADGE_AWARDED', NULL, b.user_position, NULL, NULL, b.earned_at,
+           jsonb_build_object('badgeType', b.badge_type), 4
+    FROM user_badges b
+) history
+ORDER BY occurred_at, ord, position;
+
+COMMENT ON TABLE chain_events IS 'Append-only journal of chain mutations (source for projections)';
+COMMENT ON COLUMN chain_events.seq IS 'Monotonic sequence number (commit order may briefly differ)';
+COMMENT ON COLUMN chain_events.related_user_id IS 'JOINED: parent; REMOVED: user whose removal started the cascade';
+COMMENT ON TABLE projection_checkpoints IS 'Last chain_events.seq applied by each durable projection';
@@ -0,0 +1,19 @@
+-- ============================================================================
+-- V12: Expiration work leases on tickets
+-- ============================================================================
+-- With several backend replicas every node used to load the same overdue
+-- tickets and race on them. In claiming mode a node leases a batch of overdue
+-- tickets (FOR UPDATE SKIP LOCKED, so concurrent claimers split the backlog)
+-- by stamping it with its node id and a lease deadline. A ticket whose lease
+-- ran out while still ACTIVE (node crashed) is claimable again.
+-- ============================================================================
+
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS expiry_claimed_by VARCHAR(100);
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS expiry_claimed_until TIMESTAMP WITH TIME ZONE;
+
+-- Claim scan: overdue ACTIVE tickets in deadline order
+CREATE INDEX IF NOT EXISTS idx_tickets_active_expires_at ON tickets(expires_at)
+    WHERE status = 'ACTIVE';
+
+COMMENT ON COLUMN tickets.expiry_claimed_by IS 'Node currently processing this ticket''s expiration';
+COMMENT ON COLUMN tickets.expiry_claimed_until IS 'Expiration lease deadline (claimable again afterwards)';
@@ -0,0 +1,21 @@
+-- ============================================================================
+-- V13: Ticket expiry warning state
+-- ============================================================================
+-- The warning job used to scan the whole tickets table in Java every 15
+-- minutes and had no record of what it had sent. Each warning is now claimed
+-- by stamping its column before it is handed to the mailer, so it fires once
+-- per ticket; candidates are found through partial indexes that only contain
+-- active, not-yet-warned tickets, so the job's cost does not grow with the
+-- ticket history.
+-- ============================================================================
+
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS warned_12h_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS warned_1h_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS idx_tickets_pending_12h_warning ON tickets(expires_at)
+    WHERE status = 'ACTIVE' AND warned_12h_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_tickets_pending_1h_warning ON tickets(expires_at)
+    WHERE status = 'ACTIVE' AND warned_1h_at IS NULL;
+
+COMMENT ON COLUMN tickets.warned_12h_at IS 'When the 12-hour expiry warning was queued (NULL = not yet)';
+COMMENT ON COLUMN tickets.warned_1h_at IS 'When the 1-hour expiry warning was queued (NULL = not yet)';
@@ -0,0 +1,10 @@
+-- ============================================================================
+-- V14: Ticket retention index
+-- ============================================================================
+-- Retention deletes finished tickets older than the retention window in small
+-- keyset chunks ordered by (expires_at, id). This partial index serves exactly
+-- that walk and contains only EXPIRED/CANCELLED tickets.
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_tickets_retention ON tickets(expires_at, id)
+    WHERE status IN ('EXPIRED', 'CANCELLED');
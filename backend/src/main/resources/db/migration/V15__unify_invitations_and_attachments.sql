@@ -0,0 +1,50 @@
+-- ============================================================================
+-- V15: One relationship store for parent -> child links
+-- ============================================================================
+-- Every claim used to write the same (parent, child, ticket) triple twice: an
+-- invitations row (with status) and an attachments row. invitations becomes the
+-- only store; attachments turns into a read-only view over it so existing
+-- readers and reports keep working.
+--
+-- attached_at maps to accepted_at (the moment the child joined), falling back
+-- to invited_at for rows that never recorded an acceptance.
+-- ============================================================================
+
+-- Links that only exist as attachments (written before invitations were
+-- introduced) move over; a child removed since then gets a REMOVED link
+INSERT INTO invitations (parent_id, child_id, ticket_id, status, invited_at, accepted_at)
+SELECT a.parent_id,
+       a.child_id,
+       a.ticket_id,
+       CASE WHEN u.status = 'removed' THEN 'REMOVED' ELSE 'ACTIVE' END,
+       a.attached_at,
+       a.attached_at
+FROM attachments a
+JOIN users u ON u.id = a.child_id
+WHERE NOT EXISTS (SELECT 1 FROM invitations i WHERE i.child_id = a.child_id);
+
+-- Acceptance time for invitations that were stored without one
+UPDATE invitations i
+SET accepted_at = a.attached_at
+FROM attachments a
+WHERE a.child_id = i.child_id
+AND i.accepted_at IS NULL;
+
+DROP TABLE attachments;
+
+CREATE VIEW attachments AS
+SELECT i.id,
+       i.parent_id,
+       i.child_id,
+       i.ticket_id,
+       COALESCE(i.accepted_at, i.invited_at) AS attached_at
+FROM invitations i;
+
+COMMENT ON VIEW attachments IS 'Read-only compatibility view: parent-child links from invitations';
+
+-- The UNIQUE(child_id) constraint already maintains an index on child_id
+DROP INDEX IF EXISTS idx_invitations_child_id;
+
+-- Serves the "recent joins" feed that used idx_attachments_attached_at
+CREATE INDEX IF NOT EXISTS idx_invitations_accepted_at ON invitations(accepted_at DESC)
+    WHERE accepted_at IS NOT NULL;
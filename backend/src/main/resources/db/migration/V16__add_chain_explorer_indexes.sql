@@ -0,0 +1,18 @@
+-- ============================================================================
+-- V16: Chain explorer indexes
+-- ============================================================================
+-- The admin chain explorer walks the chain in position order in keyset pages
+-- (position > last seen), optionally filtered by status and/or country. With
+-- the filter column leading and position second, every filtered page is one
+-- range scan that stops after the page size instead of a filter over the whole
+-- position index. Unfiltered pages use idx_users_position.
+--
+-- The single-column status/country indexes are prefixes of the new ones and
+-- are dropped so user writes don't maintain both.
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_users_status_position ON users(status, position);
+CREATE INDEX IF NOT EXISTS idx_users_country_position ON users(belongs_to, position);
+
+DROP INDEX IF EXISTS idx_users_status;
+DROP INDEX IF EXISTS idx_users_belongs_to;
@@ -0,0 +1,22 @@
+-- ============================================================================
+-- V17: Enforce the read-only contract of the attachments view
+-- ============================================================================
+-- V15 turned attachments into a view over invitations. A single-table view is
+-- automatically updatable in Postgres, so an INSERT/UPDATE/DELETE against it
+-- would silently write invitations (or fail late on the computed attached_at).
+-- An INSTEAD OF trigger rejects every write with a clear error; invitations is
+-- the only writable store of parent -> child links.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION reject_attachments_write() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'attachments is a read-only view over invitations; write invitations instead'
+        USING ERRCODE = 'feature_not_supported';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_attachments_read_only
+    INSTEAD OF INSERT OR UPDATE OR DELETE ON attachments
+    FOR EACH ROW EXECUTE FUNCTION reject_attachments_write();
+
+COMMENT ON VIEW attachments IS 'Read-only compatibility view: parent-child links from invitations (writes rejected)';
@@ -0,0 +1,12 @@
+-- ============================================================================
+-- V18: Projection state stored with its checkpoint
+-- ============================================================================
+-- A durable projection that keeps its read model in memory (the chain counters)
+-- saves that state next to last_seq in the same transaction. On startup it
+-- restores both and replays only the journal tail, instead of the whole
+-- journal on every boot.
+-- ============================================================================
+
+ALTER TABLE projection_checkpoints ADD COLUMN IF NOT EXISTS state JSONB;
+
+COMMENT ON COLUMN projection_checkpoints.state IS 'In-memory projection state as of last_seq (NULL if the projection writes its own tables)';
@@ -0,0 +1,52 @@
+-- ============================================================================
+-- V9: Persist chain links on users
+-- ============================================================================
+-- activeChildId and the wasted-child counter used to be @Transient on User and
+-- were re-derived through attachment/invitation joins on every request.
+-- They are now real columns, maintained transactionally by the register and
+-- removal paths, so tip detection and "has invitee" checks are single-row reads.
+-- ============================================================================
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS active_child_id UUID REFERENCES users(id);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS wasted_child_count INTEGER NOT NULL DEFAULT 0;
+
+-- ============================================================================
+-- BACKFILL
+-- ============================================================================
+
+-- Active child = the most recent non-removed user pointing at this parent
+UPDATE users p
+SET active_child_id = c.id
+FROM (
+    SELECT DISTINCT ON (parent_id) id, parent_id
+    FROM users
+    WHERE parent_id IS NOT NULL
+    AND status <> 'removed'
+    ORDER BY parent_id, position DESC
+) c
+WHERE c.parent_id = p.id;
+
+-- Wasted children = invitations that were flipped to REMOVED
+UPDATE users p
+SET wasted_child_count = w.wasted
+FROM (
+    SELECT parent_id, COUNT(*) AS wasted
+    FROM invitations
+    WHERE status = 'REMOVED'
+    GROUP BY parent_id
+) w
+WHERE w.parent_id = p.id;
+
+-- ============================================================================
+-- INDEXES
+-- ============================================================================
+
+-- Reverse lookup (clearing a parent's link when its child is removed)
+CREATE INDEX IF NOT EXISTS idx_users_active_child_id ON users(active_child_id);
+
+-- Tip lookup: highest active/seed user without an active child
+CREATE INDEX IF NOT EXISTS idx_users_tip_candidates ON users(position DESC)
+    WHERE status IN ('active', 'seed') AND active_child_id IS NULL;
+
+COMMENT ON COLUMN users.active_child_id IS 'Current active invitee (NULL = user is a tip candidate)';
+COMMENT ON COLUMN users.wasted_child_count IS 'Number of invitees removed from the chain (3-strike counter)';
@@ -0,0 +1,65 @@
+-- GCRA (generic cell rate algorithm) over every limit that applies to one request,
+-- checked and charged atomically in a single round trip.
+--
+-- Each key stores a limit's theoretical arrival time (TAT, epoch ms). A request of
+-- cost c is allowed when TAT + c * interval - burst <= now, where
+-- interval = window / limit and burst = limit * interval; it then moves TAT
+-- forward by c * interval. Unlike fixed windows this never admits 2x the limit
+-- around a window boundary.
+--
+-- All-or-nothing: if any limit rejects, none is charged.
+--
+-- KEYS[i]  key of limit i (same hash tag for all keys of one request)
+-- ARGV     per limit i: interval ms, limit, cost
+-- Returns  { allowed (1/0), then per limit: remaining, retry after ms, reset after ms }
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local tats = {}
+local allowed = 1
+
+for i = 1, #KEYS do
+    local base = (i - 1) * 3
+    local interval = tonumber(ARGV[base + 1])
+    local limit = tonumber(ARGV[base + 2])
+    local cost = tonumber(ARGV[base + 3])
+
+    local tat = tonumber(redis.call('GET', KEYS[i])) or now
+    if tat < now then
+        tat = now
+    end
+    tats[i] = tat
+    if tat + cost * interval - limit * interval > now then
+        allowed = 0
+    end
+end
+
+local result = { allowed }
+
+for i = 1, #KEYS do
+    local base = (i - 1) * 3
+    local interval = tonumber(ARGV[base + 1])
+    local limit = tonumber(ARGV[base + 2])
+    local cost = tonumber(ARGV[base + 3])
+    local burst = limit * interval
+
+    local tat = tats[i]
+    local retry_after = 0
+    local charged = tat + cost * interval
+    if charged - burst > now then
+        retry_after = charged - burst - now
+    end
+    if allowed == 1 then
+        tat = charged
+        if tat > now then
+            redis.call('SET', KEYS[i], tat, 'PX', tat - now)
+        end
+    end
+
+    result[base + 2] = math.max(0, math.floor((burst - (tat - now)) / interval))
+    result[base + 3] = retry_after
+    result[base + 4] = tat - now
+end
+
+return result
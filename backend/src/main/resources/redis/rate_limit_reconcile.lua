@@ -0,0 +1,36 @@
+-- Folds quota consumed by one node's local buckets into the shared GCRA state
+-- (same keys and TAT encoding as rate_limit_gcra.lua).
+--
+-- Unlike the check script this never rejects: the units were already admitted
+-- locally, so each key's TAT just moves forward by units * interval, capped at a
+-- full burst ahead of now so an overshoot across nodes empties the bucket
+-- instead of locking the caller out for longer than one window.
+--
+-- KEYS[i]  key of limit i (same hash tag for all keys of one caller)
+-- ARGV     per limit i: interval ms, limit, units consumed since the last sync
+-- Returns  per limit: ms the shared TAT is ahead of now (0 = bucket full)
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local result = {}
+
+for i = 1, #KEYS do
+    local base = (i - 1) * 3
+    local interval = tonumber(ARGV[base + 1])
+    local limit = tonumber(ARGV[base + 2])
+    local units = tonumber(ARGV[base + 3])
+
+    local tat = tonumber(redis.call('GET', KEYS[i])) or now
+    if tat < now then
+        tat = now
+    end
+    tat = math.min(tat + units * interval, now + limit * interval)
+    if tat > now then
+        redis.call('SET', KEYS[i], tat, 'PX', tat - now)
+    end
+
+    result[i] = tat - now
+end
+
+return result
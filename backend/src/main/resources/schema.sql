@@ -53,21 +53,43 @@ CREATE UNIQUE INDEX IF NOT EXISTS idx_tickets_one_active_per_user
     ON tickets(owner_id)
     WHERE status = 'ACTIVE';
 
--- Attachments table
-CREATE TABLE IF NOT EXISTS attachments (
+-- Invitations table: the single store of parent -> child links
+CREATE TABLE IF NOT EXISTS invitations (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     parent_id UUID NOT NULL REFERENCES users(id),
-    child_id UUID NOT NULL REFERENCES users(id),
+    child_id UUID NOT NULL UNIQUE REFERENCES users(id),
     ticket_id UUID NOT NULL REFERENCES tickets(id),
-    attached_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
-    UNIQUE(parent_id, child_id),
-    UNIQUE(child_id)
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    invited_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    accepted_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT chk_invitations_status CHECK (status IN ('ACTIVE', 'REMOVED', 'REVERTED'))
 );
 
-CREATE INDEX IF NOT EXISTS idx_attachments_parent_id ON attachments(parent_id);
-CREATE INDEX IF NOT EXISTS idx_attachments_child_id ON attachments(child_id);
-CREATE INDEX IF NOT EXISTS idx_attachments_ticket_id ON attachments(ticket_id);
-CREATE INDEX IF NOT EXISTS idx_attachments_attached_at ON attachments(attached_at);
+CREATE INDEX IF NOT EXISTS idx_invitations_parent_id ON invitations(parent_id);
+CREATE INDEX IF NOT EXISTS idx_invitations_ticket_id ON invitations(ticket_id);
+CREATE INDEX IF NOT EXISTS idx_invitations_accepted_at ON invitations(accepted_at DESC)
+    WHERE accepted_at IS NOT NULL;
+
+-- Attachments: read-only view over invitations (writes go to invitations)
+CREATE OR REPLACE VIEW attachments AS
+SELECT i.id,
+       i.parent_id,
+       i.child_id,
+       i.ticket_id,
+       COALESCE(i.accepted_at, i.invited_at) AS attached_at
+FROM invitations i;
+
+CREATE OR REPLACE FUNCTION reject_attachments_write() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'attachments is a read-only view over invitations; write invitations instead'
+        USING ERRCODE = 'feature_not_supported';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_attachments_read_only ON attachments;
+CREATE TRIGGER trg_attachments_read_only
+    INSTEAD OF INSERT OR UPDATE OR DELETE ON attachments
+    FOR EACH ROW EXECUTE FUNCTION reject_attachments_write();
 
 -- Insert seed user (The Seeder)
 INSERT INTO users (
@@ -0,0 +1,146 @@
+package com.thechain.chain;
+
+import com.thechain.entity.User;
+import com.thechain.event.ChainEventJournal;
+import com.thechain.event.ChainProjectionRunner;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Database build of the chain index while a journal write is still in flight.
+ *
+ * Not @Transactional - the late join must commit after the build's snapshot, like production.
+ */
+@ActiveProfiles("test")
+class ChainIndexLoaderIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ChainEventRepository chainEventRepository;
+
+    @Autowired
+    private ProjectionCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ChainEventJournal chainEventJournal;
+
+    @Autowired
+    private PositionAllocator positionAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_LowerSeqCommittedAfterBuildSnapshot_IsReplayed() throws Exception {
+        // Given: a join that journaled its event but has not committed yet...
+        User parent = transactionTemplate.execute(status -> join(positionAllocator.reserve(), null));
+        int latePosition = transactionTemplate.execute(status -> positionAllocator.reserve());
+        AtomicReference<User> lateChild = new AtomicReference<>();
+        CountDownLatch journaled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> lateJoin = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    lateChild.set(join(latePosition, parent.getId()));
+                    journaled.countDown();
+                    await(release);
+                }));
+        assertThat(journaled.await(10, TimeUnit.SECONDS)).isTrue();
+        UUID lateChildId = lateChild.get().getId();
+
+        // ...and a later join that has committed, so the late seq is below the journal head
+        User committed = transactionTemplate.execute(status -> join(positionAllocator.reserve(), null));
+
+        // When: the index is built, then the late join commits and the journal is replayed
+        ChainIndex index = new ChainIndex();
+        ChainIndexLoader loader = new ChainIndexLoader(index, userRepository, invitationRepository,
+                ticketRepository, chainEventRepository, checkpointRepository,
+                tempDir.resolve("absent.snap").toString());
+        TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+        repeatableRead.setReadOnly(true);
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        repeatableRead.executeWithoutResult(status -> loader.load());
+
+        assertThat(index.positionOf(committed.getId())).isPresent();
+        assertThat(index.positionOf(lateChildId)).isEmpty();
+
+        release.countDown();
+        lateJoin.get(10, TimeUnit.SECONDS);
+        replay(index, lateChildId);
+
+        // Then: the late join reached the index although its seq is below the build's head
+        assertThat(index.positionOf(lateChildId)).contains(latePosition);
+        assertThat(index.parentOf(lateChildId)).contains(parent.getId());
+        assertThat(index.reflects(chainEventRepository.findMaxSeq())).isTrue();
+    }
+
+    /**
+     * Run the journal replay until the late join is applied (bounded; settling an
+     * unrelated rolled-back gap takes a second pass)
+     */
+    private void replay(ChainIndex index, UUID userId) throws InterruptedException {
+        ChainProjectionRunner runner = new ChainProjectionRunner(List.of(new ChainIndexProjection(index)),
+                chainEventRepository, checkpointRepository, transactionTemplate, 1000);
+        runner.start();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (index.positionOf(userId).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            runner.catchUp();
+        }
+    }
+
+    private User join(int position, UUID parentId) {
+        String username = "l" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.saveAndFlush(User.builder()
+                .position(position)
+                .displayName(username)
+                .username(username)
+                .passwordHash("$2a$10$hashedPassword")
+                .parentId(parentId)
+                .status("active")
+                .build());
+        chainEventJournal.joined(user, parentId, null);
+        return user;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.thechain.chain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChainIndexTest {
+
+    private ChainIndex index;
+
+    private final UUID seed = UUID.randomUUID();
+    private final UUID user2 = UUID.randomUUID();
+    private final UUID user3 = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Chain: SEED(1) -> USER(2) -> USER(3)
+        index = new ChainIndex();
+        index.beginLoad(3);
+        index.putNode(seed, 1, null, "seed");
+        index.putNode(user2, 2, seed, "active");
+        index.putNode(user3, 3, user2, "active");
+        index.linkActiveChild(seed, user2);
+        index.linkActiveChild(user2, user3);
+        index.finishLoad();
+    }
+
+    @Test
+    void notReady_ReturnsEmptyTip() {
+        ChainIndex empty = new ChainIndex();
+
+        assertThat(empty.isReady()).isFalse();
+        assertThat(empty.tipUserId()).isEmpty();
+        assertThat(empty.tipPosition()).isEmpty();
+    }
+
+    @Test
+    void notReady_QueriesReturnEmptyWithoutWaitingForLoad() {
+        // Given: a load in progress on the live index holds its write lock
+        ChainIndex loading = new ChainIndex();
+        loading.beginLoad(3);
+
+        // Then: other threads get "not ready" answers instead of blocking
+        assertThat(CompletableFuture.supplyAsync(() -> loading.positionOf(seed))
+                .orTimeout(5, TimeUnit.SECONDS).join()).isEmpty();
+        loading.abortLoad();
+    }
+
+    @Test
+    void install_SwapsInBuiltIndex() {
+        // Given
+        ChainIndex live = new ChainIndex();
+        index.advanceWatermark(42);
+
+        // When
+        live.install(index);
+
+        // Then
+        assertThat(live.isReady()).isTrue();
+        assertThat(live.tipUserId()).contains(user3);
+        assertThat(live.parentOf(user3)).contains(user2);
+        assertThat(live.watermark()).isEqualTo(42);
+    }
+
+    @Test
+    void tip_IsHighestActiveUserWithoutChild() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.tipUserId()).contains(user3);
+        assertThat(index.tipPosition()).contains(3);
+    }
+
+    @Test
+    void neighbours_ResolvedFromArrays() {
+        assertThat(index.parentOf(user3)).contains(user2);
+        assertThat(index.activeChildOf(seed)).contains(user2);
+        assertThat(index.activeChildOf(user3)).isEmpty();
+        assertThat(index.userAt(2)).contains(user2);
+        assertThat(index.positionOf(user3)).contains(3);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void onJoined_NewUserBecomesTip() {
+        UUID user4 = UUID.randomUUID();
+
+        index.onJoined(user4, 4, user3);
+
+        assertThat(index.tipUserId()).contains(user4);
+        assertThat(index.activeChildOf(user3)).contains(user4);
+        assertThat(index.parentOf(user4)).contains(user3);
+    }
+
+    @Test
+    void onRemoved_RevertsTipToParent() {
+        index.onRemoved(user3);
+
+        assertThat(index.tipUserId()).contains(user2);
+        assertThat(index.activeChildOf(user2)).isEmpty();
+        assertThat(index.statusOf(user3)).isEqualTo(ChainIndex.STATUS_REMOVED);
+    }
+
+    @Test
+    void onRemoved_IsIdempotent() {
+        index.onRemoved(user3);
+        index.onRemoved(user3);
+
+        assertThat(index.tipUserId()).contains(user2);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        UUID previous = user3;
+        for (int position = 4; position <= 5000; position++) {
+            UUID next = UUID.randomUUID();
+            index.onJoined(next, position, previous);
+            previous = next;
+        }
+
+        assertThat(index.size()).isEqualTo(5000);
+        assertThat(index.tipPosition()).contains(5000);
+        assertThat(index.tipUserId()).contains(previous);
+        assertThat(index.positionOf(previous)).contains(5000);
+        assertThat(index.positionOf(seed)).contains(1);
+    }
+}
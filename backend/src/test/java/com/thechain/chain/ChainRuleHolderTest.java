@@ -0,0 +1,123 @@
+package com.thechain.chain;
+
+import com.thechain.entity.ChainRule;
+import com.thechain.repository.ChainRuleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChainRuleHolderTest {
+
+    @Mock
+    private ChainRuleRepository chainRuleRepository;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ChainRuleHolder chainRuleHolder;
+
+    @Test
+    void current_DefaultsBeforeLoad() {
+        assertThat(chainRuleHolder.current()).isEqualTo(ChainRuleSnapshot.DEFAULTS);
+    }
+
+    @Test
+    void refresh_LoadsActiveRuleAndPublishesChange() {
+        // Given
+        when(chainRuleRepository.findScheduledRulesDueForApplication(any())).thenReturn(List.of());
+        when(chainRuleRepository.findCurrentActiveRule(any())).thenReturn(Optional.of(rule(2, 5, Instant.now())));
+        when(chainRuleRepository.findUpcomingRules(any())).thenReturn(List.of());
+
+        // When
+        chainRuleHolder.refresh();
+
+        // Then
+        assertThat(chainRuleHolder.current().getVersion()).isEqualTo(2);
+        assertThat(chainRuleHolder.current().getMaxAttempts()).isEqualTo(5);
+        verify(eventPublisher).publishEvent(any(ChainRuleChangedEvent.class));
+        verifyNoInteractions(taskScheduler);
+    }
+
+    @Test
+    void refresh_SameVersion_NoSignal() {
+        // Given
+        when(chainRuleRepository.findScheduledRulesDueForApplication(any())).thenReturn(List.of());
+        when(chainRuleRepository.findCurrentActiveRule(any())).thenReturn(Optional.empty());
+        when(chainRuleRepository.findUpcomingRules(any())).thenReturn(List.of());
+
+        // When
+        chainRuleHolder.refresh();
+
+        // Then
+        assertThat(chainRuleHolder.current()).isEqualTo(ChainRuleSnapshot.DEFAULTS);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_AppliesDueRulesAndArmsNextSwitchover() {
+        // Given
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        ChainRule due = rule(2, 3, Instant.now().minusSeconds(1));
+        Instant nextAt = Instant.now().plusSeconds(3600);
+        when(chainRuleRepository.findScheduledRulesDueForApplication(any())).thenReturn(List.of(due));
+        when(chainRuleRepository.markApplied(eq(due.getId()), any())).thenReturn(1);
+        when(chainRuleRepository.findCurrentActiveRule(any())).thenReturn(Optional.of(due));
+        when(chainRuleRepository.findUpcomingRules(any())).thenReturn(List.of(rule(3, 3, nextAt)));
+
+        // When - second refresh must not re-arm the same switchover
+        chainRuleHolder.refresh();
+        chainRuleHolder.refresh();
+
+        // Then
+        verify(chainRuleRepository, times(2)).markApplied(eq(due.getId()), any());
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), eq(nextAt));
+        assertThat(chainRuleHolder.current().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void refresh_RepositoryFailure_KeepsPreviousSnapshot() {
+        // Given
+        when(chainRuleRepository.findScheduledRulesDueForApplication(any()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        // When
+        chainRuleHolder.refresh();
+
+        // Then
+        assertThat(chainRuleHolder.current()).isEqualTo(ChainRuleSnapshot.DEFAULTS);
+    }
+
+    private ChainRule rule(int version, int maxAttempts, Instant effectiveFrom) {
+        return ChainRule.builder()
+                .id(UUID.randomUUID())
+                .version(version)
+                .maxAttempts(maxAttempts)
+                .effectiveFrom(effectiveFrom)
+                .build();
+    }
+}
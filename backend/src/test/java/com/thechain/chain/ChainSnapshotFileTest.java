@@ -0,0 +1,177 @@
+package com.thechain.chain;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.ChainEvent.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChainSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChainIndex index;
+
+    private final UUID seed = UUID.randomUUID();
+    private final UUID user2 = UUID.randomUUID();
+    private final UUID user3 = UUID.randomUUID();
+    private final Instant expiresAt = Instant.now().plus(24, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeEach
+    void setUp() {
+        // Chain: SEED(1) -> USER(2) -> USER(3), user3 holds a ticket, user2 has one strike
+        index = new ChainIndex();
+        index.beginLoad(3);
+        index.putNode(seed, 1, null, "seed");
+        index.putNode(user2, 2, seed, "active");
+        index.putNode(user3, 3, user2, "active");
+        index.linkActiveChild(seed, user2);
+        index.linkActiveChild(user2, user3);
+        index.setStrikes(user2, 1);
+        index.setTicketExpiry(user3, expiresAt);
+        index.advanceWatermark(42);
+        index.finishLoad();
+    }
+
+    @Test
+    void writeThenRead_RestoresIndexAndWatermark() throws IOException {
+        // Given
+        Path file = tempDir.resolve("chain.snap");
+        ChainSnapshotFile.write(file, index.exportSnapshot());
+
+        // When
+        ChainIndex restored = restore(ChainSnapshotFile.read(file));
+
+        // Then
+        assertThat(restored.watermark()).isEqualTo(42);
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.tipUserId()).contains(user3);
+        assertThat(restored.parentOf(user3)).contains(user2);
+        assertThat(restored.activeChildOf(seed)).contains(user2);
+        assertThat(restored.statusOf(seed)).isEqualTo(ChainIndex.STATUS_SEED);
+        assertThat(restored.exportSnapshot().strikes()[2]).isEqualTo(1);
+        assertThat(restored.exportSnapshot().ticketExpiry()[3]).isEqualTo(expiresAt.toEpochMilli());
+        assertThat(restored.exportSnapshot().ticketExpiry()[2]).isZero();
+        assertThat(Files.exists(tempDir.resolve("chain.snap.tmp"))).isFalse();
+    }
+
+    @Test
+    void read_CorruptedFile_Rejected() throws IOException {
+        // Given
+        Path file = tempDir.resolve("chain.snap");
+        ChainSnapshotFile.write(file, index.exportSnapshot());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        // When / Then
+        assertThatThrownBy(() -> ChainSnapshotFile.read(file))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void read_TruncatedFile_Rejected() throws IOException {
+        // Given
+        Path file = tempDir.resolve("chain.snap");
+        ChainSnapshotFile.write(file, index.exportSnapshot());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 9));
+
+        // When / Then
+        assertThatThrownBy(() -> ChainSnapshotFile.read(file))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("size mismatch");
+    }
+
+    @Test
+    void projection_ReplaysOnlyEventsAfterWatermark() throws IOException {
+        // Given: restored snapshot at watermark 42
+        Path file = tempDir.resolve("chain.snap");
+        ChainSnapshotFile.write(file, index.exportSnapshot());
+        ChainIndex restored = restore(ChainSnapshotFile.read(file));
+        ChainIndexProjection projection = new ChainIndexProjection(restored);
+        UUID user4 = UUID.randomUUID();
+
+        // When: an already-reflected event and two newer ones are replayed
+        projection.apply(event(40, EventType.REMOVED, user3, 3, null));
+        projection.apply(event(43, EventType.JOINED, user4, 4, user3));
+        projection.apply(event(44, EventType.TICKET_ISSUED, user4, null, null));
+
+        // Then
+        assertThat(projection.resumeAfter()).isEqualTo(44);
+        assertThat(restored.statusOf(user3)).isEqualTo(ChainIndex.STATUS_ACTIVE);
+        assertThat(restored.tipUserId()).contains(user4);
+        ChainIndex.Snapshot replayed = restored.exportSnapshot();
+        assertThat(replayed.ticketExpiry()[3]).isZero();
+        assertThat(replayed.ticketExpiry()[4]).isEqualTo(expiresAt.toEpochMilli());
+    }
+
+    @Test
+    void projection_RemovedEvent_CountsStrikeOnParent() {
+        // Given
+        ChainIndexProjection projection = new ChainIndexProjection(index);
+
+        // When
+        projection.apply(event(43, EventType.REMOVED, user3, 3, user3));
+
+        // Then
+        assertThat(index.statusOf(user3)).isEqualTo(ChainIndex.STATUS_REMOVED);
+        assertThat(index.exportSnapshot().strikes()[2]).isEqualTo(2);
+        assertThat(index.exportSnapshot().ticketExpiry()[3]).isZero();
+        assertThat(index.tipUserId()).contains(user2);
+    }
+
+    @Test
+    void projection_AfterDatabaseBuild_AppliesOnlyEventsTheBuildMissed() {
+        // Given: a build that saw the journal up to #45 except #43, still uncommitted then
+        index.markLoaded(45, List.of(new ChainIndex.SeqRange(43, 43)));
+        ChainIndexProjection projection = new ChainIndexProjection(index);
+        UUID user4 = UUID.randomUUID();
+
+        // When: the late #43 commits and is replayed with the events around it
+        projection.apply(event(43, EventType.REMOVED, user3, 3, user3));
+        projection.apply(event(44, EventType.REMOVED, user3, 3, user3));
+        projection.apply(event(46, EventType.JOINED, user4, 4, user2));
+
+        // Then: #43 counted one strike, #44 was already in the build, #46 is new
+        assertThat(projection.resumeAfter()).isEqualTo(46);
+        assertThat(index.exportSnapshot().strikes()[2]).isEqualTo(2);
+        assertThat(index.positionOf(user4)).contains(4);
+        assertThat(index.isAheadOfWatermark()).isFalse();
+    }
+
+    private ChainIndex restore(ChainIndex.Snapshot snapshot) {
+        ChainIndex restored = new ChainIndex();
+        restored.beginLoad(snapshot.length());
+        restored.restore(snapshot);
+        restored.finishLoad();
+        return restored;
+    }
+
+    private ChainEvent event(long seq, EventType type, UUID userId, Integer position, UUID relatedUserId) {
+        return ChainEvent.builder()
+            .seq(seq)
+            .eventType(type)
+            .userId(userId)
+            .position(position)
+            .relatedUserId(relatedUserId)
+            .occurredAt(Instant.now())
+            .payload(type == EventType.TICKET_ISSUED ? Map.of("expiresAt", expiresAt.toString()) : null)
+            .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.thechain.chain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start cost of the chain index for a 5M-position chain: snapshot file load
+ * (mmap + restore) versus the in-memory half of the database path, i.e. the
+ * ChainIndexLoader call sequence fed from arrays instead of streamed rows.
+ *
+ * The rebuild figure is a lower bound: it leaves out the JDBC scans of users,
+ * invitations and tickets, which dominate a real database load. That cost is
+ * logged by ChainIndexLoader at startup ("Chain index built from database in ...").
+ *
+ * Not a unit test (surefire ignores *Benchmark); run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.thechain.chain.ChainSnapshotLoadBenchmark}
+ * or from the IDE. Needs roughly 4 GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ChainSnapshotLoadBenchmark {
+
+    @Param("5000000")
+    int positions;
+
+    private UUID[] ids;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws IOException {
+        ids = new UUID[positions + 1];
+        for (int position = 1; position <= positions; position++) {
+            ids[position] = UUID.randomUUID();
+        }
+        ChainIndex index = rebuild();
+        index.advanceWatermark(positions);
+
+        file = Files.createTempFile("chain-index", ".snap");
+        ChainSnapshotFile.write(file, index.exportSnapshot());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ChainIndex loadFromSnapshot() throws IOException {
+        ChainIndex.Snapshot snapshot = ChainSnapshotFile.read(file);
+        ChainIndex index = new ChainIndex();
+        index.beginLoad(snapshot.length());
+        index.restore(snapshot);
+        index.finishLoad();
+        return index;
+    }
+
+    @Benchmark
+    public ChainIndex rebuildInMemoryOnly() {
+        return rebuild();
+    }
+
+    /**
+     * Same call sequence as ChainIndexLoader's database load, without any JDBC
+     */
+    private ChainIndex rebuild() {
+        Instant expiresAt = Instant.now().plusSeconds(86_400);
+        ChainIndex index = new ChainIndex();
+        index.beginLoad(positions);
+        index.putNode(ids[1], 1, null, "seed");
+        for (int position = 2; position <= positions; position++) {
+            index.putNode(ids[position], position, ids[position - 1], position % 50 == 0 ? "removed" : "active");
+            if (position % 49 == 0) {
+                index.setStrikes(ids[position], 1);
+            }
+        }
+        for (int position = 2; position <= positions; position++) {
+            index.linkActiveChild(ids[position - 1], ids[position]);
+        }
+        index.setTicketExpiry(ids[positions], expiresAt);
+        index.finishLoad();
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ChainSnapshotLoadBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
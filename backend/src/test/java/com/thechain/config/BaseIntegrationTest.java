@@ -42,6 +42,10 @@ import org.testcontainers.junit.jupiter.Testcontainers;
         "spring.cache.type=none",
         "spring.data.redis.repositories.enabled=false",
 
+        // Tests write fixtures straight through repositories, so resolve the
+        // chain topology from the database instead of the in-memory index
+        "chain.index.enabled=false",
+
         // JWT Configuration for tests
         "jwt.secret=test-secret-key-for-unit-tests-minimum-256-bits-long-string-here",
         "jwt.expiration=3600000",
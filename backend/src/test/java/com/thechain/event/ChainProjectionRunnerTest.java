@@ -0,0 +1,215 @@
+package com.thechain.event;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.ProjectionCheckpoint;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChainProjectionRunnerTest {
+
+    @Mock
+    private ChainEventRepository chainEventRepository;
+
+    @Mock
+    private ProjectionCheckpointRepository checkpointRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ChainCountersProjection counters;
+    private ChainProjectionRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        counters = new ChainCountersProjection();
+        runner = new ChainProjectionRunner(List.of(counters), chainEventRepository,
+                checkpointRepository, transactionTemplate, 100);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void start_ReplaysJournalAndMarksProjectionReady() {
+        // Given
+        Instant old = Instant.now().minusSeconds(60);
+        when(chainEventRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                event(1, ChainEvent.EventType.TICKET_ISSUED, null, old),
+                event(2, ChainEvent.EventType.JOINED, UUID.randomUUID(), old),
+                event(3, ChainEvent.EventType.TICKET_ISSUED, null, old)));
+
+        // When
+        runner.start();
+
+        // Then
+        assertThat(counters.isReady()).isTrue();
+        ChainCountersProjection.Counters snapshot = counters.snapshot();
+        assertThat(snapshot.totalJoined()).isEqualTo(1);
+        assertThat(snapshot.activeTickets()).isEqualTo(1);
+        assertThat(snapshot.lastSeq()).isEqualTo(3);
+        assertThat(runner.positionOf(counters.name())).isEqualTo(3);
+    }
+
+    @Test
+    void catchUp_Gap_WaitsWhileItsTransactionMayCommit() {
+        // Given: seq 2 not visible, transactions up to xid 100 may still be running
+        when(chainEventRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                event(1, ChainEvent.EventType.TICKET_ISSUED, null, Instant.now()),
+                event(3, ChainEvent.EventType.TICKET_ISSUED, null, Instant.now())));
+        when(chainEventRepository.findSnapshotXmax()).thenReturn(100L);
+        when(chainEventRepository.findBatchAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(
+                event(3, ChainEvent.EventType.TICKET_ISSUED, null, Instant.now())));
+        when(chainEventRepository.findSnapshotXmin()).thenReturn(99L);
+
+        // When: started, then polled again while xid 99 is still open
+        runner.start();
+        runner.catchUp();
+
+        // Then: stops before the gap, however old the later event is
+        assertThat(runner.positionOf(counters.name())).isEqualTo(1);
+        assertThat(counters.snapshot().ticketsIssued()).isEqualTo(1);
+    }
+
+    @Test
+    void catchUp_GapWhoseTransactionsEnded_IsSkipped() {
+        // Given: seq 2 missing; by the next poll every transaction below xid 100 has ended
+        Instant now = Instant.now();
+        when(chainEventRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                event(1, ChainEvent.EventType.TICKET_ISSUED, null, now),
+                event(3, ChainEvent.EventType.TICKET_EXPIRED, null, now)));
+        when(chainEventRepository.findSnapshotXmax()).thenReturn(100L);
+        when(chainEventRepository.findBatchAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(
+                event(3, ChainEvent.EventType.TICKET_EXPIRED, null, now)));
+        when(chainEventRepository.findSnapshotXmin()).thenReturn(100L);
+
+        // When
+        runner.start();
+        runner.catchUp();
+
+        // Then
+        assertThat(runner.positionOf(counters.name())).isEqualTo(3);
+        assertThat(counters.snapshot().ticketsExpired()).isEqualTo(1);
+    }
+
+    @Test
+    void catchUp_GapFilledByLateCommit_AppliesInOrder() {
+        // Given: seq 2 commits after seq 3
+        Instant now = Instant.now();
+        when(chainEventRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                event(1, ChainEvent.EventType.TICKET_ISSUED, null, now),
+                event(3, ChainEvent.EventType.TICKET_EXPIRED, null, now)));
+        when(chainEventRepository.findSnapshotXmax()).thenReturn(100L);
+        when(chainEventRepository.findBatchAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(
+                event(2, ChainEvent.EventType.TICKET_ISSUED, null, now),
+                event(3, ChainEvent.EventType.TICKET_EXPIRED, null, now)));
+        when(chainEventRepository.findSnapshotXmin()).thenReturn(90L);
+
+        // When
+        runner.start();
+        runner.catchUp();
+
+        // Then
+        assertThat(runner.positionOf(counters.name())).isEqualTo(3);
+        assertThat(counters.snapshot().ticketsIssued()).isEqualTo(2);
+    }
+
+    @Test
+    void catchUp_DurableProjection_ResumesFromCheckpoint() {
+        // Given
+        ChainProjection durable = mock(ChainProjection.class);
+        when(durable.name()).thenReturn("durable");
+        when(durable.isDurable()).thenReturn(true);
+        when(checkpointRepository.findById("durable")).thenReturn(Optional.of(
+                ProjectionCheckpoint.builder().name("durable").lastSeq(5L).updatedAt(Instant.now()).build()));
+        runner = new ChainProjectionRunner(List.of(durable), chainEventRepository,
+                checkpointRepository, transactionTemplate, 100);
+        ChainEvent next = event(6, ChainEvent.EventType.BADGE_AWARDED, null, Instant.now());
+        when(chainEventRepository.findBatchAfter(eq(5L), any(Pageable.class))).thenReturn(List.of(next));
+
+        // When
+        runner.start();
+
+        // Then
+        verify(durable).apply(next);
+        verify(checkpointRepository).save(argThat(checkpoint -> checkpoint.getLastSeq() == 6L));
+        verify(chainEventRepository, never()).findBatchAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void start_Counters_RestoreCheckpointStateAndReplayOnlyTheTail() {
+        // Given: counters stored with checkpoint #5 (JSON numbers come back as Integer)
+        when(checkpointRepository.findById(counters.name())).thenReturn(Optional.of(
+                ProjectionCheckpoint.builder().name(counters.name()).lastSeq(5L).updatedAt(Instant.now())
+                        .state(Map.of("joined", 4, "ticketsIssued", 3, "ticketsUsed", 2, "lastSeq", 5))
+                        .build()));
+        when(chainEventRepository.findBatchAfter(eq(5L), any(Pageable.class))).thenReturn(List.of(
+                event(6, ChainEvent.EventType.JOINED, UUID.randomUUID(), Instant.now())));
+
+        // When
+        runner.start();
+
+        // Then
+        ChainCountersProjection.Counters snapshot = counters.snapshot();
+        assertThat(snapshot.totalJoined()).isEqualTo(5);
+        assertThat(snapshot.activeTickets()).isZero();
+        assertThat(snapshot.lastSeq()).isEqualTo(6);
+        verify(checkpointRepository).save(argThat(checkpoint -> checkpoint.getLastSeq() == 6L
+                && Long.valueOf(5).equals(checkpoint.getState().get("joined"))));
+        verify(chainEventRepository, never()).findBatchAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void catchUp_CheckpointNotSaved_DropsBatchFromCounters() {
+        // Given: the checkpoint transaction fails after the batch was applied
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            throw new IllegalStateException("connection lost");
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(chainEventRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                event(1, ChainEvent.EventType.TICKET_ISSUED, null, Instant.now())));
+
+        // When
+        assertThatThrownBy(() -> runner.start()).isInstanceOf(IllegalStateException.class);
+
+        // Then: retried from the old position without counting the event twice
+        assertThat(counters.snapshot().ticketsIssued()).isZero();
+        assertThat(runner.positionOf(counters.name())).isZero();
+    }
+
+    @Test
+    void catchUp_BeforeStart_DoesNothing() {
+        assertThat(runner.catchUp()).isZero();
+        verify(chainEventRepository, never()).findBatchAfter(anyLong(), any());
+    }
+
+    private ChainEvent event(long seq, ChainEvent.EventType type, UUID ticketId, Instant occurredAt) {
+        return ChainEvent.builder()
+                .seq(seq)
+                .eventType(type)
+                .ticketId(ticketId)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.thechain.integration;
+
+import com.thechain.chain.PositionAllocator;
+import com.thechain.entity.Invitation;
+import com.thechain.entity.User;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.UserRepository;
+import com.thechain.scheduler.StrikeCounterConsistencyScheduler;
+import com.thechain.service.ChainCascadeEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent removals under the same ancestor: without serialization each
+ * cascade's walk would miss the other's strike and leave the ancestor active at
+ * the limit.
+ *
+ * Not @Transactional - each removal commits in its own transaction, like production.
+ */
+@ActiveProfiles("test")
+class CascadeConcurrencyIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    private static final int MAX_STRIKES = 3;
+
+    @Autowired
+    private ChainCascadeEngine cascadeEngine;
+
+    @Autowired
+    private PositionAllocator positionAllocator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StrikeCounterConsistencyScheduler strikeCounterConsistencyScheduler;
+
+    @Test
+    void concurrentRemovals_AncestorReachingLimitIsRemoved() throws Exception {
+        // Given: a parent with one strike and two active children
+        User parent = createUser(null, 1);
+        User first = createUser(parent, 0);
+        User second = createUser(parent, 0);
+
+        // When: the first removal holds its transaction open while the second one
+        // blocks on the parent's row
+        ChainCascadeEngine.CascadeResult result = removeConcurrently(first, second);
+
+        // Then: the third strike removed the parent
+        User updatedParent = userRepository.findById(parent.getId()).orElseThrow();
+        assertThat(updatedParent.getWastedChildCount()).isEqualTo(3);
+        assertThat(updatedParent.getStatus()).isEqualTo("removed");
+        assertThat(updatedParent.getRemovalReason()).isEqualTo("WASTED");
+        assertThat(result.removedUserIds()).containsExactly(second.getId(), parent.getId());
+    }
+
+    @Test
+    void concurrentRemovals_SharedGrandparentReachingLimitIsRemoved() throws Exception {
+        // Given: a grandparent with one strike; one parent at the limit once its
+        // child goes, the other parent removed directly
+        User grandparent = createUser(null, 1);
+        User atLimit = createUser(grandparent, 2);
+        User leaf = createUser(atLimit, 0);
+        User other = createUser(grandparent, 0);
+
+        // When: both lineages add a strike to the grandparent at the same time
+        removeConcurrently(leaf, other);
+
+        // Then
+        assertThat(userRepository.findById(atLimit.getId()).orElseThrow().getStatus()).isEqualTo("removed");
+        User updatedGrandparent = userRepository.findById(grandparent.getId()).orElseThrow();
+        assertThat(updatedGrandparent.getWastedChildCount()).isEqualTo(3);
+        assertThat(updatedGrandparent.getStatus()).isEqualTo("removed");
+    }
+
+    @Test
+    void strikeCounterRebuild_ConcurrentCascade_StrikeNotLost() throws Exception {
+        // Given: a drifted counter (1, but no removed child yet) and an active child
+        User parent = createUser(null, 1);
+        User child = createUser(parent, 0);
+
+        // When: the child's removal is in flight while the rebuild runs
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> removal = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    cascadeEngine.cascade(child.getId(), "test_removal", MAX_STRIKES);
+                    applied.countDown();
+                    await(release);
+                }));
+        assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Integer> rebuild = CompletableFuture.supplyAsync(
+                strikeCounterConsistencyScheduler::verifyStrikeCounters);
+        awaitLockWaiters(1);
+        release.countDown();
+        removal.get(10, TimeUnit.SECONDS);
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        // Then: the counter matches the one removed child, not the pre-removal recount
+        assertThat(userRepository.findWastedChildCount(parent.getId())).contains(1);
+    }
+
+    /**
+     * Remove {@code first} in a transaction held open until {@code second}'s
+     * removal is waiting for a lock, then let both finish
+     *
+     * @return the second removal's result
+     */
+    private ChainCascadeEngine.CascadeResult removeConcurrently(User first, User second) throws Exception {
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> firstRemoval = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    cascadeEngine.cascade(first.getId(), "test_removal", MAX_STRIKES);
+                    applied.countDown();
+                    await(release);
+                }));
+        assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ChainCascadeEngine.CascadeResult> secondRemoval = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status ->
+                        cascadeEngine.cascade(second.getId(), "test_removal", MAX_STRIKES)));
+        awaitLockWaiters(1);
+        release.countDown();
+        firstRemoval.get(10, TimeUnit.SECONDS);
+        return secondRemoval.get(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Wait until at least {@code count} sessions wait for a row lock (bounded;
+     * if the second removal is late it simply sees the first one committed)
+     */
+    private void awaitLockWaiters(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class);
+            if (waiting != null && waiting >= count) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private User createUser(User parent, int wastedChildCount) {
+        String username = "c" + UUID.randomUUID().toString().substring(0, 8);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.save(User.builder()
+                    .position(positionAllocator.reserve())
+                    .displayName(username)
+                    .username(username)
+                    .passwordHash("$2a$10$hashedPassword")
+                    .parentId(parent != null ? parent.getId() : null)
+                    .wastedChildCount(wastedChildCount)
+                    .status("active")
+                    .build());
+            if (parent != null) {
+                invitationRepository.save(Invitation.builder()
+                        .parentId(parent.getId())
+                        .childId(user.getId())
+                        .ticketId(UUID.randomUUID())
+                        .status(Invitation.InvitationStatus.ACTIVE)
+                        .acceptedAt(Instant.now())
+                        .build());
+            }
+            return user;
+        });
+    }
+}
@@ -4,6 +4,7 @@ import com.thechain.entity.Invitation;
 import com.thechain.entity.User;
 import com.thechain.repository.InvitationRepository;
 import com.thechain.repository.UserRepository;
+import com.thechain.scheduler.StrikeCounterConsistencyScheduler;
 import com.thechain.service.ChainService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +34,9 @@ class ChainReversionIntegrationTest extends com.thechain.config.BaseIntegrationT
     @Autowired
     private InvitationRepository invitationRepository;
 
+    @Autowired
+    private StrikeCounterConsistencyScheduler strikeCounterConsistencyScheduler;
+
     private User seed;
     private User user1;
     private User user2;
@@ -221,6 +225,7 @@ class ChainReversionIntegrationTest extends com.thechain.config.BaseIntegrationT
                 .build());
 
         user1.setActiveChildId(child3.getId());
+        user1.setWastedChildCount(2);
         userRepository.save(user1);
 
         // When: Third child is removed (3rd strike!)
@@ -257,6 +262,8 @@ class ChainReversionIntegrationTest extends com.thechain.config.BaseIntegrationT
                 .status(Invitation.InvitationStatus.REMOVED)
                 .acceptedAt(Instant.now())
                 .build());
+        user1.setWastedChildCount(2);
+        userRepository.save(user1);
 
         // When: Check parent removal with only 2 strikes
         chainService.checkParentRemovalFor3Strikes(child2.getId());
@@ -294,6 +301,95 @@ class ChainReversionIntegrationTest extends com.thechain.config.BaseIntegrationT
         assertThat(updatedSeed.getStatus()).isEqualTo("seed");
     }
 
+    @Test
+    void threeStrikeRule_CascadesThroughAllAncestorsAtLimit() {
+        // Given: User1 and User2 each already have 2 removed children
+        int position = 10;
+        for (User parent : new User[]{user1, user2}) {
+            for (int i = 0; i < 2; i++) {
+                User wasted = createUser(position, "WASTED00000" + position, parent.getId());
+                position++;
+                invitationRepository.save(Invitation.builder()
+                        .parentId(parent.getId())
+                        .childId(wasted.getId())
+                        .ticketId(UUID.randomUUID())
+                        .status(Invitation.InvitationStatus.REMOVED)
+                        .acceptedAt(Instant.now())
+                        .build());
+            }
+            parent.setWastedChildCount(2);
+            userRepository.save(parent);
+        }
+        invitationRepository.save(Invitation.builder()
+                .parentId(user2.getId())
+                .childId(user3.getId())
+                .ticketId(UUID.randomUUID())
+                .status(Invitation.InvitationStatus.ACTIVE)
+                .acceptedAt(Instant.now())
+                .build());
+        invitationRepository.save(Invitation.builder()
+                .parentId(user1.getId())
+                .childId(user2.getId())
+                .ticketId(UUID.randomUUID())
+                .status(Invitation.InvitationStatus.ACTIVE)
+                .acceptedAt(Instant.now())
+                .build());
+
+        // When: User3 is removed (3rd strike for User2, which is then User1's 3rd strike)
+        chainService.removeUserFromChain(user3.getId(), "test_removal");
+
+        // Then: the whole affected lineage is removed in one pass, seed survives
+        assertThat(userRepository.findById(user3.getId()).orElseThrow().getStatus()).isEqualTo("removed");
+        assertThat(userRepository.findById(user2.getId()).orElseThrow().getRemovalReason()).isEqualTo("WASTED");
+        assertThat(userRepository.findById(user1.getId()).orElseThrow().getRemovalReason()).isEqualTo("WASTED");
+        assertThat(userRepository.findById(seed.getId()).orElseThrow().getStatus()).isEqualTo("active");
+        assertThat(invitationRepository.findByChildId(user2.getId()).orElseThrow().getStatus())
+                .isEqualTo(Invitation.InvitationStatus.REMOVED);
+    }
+
+    @Test
+    void threeStrikeRule_CounterIncrementedWhenInvitationFlips() {
+        // Given: User2's invitation is active, User1 has no strikes
+        invitationRepository.save(Invitation.builder()
+                .parentId(user1.getId())
+                .childId(user2.getId())
+                .ticketId(UUID.randomUUID())
+                .status(Invitation.InvitationStatus.ACTIVE)
+                .acceptedAt(Instant.now())
+                .build());
+
+        // When: User2 is removed, then the check runs again for the same child
+        chainService.removeUserFromChain(user2.getId(), "test_removal");
+        chainService.checkParentRemovalFor3Strikes(user2.getId());
+
+        // Then: exactly one strike is counted
+        User updatedUser1 = userRepository.findById(user1.getId()).orElseThrow();
+        assertThat(updatedUser1.getWastedChildCount()).isEqualTo(1);
+        assertThat(updatedUser1.getStatus()).isEqualTo("active");
+    }
+
+    @Test
+    void strikeCounterConsistencyCheck_RebuildsDriftedCounters() {
+        // Given: User1 has 1 removed child but a drifted counter
+        User child = createUser(10, "CHILD0000001", user1.getId());
+        invitationRepository.save(Invitation.builder()
+                .parentId(user1.getId())
+                .childId(child.getId())
+                .ticketId(UUID.randomUUID())
+                .status(Invitation.InvitationStatus.REMOVED)
+                .acceptedAt(Instant.now())
+                .build());
+        user1.setWastedChildCount(5);
+        userRepository.saveAndFlush(user1);
+
+        // When
+        int repaired = strikeCounterConsistencyScheduler.verifyStrikeCounters();
+
+        // Then
+        assertThat(repaired).isEqualTo(1);
+        assertThat(userRepository.findWastedChildCount(user1.getId())).contains(1);
+    }
+
     /**
      * Helper method to create a user
      */
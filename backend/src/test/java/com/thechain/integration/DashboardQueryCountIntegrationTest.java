@@ -0,0 +1,132 @@
+package com.thechain.integration;
+
+import com.thechain.chain.PositionAllocator;
+import com.thechain.config.StatementCounter;
+import com.thechain.dto.ChainMemberDto;
+import com.thechain.dto.DashboardResponse;
+import com.thechain.entity.User;
+import com.thechain.repository.UserRepository;
+import com.thechain.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budget of the dashboard: chain members are assembled in bulk, so the
+ * number of SQL statements must not grow with the number of members shown.
+ */
+@ActiveProfiles("test")
+class DashboardQueryCountIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    /**
+     * Profile, chain length, tip, own invited count, own active tickets, member
+     * page, member invited counts, expiring ticket, recent tickets
+     */
+    private static final int STATEMENT_BUDGET = 9;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PositionAllocator positionAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void adminDashboard_MembersAssembledInConstantStatements() {
+        // Given: a linked chain of 20 members and an admin viewing it
+        List<User> chain = createLinkedChain(20);
+        User admin = createUser(null, true);
+
+        // When
+        StatementCounter.start();
+        DashboardResponse dashboard;
+        int statements;
+        try {
+            dashboard = dashboardService.getDashboardData(admin.getId());
+        } finally {
+            statements = StatementCounter.stop();
+        }
+
+        // Then: previously two extra statements per member
+        assertThat(dashboard.getChainMembers()).hasSizeGreaterThan(STATEMENT_BUDGET);
+        assertThat(statements).isLessThanOrEqualTo(STATEMENT_BUDGET);
+
+        // and the batched invited counts match the per-member ones
+        Map<String, ChainMemberDto> shown = dashboard.getChainMembers().stream()
+                .collect(Collectors.toMap(ChainMemberDto::getChainKey, member -> member));
+        for (User member : chain) {
+            ChainMemberDto dto = shown.get(member.getChainKey());
+            if (dto != null) {
+                assertThat(dto.getInvitedCount())
+                        .isEqualTo(userRepository.countByParentIdAndStatus(member.getId(), "active"));
+            }
+        }
+    }
+
+    @Test
+    void memberDashboard_StaysWithinStatementBudget() {
+        // Given: a member with a parent and a child
+        List<User> chain = createLinkedChain(3);
+        User member = chain.get(1);
+
+        // When
+        StatementCounter.start();
+        DashboardResponse dashboard;
+        int statements;
+        try {
+            dashboard = dashboardService.getDashboardData(member.getId());
+        } finally {
+            statements = StatementCounter.stop();
+        }
+
+        // Then
+        assertThat(statements).isLessThanOrEqualTo(STATEMENT_BUDGET);
+        assertThat(dashboard.getChainMembers())
+                .extracting(ChainMemberDto::getChainKey)
+                .startsWith(chain.get(0).getChainKey(), member.getChainKey(), chain.get(2).getChainKey());
+        assertThat(dashboard.getChainMembers().get(0).getInvitedCount()).isEqualTo(1);
+        assertThat(dashboard.getChainMembers().get(1).getIsCurrentUser()).isTrue();
+    }
+
+    private List<User> createLinkedChain(int length) {
+        List<User> chain = new ArrayList<>();
+        User parent = null;
+        for (int i = 0; i < length; i++) {
+            User user = createUser(parent, false);
+            if (parent != null) {
+                parent.setActiveChildId(user.getId());
+                userRepository.save(parent);
+            }
+            chain.add(user);
+            parent = user;
+        }
+        return chain;
+    }
+
+    private User createUser(User parent, boolean admin) {
+        String username = "d" + UUID.randomUUID().toString().substring(0, 8);
+        return transactionTemplate.execute(status -> userRepository.save(User.builder()
+                .position(positionAllocator.reserve())
+                .displayName(username)
+                .username(username)
+                .passwordHash("$2a$10$hashedPassword")
+                .parentId(parent != null ? parent.getId() : null)
+                .isAdmin(admin)
+                .status("active")
+                .build()));
+    }
+}
@@ -0,0 +1,273 @@
+package com.thechain.integration;
+
+import com.thechain.chain.PositionAllocator;
+import com.thechain.dto.AuthResponse;
+import com.thechain.dto.RegisterRequest;
+import com.thechain.entity.Attachment;
+import com.thechain.entity.Invitation;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.exception.BusinessException;
+import com.thechain.repository.AttachmentRepository;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.UserRepository;
+import com.thechain.service.AuthService;
+import com.thechain.service.TicketService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrency test for registration: drives hundreds of simultaneous ticket claims
+ * and checks that positions stay unique and gap-free and that losers fail cleanly
+ * (business error, no UNIQUE(position) violation).
+ *
+ * Not @Transactional - every claim commits in its own transaction, like production.
+ */
+@ActiveProfiles("test")
+class RegistrationConcurrencyIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private PositionAllocator positionAllocator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private AttachmentRepository attachmentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentClaimsOfSameTicket_ExactlyOneWins() throws Exception {
+        // Given: one parent with one active ticket, 200 claimants
+        Ticket ticket = createParentsWithTickets(1).get(0);
+
+        // When
+        ClaimResults results = claimConcurrently(Collections.nCopies(200, ticket));
+
+        // Then
+        assertThat(results.unexpected).isEmpty();
+        assertThat(results.registered).hasSize(1);
+        assertThat(results.rejected).hasSize(199);
+        assertThat(results.rejected).allMatch(code -> code.startsWith("TICKET_") || code.equals("PARENT_HAS_INVITEE"));
+    }
+
+    @Test
+    void concurrentClaimsOfManyTickets_PositionsAreUniqueAndGapFree() throws Exception {
+        // Given: 50 parents with one ticket each, 4 claimants per ticket (200 claims)
+        List<Ticket> tickets = createParentsWithTickets(50);
+        List<Ticket> claims = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            claims.addAll(tickets);
+        }
+        Collections.shuffle(claims);
+        Integer maxBefore = userRepository.findMaxPosition();
+
+        // When
+        ClaimResults results = claimConcurrently(claims);
+
+        // Then: one winner per ticket, positions maxBefore+1 .. maxBefore+50 without gaps
+        assertThat(results.unexpected).isEmpty();
+        assertThat(results.registered).hasSize(50);
+        assertThat(results.rejected).hasSize(150);
+
+        List<Integer> positions = results.registered.stream()
+                .map(AuthResponse::getPosition)
+                .sorted()
+                .toList();
+        List<Integer> expected = new ArrayList<>();
+        for (int position = maxBefore + 1; position <= maxBefore + 50; position++) {
+            expected.add(position);
+        }
+        assertThat(positions).containsExactlyElementsOf(expected);
+        assertThat(userRepository.findMaxPosition()).isEqualTo(maxBefore + 50);
+    }
+
+    @Test
+    void registration_ClaimStaysWithinStatementBudget() throws Exception {
+        // Given
+        List<Ticket> tickets = createParentsWithTickets(10);
+        DistributionSummary statements = meterRegistry.summary("chain.registration.statements");
+        long before = statements.count();
+        double totalBefore = statements.totalAmount();
+
+        // When
+        ClaimResults results = claimConcurrently(tickets);
+
+        // Then: ticket claim, position, user insert, parent/ticket link with the
+        // invitation, join event - nothing else inside the claim transaction
+        assertThat(results.unexpected).isEmpty();
+        assertThat(results.registered).hasSize(10);
+        assertThat(statements.count() - before).isEqualTo(10);
+        assertThat(statements.totalAmount() - totalBefore).isEqualTo(10 * 5);
+        for (AuthResponse registered : results.registered) {
+            assertThat(userRepository.findById(registered.getParentId()).orElseThrow().getActiveChildId())
+                    .isEqualTo(registered.getUserId());
+        }
+    }
+
+    @Test
+    void registration_ParentWithWastedChild_ClaimAddsChainSaviorStatements() throws Exception {
+        // Given: parents that already lost a child, none holding the badge yet
+        List<Ticket> tickets = createParentsWithTickets(10, 1);
+        DistributionSummary statements = meterRegistry.summary("chain.registration.statements");
+        long before = statements.count();
+        double totalBefore = statements.totalAmount();
+
+        // When
+        ClaimResults results = claimConcurrently(tickets);
+
+        // Then: the five claim statements plus badge lookup, badge insert and badge event
+        assertThat(results.unexpected).isEmpty();
+        assertThat(results.registered).hasSize(10);
+        assertThat(statements.count() - before).isEqualTo(10);
+        assertThat(statements.totalAmount() - totalBefore).isEqualTo(10 * 8);
+    }
+
+    @Test
+    void registration_WritesOneInvitation_VisibleThroughAttachmentsView() throws Exception {
+        // Given
+        List<Ticket> tickets = createParentsWithTickets(1);
+
+        // When
+        ClaimResults results = claimConcurrently(tickets);
+
+        // Then
+        assertThat(results.registered).hasSize(1);
+        AuthResponse registered = results.registered.iterator().next();
+        Invitation invitation = invitationRepository.findByChildId(registered.getUserId()).orElseThrow();
+        assertThat(invitation.getParentId()).isEqualTo(registered.getParentId());
+        assertThat(invitation.getTicketId()).isEqualTo(tickets.get(0).getId());
+        assertThat(invitation.getStatus()).isEqualTo(Invitation.InvitationStatus.ACTIVE);
+        assertThat(invitation.getAcceptedAt()).isNotNull();
+
+        Attachment attachment = attachmentRepository.findById(invitation.getId()).orElseThrow();
+        assertThat(attachment.getParentId()).isEqualTo(registered.getParentId());
+        assertThat(attachment.getChildId()).isEqualTo(registered.getUserId());
+        assertThat(attachment.getAttachedAt()).isEqualTo(invitation.getAcceptedAt());
+
+        // The view is read-only: writes are rejected instead of reaching invitations
+        assertThatThrownBy(() -> jdbcTemplate.update("DELETE FROM attachments WHERE id = ?", invitation.getId()))
+                .isInstanceOf(DataAccessException.class)
+                .hasMessageContaining("read-only view");
+        assertThat(invitationRepository.findByChildId(registered.getUserId())).isPresent();
+    }
+
+    @Test
+    void rolledBackReservation_PositionIsReused() {
+        // Given
+        Integer reserved = transactionTemplate.execute(status -> {
+            int position = positionAllocator.reserve();
+            status.setRollbackOnly();
+            return position;
+        });
+
+        // When
+        Integer next = transactionTemplate.execute(status -> positionAllocator.reserve());
+
+        // Then
+        assertThat(next).isEqualTo(reserved);
+    }
+
+    private List<Ticket> createParentsWithTickets(int count) {
+        return createParentsWithTickets(count, 0);
+    }
+
+    private List<Ticket> createParentsWithTickets(int count, int wastedChildCount) {
+        String run = UUID.randomUUID().toString().substring(0, 6);
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String username = "p" + run + i;
+            tickets.add(transactionTemplate.execute(status -> {
+                User parent = userRepository.save(User.builder()
+                        .position(positionAllocator.reserve())
+                        .displayName(username)
+                        .username(username)
+                        .passwordHash("$2a$10$hashedPassword")
+                        .wastedChildCount(wastedChildCount)
+                        .status("active")
+                        .build());
+                return ticketService.createTicketForUser(parent.getId());
+            }));
+        }
+        return tickets;
+    }
+
+    private ClaimResults claimConcurrently(List<Ticket> claims) throws InterruptedException {
+        ClaimResults results = new ClaimResults();
+        String run = UUID.randomUUID().toString().substring(0, 6);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(claims.size());
+
+        for (int i = 0; i < claims.size(); i++) {
+            Ticket ticket = claims.get(i);
+            RegisterRequest request = RegisterRequest.builder()
+                    .ticketId(ticket.getId())
+                    .ticketSignature(ticket.getSignature())
+                    .username("c" + run + i)
+                    .password("password123")
+                    .build();
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    results.registered.add(authService.register(request));
+                } catch (BusinessException e) {
+                    results.rejected.add(e.getErrorCode());
+                } catch (Throwable e) {
+                    results.unexpected.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+        executor.shutdown();
+        return results;
+    }
+
+    private static class ClaimResults {
+        final ConcurrentLinkedQueue<AuthResponse> registered = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<String> rejected = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+    }
+}
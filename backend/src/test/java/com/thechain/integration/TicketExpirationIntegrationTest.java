@@ -1,5 +1,6 @@
 package com.thechain.integration;
 
+import com.thechain.dto.TicketResponse;
 import com.thechain.entity.Invitation;
 import com.thechain.entity.Ticket;
 import com.thechain.entity.User;
@@ -7,6 +8,7 @@ import com.thechain.repository.InvitationRepository;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
 import com.thechain.service.TicketService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +44,9 @@ class TicketExpirationIntegrationTest extends com.thechain.config.BaseIntegratio
     @Autowired
     private InvitationRepository invitationRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User testUser;
 
     @BeforeEach
@@ -303,6 +309,68 @@ class TicketExpirationIntegrationTest extends com.thechain.config.BaseIntegratio
         assertThat(updatedParent.getStatus()).isEqualTo("active");
     }
 
+    @Test
+    void expiryWarnings_EachWindowClaimedExactlyOnce() {
+        // Given: tickets expiring in 30 minutes, 6 hours and 20 hours
+        Instant now = Instant.now();
+        Ticket urgent = createTicketExpiringAt(testUser, now.plus(30, ChronoUnit.MINUTES));
+        Ticket soon = createTicketExpiringAt(testUser, now.plus(6, ChronoUnit.HOURS));
+        Ticket later = createTicketExpiringAt(testUser, now.plus(20, ChronoUnit.HOURS));
+        Instant oneHour = now.plus(1, ChronoUnit.HOURS);
+        Instant twelveHours = now.plus(12, ChronoUnit.HOURS);
+
+        // When
+        List<UUID> oneHourClaims = ticketRepository.claim1HourWarnings(now, now, oneHour, 1000);
+        List<UUID> twelveHourClaims = ticketRepository.claim12HourWarnings(now, oneHour, twelveHours, 1000);
+        List<UUID> secondRun = ticketRepository.claim1HourWarnings(now, now, oneHour, 1000);
+
+        // Then
+        assertThat(oneHourClaims).contains(urgent.getId()).doesNotContain(soon.getId(), later.getId());
+        assertThat(twelveHourClaims).contains(soon.getId()).doesNotContain(urgent.getId(), later.getId());
+        assertThat(secondRun).doesNotContain(urgent.getId());
+
+        entityManager.clear();
+        Ticket urgentAfter = ticketRepository.findById(urgent.getId()).orElseThrow();
+        assertThat(urgentAfter.getWarned1hAt()).isNotNull();
+        assertThat(urgentAfter.getWarned12hAt()).isNotNull(); // superseded by the 1-hour warning
+        assertThat(ticketRepository.findById(later.getId()).orElseThrow().getWarned12hAt()).isNull();
+    }
+
+    @Test
+    void expiryWarnings_ReleasedWarningIsClaimedAgain() {
+        // Given
+        Instant now = Instant.now();
+        Ticket ticket = createTicketExpiringAt(testUser, now.plus(6, ChronoUnit.HOURS));
+        Instant oneHour = now.plus(1, ChronoUnit.HOURS);
+        Instant twelveHours = now.plus(12, ChronoUnit.HOURS);
+        ticketRepository.claim12HourWarnings(now, oneHour, twelveHours, 1000);
+
+        // When
+        ticketRepository.release12HourWarning(ticket.getId());
+        List<UUID> retry = ticketRepository.claim12HourWarnings(now, oneHour, twelveHours, 1000);
+
+        // Then
+        assertThat(retry).contains(ticket.getId());
+    }
+
+    @Test
+    void getTicket_LapsedActiveTicket_ReportedExpiredWithoutWrite() {
+        // Given: past its deadline, not yet processed by the expiration engine
+        Ticket ticket = createExpiredTicket(testUser);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        TicketResponse response = ticketService.getTicket(ticket.getId());
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo("EXPIRED");
+        assertThat(response.getTimeRemaining()).isZero();
+        entityManager.clear();
+        assertThat(ticketRepository.findById(ticket.getId()).orElseThrow().getStatus())
+                .isEqualTo(Ticket.TicketStatus.ACTIVE);
+    }
+
     /**
      * Helper method to create an expired ticket
      */
@@ -323,4 +391,16 @@ class TicketExpirationIntegrationTest extends com.thechain.config.BaseIntegratio
 
         return ticketRepository.save(ticket);
     }
+
+    private Ticket createTicketExpiringAt(User owner, Instant expiresAt) {
+        Ticket ticket = Ticket.builder()
+                .ownerId(owner.getId())
+                .status(Ticket.TicketStatus.ACTIVE)
+                .expiresAt(expiresAt)
+                .signature("test-signature")
+                .payload("test-payload")
+                .build();
+
+        return ticketRepository.saveAndFlush(ticket);
+    }
 }
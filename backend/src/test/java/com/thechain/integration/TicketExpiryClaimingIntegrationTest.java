@@ -0,0 +1,177 @@
+package com.thechain.integration;
+
+import com.thechain.chain.PositionAllocator;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import com.thechain.scheduler.TicketExpiryClaimer;
+import com.thechain.scheduler.TicketExpiryQueue;
+import com.thechain.service.TicketService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claiming-mode expiration against a real Postgres: concurrent claimers must
+ * split the overdue backlog (FOR UPDATE SKIP LOCKED) and expire every ticket once.
+ *
+ * Not @Transactional - claims have to commit to be visible to the other claimer.
+ */
+@ActiveProfiles("test")
+class TicketExpiryClaimingIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PositionAllocator positionAllocator;
+
+    @Autowired
+    private TicketExpiryQueue ticketExpiryQueue;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentClaims_ReturnDisjointBatches() throws Exception {
+        // Given
+        Set<UUID> overdue = createOverdueTickets(30);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Instant now = Instant.now();
+
+        // When: node A holds its claim transaction open while node B claims
+        CompletableFuture<List<UUID>> nodeA = CompletableFuture.supplyAsync(() ->
+            transactionTemplate.execute(status -> {
+                List<UUID> ids = ids(ticketRepository.claimOverdue("node-a", now, now.plusSeconds(60), 10));
+                firstClaimed.countDown();
+                await(release);
+                return ids;
+            }));
+        assertThat(firstClaimed.await(30, TimeUnit.SECONDS)).isTrue();
+        List<UUID> nodeB = transactionTemplate.execute(status ->
+            ids(ticketRepository.claimOverdue("node-b", now, now.plusSeconds(60), 1000)));
+        release.countDown();
+
+        // Then
+        Set<UUID> claimedByA = new HashSet<>(nodeA.get(30, TimeUnit.SECONDS));
+        Set<UUID> claimedByB = new HashSet<>(nodeB);
+        claimedByA.retainAll(overdue);
+        claimedByB.retainAll(overdue);
+        assertThat(claimedByA).doesNotContainAnyElementsOf(claimedByB);
+        Set<UUID> all = new HashSet<>(claimedByA);
+        all.addAll(claimedByB);
+        assertThat(all).isEqualTo(overdue);
+    }
+
+    @Test
+    void leasedTicket_ReclaimableOnlyAfterLeaseExpires() {
+        // Given
+        Set<UUID> overdue = createOverdueTickets(1);
+        Instant now = Instant.now();
+        transactionTemplate.execute(status ->
+            ticketRepository.claimOverdue("node-a", now, now.plusSeconds(60), 1000));
+
+        // When
+        List<UUID> duringLease = transactionTemplate.execute(status ->
+            ids(ticketRepository.claimOverdue("node-b", now.plusSeconds(30), now.plusSeconds(90), 1000)));
+        List<UUID> afterLease = transactionTemplate.execute(status ->
+            ids(ticketRepository.claimOverdue("node-b", now.plusSeconds(61), now.plusSeconds(121), 1000)));
+
+        // Then
+        assertThat(duringLease).doesNotContainAnyElementsOf(overdue);
+        assertThat(afterLease).containsAll(overdue);
+    }
+
+    @Test
+    void twoClaimers_ExpireEveryTicketExactlyOnce() throws Exception {
+        // Given
+        Set<UUID> overdue = createOverdueTickets(40);
+        List<UUID> owners = new ArrayList<>();
+        for (UUID ticketId : overdue) {
+            owners.add(ticketRepository.findById(ticketId).orElseThrow().getOwnerId());
+        }
+        TicketExpiryClaimer nodeA = claimer("node-a");
+        TicketExpiryClaimer nodeB = claimer("node-b");
+
+        // When
+        try {
+            CompletableFuture<Integer> a = CompletableFuture.supplyAsync(nodeA::claimAndProcess);
+            CompletableFuture<Integer> b = CompletableFuture.supplyAsync(nodeB::claimAndProcess);
+            a.get(2, TimeUnit.MINUTES);
+            b.get(2, TimeUnit.MINUTES);
+        } finally {
+            nodeA.shutdown();
+            nodeB.shutdown();
+        }
+
+        // Then
+        for (UUID ticketId : overdue) {
+            assertThat(ticketRepository.findById(ticketId).orElseThrow().getStatus())
+                .isEqualTo(Ticket.TicketStatus.EXPIRED);
+        }
+        for (UUID ownerId : owners) {
+            assertThat(userRepository.findById(ownerId).orElseThrow().getWastedTicketsCount()).isEqualTo(1);
+        }
+    }
+
+    private TicketExpiryClaimer claimer(String nodeId) {
+        return new TicketExpiryClaimer(ticketRepository, ticketExpiryQueue, transactionTemplate,
+            new SimpleMeterRegistry(), nodeId, 5, 60000, 4);
+    }
+
+    private Set<UUID> createOverdueTickets(int count) {
+        String run = UUID.randomUUID().toString().substring(0, 6);
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            String username = "x" + run + i;
+            ids.add(transactionTemplate.execute(status -> {
+                User owner = userRepository.save(User.builder()
+                        .position(positionAllocator.reserve())
+                        .displayName(username)
+                        .username(username)
+                        .passwordHash("$2a$10$hashedPassword")
+                        .wastedTicketsCount(0)
+                        .status("active")
+                        .build());
+                Ticket ticket = ticketService.createTicketForUser(owner.getId());
+                ticket.setExpiresAt(Instant.now().minusSeconds(5));
+                return ticketRepository.save(ticket).getId();
+            }));
+        }
+        return ids;
+    }
+
+    private static List<UUID> ids(List<TicketRepository.ClaimedTicketView> claimed) {
+        return claimed.stream().map(TicketRepository.ClaimedTicketView::getId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.thechain.integration;
+
+import com.thechain.entity.Invitation;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import com.thechain.service.TicketRetentionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retention against a real Postgres: the keyset DELETE removes only finished
+ * tickets past the window and steps over tickets still referenced by invitations.
+ */
+@ActiveProfiles("test")
+@Transactional
+class TicketRetentionIntegrationTest extends com.thechain.config.BaseIntegrationTest {
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InvitationRepository invitationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User owner;
+    private User child;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user("TEST00000001", 1, "retention_owner"));
+        child = userRepository.save(user("TEST00000002", 2, "retention_child"));
+    }
+
+    @Test
+    void purge_DeletesOnlyOldFinishedTickets_AcrossChunks() {
+        // Given: 5 old expired/cancelled tickets (chunk size 2), plus ones that must survive
+        List<UUID> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            old.add(ticket(i % 2 == 0 ? Ticket.TicketStatus.EXPIRED : Ticket.TicketStatus.CANCELLED, 120 + i).getId());
+        }
+        UUID recentExpired = ticket(Ticket.TicketStatus.EXPIRED, 10).getId();
+        UUID oldUsed = ticket(Ticket.TicketStatus.USED, 200).getId();
+        UUID referenced = ticket(Ticket.TicketStatus.EXPIRED, 150).getId();
+        invitationRepository.saveAndFlush(Invitation.builder()
+                .parentId(owner.getId())
+                .childId(child.getId())
+                .ticketId(referenced)
+                .status(Invitation.InvitationStatus.ACTIVE)
+                .acceptedAt(Instant.now())
+                .build());
+
+        TicketRetentionService service = new TicketRetentionService(ticketRepository, transactionTemplate,
+            new SimpleMeterRegistry(), 90, 2, 1.0, 60000);
+
+        // When
+        long deleted = service.purge();
+
+        // Then
+        assertThat(deleted).isEqualTo(5);
+        assertThat(ticketRepository.findAllById(old)).isEmpty();
+        assertThat(ticketRepository.findById(recentExpired)).isPresent();
+        assertThat(ticketRepository.findById(oldUsed)).isPresent();
+        assertThat(ticketRepository.findById(referenced)).isPresent();
+    }
+
+    private Ticket ticket(Ticket.TicketStatus status, int daysAgo) {
+        Instant expiresAt = Instant.now().minus(daysAgo, ChronoUnit.DAYS);
+        return ticketRepository.saveAndFlush(Ticket.builder()
+                .ownerId(owner.getId())
+                .status(status)
+                .issuedAt(expiresAt.minus(24, ChronoUnit.HOURS))
+                .expiresAt(expiresAt)
+                .signature("test-signature")
+                .payload("test-payload")
+                .build());
+    }
+
+    private static User user(String chainKey, int position, String username) {
+        return User.builder()
+                .chainKey(chainKey)
+                .displayName(username)
+                .position(position)
+                .username(username)
+                .passwordHash("$2a$10$hashedPassword")
+                .wastedTicketsCount(0)
+                .status("active")
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.thechain.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency a rate limit check adds to a request, as a distribution (read p99 from
+ * the SampleTime percentiles): the previous fixed-window INCR + EXPIRE for one
+ * limit, the GCRA script charging two limits (ticket + api) in one call, and
+ * the local buckets of {@link TieredRateLimiter} deciding the same two limits
+ * in process (reconciliation runs off the request path and is not measured).
+ *
+ * Limits are set high so every check is allowed and does the full write path.
+ * Not a unit test (surefire ignores *Benchmark); needs Docker for the Redis
+ * container. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.thechain.interceptor.RateLimitBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class RateLimitBenchmark {
+
+    private static final int CALLERS = 10_000;
+    private static final List<RedisRateLimiter.Limit> LIMITS = List.of(
+        new RedisRateLimiter.Limit("ticket", 1_000_000, 60, 1),
+        new RedisRateLimiter.Limit("api", 1_000_000, 60, 1));
+
+    private GenericContainer<?> redis;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RedisRateLimiter rateLimiter;
+    private TieredRateLimiter tieredLimiter;
+
+    @Setup
+    public void start() {
+        redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        rateLimiter = new RedisRateLimiter(redisTemplate, new SimpleMeterRegistry());
+        tieredLimiter = new TieredRateLimiter(rateLimiter, new SimpleMeterRegistry(), false, 100_000, 300_000, 500);
+    }
+
+    @TearDown
+    public void stop() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Benchmark
+    public Long fixedWindowIncrExpire() {
+        String key = "rate_limit:api:ip:" + caller() + ":" + System.currentTimeMillis() / 60_000;
+        Long requests = redisTemplate.opsForValue().increment(key);
+        if (requests != null && requests == 1) {
+            redisTemplate.expire(key, Duration.ofSeconds(60));
+        }
+        return requests;
+    }
+
+    @Benchmark
+    public RedisRateLimiter.Decision gcraScriptTwoLimits() {
+        return rateLimiter.check("ip:" + caller(), LIMITS);
+    }
+
+    @Benchmark
+    public RedisRateLimiter.Decision localBucketsTwoLimits() {
+        return tieredLimiter.check("ip:" + caller(), LIMITS);
+    }
+
+    private static int caller() {
+        return ThreadLocalRandom.current().nextInt(CALLERS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RateLimitBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
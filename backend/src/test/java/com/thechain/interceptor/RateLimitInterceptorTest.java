@@ -0,0 +1,131 @@
+package com.thechain.interceptor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitInterceptorTest {
+
+    @Mock
+    private TieredRateLimiter rateLimiter;
+
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new RateLimitInterceptor(rateLimiter, List.of("10.0.0.0/8"));
+    }
+
+    @Test
+    void limitsFor_Login_AuthAndWeightedApiLimit() {
+        // When
+        List<RedisRateLimiter.Limit> limits = interceptor.limitsFor("/api/v1/auth/login");
+
+        // Then
+        assertThat(limits).containsExactly(
+                new RedisRateLimiter.Limit("auth", 5, 60, 1),
+                new RedisRateLimiter.Limit("api", 100, 60, 5));
+    }
+
+    @Test
+    void limitsFor_QrImage_OnlyApiLimit() {
+        // When
+        List<RedisRateLimiter.Limit> limits = interceptor.limitsFor("/api/v1/tickets/abc/qr/0123.png");
+
+        // Then
+        assertThat(limits).extracting(RedisRateLimiter.Limit::name).containsExactly("api");
+    }
+
+    @Test
+    void preHandle_Allowed_SetsQuotaHeadersFromTightestLimit() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/tickets/me/active");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RedisRateLimiter.Limit ticket = new RedisRateLimiter.Limit("ticket", 10, 60, 1);
+        RedisRateLimiter.Limit api = new RedisRateLimiter.Limit("api", 100, 60, 1);
+        when(rateLimiter.check(any(), anyList())).thenReturn(new RedisRateLimiter.Decision(true, List.of(
+                new RedisRateLimiter.LimitState(ticket, 7, 0, 18_000),
+                new RedisRateLimiter.LimitState(api, 90, 0, 6_000))));
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        // Then
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader("X-RateLimit-Limit")).isEqualTo("10");
+        assertThat(response.getHeader("X-RateLimit-Remaining")).isEqualTo("7");
+        verify(rateLimiter).check(eq("ip:127.0.0.1"), eq(List.of(ticket, api)));
+    }
+
+    @Test
+    void preHandle_Rejected_Returns429WithRetryAfter() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RedisRateLimiter.Limit auth = new RedisRateLimiter.Limit("auth", 5, 60, 1);
+        RedisRateLimiter.Limit api = new RedisRateLimiter.Limit("api", 100, 60, 5);
+        when(rateLimiter.check(any(), anyList())).thenReturn(new RedisRateLimiter.Decision(false, List.of(
+                new RedisRateLimiter.LimitState(auth, 0, 11_200, 59_000),
+                new RedisRateLimiter.LimitState(api, 70, 0, 18_000))));
+
+        // When
+        boolean proceed = interceptor.preHandle(request, response, new Object());
+
+        // Then
+        assertThat(proceed).isFalse();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("12");
+        assertThat(response.getContentAsString()).contains("RATE_LIMIT_EXCEEDED").contains("\"retryAfter\":12");
+    }
+
+    @Test
+    void preHandle_NoLimitState_Allows() throws Exception {
+        // Given
+        when(rateLimiter.check(any(), anyList())).thenReturn(RedisRateLimiter.Decision.unlimited());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = interceptor.preHandle(
+                new MockHttpServletRequest("GET", "/api/v1/chain/stats"), response, new Object());
+
+        // Then
+        assertThat(proceed).isTrue();
+        assertThat(response.getHeader("X-RateLimit-Limit")).isNull();
+    }
+
+    @Test
+    void clientAddress_UntrustedPeer_ForwardingHeadersIgnored() {
+        // Given: a client sending its own X-Forwarded-For
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/chain/stats");
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+        request.addHeader("X-Real-IP", "198.51.100.2");
+
+        // Then
+        assertThat(interceptor.clientAddress(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void clientAddress_TrustedProxy_RightMostUntrustedHop() {
+        // Given: the client prepended a spoofed hop, two proxies appended theirs
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/chain/stats");
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("X-Forwarded-For", "198.51.100.1, 203.0.113.7, 10.0.0.1");
+
+        // Then
+        assertThat(interceptor.clientAddress(request)).isEqualTo("203.0.113.7");
+    }
+}
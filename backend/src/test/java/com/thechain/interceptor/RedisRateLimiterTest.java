@@ -0,0 +1,147 @@
+package com.thechain.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the GCRA script against a real Redis (Testcontainers)
+ */
+@Testcontainers
+class RedisRateLimiterTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisRateLimiter rateLimiter;
+    private String caller;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RedisRateLimiter(redisTemplate, meterRegistry);
+        caller = "ip:" + UUID.randomUUID();
+    }
+
+    @Test
+    void check_BurstUpToLimit_ThenRejected() {
+        // Given
+        List<RedisRateLimiter.Limit> limits = List.of(new RedisRateLimiter.Limit("auth", 5, 60, 1));
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            RedisRateLimiter.Decision decision = rateLimiter.check(caller, limits);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.tightest().remaining()).isEqualTo(4 - i);
+        }
+        RedisRateLimiter.Decision rejected = rateLimiter.check(caller, limits);
+
+        // Then: one unit drips back every 12s
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.tightest().retryAfterMillis()).isBetween(1L, 12_000L);
+        assertThat(rejected.tightest().resetAfterMillis()).isBetween(48_000L, 60_000L);
+        assertThat(meterRegistry.get("chain.ratelimit.rejected").tag("limit", "auth").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void check_OneLimitRejects_NoneCharged() {
+        // Given: the narrow limit is exhausted
+        RedisRateLimiter.Limit narrow = new RedisRateLimiter.Limit("ticket", 1, 60, 1);
+        RedisRateLimiter.Limit wide = new RedisRateLimiter.Limit("api", 100, 60, 1);
+        assertThat(rateLimiter.check(caller, List.of(narrow, wide)).allowed()).isTrue();
+
+        // When
+        RedisRateLimiter.Decision decision = rateLimiter.check(caller, List.of(narrow, wide));
+
+        // Then: rejected by ticket, and api was not charged for it
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.tightest().limit().name()).isEqualTo("ticket");
+        assertThat(decision.states().get(1).remaining()).isEqualTo(99);
+    }
+
+    @Test
+    void check_RouteCost_ChargesWeight() {
+        // Given
+        RedisRateLimiter.Limit weighted = new RedisRateLimiter.Limit("api", 10, 60, 3);
+
+        // When
+        RedisRateLimiter.Decision first = rateLimiter.check(caller, List.of(weighted));
+        rateLimiter.check(caller, List.of(weighted));
+        rateLimiter.check(caller, List.of(weighted));
+        RedisRateLimiter.Decision fourth = rateLimiter.check(caller, List.of(weighted));
+
+        // Then: 3 + 3 + 3 fit in 10, the fourth needs 12
+        assertThat(first.tightest().remaining()).isEqualTo(7);
+        assertThat(fourth.allowed()).isFalse();
+    }
+
+    @Test
+    void check_KeysShareHashTagAndExpire() {
+        // When
+        rateLimiter.check(caller, List.of(new RedisRateLimiter.Limit("api", 100, 60, 1)));
+
+        // Then
+        String key = "rate_limit:{" + caller + "}:api";
+        assertThat(redisTemplate.hasKey(key)).isTrue();
+        assertThat(redisTemplate.getExpire(key)).isBetween(0L, 1L);
+    }
+
+    @Test
+    void reconcile_FoldsLocalUsageIntoSharedState() {
+        // Given: two callers consumed quota on another node
+        RedisRateLimiter.Limit auth = new RedisRateLimiter.Limit("auth", 5, 60, 1);
+        RedisRateLimiter.Limit api = new RedisRateLimiter.Limit("api", 100, 60, 1);
+        String other = "ip:" + UUID.randomUUID();
+
+        // When
+        long[] ahead = rateLimiter.reconcile(List.of(
+                new RedisRateLimiter.Usage(caller, auth, 3),
+                new RedisRateLimiter.Usage(other, api, 10),
+                new RedisRateLimiter.Usage(caller, api, 3)));
+
+        // Then: TAT ahead by units * interval, and the check script sees the usage
+        assertThat(ahead[0]).isBetween(35_000L, 36_000L);
+        assertThat(ahead[1]).isBetween(5_000L, 6_000L);
+        assertThat(ahead[2]).isBetween(1_000L, 1_800L);
+        assertThat(rateLimiter.check(caller, List.of(auth)).tightest().remaining()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_OvershootCappedAtOneWindow() {
+        // Given
+        RedisRateLimiter.Limit auth = new RedisRateLimiter.Limit("auth", 5, 60, 1);
+
+        // When
+        long[] ahead = rateLimiter.reconcile(List.of(new RedisRateLimiter.Usage(caller, auth, 50)));
+
+        // Then
+        assertThat(ahead[0]).isBetween(59_000L, 60_000L);
+    }
+}
@@ -0,0 +1,216 @@
+package com.thechain.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TieredRateLimiterTest {
+
+    private static final RedisRateLimiter.Limit AUTH = new RedisRateLimiter.Limit("auth", 5, 60, 1);
+    private static final RedisRateLimiter.Limit API = new RedisRateLimiter.Limit("api", 100, 60, 5);
+
+    @Mock
+    private RedisRateLimiter sharedLimiter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private TieredRateLimiter limiter(boolean exact, int maxCallers) {
+        return new TieredRateLimiter(sharedLimiter, meterRegistry, exact, maxCallers, 300_000, 500, clock::get);
+    }
+
+    @Test
+    void check_WithoutRedis_EnforcesLimitLocally() {
+        // Given
+        TieredRateLimiter limiter = limiter(false, 1000);
+
+        // When: the burst of 5 is used up
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.check("ip:1.2.3.4", List.of(AUTH)).allowed()).isTrue();
+        }
+        RedisRateLimiter.Decision rejected = limiter.check("ip:1.2.3.4", List.of(AUTH));
+
+        // Then: one unit comes back every 12s
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.tightest().retryAfterMillis()).isEqualTo(12_000);
+        assertThat(meterRegistry.get("chain.ratelimit.local.rejected").tag("limit", "auth").counter().count())
+                .isEqualTo(1);
+        assertThat(limiter.check("ip:5.6.7.8", List.of(AUTH)).allowed()).isTrue();
+
+        clock.addAndGet(12_000);
+        assertThat(limiter.check("ip:1.2.3.4", List.of(AUTH)).allowed()).isTrue();
+        verifyNoInteractions(sharedLimiter);
+    }
+
+    @Test
+    void check_OneLimitRejects_NothingCharged() {
+        // Given: api allows 20 logins (cost 5), auth only 5
+        TieredRateLimiter limiter = limiter(false, 1000);
+        for (int i = 0; i < 5; i++) {
+            limiter.check("user:42", List.of(API, AUTH));
+        }
+
+        // When
+        RedisRateLimiter.Decision decision = limiter.check("user:42", List.of(API, AUTH));
+
+        // Then: the api charge of the rejected request was rolled back
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.tightest().limit()).isEqualTo(AUTH);
+        assertThat(decision.states().get(0).remaining()).isEqualTo(75);
+    }
+
+    @Test
+    void reconcile_PushesConsumedUnitsAndAdoptsSharedState() {
+        // Given
+        TieredRateLimiter limiter = limiter(false, 1000);
+        limiter.check("user:42", List.of(AUTH));
+        limiter.check("user:42", List.of(AUTH));
+        when(sharedLimiter.isAvailable()).thenReturn(true);
+        // other nodes used up the rest of the window
+        when(sharedLimiter.reconcile(anyList())).thenReturn(new long[] {60_000});
+
+        // When
+        limiter.reconcile();
+
+        // Then
+        verify(sharedLimiter).reconcile(List.of(new RedisRateLimiter.Usage("user:42", AUTH, 2)));
+        RedisRateLimiter.Decision decision = limiter.check("user:42", List.of(AUTH));
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.tightest().retryAfterMillis()).isEqualTo(12_000);
+
+        // and nothing is pushed twice
+        limiter.reconcile();
+        verify(sharedLimiter).reconcile(anyList());
+    }
+
+    @Test
+    void reconcile_RedisDown_KeepsLocalState() {
+        // Given
+        TieredRateLimiter limiter = limiter(false, 1000);
+        for (int i = 0; i < 5; i++) {
+            limiter.check("ip:1.2.3.4", List.of(AUTH));
+        }
+        when(sharedLimiter.isAvailable()).thenReturn(true);
+        when(sharedLimiter.reconcile(anyList())).thenReturn(null);
+
+        // When
+        limiter.reconcile();
+
+        // Then
+        assertThat(limiter.check("ip:1.2.3.4", List.of(AUTH)).allowed()).isFalse();
+    }
+
+    @Test
+    void reconcile_EvictsIdleCallers() {
+        // Given
+        TieredRateLimiter limiter = limiter(false, 1000);
+        limiter.check("ip:1.2.3.4", List.of(AUTH));
+        limiter.reconcile();
+        assertThat(limiter.size()).isEqualTo(1);
+
+        // When
+        clock.addAndGet(300_000);
+        limiter.reconcile();
+
+        // Then
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void check_TierFull_NewCallersShareOverflowBuckets() {
+        // Given: room for one caller per stripe
+        TieredRateLimiter limiter = limiter(false, 16);
+
+        // When: more active callers than fit
+        for (int i = 0; i < 100; i++) {
+            limiter.check("ip:10.0.0." + i, List.of(AUTH));
+        }
+
+        // Then
+        assertThat(limiter.size()).isLessThanOrEqualTo(16);
+        assertThat(meterRegistry.get("chain.ratelimit.local.overflow").counter().count()).isPositive();
+        assertThat(meterRegistry.get("chain.ratelimit.local.callers").gauge().value()).isEqualTo(limiter.size());
+    }
+
+    @Test
+    void check_TierFull_OverflowIsolatedPerStripe() {
+        // Given: room for one caller per stripe, every stripe taken
+        TieredRateLimiter limiter = limiter(false, 16);
+        fillStripes(limiter);
+
+        // When: a flood of new identifiers drains the overflow of one stripe
+        String flooder = newCaller(0, "flood");
+        for (int i = 0; i < 5; i++) {
+            limiter.check(flooder, List.of(AUTH));
+        }
+
+        // Then: new callers in that stripe are limited, new callers elsewhere are not
+        assertThat(limiter.check(newCaller(0, "late"), List.of(AUTH)).allowed()).isFalse();
+        assertThat(limiter.check(newCaller(1, "late"), List.of(AUTH)).allowed()).isTrue();
+    }
+
+    @Test
+    void check_TierFull_NewCallersCheckedAgainstRedis() {
+        // Given: every stripe taken, Redis up
+        TieredRateLimiter limiter = limiter(false, 16);
+        fillStripes(limiter);
+        String caller = newCaller(0, "late");
+        RedisRateLimiter.Decision shared = new RedisRateLimiter.Decision(true, List.of(
+                new RedisRateLimiter.LimitState(AUTH, 4, 0, 12_000)));
+        when(sharedLimiter.isAvailable()).thenReturn(true);
+        when(sharedLimiter.check(caller, List.of(AUTH))).thenReturn(shared);
+
+        // Then: decided on the caller's own shared bucket, not a common overflow bucket
+        assertThat(limiter.check(caller, List.of(AUTH))).isSameAs(shared);
+    }
+
+    @Test
+    void check_ExactMode_UsesRedisAndFallsBackLocally() {
+        // Given
+        TieredRateLimiter limiter = limiter(true, 1000);
+        RedisRateLimiter.Decision shared = new RedisRateLimiter.Decision(true, List.of(
+                new RedisRateLimiter.LimitState(AUTH, 4, 0, 12_000)));
+        when(sharedLimiter.isAvailable()).thenReturn(true);
+        when(sharedLimiter.check("user:42", List.of(AUTH)))
+                .thenReturn(shared)
+                .thenReturn(RedisRateLimiter.Decision.unlimited());
+
+        // Then
+        assertThat(limiter.check("user:42", List.of(AUTH))).isSameAs(shared);
+        RedisRateLimiter.Decision fallback = limiter.check("user:42", List.of(AUTH));
+        assertThat(fallback.allowed()).isTrue();
+        assertThat(fallback.tightest().remaining()).isEqualTo(4);
+    }
+
+    /**
+     * Take the single caller slot of every stripe
+     */
+    private static void fillStripes(TieredRateLimiter limiter) {
+        for (int stripe = 0; stripe < 16; stripe++) {
+            limiter.check(newCaller(stripe, "resident"), List.of(AUTH));
+        }
+        assertThat(limiter.size()).isEqualTo(16);
+    }
+
+    /**
+     * An identifier that lands in the given stripe, distinct per tag
+     */
+    private static String newCaller(int stripe, String tag) {
+        for (int i = 0; ; i++) {
+            String identifier = "ip:" + tag + "." + i;
+            if (TieredRateLimiter.stripeIndex(identifier) == stripe) {
+                return identifier;
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -295,6 +296,38 @@ class UserRepositoryTest {
         assertThat(tip.get().getStatus()).isIn("active", "seed");
     }
 
+    @Test
+    void findCurrentTipOptimized_SkipsUsersWithPersistedActiveChild() {
+        // Given - testUser3 (highest position) has an active invitee
+        testUser3.setActiveChildId(testUser1.getId());
+        entityManager.persistAndFlush(testUser3);
+        entityManager.clear();
+
+        // When
+        Optional<User> tip = userRepository.findCurrentTipOptimized();
+
+        // Then - link survives the round trip and the next candidate is the tip
+        assertThat(userRepository.findById(testUser3.getId()).orElseThrow().getActiveChildId())
+                .isEqualTo(testUser1.getId());
+        assertThat(tip).isPresent();
+        assertThat(tip.get().getPosition()).isEqualTo(2);
+    }
+
+    @Test
+    void clearActiveChild_ClearsParentLink() {
+        // Given
+        testUser1.setActiveChildId(testUser2.getId());
+        entityManager.persistAndFlush(testUser1);
+
+        // When
+        int updated = userRepository.clearActiveChild(List.of(testUser2.getId()), Instant.now());
+
+        // Then
+        User parent = userRepository.findById(testUser1.getId()).orElseThrow();
+        assertThat(updated).isEqualTo(1);
+        assertThat(parent.getActiveChildId()).isNull();
+    }
+
     @Test
     void findCurrentTipOptimized_PerformanceTest_DoesNotLoadAllUsers() {
         // Given - Create many additional users (simulate large chain)
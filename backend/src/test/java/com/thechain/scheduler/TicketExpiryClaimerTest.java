@@ -0,0 +1,112 @@
+package com.thechain.scheduler;
+
+import com.thechain.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketExpiryClaimerTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketExpiryQueue ticketExpiryQueue;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TicketExpiryClaimer claimer;
+
+    @BeforeEach
+    void setUp() {
+        claimer = new TicketExpiryClaimer(ticketRepository, ticketExpiryQueue, transactionTemplate,
+            new SimpleMeterRegistry(), "node-a", 2, 60000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        claimer.shutdown();
+    }
+
+    @Test
+    void claimAndProcess_ClaimsUntilBacklogEmpty() {
+        // Given: two full batches of 2, then a partial batch of 1
+        List<TicketRepository.ClaimedTicketView> first = List.of(
+            claimed(UUID.randomUUID()), claimed(UUID.randomUUID()));
+        List<TicketRepository.ClaimedTicketView> second = List.of(
+            claimed(UUID.randomUUID()), claimed(UUID.randomUUID()));
+        List<TicketRepository.ClaimedTicketView> third = List.of(claimed(UUID.randomUUID()));
+        givenTransactions();
+        when(ticketRepository.claimOverdue(eq("node-a"), any(), any(), eq(2)))
+            .thenReturn(first, second, third);
+        when(ticketExpiryQueue.expireClaimed(any(), any())).thenReturn(true);
+
+        // When
+        int expired = claimer.claimAndProcess();
+
+        // Then
+        assertThat(expired).isEqualTo(5);
+        verify(ticketRepository, times(3)).claimOverdue(eq("node-a"), any(), any(), anyInt());
+        verify(ticketExpiryQueue, times(5)).expireClaimed(any(), any());
+    }
+
+    @Test
+    void claimAndProcess_AlreadyHandledTicketsNotCounted() {
+        // Given
+        TicketRepository.ClaimedTicketView ticket = claimed(UUID.randomUUID());
+        givenTransactions();
+        when(ticketRepository.claimOverdue(eq("node-a"), any(), any(), eq(2))).thenReturn(List.of(ticket));
+        when(ticketExpiryQueue.expireClaimed(eq(ticket.getId()), any())).thenReturn(false);
+
+        // When
+        int expired = claimer.claimAndProcess();
+
+        // Then
+        assertThat(expired).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private TicketRepository.ClaimedTicketView claimed(UUID ownerId) {
+        UUID id = UUID.randomUUID();
+        long expiresAt = Instant.now().minusSeconds(1).toEpochMilli();
+        return new TicketRepository.ClaimedTicketView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getExpiresAtMillis() {
+                return expiresAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,185 @@
+package com.thechain.scheduler;
+
+import com.thechain.repository.TicketRepository;
+import com.thechain.service.ChainService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketExpiryQueueTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private ChainService chainService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TicketExpiryQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new TicketExpiryQueue(ticketRepository, chainService, transactionTemplate, meterRegistry, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void start_SeedsFromActiveTicketsAndExpiresOverdueImmediately() {
+        // Given: one overdue and one future active ticket in the database
+        UUID overdue = UUID.randomUUID();
+        UUID future = UUID.randomUUID();
+        givenActiveTickets(
+            view(overdue, Instant.now().minusSeconds(5)),
+            view(future, Instant.now().plusSeconds(3600)));
+        when(chainService.handleTicketExpiration(overdue)).thenReturn(true);
+
+        // When
+        queue.start();
+
+        // Then
+        verify(chainService, timeout(1000)).handleTicketExpiration(overdue);
+        verify(chainService, never()).handleTicketExpiration(future);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void schedule_FiresAtDeadlineAndRecordsLag() throws InterruptedException {
+        // Given
+        givenActiveTickets();
+        queue.start();
+        UUID ticketId = UUID.randomUUID();
+        when(chainService.handleTicketExpiration(ticketId)).thenReturn(true);
+
+        // When
+        queue.schedule(ticketId, Instant.now().plusMillis(200));
+
+        // Then
+        verify(chainService, after(100).never()).handleTicketExpiration(ticketId);
+        verify(chainService, timeout(1000)).handleTicketExpiration(ticketId);
+        Timer lag = awaitRecorded("timer");
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.totalTime(TimeUnit.SECONDS)).isLessThan(1.0);
+    }
+
+    @Test
+    void schedule_SameTicketTwice_QueuedOnce() {
+        // Given
+        UUID ticketId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+
+        // When
+        queue.schedule(ticketId, expiresAt);
+        queue.schedule(ticketId, expiresAt);
+
+        // Then
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void claimingMode_QueueStaysIdle() {
+        // Given
+        TicketExpiryQueue idle = new TicketExpiryQueue(
+            ticketRepository, chainService, transactionTemplate, meterRegistry, true);
+
+        // When
+        idle.start();
+        idle.schedule(UUID.randomUUID(), Instant.now().minusSeconds(5));
+
+        // Then
+        assertThat(idle.size()).isZero();
+        verifyNoInteractions(ticketRepository, chainService, transactionTemplate);
+    }
+
+    @Test
+    void expireOverdue_TicketNoLongerActive_NoLagRecorded() {
+        // Given
+        UUID used = UUID.randomUUID();
+        when(chainService.handleTicketExpiration(used)).thenReturn(false);
+
+        // When
+        boolean expired = queue.expireOverdue(used, Instant.now().minusSeconds(60));
+
+        // Then
+        assertThat(expired).isFalse();
+        assertThat(lag("reconcile").count()).isZero();
+    }
+
+    @Test
+    void expireOverdue_HandlerFails_ReturnsFalse() {
+        // Given
+        UUID ticketId = UUID.randomUUID();
+        when(chainService.handleTicketExpiration(ticketId)).thenThrow(new RuntimeException("db down"));
+
+        // When
+        boolean expired = queue.expireOverdue(ticketId, Instant.now().minusSeconds(60));
+
+        // Then
+        assertThat(expired).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenActiveTickets(TicketRepository.TicketExpiryView... tickets) {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(ticketRepository.streamActiveExpiries()).thenReturn(Stream.of(tickets));
+    }
+
+    private TicketRepository.TicketExpiryView view(UUID id, Instant expiresAt) {
+        return new TicketRepository.TicketExpiryView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getOwnerId() {
+                return UUID.randomUUID();
+            }
+
+            @Override
+            public Instant getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+
+    private Timer awaitRecorded(String path) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (lag(path).count() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return lag(path);
+    }
+
+    private Timer lag(String path) {
+        return meterRegistry.get("chain.ticket.expiry.lag").tag("path", path).timer();
+    }
+}
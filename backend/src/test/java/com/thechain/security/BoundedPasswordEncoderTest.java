@@ -0,0 +1,94 @@
+package com.thechain.security;
+
+import com.thechain.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ThreadPoolTaskExecutor executor;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        encoder = new BoundedPasswordEncoder(executor, meterRegistry, 5, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_RunOnExecutor_RecordMetrics() {
+        // When
+        String hash = encoder.encode("password123");
+
+        // Then
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(encoder.matches("password123", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(meterRegistry.get("chain.auth.password.hash").tag("op", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chain.auth.password.hash").tag("op", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("chain.auth.password.queue.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void encode_QueueFull_FailsFastWithRetryAfter() throws Exception {
+        // Given: the only hashing thread is busy and the queue slot is taken
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        running.await();
+        executor.execute(() -> { });
+
+        try {
+            // When & Then
+            assertThatThrownBy(() -> encoder.encode("password123"))
+                    .isInstanceOf(ServiceOverloadedException.class)
+                    .satisfies(ex -> assertThat(((ServiceOverloadedException) ex).getRetryAfterSeconds()).isEqualTo(2));
+            assertThat(meterRegistry.get("chain.auth.password.rejected").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("chain.auth.password.queue.depth").gauge().value()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void upgradeEncoding_LowerCostHash_NeedsRehash() {
+        // Given
+        String weaker = new BCryptPasswordEncoder(4).encode("password123");
+        String current = new BCryptPasswordEncoder(5).encode("password123");
+
+        // Then
+        assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+        assertThat(encoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
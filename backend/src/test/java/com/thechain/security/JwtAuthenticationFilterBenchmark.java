@@ -0,0 +1,98 @@
+package com.thechain.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication: the previous path (a new parser per
+ * call, token verified twice - isTokenValid then extractUserId) versus
+ * {@link JwtAuthenticationFilter} verifying once with the pre-built parser, with
+ * the verified-token cache disabled and enabled.
+ *
+ * Not a unit test (surefire ignores *Benchmark); run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.thechain.security.JwtAuthenticationFilterBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "your-secret-key-change-this-in-production-minimum-256-bits";
+    private static final long HOUR_MS = 3_600_000L;
+
+    private SecretKey key;
+    private String token;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        JwtUtil cached = new JwtUtil(SECRET, HOUR_MS, 720 * HOUR_MS, 10_000);
+        JwtUtil uncached = new JwtUtil(SECRET, HOUR_MS, 720 * HOUR_MS, 0);
+        token = cached.generateAccessToken(UUID.randomUUID(), "BENCH0000001");
+        cachedFilter = new JwtAuthenticationFilter(cached);
+        uncachedFilter = new JwtAuthenticationFilter(uncached);
+    }
+
+    @Benchmark
+    public UUID legacyParseTwice() {
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        return UUID.fromString(Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject());
+    }
+
+    @Benchmark
+    public Object filterVerifyEveryRequest() throws Exception {
+        return authenticate(uncachedFilter);
+    }
+
+    @Benchmark
+    public Object filterCachedVerification() throws Exception {
+        return authenticate(cachedFilter);
+    }
+
+    private Object authenticate(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -132,4 +132,27 @@ class JwtUtilTest {
         assertThat(jwtUtil.extractUserId(token)).isEqualTo(userId);
         assertThat(jwtUtil.isTokenValid(token)).isTrue();
     }
+
+    @Test
+    void validUserId_ValidToken_ReturnsUserId() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String token = jwtUtil.generateAccessToken(userId, "TEST00000001");
+
+        // When & Then - repeated lookups are served from the verified-token cache
+        assertThat(jwtUtil.validUserId(token)).isEqualTo(userId);
+        assertThat(jwtUtil.validUserId(token)).isEqualTo(userId);
+    }
+
+    @Test
+    void validUserId_TokenFromOtherKey_ReturnsNull() {
+        // Given
+        JwtUtil other = new JwtUtil("another-secret-key-for-jwt-minimum-256-bits-long-for-hs512-algorithm",
+                accessTokenExpiration, refreshTokenExpiration);
+        String token = other.generateAccessToken(UUID.randomUUID(), "TEST00000001");
+
+        // When & Then
+        assertThat(jwtUtil.validUserId(token)).isNull();
+        assertThat(jwtUtil.validUserId("invalid.jwt.token")).isNull();
+    }
 }
@@ -0,0 +1,91 @@
+package com.thechain.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ticket signature verification: the previous per-call path (Mac.getInstance +
+ * init + String.equals) versus {@link TicketSigner}'s per-thread pre-keyed Macs,
+ * single and batched (64 tickets per call).
+ *
+ * Not a unit test (surefire ignores *Benchmark); run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.thechain.security.TicketSignerBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TicketSignerBenchmark {
+
+    private static final String SECRET = "your-secret-key-change-this-in-production-minimum-256-bits";
+    private static final int BATCH = 64;
+
+    private TicketSigner signer;
+    private String payload;
+    private String signature;
+    private List<TicketSigner.Signed> batch;
+
+    @Setup
+    public void setUp() {
+        signer = new TicketSigner(SECRET, "", TicketSigner.DEFAULT_KEY_ID, TicketSigner.DEFAULT_KEY_ID);
+        payload = signer.payload(UUID.randomUUID(), System.currentTimeMillis(), System.currentTimeMillis() + 86_400_000L,
+            UUID.randomUUID());
+        signature = signer.sign(payload);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            String p = signer.payload(UUID.randomUUID(), i, i + 1, UUID.randomUUID());
+            batch.add(new TicketSigner.Signed(p, signer.sign(p)));
+        }
+    }
+
+    @Benchmark
+    public boolean verifyPerCallMac() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        return expected.equals(signature);
+    }
+
+    @Benchmark
+    public boolean verifyPooledMac() {
+        return signer.verify(payload, signature);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] verifyAllPooledMac() {
+        return signer.verifyAll(batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TicketSignerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
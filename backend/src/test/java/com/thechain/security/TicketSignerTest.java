@@ -0,0 +1,121 @@
+package com.thechain.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TicketSignerTest {
+
+    private static final String SECRET = "test-secret-key-for-ticket-signatures";
+
+    private TicketSigner signer;
+
+    @BeforeEach
+    void setUp() {
+        signer = new TicketSigner(SECRET, "", TicketSigner.DEFAULT_KEY_ID, TicketSigner.DEFAULT_KEY_ID);
+    }
+
+    @Test
+    void signAndVerify_RoundTrip() {
+        // Given
+        String payload = signer.payload(UUID.randomUUID(), 1L, 2L, UUID.randomUUID());
+
+        // When
+        String signature = signer.sign(payload);
+
+        // Then
+        assertThat(payload).endsWith("|k0");
+        assertThat(signer.verify(payload, signature)).isTrue();
+        assertThat(signer.verify(payload + "x", signature)).isFalse();
+    }
+
+    @Test
+    void verify_LegacyPayloadWithoutKeyId_MatchesPreviousSignatures() throws Exception {
+        // Given: payload and signature as issued before key ids were introduced
+        String legacy = UUID.randomUUID() + "|1|2|" + UUID.randomUUID();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = Base64.getEncoder().encodeToString(mac.doFinal(legacy.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(signer.verify(legacy, signature)).isTrue();
+        assertThat(signer.sign(legacy)).isEqualTo(signature);
+    }
+
+    @Test
+    void rotation_OldTicketsStayValidWhileKeyConfigured() {
+        // Given: ticket signed before rotation
+        String oldPayload = signer.payload("owner", 1L, 2L, "nonce");
+        String oldSignature = signer.sign(oldPayload);
+
+        // When: k1 becomes active, k0 still configured
+        TicketSigner rotated = new TicketSigner(SECRET, "k1:another-secret", "k1", TicketSigner.DEFAULT_KEY_ID);
+        String newPayload = rotated.payload("owner", 1L, 2L, "nonce");
+
+        // Then
+        assertThat(newPayload).endsWith("|k1");
+        assertThat(rotated.verify(oldPayload, oldSignature)).isTrue();
+        assertThat(rotated.verify(newPayload, rotated.sign(newPayload))).isTrue();
+        assertThat(rotated.sign(newPayload)).isNotEqualTo(signer.sign(newPayload.replace("|k1", "|k0")));
+    }
+
+    @Test
+    void verify_UnknownKeyOrMalformedSignature_False() {
+        // Given
+        String payload = "owner|1|2|nonce|k9";
+
+        // Then
+        assertThat(signer.verify(payload, "AAAA")).isFalse();
+        assertThat(signer.verify("owner|1|2|nonce|k0", "not base64!")).isFalse();
+        assertThat(signer.verify("owner|1|2|nonce|k0", null)).isFalse();
+    }
+
+    @Test
+    void verifyAll_ResultsInInputOrder() {
+        // Given
+        String good = signer.payload("a", 1L, 2L, "n1");
+        String other = signer.payload("b", 1L, 2L, "n2");
+
+        // When
+        boolean[] results = signer.verifyAll(List.of(
+            new TicketSigner.Signed(good, signer.sign(good)),
+            new TicketSigner.Signed(other, signer.sign(good)),
+            new TicketSigner.Signed(other, signer.sign(other))));
+
+        // Then
+        assertThat(results).containsExactly(true, false, true);
+    }
+
+    @Test
+    void sign_ConcurrentThreads_SameResult() throws Exception {
+        // Given
+        String payload = signer.payload("owner", 1L, 2L, "nonce");
+        String expected = signer.sign(payload);
+
+        // When
+        List<CompletableFuture<String>> futures = IntStream.range(0, 8)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() -> signer.sign(payload)))
+            .toList();
+
+        // Then
+        for (CompletableFuture<String> future : futures) {
+            assertThat(future.get()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void constructor_ActiveKeyMissing_Fails() {
+        assertThatThrownBy(() -> new TicketSigner(SECRET, "", "k7", TicketSigner.DEFAULT_KEY_ID))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.thechain.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(
+            "test-secret-key-for-jwt-minimum-256-bits-long-for-hs512-algorithm-security".getBytes(StandardCharsets.UTF_8));
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(Jwts.parser().verifyWith(key).build(), 2, now::get);
+    }
+
+    @Test
+    void verify_SameToken_ParsedOnce() {
+        // Given
+        String token = token(UUID.randomUUID(), 3600);
+
+        // When
+        Claims first = cache.verify(token);
+        Claims second = cache.verify(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void verify_TamperedToken_RejectedAndNotCached() {
+        // Given
+        String token = token(UUID.randomUUID(), 3600);
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+        // When & Then
+        assertThatThrownBy(() -> cache.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void verify_EntryPastExpiry_VerifiedAgain() {
+        // Given
+        String token = token(UUID.randomUUID(), 3600);
+        Claims first = cache.verify(token);
+
+        // When: the cache's clock passes the token's exp
+        now.addAndGet(7_200_000L);
+        Claims second = cache.verify(token);
+
+        // Then: re-parsed (the parser's own clock still accepts it)
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getSubject()).isEqualTo(first.getSubject());
+    }
+
+    @Test
+    void verify_Full_SweepsExpiredEntriesFirst() {
+        // Given
+        cache.verify(token(UUID.randomUUID(), 60));
+        cache.verify(token(UUID.randomUUID(), 3600));
+        now.addAndGet(120_000L);
+
+        // When
+        String fresh = token(UUID.randomUUID(), 3600);
+        Claims claims = cache.verify(fresh);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.verify(fresh)).isSameAs(claims);
+    }
+
+    @Test
+    void verify_FullOfValidTokens_StaysBounded() {
+        // Given
+        cache.verify(token(UUID.randomUUID(), 3600));
+        cache.verify(token(UUID.randomUUID(), 3600));
+
+        // When
+        String overflow = token(UUID.randomUUID(), 3600);
+        Claims claims = cache.verify(overflow);
+
+        // Then: still verified, just not cached
+        assertThat(claims.getSubject()).isNotNull();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.verify(overflow)).isNotSameAs(claims);
+    }
+
+    private String token(UUID userId, long validSeconds) {
+        Instant issued = Instant.now();
+        return Jwts.builder()
+                .subject(userId.toString())
+                .issuedAt(Date.from(issued))
+                .expiration(Date.from(issued.plusSeconds(validSeconds)))
+                .signWith(key)
+                .compact();
+    }
+}
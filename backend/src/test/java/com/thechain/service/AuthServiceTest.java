@@ -1,21 +1,29 @@
 package com.thechain.service;
 
+import com.thechain.chain.ChainIndex;
+import com.thechain.chain.PositionAllocator;
 import com.thechain.dto.AuthResponse;
 import com.thechain.dto.RegisterRequest;
 import com.thechain.entity.Ticket;
+import com.thechain.event.ChainEventJournal;
 import com.thechain.entity.User;
 import com.thechain.exception.BusinessException;
-import com.thechain.repository.AttachmentRepository;
-import com.thechain.repository.InvitationRepository;
+import com.thechain.exception.ServiceOverloadedException;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
 import com.thechain.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -24,6 +32,7 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,9 +44,6 @@ class AuthServiceTest {
     @Mock
     private TicketRepository ticketRepository;
 
-    @Mock
-    private AttachmentRepository attachmentRepository;
-
     @Mock
     private TicketService ticketService;
 
@@ -45,14 +51,26 @@ class AuthServiceTest {
     private JwtUtil jwtUtil;
 
     @Mock
-    private InvitationRepository invitationRepository;
+    private ChainService chainService;
 
     @Mock
-    private ChainService chainService;
+    private ChainIndex chainIndex;
+
+    @Mock
+    private PositionAllocator positionAllocator;
+
+    @Mock
+    private ChainEventJournal chainEventJournal;
 
     @Mock
     private org.springframework.security.crypto.password.PasswordEncoder passwordEncoder;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AuthService authService;
 
@@ -93,11 +111,12 @@ class AuthServiceTest {
     @Test
     void register_Success() {
         // Given
-        when(ticketRepository.findById(testTicket.getId())).thenReturn(Optional.of(testTicket));
-        when(ticketService.verifyTicketSignature(testTicket, "test-signature")).thenReturn(true);
+        givenClaimableTicket();
         when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
-        when(userRepository.findMaxPosition()).thenReturn(1);
+        when(passwordEncoder.encode("password123")).thenReturn("$2a$10$hashedPassword");
+        givenTransactions();
+        when(ticketRepository.claimTicket(eq(testTicket.getId()), any())).thenReturn(testUser.getId());
+        when(positionAllocator.reserve()).thenReturn(2);
 
         User newUser = User.builder()
                 .id(UUID.randomUUID())
@@ -109,8 +128,9 @@ class AuthServiceTest {
                 .passwordHash("$2a$10$hashedPassword")
                 .build();
 
-        when(userRepository.save(any(User.class))).thenReturn(newUser);
-        when(passwordEncoder.encode("password123")).thenReturn("$2a$10$hashedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(newUser);
+        when(userRepository.linkActiveChild(eq(testUser.getId()), eq(newUser.getId()), eq(testTicket.getId()), any()))
+                .thenReturn(linkedParent(testUser, 0));
         when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access-token");
         when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh-token");
 
@@ -122,13 +142,22 @@ class AuthServiceTest {
         assertThat(response.getDisplayName()).isEqualTo("newuser");
         assertThat(response.getPosition()).isEqualTo(2);
         assertThat(response.getParentId()).isEqualTo(testUser.getId());
+        assertThat(response.getParentDisplayName()).isEqualTo("Test User");
         assertThat(response.getTokens().getAccessToken()).isEqualTo("access-token");
 
-        verify(ticketRepository).save(any(Ticket.class));
-        verify(userRepository, times(2)).save(any(User.class));
-        verify(invitationRepository).save(any()); // New: Invitation record created
-        verify(attachmentRepository).save(any());
-        verify(chainService).checkAndAwardChainSaviorBadge(any(User.class)); // New: Badge check
+        // Link and invitation are written by the one linkActiveChild statement
+        verify(userRepository).linkActiveChild(eq(testUser.getId()), eq(newUser.getId()), eq(testTicket.getId()), any());
+        verify(chainService).checkAndAwardChainSaviorBadge(1, "TEST00000001", 0); // New: Badge check
+        verify(ticketService).createTicketForUser(newUser.getId());
+        verify(ticketRepository, never()).save(any(Ticket.class));
+
+        // Password hashed before the claim transaction opens
+        InOrder order = inOrder(passwordEncoder, transactionTemplate);
+        order.verify(passwordEncoder).encode("password123");
+        order.verify(transactionTemplate).execute(any());
+        assertThat(meterRegistry.find("chain.registration.statements").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("chain.registration.latency").tag("outcome", "registered").timer().count())
+                .isEqualTo(1);
     }
 
     @Test
@@ -140,6 +169,7 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.register(registerRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("Ticket not found");
+        verify(passwordEncoder, never()).encode(any());
     }
 
     @Test
@@ -152,6 +182,7 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.register(registerRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("expired");
+        verify(ticketRepository, never()).save(any(Ticket.class));
     }
 
     @Test
@@ -169,29 +200,61 @@ class AuthServiceTest {
     @Test
     void register_DuplicateUsername_ThrowsException() {
         // Given
-        when(ticketRepository.findById(testTicket.getId())).thenReturn(Optional.of(testTicket));
-        when(ticketService.verifyTicketSignature(testTicket, "test-signature")).thenReturn(true);
+        givenClaimableTicket();
         when(userRepository.existsByUsername("newuser")).thenReturn(true);
 
         // When & Then
         assertThatThrownBy(() -> authService.register(registerRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("Username already taken");
+        verify(passwordEncoder, never()).encode(any());
+    }
+
+    @Test
+    void register_TicketClaimedConcurrently_ThrowsTicketUsed() {
+        // Given: ticket was active at the pre-check, another claim won the row lock
+        when(ticketService.verifyTicketSignature(testTicket, "test-signature")).thenReturn(true);
+        when(userRepository.existsByUsername("newuser")).thenReturn(false);
+        when(passwordEncoder.encode("password123")).thenReturn("$2a$10$hashedPassword");
+        givenTransactions();
+        when(ticketRepository.claimTicket(eq(testTicket.getId()), any())).thenReturn(null);
+        Ticket used = Ticket.builder()
+                .id(testTicket.getId())
+                .ownerId(testUser.getId())
+                .status(Ticket.TicketStatus.USED)
+                .expiresAt(testTicket.getExpiresAt())
+                .build();
+        when(ticketRepository.findById(testTicket.getId())).thenReturn(Optional.of(testTicket), Optional.of(used));
+
+        // When & Then
+        assertThatThrownBy(() -> authService.register(registerRequest))
+                .isInstanceOf(BusinessException.class)
+                .satisfies(ex -> assertThat(((BusinessException) ex).getErrorCode()).isEqualTo("TICKET_USED"));
+        verify(positionAllocator, never()).reserve();
     }
 
     @Test
     void register_ParentHasActiveChild_ThrowsException() {
         // Given
-        testUser.setActiveChildId(UUID.randomUUID());
-        when(ticketRepository.findById(testTicket.getId())).thenReturn(Optional.of(testTicket));
-        when(ticketService.verifyTicketSignature(testTicket, "test-signature")).thenReturn(true);
+        givenClaimableTicket();
         when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.encode("password123")).thenReturn("$2a$10$hashedPassword");
+        givenTransactions();
+        when(ticketRepository.claimTicket(eq(testTicket.getId()), any())).thenReturn(testUser.getId());
+        when(positionAllocator.reserve()).thenReturn(2);
+        when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(UUID.randomUUID());
+            return user;
+        });
+        when(userRepository.linkActiveChild(eq(testUser.getId()), any(), eq(testTicket.getId()), any()))
+                .thenReturn(null);
 
         // When & Then
         assertThatThrownBy(() -> authService.register(registerRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("already has an active invitee");
+        verify(chainEventJournal, never()).joined(any(), any(), any());
     }
 
     @Test
@@ -262,6 +325,62 @@ class AuthServiceTest {
                 .satisfies(ex -> assertThat(((BusinessException) ex).getErrorCode()).isEqualTo("INVALID_PASSWORD"));
     }
 
+    @Test
+    void login_HashBelowConfiguredCost_RehashedTransparently() {
+        // Given
+        String password = "password123";
+        String oldHash = testUser.getPasswordHash();
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, oldHash)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(oldHash)).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenReturn("$2a$12$upgradedHash");
+        givenTransactions();
+        when(userRepository.replacePasswordHash(eq(testUser.getId()), eq(oldHash), eq("$2a$12$upgradedHash"), any()))
+                .thenReturn(1);
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access-token");
+        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh-token");
+
+        // When
+        AuthResponse response = authService.login("testuser", password);
+
+        // Then
+        assertThat(response.getTokens().getAccessToken()).isEqualTo("access-token");
+        verify(userRepository).replacePasswordHash(eq(testUser.getId()), eq(oldHash), eq("$2a$12$upgradedHash"), any());
+    }
+
+    @Test
+    void login_HashingSaturatedDuringRehash_StillLogsIn() {
+        // Given
+        String password = "password123";
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches(password, testUser.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(testUser.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.encode(password)).thenThrow(new ServiceOverloadedException("busy", 1));
+        when(jwtUtil.generateAccessToken(any(), any())).thenReturn("access-token");
+        when(jwtUtil.generateRefreshToken(any())).thenReturn("refresh-token");
+
+        // When
+        AuthResponse response = authService.login("testuser", password);
+
+        // Then
+        assertThat(response.getTokens().getAccessToken()).isEqualTo("access-token");
+        verify(userRepository, never()).replacePasswordHash(any(), any(), any(), any());
+    }
+
+    @Test
+    void login_HashingSaturated_Returns503Error() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordEncoder.matches("password123", testUser.getPasswordHash()))
+                .thenThrow(new ServiceOverloadedException("busy", 1));
+
+        // When & Then
+        assertThatThrownBy(() -> authService.login("testuser", "password123"))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(ex -> assertThat(((BusinessException) ex).getErrorCode()).isEqualTo("SERVICE_OVERLOADED"));
+        verify(jwtUtil, never()).generateAccessToken(any(), any());
+    }
+
     @Test
     void refreshToken_Success() {
         // Given
@@ -314,4 +433,44 @@ class AuthServiceTest {
                 .isInstanceOf(BusinessException.class)
                 .satisfies(ex -> assertThat(((BusinessException) ex).getErrorCode()).isEqualTo("USER_NOT_FOUND"));
     }
+
+    private void givenClaimableTicket() {
+        when(ticketRepository.findById(testTicket.getId())).thenReturn(Optional.of(testTicket));
+        when(ticketService.verifyTicketSignature(testTicket, "test-signature")).thenReturn(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static UserRepository.LinkedParentView linkedParent(User parent, int wastedChildCount) {
+        return new UserRepository.LinkedParentView() {
+            @Override
+            public UUID getId() {
+                return parent.getId();
+            }
+
+            @Override
+            public String getDisplayName() {
+                return parent.getDisplayName();
+            }
+
+            @Override
+            public Integer getPosition() {
+                return parent.getPosition();
+            }
+
+            @Override
+            public String getChainKey() {
+                return parent.getChainKey();
+            }
+
+            @Override
+            public Integer getWastedChildCount() {
+                return wastedChildCount;
+            }
+        };
+    }
 }
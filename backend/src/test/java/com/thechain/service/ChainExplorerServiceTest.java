@@ -0,0 +1,189 @@
+package com.thechain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thechain.dto.ChainExplorerPage;
+import com.thechain.entity.User;
+import com.thechain.exception.BusinessException;
+import com.thechain.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChainExplorerServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChainExplorerService chainExplorerService;
+
+    @BeforeEach
+    void setUp() {
+        chainExplorerService = new ChainExplorerService(userRepository, objectMapper, meterRegistry,
+                2, 5, CHUNK_SIZE);
+    }
+
+    @Test
+    void page_MoreRows_ReturnsKeysetCursor() {
+        // Given: one row more than the page size exists
+        when(userRepository.findExplorerRowsByPositionBetweenOrderByPositionAsc(11, Integer.MAX_VALUE,
+                PageRequest.of(0, 3)))
+                .thenReturn(rows(11, 12, 13));
+
+        // When
+        ChainExplorerPage page = chainExplorerService.page(10, null, ChainExplorerService.Filter.of(null, null));
+
+        // Then
+        assertThat(page.getMembers()).extracting("position").containsExactly(11, 12);
+        assertThat(page.getNextAfter()).isEqualTo(12);
+    }
+
+    @Test
+    void page_LastPage_HasNoCursor() {
+        // Given
+        when(userRepository.findExplorerRowsByPositionBetweenOrderByPositionAsc(1, Integer.MAX_VALUE,
+                PageRequest.of(0, 6)))
+                .thenReturn(rows(1, 2));
+
+        // When: the requested limit is capped at the maximum
+        ChainExplorerPage page = chainExplorerService.page(0, 1000, ChainExplorerService.Filter.of(null, null));
+
+        // Then
+        assertThat(page.getMembers()).hasSize(2);
+        assertThat(page.getNextAfter()).isNull();
+    }
+
+    @Test
+    void page_Filters_UseMatchingIndexedQuery() {
+        // Given
+        when(userRepository.findExplorerRowsByStatusAndAssociatedWithAndPositionBetweenOrderByPositionAsc(
+                "removed", "DE", 1, Integer.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(rows(4));
+
+        // When
+        ChainExplorerPage page = chainExplorerService.page(0, null, ChainExplorerService.Filter.of(" Removed ", "de"));
+
+        // Then
+        assertThat(page.getMembers()).extracting("position").containsExactly(4);
+        verify(userRepository, never()).findExplorerRowsByPositionBetweenOrderByPositionAsc(
+                anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void filter_InvalidCountry_Rejected() {
+        assertThatThrownBy(() -> ChainExplorerService.Filter.of(null, "DEU"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("two-letter");
+    }
+
+    @Test
+    void export_WalksKeysetInChunks() throws Exception {
+        // Given: 7 rows in chunks of 3, the export stops at position 7
+        when(userRepository.findExplorerRowsByStatusAndPositionBetweenOrderByPositionAsc(
+                "active", 1, 7, PageRequest.of(0, CHUNK_SIZE)))
+                .thenReturn(rows(1, 2, 3));
+        when(userRepository.findExplorerRowsByStatusAndPositionBetweenOrderByPositionAsc(
+                "active", 4, 7, PageRequest.of(0, CHUNK_SIZE)))
+                .thenReturn(rows(4, 5, 6));
+        when(userRepository.findExplorerRowsByStatusAndPositionBetweenOrderByPositionAsc(
+                "active", 7, 7, PageRequest.of(0, CHUNK_SIZE)))
+                .thenReturn(rows(7));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = chainExplorerService.export(0, 7, ChainExplorerService.Filter.of("active", null), out);
+
+        // Then: one JSON member per line, in position order
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(7);
+        assertThat(lines).hasSize(7);
+        JsonNode last = objectMapper.readTree(lines[6]);
+        assertThat(last.get("position").asInt()).isEqualTo(7);
+        assertThat(last.get("chainKey").asText()).isEqualTo("KEY7");
+        assertThat(last.get("countryCode").asText()).isEqualTo("DE");
+        assertThat(meterRegistry.get("chain.explorer.rows").tag("mode", "export").counter().count())
+                .isEqualTo(7);
+    }
+
+    @Test
+    void requireAdmin_RegularUser_Rejected() {
+        // Given
+        User user = User.builder().id(UUID.randomUUID()).isAdmin(false).build();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        // When & Then
+        assertThatThrownBy(() -> chainExplorerService.requireAdmin(user.getId()))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("ADMIN_REQUIRED");
+    }
+
+    private static List<UserRepository.ChainExplorerRow> rows(int... positions) {
+        return IntStream.of(positions)
+                .mapToObj(position -> (UserRepository.ChainExplorerRow) new Row(position))
+                .toList();
+    }
+
+    private record Row(int position) implements UserRepository.ChainExplorerRow {
+
+        @Override
+        public UUID getId() {
+            return new UUID(0, position);
+        }
+
+        @Override
+        public Integer getPosition() {
+            return position;
+        }
+
+        @Override
+        public String getChainKey() {
+            return "KEY" + position;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "member" + position;
+        }
+
+        @Override
+        public String getStatus() {
+            return "active";
+        }
+
+        @Override
+        public String getAssociatedWith() {
+            return "DE";
+        }
+
+        @Override
+        public UUID getParentId() {
+            return position > 1 ? new UUID(0, position - 1) : null;
+        }
+
+        @Override
+        public Instant getCreatedAt() {
+            return Instant.EPOCH;
+        }
+    }
+}
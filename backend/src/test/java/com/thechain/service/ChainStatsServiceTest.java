@@ -1,10 +1,9 @@
 package com.thechain.service;
 
 import com.thechain.dto.ChainStatsResponse;
-import com.thechain.entity.Attachment;
 import com.thechain.entity.Ticket;
-import com.thechain.entity.User;
-import com.thechain.repository.AttachmentRepository;
+import com.thechain.event.ChainCountersProjection;
+import com.thechain.repository.InvitationRepository;
 import com.thechain.repository.TicketRepository;
 import com.thechain.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,56 +30,21 @@ class ChainStatsServiceTest {
     private TicketRepository ticketRepository;
 
     @Mock
-    private AttachmentRepository attachmentRepository;
+    private InvitationRepository invitationRepository;
+
+    @Mock
+    private ChainCountersProjection chainCountersProjection;
 
     @InjectMocks
     private ChainStatsService chainStatsService;
 
-    private List<User> testUsers;
-    private List<Attachment> testAttachments;
+    private List<InvitationRepository.RecentJoinView> recentJoins;
 
     @BeforeEach
     void setUp() {
-        // Create test users
-        User user1 = User.builder()
-                .id(UUID.randomUUID())
-                .chainKey("TEST00000001")
-                .displayName("User 1")
-                .position(1)
-                .build();
-
-        User user2 = User.builder()
-                .id(UUID.randomUUID())
-                .chainKey("TEST00000002")
-                .displayName("User 2")
-                .position(2)
-                .build();
-
-        User user3 = User.builder()
-                .id(UUID.randomUUID())
-                .chainKey("TEST00000003")
-                .displayName("User 3")
-                .position(3)
-                .build();
-
-        testUsers = Arrays.asList(user1, user2, user3);
-
-        // Create test attachments
-        Attachment attachment1 = Attachment.builder()
-                .id(UUID.randomUUID())
-                .parentId(user1.getId())
-                .childId(user2.getId())
-                .attachedAt(Instant.now().minusSeconds(3600))
-                .build();
-
-        Attachment attachment2 = Attachment.builder()
-                .id(UUID.randomUUID())
-                .parentId(user2.getId())
-                .childId(user3.getId())
-                .attachedAt(Instant.now().minusSeconds(1800))
-                .build();
-
-        testAttachments = Arrays.asList(attachment1, attachment2);
+        recentJoins = List.of(
+                recentJoin(3, "User 3", Instant.now().minusSeconds(1800)),
+                recentJoin(2, "User 2", Instant.now().minusSeconds(3600)));
     }
 
     @Test
@@ -90,8 +52,7 @@ class ChainStatsServiceTest {
         // Given
         when(userRepository.countByDeletedAtIsNull()).thenReturn(100L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(15L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(testAttachments);
-        when(userRepository.findById(any())).thenReturn(Optional.of(testUsers.get(0)));
+        when(invitationRepository.findRecentJoins(any())).thenReturn(recentJoins);
 
         // When
         ChainStatsResponse response = chainStatsService.getGlobalStats();
@@ -106,8 +67,7 @@ class ChainStatsServiceTest {
         // Given
         when(userRepository.countByDeletedAtIsNull()).thenReturn(50L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(25L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(testAttachments);
-        when(userRepository.findById(any())).thenReturn(Optional.of(testUsers.get(0)));
+        when(invitationRepository.findRecentJoins(any())).thenReturn(recentJoins);
 
         // When
         ChainStatsResponse response = chainStatsService.getGlobalStats();
@@ -121,13 +81,7 @@ class ChainStatsServiceTest {
         // Given
         when(userRepository.countByDeletedAtIsNull()).thenReturn(50L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(10L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(testAttachments);
-
-        // Mock user lookups for each attachment
-        when(userRepository.findById(testAttachments.get(0).getChildId()))
-                .thenReturn(Optional.of(testUsers.get(1)));
-        when(userRepository.findById(testAttachments.get(1).getChildId()))
-                .thenReturn(Optional.of(testUsers.get(2)));
+        when(invitationRepository.findRecentJoins(any())).thenReturn(recentJoins);
 
         // When
         ChainStatsResponse response = chainStatsService.getGlobalStats();
@@ -137,23 +91,10 @@ class ChainStatsServiceTest {
         assertThat(response.getRecentAttachments()).hasSize(2);
 
         ChainStatsResponse.RecentAttachment first = response.getRecentAttachments().get(0);
-        assertThat(first.getDisplayName()).isEqualTo("User 2");
-        assertThat(first.getChildPosition()).isEqualTo(2);
-    }
-
-    @Test
-    void getGlobalStats_HandlesNullUsers() {
-        // Given
-        when(userRepository.countByDeletedAtIsNull()).thenReturn(50L);
-        when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(10L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(testAttachments);
-        when(userRepository.findById(any())).thenReturn(Optional.empty());
-
-        // When
-        ChainStatsResponse response = chainStatsService.getGlobalStats();
-
-        // Then
-        assertThat(response.getRecentAttachments()).isEmpty();
+        assertThat(first.getDisplayName()).isEqualTo("User 3");
+        assertThat(first.getChildPosition()).isEqualTo(3);
+        assertThat(first.getTimestamp()).isEqualTo(recentJoins.get(0).getJoinedAt());
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
@@ -161,7 +102,7 @@ class ChainStatsServiceTest {
         // Given
         when(userRepository.countByDeletedAtIsNull()).thenReturn(10L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(5L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(List.of());
+        when(invitationRepository.findRecentJoins(any())).thenReturn(List.of());
 
         // When
         ChainStatsResponse response = chainStatsService.getGlobalStats();
@@ -179,7 +120,7 @@ class ChainStatsServiceTest {
         Instant beforeCall = Instant.now();
         when(userRepository.countByDeletedAtIsNull()).thenReturn(10L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(5L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(List.of());
+        when(invitationRepository.findRecentJoins(any())).thenReturn(List.of());
 
         // When
         ChainStatsResponse response = chainStatsService.getGlobalStats();
@@ -194,7 +135,7 @@ class ChainStatsServiceTest {
         // Given
         when(userRepository.countByDeletedAtIsNull()).thenReturn(10L);
         when(ticketRepository.countByStatus(Ticket.TicketStatus.ACTIVE)).thenReturn(5L);
-        when(attachmentRepository.findTop20ByOrderByAttachedAtDesc()).thenReturn(List.of());
+        when(invitationRepository.findRecentJoins(any())).thenReturn(List.of());
 
         // When
         chainStatsService.getGlobalStats();
@@ -202,6 +143,45 @@ class ChainStatsServiceTest {
         // Then
         verify(userRepository).countByDeletedAtIsNull();
         verify(ticketRepository).countByStatus(Ticket.TicketStatus.ACTIVE);
-        verify(attachmentRepository).findTop20ByOrderByAttachedAtDesc();
+        verify(invitationRepository).findRecentJoins(PageRequest.of(0, 20));
+    }
+
+    @Test
+    void getGlobalStats_ProjectionReady_UsesJournalCounters() {
+        // Given
+        when(chainCountersProjection.isReady()).thenReturn(true);
+        when(chainCountersProjection.snapshot()).thenReturn(
+                new ChainCountersProjection.Counters(120L, 100L, 20L, 200L, 50L, 30L, 5L, 999L));
+        when(invitationRepository.findRecentJoins(any())).thenReturn(List.of());
+
+        // When
+        ChainStatsResponse response = chainStatsService.getGlobalStats();
+
+        // Then
+        assertThat(response.getTotalUsers()).isEqualTo(120L);
+        assertThat(response.getActiveTickets()).isEqualTo(30L);
+        assertThat(response.getTotalWastedTickets()).isEqualTo(50L);
+        assertThat(response.getWasteRate()).isEqualTo(25.0);
+        verify(userRepository, never()).countByDeletedAtIsNull();
+        verify(ticketRepository, never()).countByStatus(any());
+    }
+
+    private static InvitationRepository.RecentJoinView recentJoin(int position, String displayName, Instant joinedAt) {
+        return new InvitationRepository.RecentJoinView() {
+            @Override
+            public Integer getChildPosition() {
+                return position;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return displayName;
+            }
+
+            @Override
+            public Instant getJoinedAt() {
+                return joinedAt;
+            }
+        };
     }
 }
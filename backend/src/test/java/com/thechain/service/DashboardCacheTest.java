@@ -0,0 +1,233 @@
+package com.thechain.service;
+
+import com.thechain.entity.ChainEvent;
+import com.thechain.entity.ChainEvent.EventType;
+import com.thechain.entity.User;
+import com.thechain.event.ChainEventAppended;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheTest {
+
+    private static final long TTL_MS = 60_000;
+
+    @Mock
+    private ChainEventRepository chainEventRepository;
+
+    @Mock
+    private ProjectionCheckpointRepository checkpointRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private User parent;
+    private User member;
+    private User child;
+
+    @BeforeEach
+    void setUp() {
+        parent = user();
+        member = user();
+        child = user();
+    }
+
+    private DashboardCache cache(int maxUsers) {
+        DashboardCache cache = new DashboardCache(chainEventRepository, checkpointRepository, meterRegistry, true,
+                maxUsers, TTL_MS, clock::get);
+        cache.onCaughtUp();
+        return cache;
+    }
+
+    @Test
+    void apply_EvictsEveryEntryShowingTheUser() {
+        // Given: the member's entry shows parent and child, the child's only itself
+        DashboardCache cache = cache(100);
+        cache.putUser(snapshot(member, parent, member, child), cache.epoch());
+        cache.putUser(snapshot(child, child), cache.epoch());
+
+        // When: the parent issues a ticket
+        cache.apply(event(EventType.TICKET_ISSUED, parent, null));
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.user(child.getId())).isNotNull();
+        assertThat(meterRegistry.get("chain.dashboard.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_Joined_EvictsParentAndHead() {
+        // Given
+        DashboardCache cache = cache(100);
+        cache.putUser(snapshot(member, parent, member), cache.epoch());
+        cache.putHead(new DashboardCache.ChainHead(2, member, null), cache.epoch());
+        User joined = user();
+
+        // When: the member's ticket was used
+        cache.apply(event(EventType.JOINED, joined, member));
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.head()).isNull();
+    }
+
+    @Test
+    void onCommitted_LocalEvent_EvictsWithoutWaitingForThePoll() {
+        // Given
+        DashboardCache cache = cache(100);
+        cache.putUser(snapshot(member, parent, member), cache.epoch());
+        cache.putHead(new DashboardCache.ChainHead(2, member, null), cache.epoch());
+
+        // When: the member registered a child on this node
+        cache.onCommitted(new ChainEventAppended(event(EventType.JOINED, user(), member)));
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.head()).isNull();
+    }
+
+    @Test
+    void apply_UnrelatedEvent_KeepsEntry() {
+        // Given
+        DashboardCache cache = cache(100);
+        cache.putUser(snapshot(member, parent, member, child), cache.epoch());
+        cache.putHead(new DashboardCache.ChainHead(3, child, null), cache.epoch());
+
+        // When
+        cache.apply(event(EventType.TICKET_EXPIRED, user(), null));
+
+        // Then
+        assertThat(cache.user(member.getId())).isNotNull();
+        assertThat(cache.head()).isNotNull();
+    }
+
+    @Test
+    void putUser_LoadOverlappingAnEvent_NotStored() {
+        // Given: a load started before the event was applied
+        DashboardCache cache = cache(100);
+        long loadEpoch = cache.epoch();
+        cache.apply(event(EventType.TICKET_ISSUED, member, null));
+
+        // When
+        cache.putUser(snapshot(member, member), loadEpoch);
+        cache.putHead(new DashboardCache.ChainHead(1, member, null), loadEpoch);
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.head()).isNull();
+    }
+
+    @Test
+    void user_ExpiresAfterTtl() {
+        // Given
+        DashboardCache cache = cache(100);
+        cache.putUser(snapshot(member, member), cache.epoch());
+
+        // When
+        clock.addAndGet(TTL_MS);
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void putUser_BeyondCapacity_EvictsLeastRecentlyUsed() {
+        // Given
+        DashboardCache cache = cache(2);
+        cache.putUser(snapshot(parent, parent), cache.epoch());
+        cache.putUser(snapshot(member, member), cache.epoch());
+        cache.user(parent.getId());
+
+        // When
+        cache.putUser(snapshot(child, child), cache.epoch());
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.user(member.getId())).isNull();
+        assertThat(cache.user(parent.getId())).isNotNull();
+        assertThat(meterRegistry.get("chain.dashboard.cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void user_BeforeCatchUp_NothingCached() {
+        // Given
+        DashboardCache cache = new DashboardCache(chainEventRepository, checkpointRepository, meterRegistry, true,
+                100, TTL_MS, clock::get);
+
+        // When
+        cache.putUser(snapshot(member, member), cache.epoch());
+
+        // Then
+        assertThat(cache.user(member.getId())).isNull();
+    }
+
+    @Test
+    void resumeAfter_SeqInFlightBelowHead_ResumesBeforeIt() {
+        // Given: #12 is not visible yet, #15 has committed
+        when(chainEventRepository.findMaxSeq()).thenReturn(15L);
+        when(checkpointRepository.findLowestLastSeq()).thenReturn(10L);
+        when(chainEventRepository.findGaps(10L, 15L)).thenReturn(List.of(gap(12, 12)));
+
+        // When / Then
+        assertThat(cache(100).resumeAfter()).isEqualTo(11);
+    }
+
+    @Test
+    void resumeAfter_NoGaps_ResumesAtHead() {
+        // Given
+        when(chainEventRepository.findMaxSeq()).thenReturn(15L);
+        when(checkpointRepository.findLowestLastSeq()).thenReturn(0L);
+        when(chainEventRepository.findGaps(0L, 15L)).thenReturn(List.of());
+
+        // When / Then
+        assertThat(cache(100).resumeAfter()).isEqualTo(15);
+    }
+
+    private static ChainEventRepository.JournalGapView gap(long first, long last) {
+        return new ChainEventRepository.JournalGapView() {
+            @Override
+            public Long getFirstSeq() {
+                return first;
+            }
+
+            @Override
+            public Long getLastSeq() {
+                return last;
+            }
+        };
+    }
+
+    private static DashboardCache.UserSnapshot snapshot(User owner, User... visible) {
+        return new DashboardCache.UserSnapshot(owner, List.of(visible), Map.of(), 0, null, List.of());
+    }
+
+    private static ChainEvent event(EventType type, User user, User related) {
+        return ChainEvent.builder()
+                .eventType(type)
+                .userId(user.getId())
+                .relatedUserId(related != null ? related.getId() : null)
+                .build();
+    }
+
+    private static User user() {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .status("active")
+                .build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.thechain.service;
+
+import com.thechain.dto.ChainMemberDto;
+import com.thechain.dto.DashboardResponse;
+import com.thechain.entity.Ticket.TicketStatus;
+import com.thechain.entity.User;
+import com.thechain.exception.BusinessException;
+import com.thechain.repository.ChainEventRepository;
+import com.thechain.repository.ProjectionCheckpointRepository;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final long SECTION_TIMEOUT_MS = 300;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ChainMemberAssembler chainMemberAssembler;
+
+    @Mock
+    private ChainEventRepository chainEventRepository;
+
+    @Mock
+    private ProjectionCheckpointRepository checkpointRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThreadPoolTaskExecutor executor;
+    private DashboardCache dashboardCache;
+    private DashboardService dashboardService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(8);
+        executor.initialize();
+        dashboardCache = new DashboardCache(chainEventRepository, checkpointRepository, meterRegistry, true,
+                100, 60_000, System::currentTimeMillis);
+        dashboardCache.onCaughtUp();
+        dashboardService = new DashboardService(userRepository, ticketRepository, userService,
+                chainMemberAssembler, dashboardCache, executor, meterRegistry, SECTION_TIMEOUT_MS);
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .chainKey("KEY00001")
+                .displayName("alice")
+                .position(7)
+                .status("active")
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void getDashboardData_SharedInputsResolvedOnce() {
+        // Given
+        stubSections();
+
+        // When
+        DashboardResponse dashboard = dashboardService.getDashboardData(user.getId());
+
+        // Then
+        assertThat(dashboard.getDegradedSections()).isEmpty();
+        assertThat(dashboard.getChainMembers()).hasSize(1);
+        assertThat(dashboard.getStats().getTotalInvited()).isEqualTo(2);
+        assertThat(dashboard.getStats().getTotalChainLength()).isEqualTo(7);
+        assertThat(dashboard.getHasActiveTicket()).isTrue();
+        assertThat(dashboard.getCriticalActions()).extracting("type").containsExactly("becameTip");
+        assertThat(dashboard.getAchievements()).extracting("id").contains("chain_savior");
+        verify(chainMemberAssembler).invitedCounts(List.of(user.getId()));
+        verify(userRepository).findTopByOrderByPositionDesc();
+        verify(ticketRepository).countByOwnerIdAndStatus(user.getId(), TicketStatus.ACTIVE);
+        assertThat(meterRegistry.get("chain.dashboard.load").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void getDashboardData_Cached_SecondPollSkipsRepositories() {
+        // Given
+        stubSections();
+        dashboardService.getDashboardData(user.getId());
+        clearInvocations(userRepository, ticketRepository, chainMemberAssembler);
+
+        // When
+        DashboardResponse dashboard = dashboardService.getDashboardData(user.getId());
+
+        // Then
+        assertThat(dashboard.getStats().getTotalInvited()).isEqualTo(2);
+        assertThat(dashboard.getHasActiveTicket()).isTrue();
+        verifyNoInteractions(userRepository, ticketRepository);
+        assertThat(meterRegistry.get("chain.dashboard.cache").tag("result", "hit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getDashboardData_DegradedLoad_NotCached() {
+        // Given
+        stubSections();
+        when(ticketRepository.countByOwnerIdAndStatus(user.getId(), TicketStatus.ACTIVE))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(1L);
+
+        // When
+        DashboardResponse degraded = dashboardService.getDashboardData(user.getId());
+        DashboardResponse retried = dashboardService.getDashboardData(user.getId());
+
+        // Then
+        assertThat(degraded.getDegradedSections()).containsExactly("activeTickets");
+        assertThat(retried.getDegradedSections()).isEmpty();
+        assertThat(retried.getHasActiveTicket()).isTrue();
+        assertThat(dashboardCache.user(user.getId())).isNotNull();
+    }
+
+    @Test
+    void getDashboardData_SectionsRunConcurrently() throws Exception {
+        // Given: activities and the tip lookup each wait until the other has started
+        stubSections();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(ticketRepository.findByOwnerIdOrderByIssuedAtDesc(user.getId())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(SECTION_TIMEOUT_MS * 2, TimeUnit.MILLISECONDS);
+            return List.of();
+        });
+        when(userRepository.findTopByOrderByPositionDesc()).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(SECTION_TIMEOUT_MS * 2, TimeUnit.MILLISECONDS);
+            return Optional.of(user);
+        });
+
+        // When
+        DashboardResponse dashboard = dashboardService.getDashboardData(user.getId());
+
+        // Then: sequential loading would have timed both out
+        assertThat(dashboard.getDegradedSections()).isEmpty();
+    }
+
+    @Test
+    void getDashboardData_SlowSection_DegradesOnlyThatSection() {
+        // Given
+        stubSections();
+        when(ticketRepository.findByOwnerIdOrderByIssuedAtDesc(user.getId())).thenAnswer(invocation -> {
+            Thread.sleep(SECTION_TIMEOUT_MS * 5);
+            return List.of();
+        });
+
+        // When
+        long started = System.nanoTime();
+        DashboardResponse dashboard = dashboardService.getDashboardData(user.getId());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Then
+        assertThat(elapsedMillis).isLessThan(SECTION_TIMEOUT_MS * 5);
+        assertThat(dashboard.getDegradedSections()).containsExactly("recentActivities");
+        assertThat(dashboard.getRecentActivities()).isEmpty();
+        assertThat(dashboard.getChainMembers()).hasSize(1);
+        assertThat(dashboard.getStats()).isNotNull();
+        assertThat(meterRegistry.get("chain.dashboard.degraded").tag("section", "recentActivities").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getDashboardData_FailingSharedInput_DependentsUseFallback() {
+        // Given
+        stubSections();
+        when(chainMemberAssembler.invitedCounts(anyCollection()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        // When
+        DashboardResponse dashboard = dashboardService.getDashboardData(user.getId());
+
+        // Then
+        assertThat(dashboard.getDegradedSections()).containsExactly("invitedCount");
+        assertThat(dashboard.getStats().getTotalInvited()).isZero();
+        assertThat(dashboard.getAchievements()).extracting("id").doesNotContain("chain_savior");
+    }
+
+    @Test
+    void getDashboardData_UnknownUser_Throws() {
+        // Given
+        when(userRepository.findById(user.getId())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> dashboardService.getDashboardData(user.getId()))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(ticketRepository);
+    }
+
+    private void stubSections() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(userRepository.count()).thenReturn(7L);
+        lenient().when(userRepository.findTopByOrderByPositionDesc()).thenReturn(Optional.of(user));
+        lenient().when(chainMemberAssembler.invitedCounts(anyCollection())).thenReturn(Map.of(user.getId(), 2));
+        when(ticketRepository.countByOwnerIdAndStatus(user.getId(), TicketStatus.ACTIVE)).thenReturn(1L);
+        when(ticketRepository.findTopByOwnerIdAndStatusOrderByIssuedAtDesc(user.getId(), TicketStatus.ACTIVE))
+                .thenReturn(Optional.empty());
+        lenient().when(ticketRepository.findByOwnerIdOrderByIssuedAtDesc(user.getId())).thenReturn(List.of());
+        when(chainMemberAssembler.assemble(anyList(), eq(user.getId()), any(), anyMap()))
+                .thenReturn(List.of(ChainMemberDto.builder().chainKey(user.getChainKey()).build()));
+    }
+}
@@ -0,0 +1,86 @@
+package com.thechain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QrCodeServiceTest {
+
+    private static final Instant EXPIRES_AT = Instant.now().plusSeconds(3600);
+
+    private SimpleMeterRegistry meterRegistry;
+    private QrCodeService qrCodeService;
+    private UUID ticketId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        qrCodeService = new QrCodeService(meterRegistry, 2);
+        ticketId = UUID.randomUUID();
+    }
+
+    @Test
+    void render_SameContent_RenderedOnce() {
+        // When
+        QrCodeService.Image first = qrCodeService.render(ticketId, "thechain://join?t=abc", EXPIRES_AT);
+        QrCodeService.Image second = qrCodeService.render(ticketId, "thechain://join?t=abc", EXPIRES_AT);
+
+        // Then: PNG signature, identical instance served from cache
+        assertThat(first.png()).startsWith((byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G');
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.counter("chain.ticket.qr.cache", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("chain.ticket.qr.cache", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void cached_ByTicketAndContentHash() {
+        // Given
+        String content = "thechain://join?t=abc";
+        qrCodeService.render(ticketId, content, EXPIRES_AT);
+
+        // Then: the hash alone does not reach another ticket's image
+        assertThat(qrCodeService.cached(ticketId, qrCodeService.contentHash(content))).isNotNull();
+        assertThat(qrCodeService.cached(ticketId, qrCodeService.contentHash("other"))).isNull();
+        assertThat(qrCodeService.cached(UUID.randomUUID(), qrCodeService.contentHash(content))).isNull();
+    }
+
+    @Test
+    void cached_ExpiredTicket_NotServed() {
+        // Given
+        String content = "thechain://join?t=abc";
+        qrCodeService.render(ticketId, content, Instant.now().minusSeconds(1));
+
+        // Then
+        assertThat(qrCodeService.cached(ticketId, qrCodeService.contentHash(content))).isNull();
+    }
+
+    @Test
+    void cache_EvictsLeastRecentlyUsed() {
+        // Given: capacity 2
+        qrCodeService.render(ticketId, "a", EXPIRES_AT);
+        qrCodeService.render(ticketId, "b", EXPIRES_AT);
+        qrCodeService.cached(ticketId, qrCodeService.contentHash("a"));
+
+        // When
+        qrCodeService.render(ticketId, "c", EXPIRES_AT);
+
+        // Then
+        assertThat(qrCodeService.cached(ticketId, qrCodeService.contentHash("a"))).isNotNull();
+        assertThat(qrCodeService.cached(ticketId, qrCodeService.contentHash("b"))).isNull();
+    }
+
+    @Test
+    void imagePath_StableForContent() {
+        // When
+        String path = qrCodeService.imagePath(ticketId, "thechain://join?t=abc");
+
+        // Then
+        assertThat(path).isEqualTo(qrCodeService.imagePath(ticketId, "thechain://join?t=abc"));
+        assertThat(path).matches("/tickets/" + ticketId + "/qr/[0-9a-f]{32}\\.png");
+    }
+}
@@ -0,0 +1,193 @@
+package com.thechain.service;
+
+import com.thechain.ChainApplication;
+import com.thechain.chain.PositionAllocator;
+import com.thechain.config.TestRedisConfig;
+import com.thechain.dto.RegisterRequest;
+import com.thechain.entity.Invitation;
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.event.ChainEventJournal;
+import com.thechain.repository.InvitationRepository;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registration throughput under concurrent claims of distinct tickets: the
+ * pipeline in {@link AuthService#register} versus the previous shape, which
+ * hashed the password and issued the first ticket inside the claim transaction
+ * while holding the position counter lock (replicated here as the baseline).
+ *
+ * Not a unit test (surefire ignores *Benchmark); needs Docker for the Postgres
+ * container. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.thechain.service.RegistrationClaimBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class RegistrationClaimBenchmark {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+
+    private AuthService authService;
+    private TicketService ticketService;
+    private PositionAllocator positionAllocator;
+    private UserRepository userRepository;
+    private TicketRepository ticketRepository;
+    private InvitationRepository invitationRepository;
+    private ChainEventJournal chainEventJournal;
+    private PasswordEncoder passwordEncoder;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void start() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(ChainApplication.class, TestRedisConfig.class)
+            .profiles("test")
+            .properties(
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.cache.type=none",
+                "spring.data.redis.repositories.enabled=false",
+                "chain.index.enabled=false",
+                "logging.level.com.thechain=WARN",
+                "logging.level.org.springframework.security=WARN")
+            .run();
+
+        authService = context.getBean(AuthService.class);
+        ticketService = context.getBean(TicketService.class);
+        positionAllocator = context.getBean(PositionAllocator.class);
+        userRepository = context.getBean(UserRepository.class);
+        ticketRepository = context.getBean(TicketRepository.class);
+        invitationRepository = context.getBean(InvitationRepository.class);
+        chainEventJournal = context.getBean(ChainEventJournal.class);
+        passwordEncoder = context.getBean(PasswordEncoder.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+        postgres.stop();
+    }
+
+    /**
+     * A fresh parent with an active ticket per invocation (not measured)
+     */
+    @State(Scope.Thread)
+    public static class Claim {
+
+        RegisterRequest request;
+
+        @Setup(Level.Invocation)
+        public void issueTicket(RegistrationClaimBenchmark benchmark) {
+            String username = "b" + SEQUENCE.incrementAndGet();
+            Ticket ticket = benchmark.transactionTemplate.execute(status -> {
+                User parent = benchmark.userRepository.save(User.builder()
+                    .position(benchmark.positionAllocator.reserve())
+                    .displayName(username)
+                    .username(username)
+                    .passwordHash("$2a$10$hashedPassword")
+                    .status("active")
+                    .build());
+                return benchmark.ticketService.createTicketForUser(parent.getId());
+            });
+            request = RegisterRequest.builder()
+                .ticketId(ticket.getId())
+                .ticketSignature(ticket.getSignature())
+                .username("c" + username)
+                .password("password123")
+                .build();
+        }
+    }
+
+    @Benchmark
+    public Object registerPipeline(Claim claim) {
+        return authService.register(claim.request);
+    }
+
+    @Benchmark
+    public Object registerHashInsideClaim(Claim claim) {
+        RegisterRequest request = claim.request;
+        return transactionTemplate.execute(status -> {
+            Ticket ticket = ticketRepository.findByIdForUpdate(request.getTicketId()).orElseThrow();
+            if (!ticketService.verifyTicketSignature(ticket, request.getTicketSignature())
+                    || userRepository.existsByUsername(request.getUsername())) {
+                throw new IllegalStateException("Benchmark ticket rejected");
+            }
+            User parent = userRepository.findById(ticket.getOwnerId()).orElseThrow();
+            int position = positionAllocator.reserve();
+            String hashedPassword = passwordEncoder.encode(request.getPassword());
+
+            User child = userRepository.save(User.builder()
+                .displayName(request.getUsername())
+                .position(position)
+                .parentId(parent.getId())
+                .username(request.getUsername())
+                .passwordHash(hashedPassword)
+                .build());
+            parent.setActiveChildId(child.getId());
+            userRepository.save(parent);
+
+            Instant now = Instant.now();
+            ticket.setStatus(Ticket.TicketStatus.USED);
+            ticket.setUsedAt(now);
+            ticket.setClaimedBy(child.getId());
+            ticket.setClaimedAt(now);
+            ticketRepository.save(ticket);
+
+            invitationRepository.save(Invitation.builder()
+                .parentId(parent.getId())
+                .childId(child.getId())
+                .ticketId(ticket.getId())
+                .status(Invitation.InvitationStatus.ACTIVE)
+                .acceptedAt(now)
+                .build());
+            chainEventJournal.joined(child, parent.getId(), ticket.getId());
+            ticketService.createTicketForUser(child.getId());
+            return child;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RegistrationClaimBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.thechain.service;
+
+import com.thechain.entity.Ticket;
+import com.thechain.entity.User;
+import com.thechain.repository.TicketRepository;
+import com.thechain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketExpiryNotifierTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private TicketExpiryNotifier notifier;
+
+    private User owner;
+    private Ticket first;
+    private Ticket second;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder()
+                .id(UUID.randomUUID())
+                .username("owner")
+                .email("owner@example.com")
+                .build();
+        first = ticket(owner.getId());
+        second = ticket(owner.getId());
+    }
+
+    @Test
+    void sendWarnings_TwelveHours_LoadsOnceAndSendsEach() throws Exception {
+        // Given
+        List<UUID> ids = List.of(first.getId(), second.getId());
+        when(ticketRepository.findAllById(ids)).thenReturn(List.of(first, second));
+        when(userRepository.findAllById(List.of(owner.getId()))).thenReturn(List.of(owner));
+
+        // When
+        int sent = notifier.sendWarnings(TicketExpiryNotifier.Warning.TWELVE_HOURS, ids).get();
+
+        // Then
+        assertThat(sent).isEqualTo(2);
+        verify(emailService).sendTicketExpiring12Hours(owner, first);
+        verify(emailService).sendTicketExpiring12Hours(owner, second);
+        verify(emailService, never()).sendTicketExpiring1Hour(any(), any());
+        verify(ticketRepository, never()).release12HourWarning(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendWarnings_DeliveryFails_WarningReleasedForRetry() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        List<UUID> ids = List.of(first.getId(), second.getId());
+        when(ticketRepository.findAllById(ids)).thenReturn(List.of(first, second));
+        when(userRepository.findAllById(List.of(owner.getId()))).thenReturn(List.of(owner));
+        doThrow(new RuntimeException("Failed to send email"))
+                .when(emailService).sendTicketExpiring1Hour(owner, first);
+
+        // When
+        int sent = notifier.sendWarnings(TicketExpiryNotifier.Warning.ONE_HOUR, ids).get();
+
+        // Then
+        assertThat(sent).isEqualTo(1);
+        verify(ticketRepository).release1HourWarning(first.getId());
+        verify(ticketRepository, never()).release1HourWarning(second.getId());
+        verify(emailService).sendTicketExpiring1Hour(owner, second);
+    }
+
+    private Ticket ticket(UUID ownerId) {
+        return Ticket.builder()
+                .id(UUID.randomUUID())
+                .ownerId(ownerId)
+                .expiresAt(Instant.now().plusSeconds(1800))
+                .status(Ticket.TicketStatus.ACTIVE)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.thechain.service;
+
+import com.thechain.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketRetentionServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private TicketRetentionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TicketRetentionService(ticketRepository, transactionTemplate,
+            new SimpleMeterRegistry(), 90, 2, 1.0, 60000);
+    }
+
+    @Test
+    void purge_WalksChunksUntilPartialChunk() {
+        // Given: a full chunk (one ticket still referenced), then a partial chunk
+        UUID lastOfFirst = UUID.randomUUID();
+        long lastMicros = Instant.parse("2025-01-01T00:00:00.123456Z").getEpochSecond() * 1_000_000L + 123_456L;
+        givenTransactions();
+        when(ticketRepository.deleteRetentionChunk(any(), eq(Instant.EPOCH), eq(new UUID(0L, 0L)), eq(2)))
+            .thenReturn(chunk(2, 1, lastMicros, lastOfFirst));
+        when(ticketRepository.deleteRetentionChunk(any(),
+                eq(Instant.parse("2025-01-01T00:00:00.123456Z")), eq(lastOfFirst), eq(2)))
+            .thenReturn(chunk(1, 1, lastMicros + 1, UUID.randomUUID()));
+
+        // When
+        long deleted = service.purge();
+
+        // Then: the cursor moves past the referenced ticket instead of rescanning it
+        assertThat(deleted).isEqualTo(2);
+        verify(ticketRepository, times(2)).deleteRetentionChunk(any(), any(), any(), eq(2));
+    }
+
+    @Test
+    void purge_NothingToDelete_SingleChunk() {
+        // Given
+        givenTransactions();
+        when(ticketRepository.deleteRetentionChunk(any(), any(), any(), eq(2)))
+            .thenReturn(chunk(0, 0, null, null));
+
+        // When
+        long deleted = service.purge();
+
+        // Then
+        assertThat(deleted).isZero();
+        verify(ticketRepository, times(1)).deleteRetentionChunk(any(), any(), any(), eq(2));
+    }
+
+    @Test
+    void purge_CutoffIsRetentionWindowAgo() {
+        // Given
+        givenTransactions();
+        Instant before = Instant.now().minusSeconds(90 * 24 * 3600L);
+        when(ticketRepository.deleteRetentionChunk(any(), any(), any(), eq(2)))
+            .thenReturn(chunk(0, 0, null, null));
+
+        // When
+        service.purge();
+
+        // Then
+        verify(ticketRepository).deleteRetentionChunk(
+            argThat(cutoff -> !cutoff.isBefore(before) && cutoff.isBefore(Instant.now().minusSeconds(89 * 24 * 3600L))),
+            any(), any(), eq(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static TicketRepository.RetentionChunkView chunk(long scanned, long deleted, Long lastMicros, UUID lastId) {
+        return new TicketRepository.RetentionChunkView() {
+            @Override
+            public Long getScanned() {
+                return scanned;
+            }
+
+            @Override
+            public Long getDeleted() {
+                return deleted;
+            }
+
+            @Override
+            public Long getLastExpiresAtMicros() {
+                return lastMicros;
+            }
+
+            @Override
+            public UUID getLastId() {
+                return lastId;
+            }
+        };
+    }
+}
@@ -4,7 +4,7 @@ import 'package:flutter/material.dart';
 class Ticket {
   final String ticketId;
   final String qrPayload;
-  final String? qrCodeUrl; // Base64 PNG data URL
+  final String? qrCodeUrl; // QR PNG path (relative to the API base)
   final String deepLink;
   final String signature;
   final DateTime issuedAt;
@@ -1,6 +1,7 @@
 import 'package:flutter/material.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter_riverpod/flutter_riverpod.dart';
+import 'package:thechain_shared/constants/api_constants.dart';
 import 'dart:typed_data';
 import 'dart:convert';
 import '../models/ticket_models.dart';
@@ -321,7 +322,15 @@ class _TicketViewScreenState extends ConsumerState<TicketViewScreen>
           fit: BoxFit.contain,
         );
       }
-      return _buildQRCodePlaceholder(AppTheme.darkMystique);
+      // Content-addressed image path relative to the API base; safe to cache
+      return Image.network(
+        qrCodeUrl.startsWith('/') ? '${ApiConstants.defaultBaseUrl}$qrCodeUrl' : qrCodeUrl,
+        width: 250,
+        height: 250,
+        fit: BoxFit.contain,
+        errorBuilder: (context, error, stack) =>
+            _buildQRCodePlaceholder(AppTheme.darkMystique),
+      );
     } catch (e) {
       return _buildQRCodePlaceholder(AppTheme.darkMystique);
     }
@@ -372,8 +372,8 @@ INSERT INTO users (
     0
 );
 
--- Create attachments (parent-child relationships)
--- We need to create dummy tickets first for the attachments
+-- Create parent-child relationships (invitations; attachments is a view over them)
+-- We need to create dummy tickets first for the invitations
 
 -- Create tickets for each invitation
 INSERT INTO tickets (id, owner_id, next_position, attempt_number, duration_hours, issued_at, expires_at, status, signature, payload)
@@ -391,18 +391,6 @@ SELECT
 FROM users
 WHERE position > 1 AND position <= 11;
 
--- Create attachments using the tickets
-INSERT INTO attachments (id, parent_id, child_id, ticket_id, attached_at)
-SELECT
-    gen_random_uuid(),
-    u.parent_id,
-    u.id,
-    t.id,
-    u.created_at
-FROM users u
-JOIN tickets t ON t.owner_id = u.parent_id AND t.next_position = u.position
-WHERE u.position > 1 AND u.position <= 11;
-
 -- Create invitations
 INSERT INTO invitations (id, parent_id, child_id, ticket_id, status, invited_at, accepted_at)
 SELECT